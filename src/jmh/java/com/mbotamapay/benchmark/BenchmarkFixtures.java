@@ -0,0 +1,86 @@
+package com.mbotamapay.benchmark;
+
+import com.mbotamapay.entity.GatewayRoute;
+import com.mbotamapay.entity.GatewayStock;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.repository.GatewayRouteRepository;
+import com.mbotamapay.repository.GatewayStockRepository;
+import com.mbotamapay.service.orchestration.GatewayHealthMonitor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Dépendances simulées partagées par les benchmarks
+ * Les mocks sont en stubOnly: pas d'enregistrement des invocations, qui fausserait
+ * les allocations mesurées.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static GatewayRoute route(Country source, Country dest, GatewayType gateway, String feePercent) {
+        return GatewayRoute.builder()
+                .sourceCountry(source)
+                .destCountry(dest)
+                .gateway(gateway)
+                .gatewayFeePercent(new BigDecimal(feePercent))
+                .build();
+    }
+
+    /**
+     * Dépôt de routes servi depuis une table en mémoire (liste vide si le segment n'existe pas)
+     */
+    static GatewayRouteRepository routeRepository(List<GatewayRoute> routes) {
+        Map<Country, Map<Country, List<GatewayRoute>>> table = new EnumMap<>(Country.class);
+        for (GatewayRoute route : routes) {
+            table.computeIfAbsent(route.getSourceCountry(), c -> new EnumMap<>(Country.class))
+                    .computeIfAbsent(route.getDestCountry(), c -> new ArrayList<>())
+                    .add(route);
+        }
+        GatewayRouteRepository repository = mock(GatewayRouteRepository.class, withSettings().stubOnly());
+        when(repository.findActiveRoutes(any(), any())).thenAnswer(invocation -> table
+                .getOrDefault(invocation.<Country>getArgument(0), Map.of())
+                .getOrDefault(invocation.<Country>getArgument(1), List.of()));
+        return repository;
+    }
+
+    /**
+     * Dépôt de stocks: même solde pour toutes les gateways et tous les pays
+     */
+    static GatewayStockRepository stockRepository(long balance) {
+        GatewayStockRepository repository = mock(GatewayStockRepository.class, withSettings().stubOnly());
+        when(repository.findByGatewayAndCountry(any(), any())).thenAnswer(invocation -> Optional.of(
+                GatewayStock.builder()
+                        .gateway(invocation.getArgument(0))
+                        .country(invocation.getArgument(1))
+                        .balance(balance)
+                        .build()));
+        return repository;
+    }
+
+    /**
+     * Moniteur réel, alimenté avec un historique de réponses pour chaque gateway
+     */
+    static GatewayHealthMonitor healthMonitor() {
+        GatewayHealthMonitor monitor = new GatewayHealthMonitor();
+        for (GatewayType gateway : GatewayType.values()) {
+            for (int i = 0; i < 50; i++) {
+                monitor.recordSuccess(gateway, 300 + i * 10L);
+            }
+            monitor.recordFailure(gateway, "timeout", 5_000);
+        }
+        return monitor;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mbotamapay.benchmark;
+
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.service.orchestration.BridgeRoutingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.mbotamapay.benchmark.BenchmarkFixtures.route;
+
+/**
+ * Recherche de pont sur une table de routes simulée
+ *
+ * DIRECT: route directe existante (sortie immédiate)
+ * ONE_HOP: GN -> CI -> CD
+ * TWO_HOP: GN -> CI -> CM -> CD (aucun pont à 1 saut, parcours complet des hubs)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BridgeRoutingBenchmark {
+
+    @Param({"DIRECT", "ONE_HOP", "TWO_HOP"})
+    private String scenario;
+
+    private BridgeRoutingService bridgeRoutingService;
+    private Country source;
+    private Country dest;
+
+    @Setup
+    public void setUp() {
+        source = Country.GUINEA;
+        dest = Country.DRC;
+        var routes = switch (scenario) {
+            case "DIRECT" -> List.of(
+                    route(Country.GUINEA, Country.DRC, GatewayType.CINETPAY, "3.00"));
+            case "ONE_HOP" -> List.of(
+                    route(Country.GUINEA, Country.COTE_DIVOIRE, GatewayType.CINETPAY, "2.50"),
+                    route(Country.COTE_DIVOIRE, Country.DRC, GatewayType.CINETPAY, "3.00"),
+                    route(Country.COTE_DIVOIRE, Country.DRC, GatewayType.FEEXPAY, "2.80"),
+                    route(Country.SENEGAL, Country.DRC, GatewayType.CINETPAY, "3.20"));
+            default -> List.of(
+                    route(Country.GUINEA, Country.COTE_DIVOIRE, GatewayType.CINETPAY, "2.50"),
+                    route(Country.COTE_DIVOIRE, Country.CAMEROON, GatewayType.CINETPAY, "2.70"),
+                    route(Country.COTE_DIVOIRE, Country.CAMEROON, GatewayType.FEEXPAY, "2.60"),
+                    route(Country.CAMEROON, Country.DRC, GatewayType.CINETPAY, "3.00"));
+        };
+        bridgeRoutingService = new BridgeRoutingService(
+                BenchmarkFixtures.routeRepository(routes),
+                BenchmarkFixtures.stockRepository(5_000_000L),
+                BenchmarkFixtures.healthMonitor());
+    }
+
+    @Benchmark
+    public Optional<BridgeRoutingService.BridgeRoute> findBridgeRoute() {
+        return bridgeRoutingService.findBridgeRoute(source, dest, 50_000L);
+    }
+}
@@ -0,0 +1,44 @@
+package com.mbotamapay.benchmark;
+
+import com.mbotamapay.dto.FeeBreakdown;
+import com.mbotamapay.service.FeeCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul des frais: cas courant et cas plafonné (7%)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeeCalculatorBenchmark {
+
+    @Param({"5000", "250000"})
+    private long amount;
+
+    @Param({"2.70", "5.50"})
+    private String gatewayFeePercent;
+
+    private FeeCalculator feeCalculator;
+    private BigDecimal gatewayFee;
+
+    @Setup
+    public void setUp() {
+        feeCalculator = new FeeCalculator();
+        ReflectionTestUtils.setField(feeCalculator, "appFeePercent", new BigDecimal("2.0"));
+        ReflectionTestUtils.setField(feeCalculator, "maxTotalPercent", new BigDecimal("7.0"));
+        ReflectionTestUtils.setField(feeCalculator, "minFeeAmount", 100L);
+        gatewayFee = new BigDecimal(gatewayFeePercent);
+    }
+
+    @Benchmark
+    public FeeBreakdown calculateFees() {
+        return feeCalculator.calculateFees(amount, gatewayFee);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mbotamapay.benchmark;
+
+import com.mbotamapay.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation d'un jeton d'accès (chemin de chaque requête authentifiée)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "TWJvdGFtYXBheVN1cGVyU2VjcmV0S2V5Rm9yUHJvZHVjdGlvbjI1Ng==";
+
+    private JwtService jwtService;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        user = User.withUsername("+221771234567").password("").authorities(List.of()).build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public String extractPhoneNumber() {
+        return jwtService.extractPhoneNumber(token);
+    }
+}
@@ -0,0 +1,40 @@
+package com.mbotamapay.benchmark;
+
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.MobileOperator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection pays / opérateur à partir du numéro, dans les formats rencontrés en entrée
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneParsingBenchmark {
+
+    @Param({"+221771234567", "00225 07 12 34 56 78", "229-97-12-34-56", "+243812345678"})
+    private String phoneNumber;
+
+    private Country country;
+
+    @Setup
+    public void setUp() {
+        country = Country.fromPhoneNumber(phoneNumber).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<Country> countryFromPhoneNumber() {
+        return Country.fromPhoneNumber(phoneNumber);
+    }
+
+    @Benchmark
+    public Optional<MobileOperator> operatorFromPhoneNumber() {
+        return MobileOperator.fromPhoneNumber(phoneNumber, country);
+    }
+}
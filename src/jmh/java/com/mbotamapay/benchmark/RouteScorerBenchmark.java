@@ -0,0 +1,42 @@
+package com.mbotamapay.benchmark;
+
+import com.mbotamapay.entity.GatewayRoute;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.entity.enums.MobileOperator;
+import com.mbotamapay.service.orchestration.RouteScorer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score d'une route (appelé pour chaque route candidate d'un transfert)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteScorerBenchmark {
+
+    private RouteScorer routeScorer;
+    private GatewayRoute route;
+
+    @Setup
+    public void setUp() {
+        routeScorer = new RouteScorer(BenchmarkFixtures.healthMonitor(), BenchmarkFixtures.stockRepository(500_000L));
+        ReflectionTestUtils.setField(routeScorer, "weightCost", 30);
+        ReflectionTestUtils.setField(routeScorer, "weightReliability", 30);
+        ReflectionTestUtils.setField(routeScorer, "weightSpeed", 15);
+        ReflectionTestUtils.setField(routeScorer, "weightStock", 15);
+        ReflectionTestUtils.setField(routeScorer, "weightOperator", 10);
+        route = BenchmarkFixtures.route(Country.SENEGAL, Country.BENIN, GatewayType.FEEXPAY, "2.70");
+    }
+
+    @Benchmark
+    public RouteScorer.RouteScore calculateScore() {
+        return routeScorer.calculateScore(route, 10_000L, Country.BENIN, MobileOperator.MTN_BJ);
+    }
+}
@@ -0,0 +1,57 @@
+package com.mbotamapay.benchmark;
+
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.service.orchestration.RoutingAnalytics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enregistrement des succès sous contention: une seule instance partagée par 8 threads,
+ * comme le bean singleton appelé par les workers de transferts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RoutingAnalyticsBenchmark {
+
+    private static final GatewayType[] GATEWAYS = GatewayType.values();
+    private static final Country[][] CORRIDORS = {
+            {Country.SENEGAL, Country.BENIN},
+            {Country.COTE_DIVOIRE, Country.SENEGAL},
+            {Country.BENIN, Country.TOGO},
+            {Country.CAMEROON, Country.COTE_DIVOIRE}
+    };
+
+    private RoutingAnalytics analytics;
+
+    @Setup
+    public void setUp() {
+        analytics = new RoutingAnalytics();
+    }
+
+    /**
+     * Même gateway et même couloir pour tous les threads: contention maximale
+     */
+    @Benchmark
+    public void recordSuccessHotCorridor() {
+        analytics.recordSuccess(GatewayType.FEEXPAY, Country.SENEGAL, Country.BENIN, 10_000L, 500L, 120);
+    }
+
+    /**
+     * Gateways et couloirs répartis
+     */
+    @Benchmark
+    public void recordSuccessSpread() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Country[] corridor = CORRIDORS[random.nextInt(CORRIDORS.length)];
+        analytics.recordSuccess(GATEWAYS[random.nextInt(GATEWAYS.length)], corridor[0], corridor[1],
+                10_000L, 500L, 120);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mbotamapay.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Client HTTP de l'API MbotamaPay pour le test de charge
+ * Chaque utilisateur synthétique a sa propre IP (X-Forwarded-For), comme des clients réels.
+ */
+final class ApiClient {
+
+    record Response(int status, JsonNode body) {
+
+        boolean ok() {
+            return status == 200 && body.path("success").asBoolean(false);
+        }
+
+        /**
+         * Classe d'erreur pour la répartition: statut HTTP ou message métier
+         */
+        String errorKey() {
+            if (status != 200) {
+                return "HTTP " + status;
+            }
+            String message = body.path("message").asText("");
+            return "REJECTED: " + (message.length() > 80 ? message.substring(0, 80) : message);
+        }
+    }
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    ApiClient(String baseUrl, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+    }
+
+    Response post(String path, Object body, String token, String clientIp) throws IOException, InterruptedException {
+        return send(path, objectMapper.writeValueAsBytes(body), "application/json", token, clientIp, Map.of());
+    }
+
+    Response postRaw(String path, byte[] body, String contentType, Map<String, String> headers)
+            throws IOException, InterruptedException {
+        return send(path, body, contentType, null, null, headers);
+    }
+
+    private Response send(String path, byte[] body, String contentType, String token, String clientIp,
+                          Map<String, String> headers) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (clientIp != null) {
+            request.header("X-Forwarded-For", clientIp);
+        }
+        headers.forEach(request::header);
+
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode json = response.body().length > 0 ? readJson(response.body()) : objectMapper.createObjectNode();
+        return new Response(response.statusCode(), json);
+    }
+
+    private JsonNode readJson(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return objectMapper.createObjectNode();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mbotamapay.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paramètres du test de charge, lus depuis les propriétés système (-Dloadtest.*)
+ *
+ * @param arrivalRate    requêtes par seconde (charge ouverte: indépendante des temps de réponse)
+ * @param corridors      couloirs de transfert, répartis entre les utilisateurs
+ */
+public record LoadTestConfig(
+        int appPort,
+        boolean embeddedMock,
+        int users,
+        double arrivalRate,
+        int warmupSeconds,
+        int durationSeconds,
+        int transferWeight,
+        int previewWeight,
+        int callbackWeight,
+        long minAmount,
+        long maxAmount,
+        List<Corridor> corridors,
+        String reportPath) {
+
+    /**
+     * Couloir de transfert
+     * Spécification: "ORANGE_SN:+221:77xxxxxxx>MTN_BJ:+229:97xxxxxx" (opérateur:indicatif:numéro local,
+     * chaque x remplacé par un chiffre)
+     */
+    public record Corridor(String sourceOperator, String senderCountryCode, String senderPattern,
+                           String destOperator, String recipientCountryCode, String recipientPattern) {
+
+        static Corridor parse(String spec) {
+            String[] sides = spec.trim().split(">");
+            String[] from = sides[0].trim().split(":");
+            String[] to = sides[1].trim().split(":");
+            return new Corridor(from[0], from[1], from[2], to[0], to[1], to[2]);
+        }
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        List<Corridor> corridors = new ArrayList<>();
+        for (String spec : property("corridors",
+                "ORANGE_SN:+221:77xxxxxxx>MTN_BJ:+229:97xxxxxx,ORANGE_CI:+225:07xxxxxxxx>ORANGE_SN:+221:77xxxxxxx")
+                .split(",")) {
+            corridors.add(Corridor.parse(spec));
+        }
+        return new LoadTestConfig(
+                Integer.parseInt(property("app-port", "18080")),
+                Boolean.parseBoolean(property("embedded-mock", "true")),
+                Integer.parseInt(property("users", "500")),
+                Double.parseDouble(property("rate", "50")),
+                Integer.parseInt(property("warmup-seconds", "15")),
+                Integer.parseInt(property("duration-seconds", "60")),
+                Integer.parseInt(property("mix.transfer", "60")),
+                Integer.parseInt(property("mix.preview", "30")),
+                Integer.parseInt(property("mix.callback", "10")),
+                Long.parseLong(property("min-amount", "1000")),
+                Long.parseLong(property("max-amount", "20000")),
+                corridors,
+                property("report", "build/loadtest/report.json"));
+    }
+
+    private static String property(String key, String defaultValue) {
+        return System.getProperty("loadtest." + key, defaultValue);
+    }
+}
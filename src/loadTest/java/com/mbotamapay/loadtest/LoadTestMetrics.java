@@ -0,0 +1,85 @@
+package com.mbotamapay.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures par opération: latences (µs) et répartition des erreurs
+ * Seules les requêtes émises après l'échauffement sont enregistrées.
+ */
+final class LoadTestMetrics {
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    void recordSuccess(String operation, long latencyMicros) {
+        operation(operation).record(latencyMicros, null);
+    }
+
+    void recordError(String operation, long latencyMicros, String error) {
+        operation(operation).record(latencyMicros, error);
+    }
+
+    Map<String, Object> summary(double measuredSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        operations.forEach((name, operation) -> summary.put(name, operation.summary(measuredSeconds)));
+        return summary;
+    }
+
+    private Operation operation(String name) {
+        return operations.computeIfAbsent(name, key -> new Operation());
+    }
+
+    private static final class Operation {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> errorBreakdown = new ConcurrentHashMap<>();
+
+        synchronized void record(long latencyMicros, String error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyMicros;
+            if (error != null) {
+                errors.increment();
+                errorBreakdown.computeIfAbsent(error, key -> new LongAdder()).increment();
+            }
+        }
+
+        synchronized Map<String, Object> summary(double measuredSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors.sum());
+            summary.put("throughputPerSecond", measuredSeconds > 0 ? round(count / measuredSeconds) : 0);
+            summary.put("latencyMs", Map.of(
+                    "p50", percentileMs(sorted, 0.50),
+                    "p90", percentileMs(sorted, 0.90),
+                    "p99", percentileMs(sorted, 0.99),
+                    "p999", percentileMs(sorted, 0.999),
+                    "max", sorted.length > 0 ? round(sorted[sorted.length - 1] / 1000.0) : 0));
+            Map<String, Long> breakdown = new LinkedHashMap<>();
+            errorBreakdown.forEach((error, total) -> breakdown.put(error, total.sum()));
+            summary.put("errorBreakdown", breakdown);
+            return summary;
+        }
+
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return round(sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.mbotamapay.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mbotamapay.MbotamapayApplication;
+import com.mbotamapay.mock.MockGatewayConfig;
+import com.mbotamapay.mock.MockGatewayServer;
+import com.mbotamapay.repository.OtpRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Test de charge de bout en bout
+ *
+ * 1. démarre le serveur de gateways simulé et l'application (profils loadtest + mock, H2 par défaut)
+ * 2. crée les utilisateurs synthétiques (inscription, OTP, KYC)
+ * 3. envoie transferts, previews et callbacks à un débit d'arrivée fixe (charge ouverte,
+ *    arrivées de Poisson): la latence est mesurée depuis l'instant d'arrivée prévu
+ * 4. écrit le rapport JSON (débit, percentiles, erreurs, pool DB, threads)
+ *
+ * Lancement: ./gradlew loadTest -Dloadtest.rate=100 -Dloadtest.duration-seconds=120
+ */
+public final class LoadTestRunner {
+
+    private static final int RECENT_REFERENCES = 1000;
+
+    private final LoadTestConfig config;
+    private final ApiClient api;
+    private final LoadTestMetrics metrics = new LoadTestMetrics();
+    private final ConcurrentLinkedDeque<String> recentReferences = new ConcurrentLinkedDeque<>();
+    private final Mac callbackMac;
+
+    private LoadTestRunner(LoadTestConfig config, ApiClient api, String callbackSecret) throws Exception {
+        this.config = config;
+        this.api = api;
+        this.callbackMac = Mac.getInstance("HmacSHA256");
+        this.callbackMac.init(new SecretKeySpec(callbackSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        MockGatewayConfig mockConfig = MockGatewayConfig.load();
+
+        MockGatewayServer mock = config.embeddedMock() ? MockGatewayServer.launch(mockConfig) : null;
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(MbotamapayApplication.class).run(
+                "--spring.profiles.active=loadtest,mock",
+                "--server.port=" + config.appPort(),
+                "--app.base-url=http://localhost:" + config.appPort());
+        int exitCode = 0;
+        try {
+            ApiClient api = new ApiClient("http://localhost:" + config.appPort() + "/api/v1", objectMapper);
+
+            System.out.printf("[loadtest] provisioning %d users...%n", config.users());
+            List<SyntheticUsers.User> users = SyntheticUsers.provision(config, api, app.getBean(OtpRepository.class));
+            if (users.isEmpty()) {
+                throw new IllegalStateException("No synthetic user could be provisioned");
+            }
+
+            ResourceSampler sampler = new ResourceSampler(app.getBean(DataSource.class));
+            LoadTestRunner runner = new LoadTestRunner(config, api, mockConfig.webhookSecret("feexpay"));
+            Map<String, Object> report = runner.run(users, sampler);
+
+            File file = new File(config.reportPath());
+            file.getAbsoluteFile().getParentFile().mkdirs();
+            objectMapper.writeValue(file, report);
+            System.out.println(objectMapper.writeValueAsString(report));
+            System.out.println("[loadtest] report written to " + file.getAbsolutePath());
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            app.close();
+            if (mock != null) {
+                mock.stop();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private Map<String, Object> run(List<SyntheticUsers.User> users, ResourceSampler sampler) throws InterruptedException {
+        System.out.printf("[loadtest] %d users, %.1f req/s, warmup %ds, measure %ds%n",
+                users.size(), config.arrivalRate(), config.warmupSeconds(), config.durationSeconds());
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        double meanGapNanos = 1_000_000_000.0 / config.arrivalRate();
+
+        sampler.start(250);
+        long sent = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long arrival = start;
+            while (true) {
+                // Arrivées de Poisson: écarts exponentiels
+                arrival += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+                if (arrival >= end) {
+                    break;
+                }
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long scheduledAt = arrival;
+                boolean measured = arrival >= measureFrom;
+                SyntheticUsers.User user = users.get((int) (sent++ % users.size()));
+                executor.submit(() -> fire(user, scheduledAt, measured));
+            }
+        }
+        sampler.stop();
+
+        double measuredSeconds = config.durationSeconds();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", config);
+        report.put("arrivals", sent);
+        report.put("measuredSeconds", measuredSeconds);
+        report.put("operations", metrics.summary(measuredSeconds));
+        report.put("resources", sampler.summary());
+        return report;
+    }
+
+    private void fire(SyntheticUsers.User user, long scheduledAt, boolean measured) {
+        String operation = pickOperation();
+        try {
+            ApiClient.Response response = switch (operation) {
+                case "transfer" -> transfer(user);
+                case "preview" -> preview(user);
+                default -> callback();
+            };
+            if (response == null) {
+                return;
+            }
+            long latencyMicros = (System.nanoTime() - scheduledAt) / 1000;
+            if (!measured) {
+                return;
+            }
+            if (isSuccess(operation, response)) {
+                metrics.recordSuccess(operation, latencyMicros);
+            } else {
+                metrics.recordError(operation, latencyMicros, response.errorKey());
+            }
+        } catch (Exception e) {
+            if (measured) {
+                metrics.recordError(operation, (System.nanoTime() - scheduledAt) / 1000, e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private String pickOperation() {
+        int total = config.transferWeight() + config.previewWeight() + config.callbackWeight();
+        int draw = ThreadLocalRandom.current().nextInt(total);
+        if (draw < config.transferWeight()) {
+            return "transfer";
+        }
+        if (draw < config.transferWeight() + config.previewWeight()) {
+            return "preview";
+        }
+        return recentReferences.isEmpty() ? "transfer" : "callback";
+    }
+
+    private static boolean isSuccess(String operation, ApiClient.Response response) {
+        // Le callback est acquitté par "OK" en texte brut
+        return "callback".equals(operation) ? response.status() == 200 : response.ok();
+    }
+
+    private ApiClient.Response transfer(SyntheticUsers.User user) throws Exception {
+        LoadTestConfig.Corridor corridor = user.corridor();
+        ApiClient.Response response = api.post("/transfers", Map.of(
+                "senderPhone", user.phone(),
+                "sourceOperator", corridor.sourceOperator(),
+                "recipientPhone", user.randomRecipient(),
+                "recipientName", "Destinataire Test",
+                "destOperator", corridor.destOperator(),
+                "amount", randomAmount(),
+                "description", "load test"), user.token(), user.clientIp());
+        String reference = response.body().path("data").path("reference").asText(null);
+        if (response.ok() && reference != null) {
+            recentReferences.addFirst(reference);
+            if (recentReferences.size() > RECENT_REFERENCES) {
+                recentReferences.pollLast();
+            }
+        }
+        return response;
+    }
+
+    private ApiClient.Response preview(SyntheticUsers.User user) throws Exception {
+        LoadTestConfig.Corridor corridor = user.corridor();
+        return api.post("/transfers/preview", Map.of(
+                "senderPhone", user.phone(),
+                "sourceOperator", corridor.sourceOperator(),
+                "recipientPhone", user.randomRecipient(),
+                "destOperator", corridor.destOperator(),
+                "amount", randomAmount()), user.token(), user.clientIp());
+    }
+
+    /**
+     * Webhook FeexPay signé pour une référence récente (renvois inclus: la déduplication est mesurée aussi)
+     */
+    private ApiClient.Response callback() throws Exception {
+        String reference = recentReferences.peekFirst();
+        if (reference == null) {
+            return null;
+        }
+        byte[] body = ("{\"custom_id\":\"" + reference + "\",\"status\":\"success\"}").getBytes(StandardCharsets.UTF_8);
+        return api.postRaw("/payments/callback/feexpay", body, "application/json",
+                Map.of("X-Signature", sign(body), "X-Forwarded-For", "172.16.0." + ThreadLocalRandom.current().nextInt(1, 255)));
+    }
+
+    private String sign(byte[] body) throws CloneNotSupportedException {
+        Mac mac = (Mac) callbackMac.clone();
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    private long randomAmount() {
+        return ThreadLocalRandom.current().nextLong(config.minAmount(), config.maxAmount() + 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mbotamapay.loadtest;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Échantillonnage périodique du pool de connexions (Hikari) et des threads de la JVM
+ */
+final class ResourceSampler {
+
+    private final HikariPoolMXBean pool;
+    private final int maxPoolSize;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private long samples;
+    private long activeSum;
+    private int activeMax;
+    private long pendingSum;
+    private int pendingMax;
+    private int threadMax;
+
+    ResourceSampler(DataSource dataSource) {
+        HikariDataSource hikari = dataSource instanceof HikariDataSource h ? h : null;
+        this.pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        this.maxPoolSize = hikari != null ? hikari.getMaximumPoolSize() : 0;
+    }
+
+    void start(long periodMs) {
+        threads.resetPeakThreadCount();
+        scheduler.scheduleAtFixedRate(this::sample, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized void sample() {
+        samples++;
+        threadMax = Math.max(threadMax, threads.getThreadCount());
+        if (pool != null) {
+            int active = pool.getActiveConnections();
+            int pending = pool.getThreadsAwaitingConnection();
+            activeSum += active;
+            activeMax = Math.max(activeMax, active);
+            pendingSum += pending;
+            pendingMax = Math.max(pendingMax, pending);
+        }
+    }
+
+    synchronized Map<String, Object> summary() {
+        Map<String, Object> dbPool = new LinkedHashMap<>();
+        dbPool.put("maxPoolSize", maxPoolSize);
+        dbPool.put("activeAvg", samples > 0 ? (double) activeSum / samples : 0);
+        dbPool.put("activeMax", activeMax);
+        dbPool.put("awaitingConnectionAvg", samples > 0 ? (double) pendingSum / samples : 0);
+        dbPool.put("awaitingConnectionMax", pendingMax);
+
+        Map<String, Object> jvmThreads = new LinkedHashMap<>();
+        jvmThreads.put("platformThreadsMax", threadMax);
+        jvmThreads.put("platformThreadsPeak", threads.getPeakThreadCount());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("dbPool", dbPool);
+        summary.put("threads", jvmThreads);
+        return summary;
+    }
+}
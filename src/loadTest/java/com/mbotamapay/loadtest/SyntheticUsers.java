@@ -0,0 +1,116 @@
+package com.mbotamapay.loadtest;
+
+import com.mbotamapay.entity.OtpCode;
+import com.mbotamapay.repository.OtpRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Création des utilisateurs synthétiques par l'API: inscription, OTP, KYC niveau 1
+ * Le code OTP est relu en base (l'application tourne dans la même JVM).
+ */
+final class SyntheticUsers {
+
+    record User(String phone, String token, String clientIp, LoadTestConfig.Corridor corridor) {
+
+        String randomRecipient() {
+            return corridor.recipientCountryCode() + fill(corridor.recipientPattern(),
+                    ThreadLocalRandom.current().nextLong(1_000_000_000L));
+        }
+    }
+
+    private static final int MAX_CONCURRENT_SIGNUPS = 16;
+
+    private SyntheticUsers() {
+    }
+
+    static List<User> provision(LoadTestConfig config, ApiClient api, OtpRepository otpRepository)
+            throws InterruptedException {
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_SIGNUPS);
+        List<Future<User>> signups = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users(); i++) {
+                int index = i;
+                signups.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return signUp(index, config, api, otpRepository);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<User> users = new ArrayList<>();
+        for (Future<User> signup : signups) {
+            try {
+                users.add(signup.get());
+            } catch (Exception e) {
+                System.err.println("[loadtest] user provisioning failed: " + e.getMessage());
+            }
+        }
+        Collections.shuffle(users);
+        return users;
+    }
+
+    private static User signUp(int index, LoadTestConfig config, ApiClient api, OtpRepository otpRepository)
+            throws Exception {
+        LoadTestConfig.Corridor corridor = config.corridors().get(index % config.corridors().size());
+        String localNumber = fill(corridor.senderPattern(), index);
+        String phone = corridor.senderCountryCode() + localNumber;
+        String clientIp = "10." + ((index >> 16) & 0xff) + "." + ((index >> 8) & 0xff) + "." + (index & 0xff);
+
+        expectOk(api.post("/auth/register", Map.of(
+                "phoneNumber", localNumber,
+                "countryCode", corridor.senderCountryCode(),
+                "firstName", "Load",
+                "lastName", "User" + index), null, clientIp), "register");
+
+        String code = otpRepository.findFirstByPhoneNumberAndVerifiedFalseOrderByCreatedAtDesc(phone)
+                .map(OtpCode::getCode)
+                .orElseThrow(() -> new IllegalStateException("OTP not found for " + phone));
+        ApiClient.Response auth = expectOk(api.post("/auth/verify-otp",
+                Map.of("phoneNumber", phone, "code", code), null, clientIp), "verify-otp");
+        String token = auth.body().path("data").path("accessToken").asText();
+
+        // Auto-approbation (kyc.auto-approve): niveau 1 dès les deux documents soumis
+        for (String documentType : List.of("SELFIE", "NATIONAL_ID")) {
+            expectOk(api.post("/kyc/documents", Map.of(
+                    "documentType", documentType,
+                    "documentUrl", "https://example.invalid/kyc/" + index + "/" + documentType), token, clientIp),
+                    "kyc " + documentType);
+        }
+        return new User(phone, token, clientIp, corridor);
+    }
+
+    private static ApiClient.Response expectOk(ApiClient.Response response, String step) {
+        if (!response.ok()) {
+            throw new IllegalStateException(step + ": " + response.errorKey());
+        }
+        return response;
+    }
+
+    /**
+     * Remplace les x du modèle par les chiffres de value (complétés par des zéros)
+     */
+    static String fill(String pattern, long value) {
+        char[] digits = pattern.toCharArray();
+        long remaining = value;
+        for (int i = digits.length - 1; i >= 0; i--) {
+            if (digits[i] == 'x') {
+                digits[i] = (char) ('0' + remaining % 10);
+                remaining /= 10;
+            }
+        }
+        return new String(digits);
+    }
+}
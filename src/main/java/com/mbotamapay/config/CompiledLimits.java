@@ -0,0 +1,203 @@
+package com.mbotamapay.config;
+
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.KycLevel;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limites de transaction compilées (instantané immuable)
+ *
+ * Corridors dans un tableau pays x pays indexé par ordinal (corridors absents de la
+ * configuration: valeurs par défaut précalculées), plafonds quotidiens indexés par
+ * niveau KYC. Construit une fois par chargement, remplacé d'un bloc par {@link LimitsRegistry}.
+ */
+public final class CompiledLimits {
+
+    private static final Country[] COUNTRIES = Country.values();
+
+    /**
+     * Limites d'un corridor
+     *
+     * @param dailyLimit            volume journalier (null = pas de limite)
+     * @param maxTransactionsPerDay nombre de transferts par jour (null = pas de limite)
+     */
+    public record Corridor(String code, Long dailyLimit, long maxPerTransaction, Integer maxTransactionsPerDay,
+                           String preferredGateway, double gatewayReliability, boolean enabled) {
+    }
+
+    private final String source;
+    private final Instant compiledAt;
+    private final long minimum;
+    private final long maximumStandard;
+    private final long absoluteMaximum;
+    private final long[] dailyByKyc;
+    private final Corridor[] corridors;
+    private final List<Corridor> configuredCorridors;
+    private final TransactionLimitsConfig.DualGatewayConfig dualGateway;
+
+    private CompiledLimits(String source, long minimum, long maximumStandard, long absoluteMaximum,
+                           long[] dailyByKyc, Corridor[] corridors, List<Corridor> configuredCorridors,
+                           TransactionLimitsConfig.DualGatewayConfig dualGateway) {
+        this.source = source;
+        this.compiledAt = Instant.now();
+        this.minimum = minimum;
+        this.maximumStandard = maximumStandard;
+        this.absoluteMaximum = absoluteMaximum;
+        this.dailyByKyc = dailyByKyc;
+        this.corridors = corridors;
+        this.configuredCorridors = configuredCorridors;
+        this.dualGateway = dualGateway;
+    }
+
+    /**
+     * Compile et valide une configuration (clés de corridor en codes ISO: "SN-CI")
+     *
+     * @throws IllegalArgumentException si la configuration est incohérente
+     */
+    public static CompiledLimits compile(TransactionLimitsConfig config, String source) {
+        TransactionLimitsConfig.TransactionLimits tx = config.getTransaction();
+        long minimum = required(tx.getMinimum(), "transaction.minimum");
+        long maximumStandard = required(tx.getMaximumStandard(), "transaction.maximum-standard");
+        long absoluteMaximum = required(tx.getAbsoluteMaximum(), "transaction.absolute-maximum");
+        if (minimum <= 0 || minimum > absoluteMaximum || maximumStandard > absoluteMaximum) {
+            throw new IllegalArgumentException("Plafonds par transaction incohérents: minimum=" + minimum
+                    + ", maximum-standard=" + maximumStandard + ", absolute-maximum=" + absoluteMaximum);
+        }
+
+        TransactionLimitsConfig.DailyLimits daily = config.getDaily();
+        long[] dailyByKyc = new long[KycLevel.values().length];
+        dailyByKyc[KycLevel.NONE.ordinal()] = required(daily.getLevel0(), "daily.level0");
+        dailyByKyc[KycLevel.LEVEL_1.ordinal()] = required(daily.getLevel1(), "daily.level1");
+        dailyByKyc[KycLevel.LEVEL_2.ordinal()] = required(daily.getLevel2(), "daily.level2");
+
+        Corridor[] corridors = new Corridor[COUNTRIES.length * COUNTRIES.length];
+        List<Corridor> configured = new ArrayList<>();
+        for (Map.Entry<String, TransactionLimitsConfig.CorridorLimit> entry : config.getCorridors().entrySet()) {
+            String[] codes = entry.getKey().split("-");
+            if (codes.length != 2) {
+                throw new IllegalArgumentException("Code de corridor invalide: " + entry.getKey());
+            }
+            Country sourceCountry = country(codes[0], entry.getKey());
+            Country destCountry = country(codes[1], entry.getKey());
+            Corridor corridor = toCorridor(sourceCountry, destCountry, entry.getValue(), maximumStandard);
+            if (corridor.maxPerTransaction() > absoluteMaximum) {
+                throw new IllegalArgumentException("max-per-transaction au-delà du maximum absolu: " + entry.getKey());
+            }
+            corridors[index(sourceCountry, destCountry)] = corridor;
+            configured.add(corridor);
+        }
+        for (Country sourceCountry : COUNTRIES) {
+            for (Country destCountry : COUNTRIES) {
+                int index = index(sourceCountry, destCountry);
+                if (corridors[index] == null) {
+                    corridors[index] = defaultCorridor(code(sourceCountry, destCountry), maximumStandard);
+                }
+            }
+        }
+
+        return new CompiledLimits(source, minimum, maximumStandard, absoluteMaximum, dailyByKyc, corridors,
+                Collections.unmodifiableList(configured), copy(config.getDualGateway()));
+    }
+
+    public boolean isValidTransactionAmount(Long amount) {
+        return amount != null && amount >= minimum && amount <= absoluteMaximum;
+    }
+
+    public long getDailyLimit(KycLevel kycLevel) {
+        return kycLevel == null ? 0L : dailyByKyc[kycLevel.ordinal()];
+    }
+
+    public Corridor getCorridor(Country sourceCountry, Country destCountry) {
+        return corridors[index(sourceCountry, destCountry)];
+    }
+
+    /**
+     * Corridors explicitement configurés (affichage)
+     */
+    public List<Corridor> getConfiguredCorridors() {
+        return configuredCorridors;
+    }
+
+    public boolean canUseDualGateway(Long amount, Long technicalBalance, Long latencyMs, Integer recentErrors) {
+        return Boolean.TRUE.equals(dualGateway.getEnabled())
+                && amount <= dualGateway.getMaxAmount()
+                && technicalBalance >= dualGateway.getMinTechnicalBalance()
+                && latencyMs <= dualGateway.getMaxLatencyMs()
+                && recentErrors <= dualGateway.getMaxApiErrors();
+    }
+
+    public long getMinimum() {
+        return minimum;
+    }
+
+    public long getMaximumStandard() {
+        return maximumStandard;
+    }
+
+    public long getAbsoluteMaximum() {
+        return absoluteMaximum;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getCompiledAt() {
+        return compiledAt;
+    }
+
+    private static int index(Country sourceCountry, Country destCountry) {
+        return sourceCountry.ordinal() * COUNTRIES.length + destCountry.ordinal();
+    }
+
+    private static String code(Country sourceCountry, Country destCountry) {
+        return sourceCountry.getIsoCode() + "-" + destCountry.getIsoCode();
+    }
+
+    private static Country country(String isoCode, String corridorCode) {
+        return Country.fromIsoCode(isoCode)
+                .orElseThrow(() -> new IllegalArgumentException("Pays inconnu dans le corridor " + corridorCode));
+    }
+
+    private static Corridor toCorridor(Country sourceCountry, Country destCountry,
+                                       TransactionLimitsConfig.CorridorLimit limit, long maximumStandard) {
+        return new Corridor(
+                code(sourceCountry, destCountry),
+                limit.getDailyLimit(),
+                limit.getMaxPerTransaction() != null ? limit.getMaxPerTransaction() : maximumStandard,
+                limit.getMaxTransactionsPerDay(),
+                limit.getPreferredGateway(),
+                limit.getGatewayReliability() != null ? limit.getGatewayReliability() : 1.0,
+                !Boolean.FALSE.equals(limit.getEnabled()));
+    }
+
+    /**
+     * Corridor non configuré (mêmes valeurs que TransactionLimitsConfig.getCorridorLimit)
+     */
+    private static Corridor defaultCorridor(String code, long maximumStandard) {
+        return new Corridor(code, 1_000_000L, maximumStandard, 50, null, 0.95, true);
+    }
+
+    private static TransactionLimitsConfig.DualGatewayConfig copy(TransactionLimitsConfig.DualGatewayConfig source) {
+        TransactionLimitsConfig.DualGatewayConfig copy = new TransactionLimitsConfig.DualGatewayConfig();
+        copy.setEnabled(source.getEnabled());
+        copy.setMaxAmount(source.getMaxAmount());
+        copy.setMinTechnicalBalance(source.getMinTechnicalBalance());
+        copy.setMaxLatencyMs(source.getMaxLatencyMs());
+        copy.setMaxApiErrors(source.getMaxApiErrors());
+        copy.setRequireFullLogs(source.getRequireFullLogs());
+        return copy;
+    }
+
+    private static long required(Long value, String key) {
+        if (value == null || value < 0) {
+            throw new IllegalArgumentException("Valeur manquante ou négative: limits." + key);
+        }
+        return value;
+    }
+}
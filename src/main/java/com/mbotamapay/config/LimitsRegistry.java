@@ -0,0 +1,90 @@
+package com.mbotamapay.config;
+
+import com.mbotamapay.exception.BadRequestException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Limites de transaction en vigueur
+ *
+ * Compilées au démarrage depuis la configuration (préfixe "limits"), rechargeables à chaud
+ * depuis un fichier YAML externe ou un document envoyé par l'API d'administration.
+ * Le nouvel instantané n'est publié qu'une fois compilé et validé (remplacement atomique):
+ * une validation en cours garde l'instantané lu au départ.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LimitsRegistry {
+
+    private final TransactionLimitsConfig limitsConfig;
+    private final ResourceLoader resourceLoader;
+
+    @Value("${limits.reload-location:}")
+    private String reloadLocation;
+
+    private volatile CompiledLimits current;
+
+    @PostConstruct
+    void init() {
+        current = CompiledLimits.compile(limitsConfig, "application");
+        log.info("Transaction limits compiled: {} configured corridors", current.getConfiguredCorridors().size());
+    }
+
+    public CompiledLimits current() {
+        return current;
+    }
+
+    /**
+     * Recharge les limites depuis le fichier YAML externe (limits.reload-location)
+     */
+    public CompiledLimits reloadFromYaml() {
+        if (reloadLocation == null || reloadLocation.isBlank()) {
+            throw new BadRequestException("Aucun fichier de limites configuré (limits.reload-location)");
+        }
+        Resource resource = resourceLoader.getResource(reloadLocation);
+        if (!resource.exists()) {
+            throw new BadRequestException("Fichier de limites introuvable: " + reloadLocation);
+        }
+
+        List<PropertySource<?>> sources;
+        try {
+            sources = new YamlPropertySourceLoader().load("limits-reload", resource);
+        } catch (IOException | RuntimeException e) {
+            throw new BadRequestException("Fichier de limites illisible: " + e.getMessage());
+        }
+        TransactionLimitsConfig config = new Binder(ConfigurationPropertySources.from(sources))
+                .bind("limits", Bindable.ofInstance(new TransactionLimitsConfig()))
+                .orElseThrow(() -> new BadRequestException("Section \"limits\" absente de " + reloadLocation));
+        return apply(config, reloadLocation);
+    }
+
+    /**
+     * Remplace les limites par un document complet (même structure que la section "limits")
+     */
+    public CompiledLimits apply(TransactionLimitsConfig config, String source) {
+        CompiledLimits compiled;
+        try {
+            compiled = CompiledLimits.compile(config, source);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Limites refusées: " + e.getMessage());
+        }
+        current = compiled;
+        log.warn("Transaction limits reloaded from {}: {} configured corridors",
+                source, compiled.getConfiguredCorridors().size());
+        return compiled;
+    }
+}
@@ -66,6 +66,7 @@ public class SecurityConfig {
                         .requestMatchers(WHITE_LIST_URLS).permitAll()
                         .requestMatchers("/transfers/preview").permitAll()
                         .requestMatchers("/users/me/**").authenticated()
+                        .requestMatchers("/payments/callback/**").permitAll() // Webhooks des gateways (signés)
                         .requestMatchers("/payments/**").hasAnyRole("KYC_LEVEL_1", "KYC_LEVEL_2", "ADMIN")
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
@@ -0,0 +1,79 @@
+package com.mbotamapay.controller;
+
+import com.mbotamapay.config.CompiledLimits;
+import com.mbotamapay.config.LimitsRegistry;
+import com.mbotamapay.config.TransactionLimitsConfig;
+import com.mbotamapay.entity.enums.KycLevel;
+import com.mbotamapay.service.velocity.VelocityScreening;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API d'administration des limites de transaction
+ * Rechargement à chaud (incident, décision réglementaire) sans redéploiement
+ */
+@RestController
+@RequestMapping("/api/admin/limits")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminLimitsController {
+
+    private final LimitsRegistry limitsRegistry;
+    private final VelocityScreening velocityScreening;
+
+    /**
+     * Limites en vigueur
+     */
+    @GetMapping
+    public ResponseEntity<LimitsSummary> getLimits() {
+        return ResponseEntity.ok(LimitsSummary.of(limitsRegistry.current()));
+    }
+
+    /**
+     * Recharge depuis le fichier YAML externe (limits.reload-location)
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<LimitsSummary> reloadFromYaml() {
+        return ResponseEntity.ok(LimitsSummary.of(limitsRegistry.reloadFromYaml()));
+    }
+
+    /**
+     * Remplace les limites par un document complet (structure de la section "limits")
+     */
+    @PutMapping
+    public ResponseEntity<LimitsSummary> replaceLimits(@RequestBody TransactionLimitsConfig limits) {
+        return ResponseEntity.ok(LimitsSummary.of(limitsRegistry.apply(limits, "admin-api")));
+    }
+
+    /**
+     * Expéditeurs et bénéficiaires les plus actifs de la fenêtre de vélocité courante
+     */
+    @GetMapping("/velocity")
+    public ResponseEntity<Map<VelocityScreening.Dimension, List<VelocityScreening.HeavyHitter>>> getVelocityHeavyHitters(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(velocityScreening.getHeavyHitters(limit));
+    }
+
+    public record LimitsSummary(String source, Instant compiledAt, long minimum, long maximumStandard,
+                                long absoluteMaximum, Map<KycLevel, Long> dailyLimits,
+                                List<CompiledLimits.Corridor> corridors) {
+
+        static LimitsSummary of(CompiledLimits limits) {
+            Map<KycLevel, Long> daily = new EnumMap<>(KycLevel.class);
+            for (KycLevel level : KycLevel.values()) {
+                daily.put(level, limits.getDailyLimit(level));
+            }
+            return new LimitsSummary(limits.getSource(), limits.getCompiledAt(), limits.getMinimum(),
+                    limits.getMaximumStandard(), limits.getAbsoluteMaximum(), daily, limits.getConfiguredCorridors());
+        }
+    }
+}
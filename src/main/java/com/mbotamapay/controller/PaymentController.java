@@ -8,7 +8,9 @@ import com.mbotamapay.gateway.PaymentGateway;
 import com.mbotamapay.gateway.dto.PaymentInitRequest;
 import com.mbotamapay.gateway.dto.PaymentInitResponse;
 import com.mbotamapay.gateway.dto.PaymentStatusResponse;
+import com.mbotamapay.gateway.dto.WebhookNotification;
 import com.mbotamapay.repository.TransactionRepository;
+import com.mbotamapay.service.WebhookIngestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -17,9 +19,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Payment Gateway Controller
@@ -34,6 +34,7 @@ public class PaymentController {
 
     private final GatewayService gatewayService;
     private final TransactionRepository transactionRepository;
+    private final WebhookIngestionService webhookIngestionService;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -92,43 +93,31 @@ public class PaymentController {
     @Operation(summary = "Payment callback", description = "Receives payment status from gateway")
     public ResponseEntity<String> handleCallback(
             @PathVariable String platform,
-            @RequestBody(required = false) Map<String, Object> payload,
+            @RequestBody(required = false) byte[] body,
             @RequestHeader(value = "X-Signature", required = false) String signature) {
 
-        log.info("Payment callback received from {}: {}", platform, payload);
+        log.info("Payment callback received from {}", platform);
 
+        if (!gatewayService.isPlatformSupported(platform) || body == null || body.length == 0) {
+            return ResponseEntity.badRequest().body("Invalid callback");
+        }
         PaymentGateway gateway = gatewayService.getGateway(platform);
 
-        // Verify webhook signature
-        if (!gateway.verifyWebhookSignature(payload.toString(), signature)) {
+        // Signature vérifiée sur les octets reçus, avant tout décodage
+        if (!gateway.verifyWebhookSignature(body, signature)) {
             log.warn("Invalid webhook signature from {}", platform);
             return ResponseEntity.badRequest().body("Invalid signature");
         }
 
-        // Extract reference from payload (platform-specific)
-        String reference = extractReference(platform, payload);
-        if (reference == null) {
+        WebhookNotification notification = gateway.parseWebhook(body);
+        if (notification == null || notification.getReference() == null) {
             log.warn("Could not extract reference from callback payload");
             return ResponseEntity.badRequest().body("Missing reference");
         }
 
-        // Check payment status
-        PaymentStatusResponse status = gateway.checkStatus(reference);
-
-        // Update transaction
-        transactionRepository.findByExternalReference(reference).ifPresent(transaction -> {
-            switch (status.getStatus()) {
-                case "COMPLETED" -> {
-                    transaction.setStatus(TransactionStatus.COMPLETED);
-                    transaction.setCompletedAt(LocalDateTime.now());
-                }
-                case "FAILED" -> transaction.setStatus(TransactionStatus.FAILED);
-                case "CANCELLED" -> transaction.setStatus(TransactionStatus.CANCELLED);
-                // PENDING - no change
-            }
-            transactionRepository.save(transaction);
-            log.info("Transaction {} updated to {}", reference, transaction.getStatus());
-        });
+        // Queue for asynchronous processing and acknowledge immediately
+        webhookIngestionService.enqueue(platform, notification.getReference(), notification.getStatus(),
+                gateway.signsWebhooks(), body);
 
         return ResponseEntity.ok("OK");
     }
@@ -146,13 +135,4 @@ public class PaymentController {
 
         return ResponseEntity.ok(ApiResponse.success(status));
     }
-
-    private String extractReference(String platform, Map<String, Object> payload) {
-        return switch (platform.toLowerCase()) {
-            case "feexpay" -> (String) payload.get("custom_id");
-            case "cinetpay" -> (String) payload.get("cpm_trans_id");
-            case "paytech" -> (String) payload.get("ref_command");
-            default -> (String) payload.get("reference");
-        };
-    }
 }
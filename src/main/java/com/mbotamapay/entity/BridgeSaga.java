@@ -0,0 +1,105 @@
+package com.mbotamapay.entity;
+
+import com.mbotamapay.entity.enums.BridgeSagaStatus;
+import com.mbotamapay.entity.enums.Country;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saga d'un paiement bridge (multi-legs)
+ * Journalise l'état de chaque leg pour permettre compensation et reprise après crash
+ */
+@Entity
+@Table(name = "bridge_sagas", indexes = {
+        @Index(name = "idx_bridge_sagas_status_lease", columnList = "status, lease_until")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BridgeSaga {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Référence de la transaction (base des références de chaque leg)
+     */
+    @Column(nullable = false, unique = true, length = 100)
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_country", nullable = false, length = 20)
+    private Country sourceCountry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dest_country", nullable = false, length = 20)
+    private Country destCountry;
+
+    @Column(nullable = false)
+    private Long amount;
+
+    @Column(name = "recipient_phone", nullable = false, length = 20)
+    private String recipientPhone;
+
+    @Column(name = "recipient_name", length = 200)
+    private String recipientName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private BridgeSagaStatus status = BridgeSagaStatus.STARTED;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "compensation_attempts", nullable = false)
+    @Builder.Default
+    private Integer compensationAttempts = 0;
+
+    /**
+     * Bail d'exécution: tant qu'il n'est pas expiré, l'instance propriétaire travaille sur la saga
+     */
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+
+    @OneToMany(mappedBy = "saga", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("legNumber ASC")
+    @Builder.Default
+    private List<BridgeSagaLeg> legs = new ArrayList<>();
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public void addLeg(BridgeSagaLeg leg) {
+        leg.setSaga(this);
+        legs.add(leg);
+    }
+
+    /**
+     * Référence envoyée à la gateway pour un leg: "{ref}-L{n}"
+     */
+    public String legReference(int legNumber) {
+        return reference + "-L" + legNumber;
+    }
+
+    public BridgeSagaLeg getLeg(int legNumber) {
+        return legs.stream()
+                .filter(leg -> leg.getLegNumber() == legNumber)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Leg " + legNumber + " introuvable pour la saga " + id));
+    }
+}
@@ -0,0 +1,74 @@
+package com.mbotamapay.entity;
+
+import com.mbotamapay.entity.enums.BridgeLegStatus;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leg journalisé d'une saga bridge
+ */
+@Entity
+@Table(name = "bridge_saga_legs", uniqueConstraints = @UniqueConstraint(columnNames = { "saga_id", "leg_number" }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BridgeSagaLeg {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "saga_id", nullable = false)
+    private BridgeSaga saga;
+
+    @Column(name = "leg_number", nullable = false)
+    private Integer legNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_country", nullable = false, length = 20)
+    private Country fromCountry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_country", nullable = false, length = 20)
+    private Country toCountry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private GatewayType gateway;
+
+    @Column(nullable = false)
+    private Long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private BridgeLegStatus status = BridgeLegStatus.PENDING;
+
+    /**
+     * True si le stock de la gateway a été débité pour ce leg (et pas encore recrédité)
+     */
+    @Column(name = "stock_reserved", nullable = false)
+    @Builder.Default
+    private Boolean stockReserved = false;
+
+    @Column(name = "external_reference", length = 100)
+    private String externalReference;
+
+    @Column(name = "compensation_reference", length = 100)
+    private String compensationReference;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
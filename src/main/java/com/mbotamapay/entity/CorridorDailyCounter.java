@@ -0,0 +1,56 @@
+package com.mbotamapay.entity;
+
+import com.mbotamapay.entity.enums.Country;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Instantané du volume et du nombre de transferts d'un corridor sur une journée
+ */
+@Entity
+@Table(name = "corridor_daily_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorridorDailyCounter {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long volume = 0L;
+
+    @Column(name = "tx_count", nullable = false)
+    @Builder.Default
+    private Integer txCount = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "source_country", nullable = false, length = 30)
+        private Country sourceCountry;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "dest_country", nullable = false, length = 30)
+        private Country destCountry;
+
+        @Column(name = "bucket_date", nullable = false)
+        private LocalDate bucketDate;
+    }
+}
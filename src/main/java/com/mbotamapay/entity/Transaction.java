@@ -104,6 +104,18 @@ public class Transaction {
     @Builder.Default
     private Long appFee = 0L;
 
+    // --- Status polling ---
+
+    /**
+     * Prochaine vérification de statut auprès de la gateway (null = dès que possible)
+     */
+    @Column(name = "next_check_at")
+    private LocalDateTime nextCheckAt;
+
+    @Column(name = "check_attempts", nullable = false)
+    @Builder.Default
+    private Integer checkAttempts = 0;
+
     // --- Methods ---
 
     public Long getTotalAmount() {
@@ -0,0 +1,78 @@
+package com.mbotamapay.entity;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Part de payout d'un transfert SPLIT
+ *
+ * Statut: PENDING (payout accepté), PROCESSING (issue incertaine), COMPLETED ou FAILED
+ */
+@Entity
+@Table(name = "transaction_payout_parts",
+        uniqueConstraints = @UniqueConstraint(columnNames = { "transaction_id", "part_number" }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionPayoutPart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", nullable = false)
+    private Transaction transaction;
+
+    @Column(name = "part_number", nullable = false)
+    private Integer partNumber;
+
+    /**
+     * Référence envoyée à la gateway: {ref}-P{n}, suffixée R{k} après réallocation
+     */
+    @Column(nullable = false, length = 100)
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private GatewayType gateway;
+
+    @Column(nullable = false)
+    private Long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransactionStatus status;
+
+    @Column(name = "external_reference", length = 100)
+    private String externalReference;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Part dont l'issue reste à confirmer auprès de la gateway
+     */
+    public boolean isUnsettled() {
+        return gateway != null
+                && (status == TransactionStatus.PENDING || status == TransactionStatus.PROCESSING);
+    }
+
+    /**
+     * Référence de vérification: celle de la gateway si connue, sinon la nôtre
+     */
+    public String getCheckReference() {
+        return externalReference != null ? externalReference : reference;
+    }
+}
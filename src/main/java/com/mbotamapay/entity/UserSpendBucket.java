@@ -0,0 +1,43 @@
+package com.mbotamapay.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Montant engagé par un utilisateur sur une journée
+ * (transferts réservés, en cours ou terminés; décrémenté quand un transfert échoue)
+ */
+@Entity
+@Table(name = "user_spend_buckets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSpendBucket {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long amount = 0L;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "bucket_date", nullable = false)
+        private LocalDate bucketDate;
+    }
+}
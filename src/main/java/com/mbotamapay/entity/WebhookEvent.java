@@ -0,0 +1,89 @@
+package com.mbotamapay.entity;
+
+import com.mbotamapay.entity.enums.WebhookEventState;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Webhook de gateway reçu, en file d'attente durable
+ * Dédupliqué par (platform, reference, status): les renvois d'un fournisseur ne créent pas de doublon.
+ * Un renvoi d'un événement en échec ou en attente de nouvelle tentative le remet en file.
+ */
+@Entity
+@Table(name = "webhook_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_webhook_events_platform_ref_status",
+                columnNames = {"platform", "reference", "status"}),
+        indexes = @Index(name = "idx_webhook_events_state", columnList = "state, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String platform;
+
+    /**
+     * Référence de la transaction (externalReference)
+     */
+    @Column(nullable = false, length = 100)
+    private String reference;
+
+    /**
+     * Statut annoncé par le webhook (COMPLETED, FAILED, CANCELLED, PENDING, UNKNOWN)
+     */
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    /**
+     * True si la signature du webhook a été vérifiée cryptographiquement
+     * (sinon le statut annoncé est confirmé auprès du fournisseur)
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean verified = false;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private WebhookEventState state = WebhookEventState.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /**
+     * Prochaine tentative de confirmation (null = dès que possible)
+     */
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    /**
+     * True si un renvoi identique peut être ignoré (traité, ou en file sans échec de confirmation)
+     */
+    public boolean isDeduplicating() {
+        return state == WebhookEventState.PROCESSED
+                || (state == WebhookEventState.PENDING && attempts == 0);
+    }
+}
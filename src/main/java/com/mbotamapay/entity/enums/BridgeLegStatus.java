@@ -0,0 +1,15 @@
+package com.mbotamapay.entity.enums;
+
+/**
+ * Statut d'un leg de saga bridge
+ */
+public enum BridgeLegStatus {
+    PENDING, // Leg créé, stock non réservé
+    RESERVED, // Stock réservé
+    EXECUTING, // Payout envoyé, résultat non encore journalisé
+    SUCCEEDED, // Payout accepté par la gateway
+    FAILED, // Payout refusé, stock libéré
+    COMPENSATING, // Payout inverse envoyé
+    COMPENSATED, // Payout inverse accepté
+    RELEASED // Leg jamais exécuté, stock libéré
+}
@@ -0,0 +1,18 @@
+package com.mbotamapay.entity.enums;
+
+/**
+ * Statut d'une saga de paiement bridge
+ */
+public enum BridgeSagaStatus {
+    STARTED, // Saga créée, stock en cours de réservation
+    EXECUTING, // Legs en cours d'exécution
+    COMPLETED, // Tous les legs exécutés
+    COMPENSATING, // Annulation des legs déjà exécutés en cours
+    COMPENSATED, // Legs annulés, fonds revenus au pays d'origine
+    ABORTED, // Aucun leg exécuté (stock insuffisant, etc.)
+    MANUAL_REVIEW; // Compensation impossible, intervention requise
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == COMPENSATED || this == ABORTED || this == MANUAL_REVIEW;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mbotamapay.entity.enums;
+
+/**
+ * État de traitement d'un webhook reçu
+ */
+public enum WebhookEventState {
+    PENDING,   // Reçu, en attente du worker
+    PROCESSED, // Appliqué (ou sans effet)
+    FAILED     // Abandonné après trop de tentatives de confirmation
+}
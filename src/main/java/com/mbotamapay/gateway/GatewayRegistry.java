@@ -0,0 +1,95 @@
+package com.mbotamapay.gateway;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.entity.enums.MobileOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registre des gateways, construit une fois au démarrage
+ *
+ * Index par type (payout), par nom de plateforme (paiement) et par opérateur
+ * (gateways enregistrées qui le supportent): recherches en temps constant,
+ * sans parcours des listes injectées ni allocation.
+ */
+@Component
+@Slf4j
+public class GatewayRegistry {
+
+    private final List<PayoutGateway> payoutGateways;
+    private final Map<GatewayType, PayoutGateway> payoutByType = new EnumMap<>(GatewayType.class);
+    private final Map<String, PaymentGateway> paymentByPlatform = new HashMap<>();
+    private final List<String> platformNames;
+
+    // Par opérateur (ordinal): gateways enregistrées et supportées
+    private final List<List<PayoutGateway>> operatorPayoutGateways = new ArrayList<>();
+
+    public GatewayRegistry(List<PaymentGateway> paymentGateways, List<PayoutGateway> payoutGateways) {
+        this.payoutGateways = List.copyOf(payoutGateways);
+        for (PayoutGateway gateway : payoutGateways) {
+            payoutByType.putIfAbsent(gateway.getGatewayType(), gateway);
+        }
+
+        List<String> names = new ArrayList<>(paymentGateways.size());
+        for (PaymentGateway gateway : paymentGateways) {
+            String name = gateway.getPlatformName();
+            names.add(name);
+            paymentByPlatform.putIfAbsent(name, gateway);
+            paymentByPlatform.putIfAbsent(name.toLowerCase(Locale.ROOT), gateway);
+        }
+        this.platformNames = List.copyOf(names);
+
+        for (MobileOperator operator : MobileOperator.values()) {
+            List<PayoutGateway> supporting = new ArrayList<>();
+            for (GatewayType type : operator.getSupportedGateways()) {
+                PayoutGateway gateway = payoutByType.get(type);
+                if (gateway != null) {
+                    supporting.add(gateway);
+                }
+            }
+            operatorPayoutGateways.add(List.copyOf(supporting));
+        }
+
+        log.info("Gateway registry: payout={}, platforms={}", payoutByType.keySet(), platformNames);
+    }
+
+    /**
+     * Gateway de payout d'un type, null si non enregistrée
+     */
+    public PayoutGateway getPayoutGateway(GatewayType type) {
+        return type != null ? payoutByType.get(type) : null;
+    }
+
+    /**
+     * Gateway de paiement d'une plateforme (insensible à la casse), null si non supportée
+     */
+    public PaymentGateway getPaymentGateway(String platform) {
+        if (platform == null) {
+            return null;
+        }
+        PaymentGateway gateway = paymentByPlatform.get(platform);
+        return gateway != null ? gateway : paymentByPlatform.get(platform.toLowerCase(Locale.ROOT));
+    }
+
+    public List<PayoutGateway> getPayoutGateways() {
+        return payoutGateways;
+    }
+
+    public List<String> getPlatformNames() {
+        return platformNames;
+    }
+
+    /**
+     * Gateways enregistrées qui supportent l'opérateur, dans l'ordre de préférence de l'opérateur
+     */
+    public List<PayoutGateway> getPayoutGateways(MobileOperator operator) {
+        return operatorPayoutGateways.get(operator.ordinal());
+    }
+}
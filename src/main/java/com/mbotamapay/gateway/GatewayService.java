@@ -15,33 +15,30 @@ import java.util.List;
 @Slf4j
 public class GatewayService {
 
-    private final List<PaymentGateway> gateways;
+    private final GatewayRegistry registry;
 
     /**
      * Get gateway by platform name
      */
     public PaymentGateway getGateway(String platform) {
-        return gateways.stream()
-                .filter(gateway -> gateway.supports(platform))
-                .findFirst()
-                .orElseThrow(() -> new BadRequestException(
-                        "Plateforme de paiement non supportée: " + platform));
+        PaymentGateway gateway = registry.getPaymentGateway(platform);
+        if (gateway == null) {
+            throw new BadRequestException("Plateforme de paiement non supportée: " + platform);
+        }
+        return gateway;
     }
 
     /**
      * Get all available platforms
      */
     public List<String> getAvailablePlatforms() {
-        return gateways.stream()
-                .map(PaymentGateway::getPlatformName)
-                .toList();
+        return registry.getPlatformNames();
     }
 
     /**
      * Check if platform is supported
      */
     public boolean isPlatformSupported(String platform) {
-        return gateways.stream()
-                .anyMatch(gateway -> gateway.supports(platform));
+        return registry.getPaymentGateway(platform) != null;
     }
 }
@@ -3,6 +3,7 @@ package com.mbotamapay.gateway;
 import com.mbotamapay.gateway.dto.PaymentInitRequest;
 import com.mbotamapay.gateway.dto.PaymentInitResponse;
 import com.mbotamapay.gateway.dto.PaymentStatusResponse;
+import com.mbotamapay.gateway.dto.WebhookNotification;
 
 /**
  * Payment Gateway interface for all payment providers
@@ -30,7 +31,20 @@ public interface PaymentGateway {
     PaymentStatusResponse checkStatus(String transactionReference);
 
     /**
-     * Verify webhook signature
+     * Verify webhook signature over the raw request body
      */
-    boolean verifyWebhookSignature(String payload, String signature);
+    boolean verifyWebhookSignature(byte[] payload, String signature);
+
+    /**
+     * True if webhook signatures are cryptographically verified by this gateway.
+     * Otherwise the status announced by a webhook is always confirmed with checkStatus.
+     */
+    default boolean signsWebhooks() {
+        return false;
+    }
+
+    /**
+     * Decode a verified webhook body (null if it cannot be read)
+     */
+    WebhookNotification parseWebhook(byte[] payload);
 }
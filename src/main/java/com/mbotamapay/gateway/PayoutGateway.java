@@ -4,17 +4,30 @@ import com.mbotamapay.dto.verification.MobileMoneyVerificationResult;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.GatewayType;
 import com.mbotamapay.entity.enums.MobileOperator;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
 import com.mbotamapay.gateway.dto.PayoutRequest;
 import com.mbotamapay.gateway.dto.PayoutResponse;
 import com.mbotamapay.gateway.dto.PayoutStatusResponse;
+import com.mbotamapay.gateway.http.GatewayCallDeadline;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Interface pour les opérations de payout (envoi d'argent)
  */
 public interface PayoutGateway {
 
+    /**
+     * Référence utilisée par les sondes de santé (jamais attribuée à un transfert)
+     */
+    String PROBE_REFERENCE = "MBP-HEALTH-PROBE";
+
     /**
      * Retourne le type de passerelle
      */
@@ -35,11 +48,71 @@ public interface PayoutGateway {
      */
     PayoutResponse initiatePayout(PayoutRequest request);
 
+    /**
+     * Initie plusieurs payouts en un seul envoi
+     * Réponses dans l'ordre des requêtes. Implémentation par défaut: appels
+     * unitaires en parallèle; les gateways disposant d'une API de masse la surchargent.
+     */
+    default List<PayoutResponse> initiatePayouts(List<PayoutRequest> requests) {
+        if (requests.size() == 1) {
+            return List.of(initiatePayout(requests.get(0)));
+        }
+
+        long deadline = GatewayCallDeadline.deadlineEpochMs();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PayoutResponse>> futures = new ArrayList<>(requests.size());
+            for (PayoutRequest request : requests) {
+                futures.add(executor.submit(() -> deadline > 0
+                        ? GatewayCallDeadline.callBefore(deadline, () -> initiatePayout(request))
+                        : initiatePayout(request)));
+            }
+
+            List<PayoutResponse> responses = new ArrayList<>(requests.size());
+            for (int i = 0; i < futures.size(); i++) {
+                responses.add(awaitPayout(futures.get(i), requests.get(i)));
+            }
+            return responses;
+        }
+    }
+
     /**
      * Vérifie le statut d'un payout
      */
     PayoutStatusResponse checkPayoutStatus(String reference);
 
+    /**
+     * Vérifie le statut de plusieurs payouts
+     * Réponses dans l'ordre des références. Implémentation par défaut: appels
+     * unitaires en parallèle; les gateways disposant d'une API de statut groupée la surchargent.
+     */
+    default List<PayoutStatusResponse> checkPayoutStatuses(List<String> references) {
+        if (references.size() == 1) {
+            return List.of(checkPayoutStatus(references.get(0)));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PayoutStatusResponse>> futures = new ArrayList<>(references.size());
+            for (String reference : references) {
+                futures.add(executor.submit(() -> checkPayoutStatus(reference)));
+            }
+
+            List<PayoutStatusResponse> responses = new ArrayList<>(references.size());
+            for (Future<PayoutStatusResponse> future : futures) {
+                responses.add(awaitStatus(future));
+            }
+            return responses;
+        }
+    }
+
+    /**
+     * Sonde de santé sans effet de bord: statut d'une référence qui n'existe pas
+     * True seulement si la gateway répond explicitement "référence inconnue" (404 ou code dédié),
+     * false si injoignable, en erreur ou si la réponse est inattendue.
+     */
+    default boolean probe() {
+        return checkPayoutStatus(PROBE_REFERENCE).isNotFound();
+    }
+
     /**
      * Vérifie si un numéro a un compte Mobile Money actif
      * 
@@ -53,4 +126,39 @@ public interface PayoutGateway {
         // Implémentation par défaut: pas de vérification API disponible
         return null;
     }
+
+    private static PayoutResponse awaitPayout(Future<PayoutResponse> future, PayoutRequest request) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ambiguousPayout(request, "Interrompu");
+        } catch (ExecutionException e) {
+            return ambiguousPayout(request, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    private static PayoutStatusResponse awaitStatus(Future<PayoutStatusResponse> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return PayoutStatusResponse.builder().success(false).message("Interrompu").build();
+        } catch (ExecutionException e) {
+            return PayoutStatusResponse.builder()
+                    .success(false)
+                    .message(e.getCause() != null ? e.getCause().getMessage() : e.getMessage())
+                    .build();
+        }
+    }
+
+    private static PayoutResponse ambiguousPayout(PayoutRequest request, String message) {
+        return PayoutResponse.builder()
+                .success(false)
+                .message(message)
+                .transactionReference(request.getReference())
+                .status("UNKNOWN")
+                .errorType(PayoutErrorType.AMBIGUOUS)
+                .build();
+    }
 }
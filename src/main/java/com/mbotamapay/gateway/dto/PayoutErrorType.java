@@ -0,0 +1,28 @@
+package com.mbotamapay.gateway.dto;
+
+/**
+ * Nature d'un échec de payout
+ * Détermine si l'orchestrateur peut basculer sur une autre gateway et
+ * si l'échec doit compter contre la santé de la gateway.
+ */
+public enum PayoutErrorType {
+    TRANSIENT, // Incident côté gateway (5xx, connexion refusée): retentable ailleurs
+    RATE_LIMITED, // Quota de la gateway atteint: retentable ailleurs, gateway saine
+    TERMINAL_RECIPIENT, // Destinataire invalide/inactif: aucune gateway ne réussira
+    TERMINAL_REQUEST, // Requête invalide (montant, devise, paramètres): inutile de réessayer
+    AMBIGUOUS; // Requête peut-être exécutée (timeout de lecture, réponse illisible)
+
+    /**
+     * True si un fallback vers une autre gateway a une chance de réussir
+     */
+    public boolean isRetryable() {
+        return this == TRANSIENT || this == RATE_LIMITED;
+    }
+
+    /**
+     * True si l'échec révèle un problème de la gateway (compte pour le circuit breaker)
+     */
+    public boolean isGatewayFault() {
+        return this == TRANSIENT || this == AMBIGUOUS;
+    }
+}
@@ -38,4 +38,9 @@ public class PayoutResponse {
      * Statut initial du payout
      */
     private String status;
+
+    /**
+     * Nature de l'échec (null si succès)
+     */
+    private PayoutErrorType errorType;
 }
@@ -21,4 +21,9 @@ public class PayoutStatusResponse {
     private Long amount;
     private String currency;
     private String processedAt;
+
+    /**
+     * True si la gateway ne connaît pas la référence (payout jamais reçu)
+     */
+    private boolean notFound;
 }
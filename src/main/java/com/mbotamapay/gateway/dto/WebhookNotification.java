@@ -0,0 +1,26 @@
+package com.mbotamapay.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contenu utile d'un webhook de paiement, décodé depuis le corps vérifié
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookNotification {
+
+    /**
+     * Référence de la transaction (externalReference)
+     */
+    private String reference;
+
+    /**
+     * Statut annoncé: COMPLETED, FAILED, CANCELLED, PENDING ou UNKNOWN (non transmis)
+     */
+    private String status;
+}
@@ -0,0 +1,26 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+
+/**
+ * Fabrique de requêtes dont les timeouts suivent la latence observée de la gateway
+ */
+public class AdaptiveGatewayRequestFactory extends GatewayRequestFactory {
+
+    private final GatewayTimeoutPolicy timeoutPolicy;
+
+    public AdaptiveGatewayRequestFactory(GatewayType gateway, GatewayTimeoutPolicy timeoutPolicy) {
+        super(gateway, timeoutPolicy.connectTimeoutMs(gateway), timeoutPolicy.readTimeoutMs(gateway));
+        this.timeoutPolicy = timeoutPolicy;
+    }
+
+    @Override
+    protected int connectTimeoutMs() {
+        return timeoutPolicy.connectTimeoutMs(getGateway());
+    }
+
+    @Override
+    protected int readTimeoutMs() {
+        return timeoutPolicy.readTimeoutMs(getGateway());
+    }
+}
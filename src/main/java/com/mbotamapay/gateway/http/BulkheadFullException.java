@@ -0,0 +1,19 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import lombok.Getter;
+
+/**
+ * Appel refusé localement: trop d'appels en cours vers la gateway
+ * La requête n'a pas été envoyée, une autre gateway peut être tentée.
+ */
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+    private final GatewayType gateway;
+
+    public BulkheadFullException(GatewayType gateway, String reason) {
+        super("Gateway " + gateway + " saturée: " + reason);
+        this.gateway = gateway;
+    }
+}
@@ -0,0 +1,145 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cloisonnement (bulkhead) des appels sortants par gateway
+ *
+ * Chaque gateway dispose d'un nombre maximal d'appels simultanés et d'une file
+ * d'attente courte et bornée. Au-delà, l'appel est refusé immédiatement
+ * ({@link BulkheadFullException}) sans être envoyé: une gateway lente ne peut
+ * plus immobiliser tous les threads du serveur.
+ *
+ * Configuration: gateway.bulkhead.* (valeurs par défaut) et
+ * gateway.bulkhead.{gateway}.* (surcharge par gateway, ex: gateway.bulkhead.paytech.max-concurrent).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class GatewayBulkhead {
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    private final Map<GatewayType, Compartment> compartments = new EnumMap<>(GatewayType.class);
+
+    @Value("${gateway.bulkhead.max-concurrent:20}")
+    private int defaultMaxConcurrent;
+
+    @Value("${gateway.bulkhead.max-queue:10}")
+    private int defaultMaxQueue;
+
+    @Value("${gateway.bulkhead.max-wait-ms:250}")
+    private long defaultMaxWaitMs;
+
+    @PostConstruct
+    void init() {
+        for (GatewayType gateway : GatewayType.values()) {
+            String prefix = "gateway.bulkhead." + gateway.name().toLowerCase(Locale.ROOT) + ".";
+            Compartment compartment = new Compartment(
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, defaultMaxConcurrent),
+                    environment.getProperty(prefix + "max-queue", Integer.class, defaultMaxQueue),
+                    environment.getProperty(prefix + "max-wait-ms", Long.class, defaultMaxWaitMs),
+                    Counter.builder("gateway.bulkhead.rejected")
+                            .tag("gateway", gateway.name())
+                            .register(meterRegistry));
+            compartments.put(gateway, compartment);
+
+            Gauge.builder("gateway.bulkhead.in_flight", compartment, Compartment::inFlight)
+                    .tag("gateway", gateway.name())
+                    .register(meterRegistry);
+            Gauge.builder("gateway.bulkhead.queued", compartment, c -> c.waiting.get())
+                    .tag("gateway", gateway.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Obtient une place pour un appel vers la gateway
+     * Attente bornée par max-wait-ms et par l'échéance de l'appel en cours.
+     *
+     * @throws BulkheadFullException si la file est pleine ou l'attente expirée
+     */
+    public void acquire(GatewayType gateway) {
+        Compartment compartment = compartments.get(gateway);
+        if (compartment.permits.tryAcquire()) {
+            return;
+        }
+
+        if (compartment.waiting.incrementAndGet() > compartment.maxQueue) {
+            compartment.waiting.decrementAndGet();
+            throw reject(compartment, gateway, "file d'attente pleine");
+        }
+        try {
+            long wait = compartment.maxWaitMs;
+            long remaining = GatewayCallDeadline.remainingMs();
+            if (remaining >= 0) {
+                wait = Math.min(wait, remaining);
+            }
+            if (!compartment.permits.tryAcquire(wait, TimeUnit.MILLISECONDS)) {
+                throw reject(compartment, gateway, "attente expirée");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(compartment, gateway, "attente interrompue");
+        } finally {
+            compartment.waiting.decrementAndGet();
+        }
+    }
+
+    public void release(GatewayType gateway) {
+        compartments.get(gateway).permits.release();
+    }
+
+    /**
+     * Nombre d'appels en cours vers la gateway
+     */
+    public int getInFlight(GatewayType gateway) {
+        return compartments.get(gateway).inFlight();
+    }
+
+    private BulkheadFullException reject(Compartment compartment, GatewayType gateway, String reason) {
+        compartment.rejected.increment();
+        log.warn("Bulkhead full for {} ({} in flight): {}", gateway, compartment.inFlight(), reason);
+        return new BulkheadFullException(gateway, reason);
+    }
+
+    // === Inner Classes ===
+
+    private static final class Compartment {
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final long maxWaitMs;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Counter rejected;
+
+        Compartment(int maxConcurrent, int maxQueue, long maxWaitMs, Counter rejected) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWaitMs = maxWaitMs;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.rejected = rejected;
+        }
+
+        int inFlight() {
+            return maxConcurrent - permits.availablePermits();
+        }
+    }
+}
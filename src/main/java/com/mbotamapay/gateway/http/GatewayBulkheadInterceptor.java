@@ -0,0 +1,35 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Applique le bulkhead de la gateway à chaque requête HTTP sortante
+ * (payouts, paiements et vérifications de statut)
+ */
+public class GatewayBulkheadInterceptor implements ClientHttpRequestInterceptor {
+
+    private final GatewayBulkhead bulkhead;
+    private final GatewayType gateway;
+
+    public GatewayBulkheadInterceptor(GatewayBulkhead bulkhead, GatewayType gateway) {
+        this.bulkhead = bulkhead;
+        this.gateway = gateway;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        bulkhead.acquire(gateway);
+        try {
+            return execution.execute(request, body);
+        } finally {
+            bulkhead.release(gateway);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mbotamapay.gateway.http;
+
+import java.util.function.Supplier;
+
+/**
+ * Échéance de l'appel sortant en cours sur le thread courant
+ *
+ * Posée par l'orchestrateur autour d'un appel gateway, elle est lue par
+ * {@link GatewayRequestFactory} pour borner les timeouts HTTP au temps restant.
+ */
+public final class GatewayCallDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private GatewayCallDeadline() {
+    }
+
+    /**
+     * Exécute un appel avec une échéance absolue (epoch ms)
+     */
+    public static <T> T callBefore(long deadlineEpochMs, Supplier<T> call) {
+        Long previous = DEADLINE.get();
+        DEADLINE.set(previous != null ? Math.min(previous, deadlineEpochMs) : deadlineEpochMs);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                DEADLINE.set(previous);
+            } else {
+                DEADLINE.remove();
+            }
+        }
+    }
+
+    /**
+     * Échéance absolue posée sur le thread courant, ou -1 si aucune
+     * (pour la propager à un autre thread)
+     */
+    public static long deadlineEpochMs() {
+        Long deadline = DEADLINE.get();
+        return deadline != null ? deadline : -1;
+    }
+
+    /**
+     * Temps restant avant l'échéance, ou -1 si aucune échéance n'est posée
+     */
+    public static long remainingMs() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return -1;
+        }
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,11 @@
+package com.mbotamapay.gateway.http;
+
+/**
+ * Catégorie d'appel sortant vers une gateway
+ * Chaque catégorie dispose de son propre budget de requêtes (quota fournisseur partagé).
+ */
+public enum GatewayEndpointClass {
+    PAYOUT,   // Envoi de fonds (prioritaire)
+    PAYMENT,  // Initiation de collecte
+    STATUS    // Vérifications de statut et d'abonné (basse priorité)
+}
@@ -0,0 +1,67 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Locale;
+
+/**
+ * Classification des erreurs de transport et des statuts HTTP, communes aux adaptateurs
+ *
+ * Règle de prudence: dès qu'une requête a pu atteindre la gateway sans réponse
+ * exploitable, l'issue est AMBIGUOUS (le payout a peut-être été exécuté).
+ * Les refus métier (codes propres à chaque fournisseur) sont classés par l'adaptateur.
+ */
+public final class GatewayErrorClassifier {
+
+    private GatewayErrorClassifier() {
+    }
+
+    /**
+     * Classe une exception levée pendant un appel de payout
+     */
+    public static PayoutErrorType classify(Exception e) {
+        if (e instanceof BulkheadFullException || e instanceof GatewayRateLimitedException) {
+            return PayoutErrorType.RATE_LIMITED; // Refusé localement, requête jamais envoyée
+        }
+        if (e instanceof HttpStatusCodeException httpError) {
+            return classifyHttpStatus(httpError.getStatusCode().value());
+        }
+        if (e instanceof ResourceAccessException) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ConnectException
+                    || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException) {
+                return PayoutErrorType.TRANSIENT; // Requête jamais envoyée
+            }
+            if (cause instanceof SocketTimeoutException timeout && timeout.getMessage() != null
+                    && timeout.getMessage().toLowerCase(Locale.ROOT).contains("connect")) {
+                return PayoutErrorType.TRANSIENT; // Timeout de connexion
+            }
+            return PayoutErrorType.AMBIGUOUS; // Timeout de lecture, connexion coupée
+        }
+        if (e instanceof RestClientException) {
+            return PayoutErrorType.AMBIGUOUS; // Réponse reçue mais illisible
+        }
+        return PayoutErrorType.AMBIGUOUS;
+    }
+
+    /**
+     * Classe un statut HTTP d'erreur
+     */
+    public static PayoutErrorType classifyHttpStatus(int status) {
+        return switch (status) {
+            case 429 -> PayoutErrorType.RATE_LIMITED;
+            case 408, 502, 503 -> PayoutErrorType.TRANSIENT;
+            case 401, 403 -> PayoutErrorType.TRANSIENT; // Identifiants de cette gateway: une autre peut réussir
+            case 409, 500, 504 -> PayoutErrorType.AMBIGUOUS;
+            default -> status >= 500 ? PayoutErrorType.AMBIGUOUS : PayoutErrorType.TERMINAL_REQUEST;
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Construit les RestTemplate des adaptateurs de gateway
+ * Chaque client a sa propre fabrique de requêtes (timeouts adaptatifs par connexion),
+ * le budget de requêtes de sa catégorie d'appel et le bulkhead de sa gateway
+ */
+@Component
+@RequiredArgsConstructor
+public class GatewayHttpClientFactory {
+
+    private final GatewayBulkhead bulkhead;
+    private final GatewayTimeoutPolicy timeoutPolicy;
+    private final GatewayRateLimiter rateLimiter;
+
+    public RestTemplate create(GatewayType gateway, GatewayEndpointClass endpointClass) {
+        RestTemplate restTemplate = new RestTemplate(new AdaptiveGatewayRequestFactory(gateway, timeoutPolicy));
+        // Quota d'abord (sans occuper de place), puis concurrence
+        restTemplate.getInterceptors().add(new GatewayRateLimitInterceptor(rateLimiter, gateway, endpointClass));
+        restTemplate.getInterceptors().add(new GatewayBulkheadInterceptor(bulkhead, gateway));
+        return restTemplate;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Consomme un jeton du budget (gateway, catégorie) avant chaque requête HTTP sortante
+ */
+public class GatewayRateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final GatewayRateLimiter rateLimiter;
+    private final GatewayType gateway;
+    private final GatewayEndpointClass endpointClass;
+
+    public GatewayRateLimitInterceptor(GatewayRateLimiter rateLimiter, GatewayType gateway,
+                                       GatewayEndpointClass endpointClass) {
+        this.rateLimiter = rateLimiter;
+        this.gateway = gateway;
+        this.endpointClass = endpointClass;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        rateLimiter.acquire(gateway, endpointClass);
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import lombok.Getter;
+
+/**
+ * Appel refusé localement: budget de requêtes de la gateway épuisé
+ * La requête n'a pas été envoyée, une autre gateway peut être tentée.
+ */
+@Getter
+public class GatewayRateLimitedException extends RuntimeException {
+
+    private final GatewayType gateway;
+    private final GatewayEndpointClass endpointClass;
+
+    public GatewayRateLimitedException(GatewayType gateway, GatewayEndpointClass endpointClass) {
+        super("Quota de requêtes " + endpointClass + " atteint pour " + gateway);
+        this.gateway = gateway;
+        this.endpointClass = endpointClass;
+    }
+}
@@ -0,0 +1,113 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Limitation du débit sortant vers les gateways (Bucket4j)
+ *
+ * Un seau de jetons par (gateway, catégorie d'appel), dimensionné d'après le quota
+ * publié par le fournisseur. Les vérifications de statut ont leur propre budget,
+ * plus faible, et une attente plus courte: elles ne peuvent pas affamer les payouts.
+ * Seau vide après une attente courte => {@link GatewayRateLimitedException}
+ * (requête non envoyée, classée RATE_LIMITED, fallback possible).
+ *
+ * Configuration: gateway.rate-limit.{catégorie}-per-second et {catégorie}-max-wait-ms,
+ * surchargeables par gateway (ex: gateway.rate-limit.cinetpay.payout-per-second).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class GatewayRateLimiter {
+
+    private static final Map<GatewayEndpointClass, Integer> DEFAULT_PER_SECOND = Map.of(
+            GatewayEndpointClass.PAYOUT, 10,
+            GatewayEndpointClass.PAYMENT, 10,
+            GatewayEndpointClass.STATUS, 5);
+
+    private static final Map<GatewayEndpointClass, Long> DEFAULT_MAX_WAIT_MS = Map.of(
+            GatewayEndpointClass.PAYOUT, 500L,
+            GatewayEndpointClass.PAYMENT, 500L,
+            GatewayEndpointClass.STATUS, 100L);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<GatewayType, Map<GatewayEndpointClass, Budget>> budgets = new EnumMap<>(GatewayType.class);
+
+    @PostConstruct
+    void init() {
+        for (GatewayType gateway : GatewayType.values()) {
+            Map<GatewayEndpointClass, Budget> byClass = new EnumMap<>(GatewayEndpointClass.class);
+            for (GatewayEndpointClass endpointClass : GatewayEndpointClass.values()) {
+                String key = endpointClass.name().toLowerCase(Locale.ROOT);
+                int perSecond = property(gateway, key + "-per-second", Integer.class,
+                        DEFAULT_PER_SECOND.get(endpointClass));
+                long maxWaitMs = property(gateway, key + "-max-wait-ms", Long.class,
+                        DEFAULT_MAX_WAIT_MS.get(endpointClass));
+
+                Bandwidth limit = Bandwidth.classic(perSecond, Refill.greedy(perSecond, Duration.ofSeconds(1)));
+                byClass.put(endpointClass, new Budget(
+                        Bucket.builder().addLimit(limit).build(),
+                        maxWaitMs,
+                        Counter.builder("gateway.rate_limit.rejected")
+                                .tag("gateway", gateway.name())
+                                .tag("endpoint", endpointClass.name())
+                                .register(meterRegistry)));
+            }
+            budgets.put(gateway, byClass);
+        }
+    }
+
+    /**
+     * Consomme un jeton, en attendant au plus max-wait-ms (borné par l'échéance de l'appel)
+     *
+     * @throws GatewayRateLimitedException si aucun jeton n'est disponible à temps
+     */
+    public void acquire(GatewayType gateway, GatewayEndpointClass endpointClass) {
+        Budget budget = budgets.get(gateway).get(endpointClass);
+        if (budget.bucket.tryConsume(1)) {
+            return;
+        }
+
+        long wait = budget.maxWaitMs;
+        long remaining = GatewayCallDeadline.remainingMs();
+        if (remaining >= 0) {
+            wait = Math.min(wait, remaining);
+        }
+        try {
+            if (wait > 0 && budget.bucket.asBlocking().tryConsume(1, Duration.ofMillis(wait))) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        budget.rejected.increment();
+        log.warn("Outbound rate limit reached for {} {}", gateway, endpointClass);
+        throw new GatewayRateLimitedException(gateway, endpointClass);
+    }
+
+    private <T> T property(GatewayType gateway, String key, Class<T> type, T defaultValue) {
+        T global = environment.getProperty("gateway.rate-limit." + key, type, defaultValue);
+        return environment.getProperty(
+                "gateway.rate-limit." + gateway.name().toLowerCase(Locale.ROOT) + "." + key, type, global);
+    }
+
+    private record Budget(Bucket bucket, long maxWaitMs, Counter rejected) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Fabrique de requêtes HTTP d'une gateway
+ *
+ * Les timeouts sont fixés connexion par connexion: valeurs par défaut de la gateway,
+ * bornées par le temps restant de l'échéance posée via {@link GatewayCallDeadline}.
+ */
+public class GatewayRequestFactory extends SimpleClientHttpRequestFactory {
+
+    /**
+     * Timeout minimal pour ne pas ouvrir une connexion avec un délai nul (= infini)
+     */
+    private static final int MIN_TIMEOUT_MS = 50;
+
+    private final GatewayType gateway;
+    private final int defaultConnectTimeoutMs;
+    private final int defaultReadTimeoutMs;
+
+    public GatewayRequestFactory(GatewayType gateway, int defaultConnectTimeoutMs, int defaultReadTimeoutMs) {
+        this.gateway = gateway;
+        this.defaultConnectTimeoutMs = defaultConnectTimeoutMs;
+        this.defaultReadTimeoutMs = defaultReadTimeoutMs;
+    }
+
+    public GatewayType getGateway() {
+        return gateway;
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+
+        int connectTimeout = connectTimeoutMs();
+        int readTimeout = readTimeoutMs();
+
+        long remaining = GatewayCallDeadline.remainingMs();
+        if (remaining >= 0) {
+            int budget = (int) Math.max(MIN_TIMEOUT_MS, Math.min(Integer.MAX_VALUE, remaining));
+            connectTimeout = Math.min(connectTimeout, budget);
+            readTimeout = Math.min(readTimeout, budget);
+        }
+
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+    }
+
+    protected int connectTimeoutMs() {
+        return defaultConnectTimeoutMs;
+    }
+
+    protected int readTimeoutMs() {
+        return defaultReadTimeoutMs;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.service.orchestration.GatewayHealthMonitor;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Timeouts HTTP adaptés à la latence observée de chaque gateway
+ *
+ * - read = p99 × read-factor, borné à [read-min-ms, read-max-ms]
+ * - connect = p50 × connect-factor, borné à [connect-min-ms, connect-max-ms]
+ * Tant que les échantillons sont insuffisants, les bornes max s'appliquent.
+ * Les timeouts expirés sont eux-mêmes enregistrés comme latences: si une gateway
+ * ralentit durablement, son p99 remonte et ses timeouts s'allongent.
+ *
+ * Recalculé périodiquement: la lecture par connexion est un simple accès mémoire.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class GatewayTimeoutPolicy {
+
+    private final GatewayHealthMonitor healthMonitor;
+
+    private volatile Map<GatewayType, Timeouts> timeouts = new EnumMap<>(GatewayType.class);
+
+    @Value("${gateway.timeout.adaptive:true}")
+    private boolean adaptive;
+
+    @Value("${gateway.timeout.read-factor:3.0}")
+    private double readFactor;
+
+    @Value("${gateway.timeout.read-min-ms:3000}")
+    private int readMinMs;
+
+    @Value("${gateway.http.read-timeout-ms:30000}")
+    private int readMaxMs;
+
+    @Value("${gateway.timeout.connect-factor:1.0}")
+    private double connectFactor;
+
+    @Value("${gateway.timeout.connect-min-ms:1000}")
+    private int connectMinMs;
+
+    @Value("${gateway.http.connect-timeout-ms:5000}")
+    private int connectMaxMs;
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    /**
+     * Recalcule les timeouts à partir des percentiles de latence
+     */
+    @Scheduled(fixedRateString = "${gateway.timeout.refresh-ms:10000}")
+    public void refresh() {
+        Map<GatewayType, Timeouts> computed = new EnumMap<>(GatewayType.class);
+        for (GatewayType gateway : GatewayType.values()) {
+            Timeouts next = compute(gateway);
+            Timeouts previous = timeouts.get(gateway);
+            if (previous != null && !previous.equals(next)) {
+                log.debug("Timeouts for {}: connect {}ms -> {}ms, read {}ms -> {}ms", gateway,
+                        previous.connectMs(), next.connectMs(), previous.readMs(), next.readMs());
+            }
+            computed.put(gateway, next);
+        }
+        timeouts = computed;
+    }
+
+    public int connectTimeoutMs(GatewayType gateway) {
+        Timeouts current = timeouts.get(gateway);
+        return current != null ? current.connectMs() : connectMaxMs;
+    }
+
+    public int readTimeoutMs(GatewayType gateway) {
+        Timeouts current = timeouts.get(gateway);
+        return current != null ? current.readMs() : readMaxMs;
+    }
+
+    private Timeouts compute(GatewayType gateway) {
+        if (!adaptive) {
+            return new Timeouts(connectMaxMs, readMaxMs);
+        }
+        long p50 = healthMonitor.getLatencyPercentile(gateway, 0.50);
+        long p99 = healthMonitor.getLatencyPercentile(gateway, 0.99);
+        int connect = p50 > 0 ? clamp(p50 * connectFactor, connectMinMs, connectMaxMs) : connectMaxMs;
+        int read = p99 > 0 ? clamp(p99 * readFactor, readMinMs, readMaxMs) : readMaxMs;
+        return new Timeouts(connect, read);
+    }
+
+    private static int clamp(double value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, Math.round(value)));
+    }
+
+    private record Timeouts(int connectMs, int readMs) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.mbotamapay.gateway.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Décodage du corps brut (déjà vérifié) d'un webhook en DTO typé
+ * Accepte JSON ou formulaire URL-encodé selon le fournisseur.
+ */
+public final class WebhookBodyReader {
+
+    private WebhookBodyReader() {
+    }
+
+    public static <T> T read(ObjectMapper objectMapper, byte[] body, Class<T> type) throws IOException {
+        if (isJson(body)) {
+            return objectMapper.readValue(body, type);
+        }
+        return objectMapper.convertValue(parseForm(new String(body, StandardCharsets.UTF_8)), type);
+    }
+
+    private static boolean isJson(byte[] body) {
+        for (byte b : body) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{';
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, String> parseForm(String form) {
+        Map<String, String> fields = new HashMap<>();
+        for (String pair : form.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            fields.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return fields;
+    }
+}
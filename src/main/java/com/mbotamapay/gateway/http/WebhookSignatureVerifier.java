@@ -0,0 +1,71 @@
+package com.mbotamapay.gateway.http;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Vérification HMAC des webhooks sur le corps brut de la requête
+ *
+ * Le MAC est calculé sur les octets reçus (jamais sur un objet re-sérialisé).
+ * Une instance {@link Mac} initialisée avec la clé est conservée par thread:
+ * aucune reconstruction de clé ni recherche de fournisseur par appel.
+ * Signature acceptée en hexadécimal ou Base64, avec ou sans préfixe "sha256=".
+ */
+public final class WebhookSignatureVerifier {
+
+    private final String algorithm;
+    private final ThreadLocal<Mac> macs;
+
+    public WebhookSignatureVerifier(String algorithm, String secret) {
+        this.algorithm = algorithm;
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), algorithm);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(algorithm);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC indisponible: " + algorithm, e);
+            }
+        });
+        macs.get(); // Échec immédiat si l'algorithme ou la clé est invalide
+    }
+
+    /**
+     * Vérifie la signature du corps brut (comparaison à temps constant)
+     */
+    public boolean verify(byte[] body, String signature) {
+        if (body == null || signature == null || signature.isBlank()) {
+            return false;
+        }
+        byte[] expected = macs.get().doFinal(body); // doFinal réinitialise le Mac pour l'appel suivant
+        byte[] provided = decode(signature.trim());
+        return provided != null && MessageDigest.isEqual(expected, provided);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    private static byte[] decode(String signature) {
+        String value = signature;
+        int separator = value.indexOf('=');
+        if (separator > 0 && separator <= 6 && value.substring(0, separator).toLowerCase(Locale.ROOT).startsWith("sha")) {
+            value = value.substring(separator + 1);
+        }
+        try {
+            if (value.length() % 2 == 0 && value.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+                return HexFormat.of().parseHex(value);
+            }
+            return Base64.getDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
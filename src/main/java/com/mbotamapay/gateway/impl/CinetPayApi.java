@@ -0,0 +1,154 @@
+package com.mbotamapay.gateway.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+
+import java.util.List;
+
+/**
+ * Charges utiles de l'API CinetPay
+ * Décodées directement par Jackson: seuls les champs utilisés sont liés, les autres sont ignorés.
+ */
+final class CinetPayApi {
+
+    static final String SUCCESS_CODE = "00";
+
+    // Codes de refus de l'API de transfert
+    static final String INSUFFICIENT_BALANCE = "602";
+    static final String MINIMUM_REQUIRED_FIELDS = "608";
+    static final String AUTH_NOT_FOUND = "609";
+    static final String INVALID_PHONE_NUMBER = "726";
+    static final String PHONE_NOT_MOBILE_MONEY = "727";
+
+    // Vérification de transfert: référence inconnue de CinetPay
+    static final String TRANSFER_NOT_FOUND = "723";
+
+    private CinetPayApi() {
+    }
+
+    /**
+     * Classe un code de refus de l'API de transfert (réponse globale ou résultat d'un contact)
+     * Seuls les codes documentés sont interprétés: un code inconnu est TRANSIENT
+     * (fallback possible, jamais de blocage du bénéficiaire).
+     */
+    static PayoutErrorType classifyTransferCode(String code) {
+        if (code == null) {
+            return PayoutErrorType.TRANSIENT;
+        }
+        return switch (code) {
+            case INVALID_PHONE_NUMBER, PHONE_NOT_MOBILE_MONEY -> PayoutErrorType.TERMINAL_RECIPIENT;
+            case MINIMUM_REQUIRED_FIELDS -> PayoutErrorType.TERMINAL_REQUEST;
+            // Float épuisé ou identifiants refusés sur ce compte: une autre gateway peut réussir
+            case INSUFFICIENT_BALANCE, AUTH_NOT_FOUND -> PayoutErrorType.TRANSIENT;
+            default -> PayoutErrorType.TRANSIENT;
+        };
+    }
+
+    // === Paiement (collecte) ===
+
+    record PaymentRequest(
+            String apikey,
+            @JsonProperty("site_id") String siteId,
+            @JsonProperty("transaction_id") String transactionId,
+            Long amount,
+            String currency,
+            String description,
+            @JsonProperty("notify_url") String notifyUrl,
+            @JsonProperty("return_url") String returnUrl,
+            @JsonProperty("cancel_url") String cancelUrl,
+            String channels,
+            @JsonProperty("customer_phone_number") String customerPhoneNumber,
+            @JsonProperty("customer_name") String customerName,
+            @JsonProperty("customer_surname") String customerSurname) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PaymentResponse(String code, String message, PaymentData data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PaymentData(
+            @JsonProperty("payment_url") String paymentUrl,
+            @JsonProperty("payment_token") String paymentToken) {
+    }
+
+    // === Transfert (payout) ===
+
+    record TransferRequest(
+            String apikey,
+            @JsonProperty("site_id") String siteId,
+            @JsonProperty("transaction_id") String transactionId,
+            Long amount,
+            String receiver,
+            @JsonProperty("receiver_name") String receiverName,
+            String prefix,
+            @JsonProperty("sending_currency") String sendingCurrency,
+            @JsonProperty("payment_method") String paymentMethod) {
+    }
+
+    record TransferContact(
+            @JsonProperty("transaction_id") String transactionId,
+            Long amount,
+            String receiver,
+            @JsonProperty("receiver_name") String receiverName,
+            String prefix,
+            @JsonProperty("sending_currency") String sendingCurrency,
+            @JsonProperty("payment_method") String paymentMethod) {
+    }
+
+    record TransferBatchRequest(
+            String apikey,
+            @JsonProperty("site_id") String siteId,
+            List<TransferContact> data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TransferResponse(String code, String message, TransferResult data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TransferBatchResponse(String code, String message, List<TransferResult> data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TransferResult(
+            @JsonProperty("transaction_id") String transactionId,
+            @JsonProperty("transfer_id") String transferId,
+            String code,
+            String message) {
+    }
+
+    // === Vérifications de statut ===
+
+    record CheckRequest(
+            String apikey,
+            @JsonProperty("site_id") String siteId,
+            @JsonProperty("transaction_id") String transactionId) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TransferCheckResponse(String code, String message, TransferStatus data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TransferStatus(
+            String status,
+            @JsonProperty("transfer_id") String transferId,
+            Long amount) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PaymentCheckResponse(String code, String message, PaymentStatus data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PaymentStatus(String status, String message) {
+    }
+
+    // === Notification ===
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Notification(@JsonProperty("cpm_trans_id") String transactionId) {
+    }
+}
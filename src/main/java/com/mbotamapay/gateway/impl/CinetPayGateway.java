@@ -1,17 +1,26 @@
 package com.mbotamapay.gateway.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.GatewayType;
 import com.mbotamapay.entity.enums.MobileOperator;
 import com.mbotamapay.gateway.PaymentGateway;
 import com.mbotamapay.gateway.PayoutGateway;
 import com.mbotamapay.gateway.dto.*;
+import com.mbotamapay.gateway.http.GatewayEndpointClass;
+import com.mbotamapay.gateway.http.GatewayErrorClassifier;
+import com.mbotamapay.gateway.http.GatewayHttpClientFactory;
+import com.mbotamapay.gateway.http.WebhookBodyReader;
+import com.mbotamapay.gateway.http.WebhookSignatureVerifier;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -41,10 +50,36 @@ public class CinetPayGateway implements PaymentGateway, PayoutGateway {
     @Value("${gateway.cinetpay.site-id:}")
     private String siteId;
 
-    private final RestTemplate restTemplate;
+    /**
+     * API de transfert (payout), distincte de l'API de paiement
+     */
+    @Value("${gateway.cinetpay.transfer-api-url:https://api.cinetpay.com/v1}")
+    private String transferApiUrl;
+
+    @Value("${gateway.cinetpay.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${gateway.cinetpay.webhook-secret:}")
+    private String webhookSecret;
+
+    private final RestTemplate payoutClient;
+    private final RestTemplate paymentClient;
+    private final RestTemplate statusClient;
+    private final ObjectMapper objectMapper;
+    private WebhookSignatureVerifier webhookVerifier;
+
+    public CinetPayGateway(GatewayHttpClientFactory httpClientFactory, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.payoutClient = httpClientFactory.create(GatewayType.CINETPAY, GatewayEndpointClass.PAYOUT);
+        this.paymentClient = httpClientFactory.create(GatewayType.CINETPAY, GatewayEndpointClass.PAYMENT);
+        this.statusClient = httpClientFactory.create(GatewayType.CINETPAY, GatewayEndpointClass.STATUS);
+    }
 
-    public CinetPayGateway() {
-        this.restTemplate = new RestTemplate();
+    @PostConstruct
+    void initWebhookVerifier() {
+        if (webhookSecret != null && !webhookSecret.isBlank()) {
+            webhookVerifier = new WebhookSignatureVerifier("HmacSHA256", webhookSecret);
+        }
     }
 
     @Override
@@ -78,45 +113,37 @@ public class CinetPayGateway implements PaymentGateway, PayoutGateway {
                 request.getTransactionReference(), request.getAmount());
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("apikey", apiKey);
-            body.put("site_id", siteId);
-            body.put("transaction_id", request.getTransactionReference());
-            body.put("amount", request.getAmount());
-            body.put("currency", request.getCurrency());
-            body.put("description", request.getDescription());
-            body.put("notify_url", request.getCallbackUrl());
-            body.put("return_url", request.getReturnUrl());
-            body.put("cancel_url", request.getCancelUrl());
-            body.put("channels", "ALL");
-
-            // Customer info
-            body.put("customer_phone_number", request.getSenderPhone());
-            body.put("customer_name", "MbotamaPay User");
-            body.put("customer_surname", "");
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            CinetPayApi.PaymentRequest body = new CinetPayApi.PaymentRequest(
+                    apiKey,
+                    siteId,
+                    request.getTransactionReference(),
+                    request.getAmount(),
+                    request.getCurrency(),
+                    request.getDescription(),
+                    request.getCallbackUrl(),
+                    request.getReturnUrl(),
+                    request.getCancelUrl(),
+                    "ALL",
+                    // Customer info
+                    request.getSenderPhone(),
+                    "MbotamaPay User",
+                    "");
+
+            CinetPayApi.PaymentResponse responseBody = paymentClient.exchange(
                     apiUrl + "/payment",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
+                    new HttpEntity<>(body, createHeaders()),
+                    CinetPayApi.PaymentResponse.class).getBody();
 
-            Map<String, Object> responseBody = response.getBody();
-
-            if (responseBody != null && "00".equals(responseBody.get("code"))) {
-                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
+            if (responseBody != null && CinetPayApi.SUCCESS_CODE.equals(responseBody.code())
+                    && responseBody.data() != null) {
                 return PaymentInitResponse.builder()
                         .success(true)
-                        .paymentUrl((String) data.get("payment_url"))
-                        .externalReference((String) data.get("payment_token"))
+                        .paymentUrl(responseBody.data().paymentUrl())
+                        .externalReference(responseBody.data().paymentToken())
                         .build();
             } else {
-                String message = responseBody != null ? (String) responseBody.get("message") : "Unknown error";
+                String message = responseBody != null ? responseBody.message() : "Unknown error";
                 return PaymentInitResponse.builder()
                         .success(false)
                         .message(message)
@@ -138,101 +165,182 @@ public class CinetPayGateway implements PaymentGateway, PayoutGateway {
                 request.getReference(), request.getAmount(), request.getCountry());
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
             // CinetPay Transfer API
-            Map<String, Object> body = new HashMap<>();
-            body.put("apikey", apiKey);
-            body.put("site_id", siteId);
-            body.put("transaction_id", request.getReference());
-            body.put("amount", request.getAmount());
-            body.put("receiver", normalizePhone(request.getRecipientPhone(), request.getCountry()));
-            body.put("receiver_name", request.getRecipientName());
-            body.put("prefix", getOperatorPrefix(request.getOperator(), request.getCountry()));
-            body.put("sending_currency", request.getCurrency());
-            body.put("payment_method", "MOBILE_MONEY");
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    "https://api.cinetpay.com/v1/transfer/contact/money/send/contact",
+            CinetPayApi.TransferRequest body = new CinetPayApi.TransferRequest(
+                    apiKey,
+                    siteId,
+                    request.getReference(),
+                    request.getAmount(),
+                    normalizePhone(request.getRecipientPhone(), request.getCountry()),
+                    request.getRecipientName(),
+                    getOperatorPrefix(request.getOperator(), request.getCountry()),
+                    request.getCurrency(),
+                    "MOBILE_MONEY");
+
+            CinetPayApi.TransferResponse responseBody = payoutClient.exchange(
+                    transferApiUrl + "/transfer/contact/money/send/contact",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
+                    new HttpEntity<>(body, createHeaders()),
+                    CinetPayApi.TransferResponse.class).getBody();
 
-            Map<String, Object> responseBody = response.getBody();
-
-            if (responseBody != null && "00".equals(responseBody.get("code"))) {
-                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
+            if (responseBody != null && CinetPayApi.SUCCESS_CODE.equals(responseBody.code())) {
                 return PayoutResponse.builder()
                         .success(true)
                         .message("Payout initiated successfully")
-                        .externalReference((String) data.get("transfer_id"))
+                        .externalReference(responseBody.data() != null ? responseBody.data().transferId() : null)
                         .transactionReference(request.getReference())
                         .status("PENDING")
                         .build();
             } else {
-                String errorMsg = responseBody != null ? (String) responseBody.get("message") : "Payout failed";
-                return PayoutResponse.builder()
-                        .success(false)
-                        .message(errorMsg)
-                        .transactionReference(request.getReference())
-                        .status("FAILED")
-                        .build();
+                String errorMsg = responseBody != null ? responseBody.message() : "Payout failed";
+                return failedPayout(request, errorMsg,
+                        CinetPayApi.classifyTransferCode(responseBody != null ? responseBody.code() : null));
             }
         } catch (Exception e) {
             log.error("CinetPay payout error", e);
-            return PayoutResponse.builder()
-                    .success(false)
-                    .message(e.getMessage())
-                    .transactionReference(request.getReference())
-                    .status("FAILED")
-                    .build();
+            return failedPayout(request, e.getMessage(), GatewayErrorClassifier.classify(e));
         }
     }
 
+    /**
+     * Payouts de masse: l'API de transfert CinetPay accepte une liste de contacts
+     * Envoi par lots de max-batch-size, réponses rapprochées par transaction_id.
+     * Seuls les codes par contact imputent un refus au destinataire.
+     */
     @Override
-    public PayoutStatusResponse checkPayoutStatus(String reference) {
-        log.info("Checking CinetPay payout status: ref={}", reference);
+    public List<PayoutResponse> initiatePayouts(List<PayoutRequest> requests) {
+        if (requests.size() == 1) {
+            return List.of(initiatePayout(requests.get(0)));
+        }
 
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+        List<PayoutResponse> responses = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += maxBatchSize) {
+            responses.addAll(sendTransferBatch(requests.subList(from, Math.min(from + maxBatchSize, requests.size()))));
+        }
+        return responses;
+    }
 
-            Map<String, Object> body = new HashMap<>();
-            body.put("apikey", apiKey);
-            body.put("site_id", siteId);
-            body.put("transaction_id", reference);
+    private List<PayoutResponse> sendTransferBatch(List<PayoutRequest> batch) {
+        log.info("Initiating CinetPay batch payout: {} transfer(s)", batch.size());
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+        try {
+            CinetPayApi.TransferBatchRequest body = new CinetPayApi.TransferBatchRequest(
+                    apiKey,
+                    siteId,
+                    batch.stream().map(this::transferContact).toList());
 
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    "https://api.cinetpay.com/v1/transfer/check",
+            CinetPayApi.TransferBatchResponse responseBody = payoutClient.exchange(
+                    transferApiUrl + "/transfer/contact/money/send/contact",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
+                    new HttpEntity<>(body, createHeaders()),
+                    CinetPayApi.TransferBatchResponse.class).getBody();
+
+            if (responseBody == null || !CinetPayApi.SUCCESS_CODE.equals(responseBody.code())) {
+                String errorMsg = responseBody != null ? responseBody.message() : "Payout failed";
+                PayoutErrorType errorType =
+                        CinetPayApi.classifyTransferCode(responseBody != null ? responseBody.code() : null);
+                if (errorType == PayoutErrorType.TERMINAL_RECIPIENT) {
+                    // Lot refusé en bloc à cause d'un contact inconnu: rien n'a été exécuté,
+                    // renvoi un par un pour isoler le destinataire en cause
+                    log.warn("CinetPay batch rejected ({}), resending {} transfer(s) individually",
+                            errorMsg, batch.size());
+                    return batch.stream().map(this::initiatePayout).toList();
+                }
+                return batch.stream()
+                        .map(request -> failedPayout(request, errorMsg, errorType))
+                        .toList();
+            }
+
+            // Résultat par contact, indexé par notre référence
+            Map<String, CinetPayApi.TransferResult> results = new HashMap<>();
+            if (responseBody.data() != null) {
+                for (CinetPayApi.TransferResult result : responseBody.data()) {
+                    if (result != null && result.transactionId() != null) {
+                        results.put(result.transactionId(), result);
+                    }
+                }
+            }
+
+            return batch.stream().map(request -> {
+                CinetPayApi.TransferResult result = results.get(request.getReference());
+                if (result == null) {
+                    // Lot accepté mais contact absent de la réponse: issue à vérifier
+                    return failedPayout(request, "Transfert absent de la réponse du lot", PayoutErrorType.AMBIGUOUS);
+                }
+                if (result.code() != null && !CinetPayApi.SUCCESS_CODE.equals(result.code())) {
+                    return failedPayout(request, result.message(), CinetPayApi.classifyTransferCode(result.code()));
+                }
+                return PayoutResponse.builder()
+                        .success(true)
+                        .message("Payout initiated successfully")
+                        .externalReference(result.transferId())
+                        .transactionReference(request.getReference())
+                        .status("PENDING")
+                        .build();
+            }).toList();
+        } catch (Exception e) {
+            log.error("CinetPay batch payout error", e);
+            PayoutErrorType errorType = GatewayErrorClassifier.classify(e);
+            return batch.stream()
+                    .map(request -> failedPayout(request, e.getMessage(), errorType))
+                    .toList();
+        }
+    }
+
+    private CinetPayApi.TransferContact transferContact(PayoutRequest request) {
+        return new CinetPayApi.TransferContact(
+                request.getReference(),
+                request.getAmount(),
+                normalizePhone(request.getRecipientPhone(), request.getCountry()),
+                request.getRecipientName(),
+                getOperatorPrefix(request.getOperator(), request.getCountry()),
+                request.getCurrency(),
+                "MOBILE_MONEY");
+    }
 
-            Map<String, Object> responseBody = response.getBody();
+    private PayoutResponse failedPayout(PayoutRequest request, String message, PayoutErrorType errorType) {
+        return PayoutResponse.builder()
+                .success(false)
+                .message(message)
+                .transactionReference(request.getReference())
+                .status("FAILED")
+                .errorType(errorType)
+                .build();
+    }
 
-            if (responseBody != null && "00".equals(responseBody.get("code"))) {
-                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
+    @Override
+    public PayoutStatusResponse checkPayoutStatus(String reference) {
+        log.info("Checking CinetPay payout status: ref={}", reference);
+
+        try {
+            CinetPayApi.TransferCheckResponse responseBody = statusClient.exchange(
+                    transferApiUrl + "/transfer/check",
+                    HttpMethod.POST,
+                    new HttpEntity<>(new CinetPayApi.CheckRequest(apiKey, siteId, reference), createHeaders()),
+                    CinetPayApi.TransferCheckResponse.class).getBody();
+
+            if (responseBody != null && CinetPayApi.SUCCESS_CODE.equals(responseBody.code())
+                    && responseBody.data() != null) {
+                CinetPayApi.TransferStatus data = responseBody.data();
                 return PayoutStatusResponse.builder()
                         .success(true)
-                        .status(mapPayoutStatus((String) data.get("status")))
-                        .externalReference((String) data.get("transfer_id"))
-                        .amount(((Number) data.get("amount")).longValue())
+                        .status(mapPayoutStatus(data.status()))
+                        .externalReference(data.transferId())
+                        .amount(data.amount())
                         .build();
             }
 
+            // Seul le code "référence inconnue" prouve que le transfert n'a pas été reçu
             return PayoutStatusResponse.builder()
                     .success(false)
-                    .message("Payout not found")
+                    .notFound(responseBody != null && CinetPayApi.TRANSFER_NOT_FOUND.equals(responseBody.code()))
+                    .message(responseBody != null ? responseBody.message() : "Empty response")
                     .build();
         } catch (Exception e) {
             log.error("CinetPay payout status check error", e);
             return PayoutStatusResponse.builder()
                     .success(false)
+                    .notFound(e instanceof HttpClientErrorException.NotFound)
                     .message(e.getMessage())
                     .build();
         }
@@ -243,31 +351,20 @@ public class CinetPayGateway implements PaymentGateway, PayoutGateway {
         log.info("Checking CinetPay transaction status: ref={}", transactionReference);
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("apikey", apiKey);
-            body.put("site_id", siteId);
-            body.put("transaction_id", transactionReference);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            CinetPayApi.PaymentCheckResponse responseBody = statusClient.exchange(
                     apiUrl + "/payment/check",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
+                    new HttpEntity<>(new CinetPayApi.CheckRequest(apiKey, siteId, transactionReference),
+                            createHeaders()),
+                    CinetPayApi.PaymentCheckResponse.class).getBody();
 
-            if (responseBody != null && "00".equals(responseBody.get("code"))) {
-                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
-                String status = mapStatus((String) data.get("status"));
+            if (responseBody != null && CinetPayApi.SUCCESS_CODE.equals(responseBody.code())
+                    && responseBody.data() != null) {
+                String status = mapStatus(responseBody.data().status());
                 return PaymentStatusResponse.builder()
                         .success(true)
                         .status(status)
-                        .message((String) data.get("message"))
+                        .message(responseBody.data().message())
                         .build();
             }
 
@@ -287,11 +384,43 @@ public class CinetPayGateway implements PaymentGateway, PayoutGateway {
         }
     }
 
+    /**
+     * HMAC-SHA256 du corps brut si gateway.cinetpay.webhook-secret est configuré.
+     * Sans secret, l'authenticité ne peut être prouvée: le webhook est accepté
+     * mais son statut sera confirmé auprès de CinetPay (signsWebhooks = false).
+     */
+    @Override
+    public boolean verifyWebhookSignature(byte[] payload, String signature) {
+        return webhookVerifier == null || webhookVerifier.verify(payload, signature);
+    }
+
+    @Override
+    public boolean signsWebhooks() {
+        return webhookVerifier != null;
+    }
+
+    /**
+     * Notification CinetPay: ne porte pas de statut, toujours confirmée via checkStatus
+     */
     @Override
-    public boolean verifyWebhookSignature(String payload, String signature) {
-        // CinetPay does not require webhook signature verification in basic
-        // implementation
-        return true;
+    public WebhookNotification parseWebhook(byte[] payload) {
+        try {
+            CinetPayApi.Notification notification =
+                    WebhookBodyReader.read(objectMapper, payload, CinetPayApi.Notification.class);
+            return WebhookNotification.builder()
+                    .reference(notification.transactionId())
+                    .status("UNKNOWN")
+                    .build();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Unreadable CinetPay notification: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private HttpHeaders createHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
     }
 
     private String normalizePhone(String phone, Country country) {
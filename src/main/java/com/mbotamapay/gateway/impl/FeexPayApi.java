@@ -0,0 +1,83 @@
+package com.mbotamapay.gateway.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Charges utiles de l'API FeexPay
+ * Décodées directement par Jackson: seuls les champs utilisés sont liés, les autres sont ignorés.
+ */
+final class FeexPayApi {
+
+    static final String SUCCESS_STATUS = "success";
+
+    private FeexPayApi() {
+    }
+
+    // === Paiement (collecte) ===
+
+    record InvoiceRequest(
+            @JsonProperty("shop_id") String shopId,
+            Long amount,
+            String currency,
+            @JsonProperty("custom_id") String customId,
+            @JsonProperty("callback_url") String callbackUrl,
+            @JsonProperty("return_url") String returnUrl,
+            @JsonProperty("cancel_url") String cancelUrl,
+            @JsonProperty("customer_phone") String customerPhone,
+            String description) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record InvoiceResponse(
+            String status,
+            @JsonProperty("payment_url") String paymentUrl,
+            String reference) {
+    }
+
+    // === Payout ===
+
+    record MobilePayoutRequest(
+            String phone,
+            Long amount,
+            @JsonProperty("full_name") String fullName,
+            @JsonProperty("shop_id") String shopId,
+            @JsonProperty("custom_id") String customId,
+            String description) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record MobilePayoutResponse(String status, String message, String reference) {
+    }
+
+    // === Statut d'une transaction (payin ou payout) ===
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record TransactionStatus(String status, String message, Long amount) {
+    }
+
+    // === Vérification d'abonné ===
+
+    record SubscriberRequest(
+            String phone,
+            @JsonProperty("shop_id") String shopId) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SubscriberResponse(String status, Subscriber data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Subscriber(
+            @JsonProperty("is_active") Boolean active,
+            String name) {
+    }
+
+    // === Webhook ===
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Webhook(
+            @JsonProperty("custom_id") String customId,
+            String status) {
+    }
+}
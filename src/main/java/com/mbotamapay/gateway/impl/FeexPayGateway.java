@@ -1,17 +1,26 @@
 package com.mbotamapay.gateway.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.GatewayType;
 import com.mbotamapay.entity.enums.MobileOperator;
 import com.mbotamapay.gateway.PaymentGateway;
 import com.mbotamapay.gateway.PayoutGateway;
 import com.mbotamapay.gateway.dto.*;
+import com.mbotamapay.gateway.http.GatewayEndpointClass;
+import com.mbotamapay.gateway.http.GatewayErrorClassifier;
+import com.mbotamapay.gateway.http.GatewayHttpClientFactory;
+import com.mbotamapay.gateway.http.WebhookBodyReader;
+import com.mbotamapay.gateway.http.WebhookSignatureVerifier;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -40,10 +49,27 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
     @Value("${gateway.feexpay.shop-id:}")
     private String shopId;
 
-    private final RestTemplate restTemplate;
+    @Value("${gateway.feexpay.webhook-secret:}")
+    private String webhookSecret;
 
-    public FeexPayGateway() {
-        this.restTemplate = new RestTemplate();
+    private final RestTemplate payoutClient;
+    private final RestTemplate paymentClient;
+    private final RestTemplate statusClient;
+    private final ObjectMapper objectMapper;
+    private WebhookSignatureVerifier webhookVerifier;
+
+    public FeexPayGateway(GatewayHttpClientFactory httpClientFactory, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.payoutClient = httpClientFactory.create(GatewayType.FEEXPAY, GatewayEndpointClass.PAYOUT);
+        this.paymentClient = httpClientFactory.create(GatewayType.FEEXPAY, GatewayEndpointClass.PAYMENT);
+        this.statusClient = httpClientFactory.create(GatewayType.FEEXPAY, GatewayEndpointClass.STATUS);
+    }
+
+    @PostConstruct
+    void initWebhookVerifier() {
+        if (webhookSecret != null && !webhookSecret.isBlank()) {
+            webhookVerifier = new WebhookSignatureVerifier("HmacSHA256", webhookSecret);
+        }
     }
 
     @Override
@@ -77,34 +103,28 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
                 request.getTransactionReference(), request.getAmount());
 
         try {
-            HttpHeaders headers = createHeaders();
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("shop_id", shopId);
-            body.put("amount", request.getAmount());
-            body.put("currency", request.getCurrency());
-            body.put("custom_id", request.getTransactionReference());
-            body.put("callback_url", request.getCallbackUrl());
-            body.put("return_url", request.getReturnUrl());
-            body.put("cancel_url", request.getCancelUrl());
-            body.put("customer_phone", request.getSenderPhone());
-            body.put("description", request.getDescription());
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            FeexPayApi.InvoiceRequest body = new FeexPayApi.InvoiceRequest(
+                    shopId,
+                    request.getAmount(),
+                    request.getCurrency(),
+                    request.getTransactionReference(),
+                    request.getCallbackUrl(),
+                    request.getReturnUrl(),
+                    request.getCancelUrl(),
+                    request.getSenderPhone(),
+                    request.getDescription());
+
+            FeexPayApi.InvoiceResponse responseBody = paymentClient.exchange(
                     apiUrl + "/api/transactions/public/invoice",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
+                    new HttpEntity<>(body, createHeaders()),
+                    FeexPayApi.InvoiceResponse.class).getBody();
 
-            if (responseBody != null && "success".equals(responseBody.get("status"))) {
+            if (responseBody != null && FeexPayApi.SUCCESS_STATUS.equals(responseBody.status())) {
                 return PaymentInitResponse.builder()
                         .success(true)
-                        .paymentUrl((String) responseBody.get("payment_url"))
-                        .externalReference((String) responseBody.get("reference"))
+                        .paymentUrl(responseBody.paymentUrl())
+                        .externalReference(responseBody.reference())
                         .build();
             } else {
                 return PaymentInitResponse.builder()
@@ -127,42 +147,40 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
                 request.getReference(), request.getAmount(), request.getCountry());
 
         try {
-            HttpHeaders headers = createHeaders();
             String endpoint = getPayoutEndpoint(request.getCountry(), request.getOperator());
 
-            Map<String, Object> body = new HashMap<>();
-            body.put("phone", normalizePhone(request.getRecipientPhone(), request.getCountry()));
-            body.put("amount", request.getAmount());
-            body.put("full_name", request.getRecipientName());
-            body.put("shop_id", shopId);
-            body.put("custom_id", request.getReference());
-            body.put("description", request.getDescription());
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+            FeexPayApi.MobilePayoutRequest body = new FeexPayApi.MobilePayoutRequest(
+                    normalizePhone(request.getRecipientPhone(), request.getCountry()),
+                    request.getAmount(),
+                    request.getRecipientName(),
+                    shopId,
+                    request.getReference(),
+                    request.getDescription());
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            FeexPayApi.MobilePayoutResponse responseBody = payoutClient.exchange(
                     apiUrl + endpoint,
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
+                    new HttpEntity<>(body, createHeaders()),
+                    FeexPayApi.MobilePayoutResponse.class).getBody();
 
-            Map<String, Object> responseBody = response.getBody();
-
-            if (responseBody != null && "success".equals(responseBody.get("status"))) {
+            if (responseBody != null && FeexPayApi.SUCCESS_STATUS.equals(responseBody.status())) {
                 return PayoutResponse.builder()
                         .success(true)
                         .message("Payout initiated successfully")
-                        .externalReference((String) responseBody.get("reference"))
+                        .externalReference(responseBody.reference())
                         .transactionReference(request.getReference())
                         .status("PENDING")
                         .build();
             } else {
-                String errorMsg = responseBody != null ? (String) responseBody.get("message") : "Payout failed";
+                String errorMsg = responseBody != null ? responseBody.message() : "Payout failed";
                 return PayoutResponse.builder()
                         .success(false)
                         .message(errorMsg)
                         .transactionReference(request.getReference())
                         .status("FAILED")
+                        // FeexPay ne renvoie pas de code de refus (message libre): refus non interprété,
+                        // fallback possible et jamais de blocage du bénéficiaire
+                        .errorType(PayoutErrorType.TRANSIENT)
                         .build();
             }
         } catch (Exception e) {
@@ -172,6 +190,7 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
                     .message(e.getMessage())
                     .transactionReference(request.getReference())
                     .status("FAILED")
+                    .errorType(GatewayErrorClassifier.classify(e))
                     .build();
         }
     }
@@ -181,34 +200,31 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
         log.info("Checking FeeXPay payout status: ref={}", reference);
 
         try {
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            FeexPayApi.TransactionStatus responseBody = statusClient.exchange(
                     apiUrl + "/api/transactions/public/" + reference,
                     HttpMethod.GET,
-                    entity,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
+                    new HttpEntity<Void>(createHeaders()),
+                    FeexPayApi.TransactionStatus.class).getBody();
 
             if (responseBody != null) {
                 return PayoutStatusResponse.builder()
                         .success(true)
-                        .status(mapStatus((String) responseBody.get("status")))
+                        .status(mapStatus(responseBody.status()))
                         .externalReference(reference)
-                        .amount(((Number) responseBody.get("amount")).longValue())
+                        .amount(responseBody.amount())
                         .build();
             }
 
+            // Référence inconnue: uniquement sur un 404 (ci-dessous)
             return PayoutStatusResponse.builder()
                     .success(false)
-                    .message("Payout not found")
+                    .message("Empty response")
                     .build();
         } catch (Exception e) {
             log.error("FeeXPay payout status check error", e);
             return PayoutStatusResponse.builder()
                     .success(false)
+                    .notFound(e instanceof HttpClientErrorException.NotFound)
                     .message(e.getMessage())
                     .build();
         }
@@ -219,23 +235,18 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
         log.info("Checking FeeXPay transaction status: ref={}", transactionReference);
 
         try {
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            FeexPayApi.TransactionStatus responseBody = statusClient.exchange(
                     apiUrl + "/api/transactions/public/" + transactionReference,
                     HttpMethod.GET,
-                    entity,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
+                    new HttpEntity<Void>(createHeaders()),
+                    FeexPayApi.TransactionStatus.class).getBody();
 
             if (responseBody != null) {
-                String status = mapStatus((String) responseBody.get("status"));
+                String status = mapStatus(responseBody.status());
                 return PaymentStatusResponse.builder()
                         .success(true)
                         .status(status)
-                        .message((String) responseBody.get("message"))
+                        .message(responseBody.message())
                         .build();
             }
 
@@ -254,10 +265,33 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
         }
     }
 
+    /**
+     * HMAC-SHA256 du corps brut si gateway.feexpay.webhook-secret est configuré.
+     * Sans secret, l'authenticité ne peut être prouvée: le webhook est accepté
+     * mais son statut sera confirmé auprès de FeexPay (signsWebhooks = false).
+     */
     @Override
-    public boolean verifyWebhookSignature(String payload, String signature) {
-        // TODO: Implement FeeXPay webhook signature verification
-        return true;
+    public boolean verifyWebhookSignature(byte[] payload, String signature) {
+        return webhookVerifier == null || webhookVerifier.verify(payload, signature);
+    }
+
+    @Override
+    public boolean signsWebhooks() {
+        return webhookVerifier != null;
+    }
+
+    @Override
+    public WebhookNotification parseWebhook(byte[] payload) {
+        try {
+            FeexPayApi.Webhook webhook = WebhookBodyReader.read(objectMapper, payload, FeexPayApi.Webhook.class);
+            return WebhookNotification.builder()
+                    .reference(webhook.customId())
+                    .status(mapStatus(webhook.status()))
+                    .build();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Unreadable FeeXPay webhook: {}", e.getMessage());
+            return null;
+        }
     }
 
     private HttpHeaders createHeaders() {
@@ -306,26 +340,19 @@ public class FeexPayGateway implements PaymentGateway, PayoutGateway {
         log.info("FeeXPay subscriber verification: phone={}, country={}", phoneNumber, country);
 
         try {
-            HttpHeaders headers = createHeaders();
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("phone", normalizePhone(phoneNumber, country));
-            body.put("shop_id", shopId);
+            FeexPayApi.SubscriberRequest body = new FeexPayApi.SubscriberRequest(
+                    normalizePhone(phoneNumber, country), shopId);
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            FeexPayApi.SubscriberResponse responseBody = statusClient.exchange(
                     apiUrl + "/api/check-subscriber",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
+                    new HttpEntity<>(body, createHeaders()),
+                    FeexPayApi.SubscriberResponse.class).getBody();
 
-            if (responseBody != null && "success".equals(responseBody.get("status"))) {
-                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
-                boolean isActive = data != null && Boolean.TRUE.equals(data.get("is_active"));
-                String accountName = data != null ? (String) data.get("name") : null;
+            if (responseBody != null && FeexPayApi.SUCCESS_STATUS.equals(responseBody.status())) {
+                FeexPayApi.Subscriber data = responseBody.data();
+                boolean isActive = data != null && Boolean.TRUE.equals(data.active());
+                String accountName = data != null ? data.name() : null;
 
                 return com.mbotamapay.dto.verification.MobileMoneyVerificationResult.builder()
                         .valid(isActive)
@@ -0,0 +1,81 @@
+package com.mbotamapay.gateway.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Charges utiles de l'API PayTech
+ * Décodées directement par Jackson: seuls les champs utilisés sont liés, les autres sont ignorés.
+ */
+final class PayTechApi {
+
+    static final int SUCCESS = 1;
+
+    private PayTechApi() {
+    }
+
+    // === Paiement (collecte) ===
+
+    record PaymentRequest(
+            @JsonProperty("item_name") String itemName,
+            @JsonProperty("item_price") Long itemPrice,
+            String currency,
+            @JsonProperty("ref_command") String refCommand,
+            @JsonProperty("command_name") String commandName,
+            @JsonProperty("ipn_url") String ipnUrl,
+            @JsonProperty("success_url") String successUrl,
+            @JsonProperty("cancel_url") String cancelUrl,
+            String env,
+            @JsonProperty("custom_field") String customField) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PaymentResponse(
+            Integer success,
+            @JsonProperty("redirect_url") String redirectUrl,
+            String token,
+            Object errors) {
+    }
+
+    // === Payout ===
+
+    record MobilePayoutRequest(
+            Long amount,
+            String currency,
+            @JsonProperty("ref_command") String refCommand,
+            String phone,
+            @JsonProperty("country_code") String countryCode,
+            String operator,
+            @JsonProperty("full_name") String fullName,
+            String description) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record MobilePayoutResponse(Integer success, String message, String reference) {
+    }
+
+    // === Vérifications de statut ===
+
+    record StatusRequest(@JsonProperty("ref_command") String refCommand) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PayoutStatusResponse(Integer success, PayoutStatus data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PayoutStatus(String status, String reference, Long amount) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PaymentStatusResponse(Integer success, String status, String message) {
+    }
+
+    // === Notification IPN ===
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Ipn(
+            @JsonProperty("ref_command") String refCommand,
+            @JsonProperty("type_event") String typeEvent) {
+    }
+}
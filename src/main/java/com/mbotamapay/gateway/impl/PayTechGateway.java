@@ -1,17 +1,26 @@
 package com.mbotamapay.gateway.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.GatewayType;
 import com.mbotamapay.entity.enums.MobileOperator;
 import com.mbotamapay.gateway.PaymentGateway;
 import com.mbotamapay.gateway.PayoutGateway;
 import com.mbotamapay.gateway.dto.*;
+import com.mbotamapay.gateway.http.GatewayEndpointClass;
+import com.mbotamapay.gateway.http.GatewayErrorClassifier;
+import com.mbotamapay.gateway.http.GatewayHttpClientFactory;
+import com.mbotamapay.gateway.http.WebhookBodyReader;
+import com.mbotamapay.gateway.http.WebhookSignatureVerifier;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -38,10 +47,27 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
     @Value("${gateway.paytech.api-secret:}")
     private String apiSecret;
 
-    private final RestTemplate restTemplate;
+    @Value("${gateway.paytech.webhook-secret:}")
+    private String webhookSecret;
 
-    public PayTechGateway() {
-        this.restTemplate = new RestTemplate();
+    private final RestTemplate payoutClient;
+    private final RestTemplate paymentClient;
+    private final RestTemplate statusClient;
+    private final ObjectMapper objectMapper;
+    private WebhookSignatureVerifier webhookVerifier;
+
+    public PayTechGateway(GatewayHttpClientFactory httpClientFactory, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.payoutClient = httpClientFactory.create(GatewayType.PAYTECH, GatewayEndpointClass.PAYOUT);
+        this.paymentClient = httpClientFactory.create(GatewayType.PAYTECH, GatewayEndpointClass.PAYMENT);
+        this.statusClient = httpClientFactory.create(GatewayType.PAYTECH, GatewayEndpointClass.STATUS);
+    }
+
+    @PostConstruct
+    void initWebhookVerifier() {
+        if (webhookSecret != null && !webhookSecret.isBlank()) {
+            webhookVerifier = new WebhookSignatureVerifier("HmacSHA256", webhookSecret);
+        }
     }
 
     @Override
@@ -75,38 +101,32 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
                 request.getTransactionReference(), request.getAmount());
 
         try {
-            HttpHeaders headers = createHeaders();
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("item_name", "MbotamaPay Transfer");
-            body.put("item_price", request.getAmount());
-            body.put("currency", request.getCurrency());
-            body.put("ref_command", request.getTransactionReference());
-            body.put("command_name", request.getDescription());
-            body.put("ipn_url", request.getCallbackUrl());
-            body.put("success_url", request.getReturnUrl());
-            body.put("cancel_url", request.getCancelUrl());
-            body.put("env", "prod");
-            body.put("custom_field", request.getSenderPhone());
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            PayTechApi.PaymentRequest body = new PayTechApi.PaymentRequest(
+                    "MbotamaPay Transfer",
+                    request.getAmount(),
+                    request.getCurrency(),
+                    request.getTransactionReference(),
+                    request.getDescription(),
+                    request.getCallbackUrl(),
+                    request.getReturnUrl(),
+                    request.getCancelUrl(),
+                    "prod",
+                    request.getSenderPhone());
+
+            PayTechApi.PaymentResponse responseBody = paymentClient.exchange(
                     apiUrl + "/payment/request-payment",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
+                    new HttpEntity<>(body, createHeaders()),
+                    PayTechApi.PaymentResponse.class).getBody();
 
-            Map<String, Object> responseBody = response.getBody();
-
-            if (responseBody != null && Integer.valueOf(1).equals(responseBody.get("success"))) {
+            if (responseBody != null && isSuccess(responseBody.success())) {
                 return PaymentInitResponse.builder()
                         .success(true)
-                        .paymentUrl((String) responseBody.get("redirect_url"))
-                        .externalReference((String) responseBody.get("token"))
+                        .paymentUrl(responseBody.redirectUrl())
+                        .externalReference(responseBody.token())
                         .build();
             } else {
-                String errors = responseBody != null ? String.valueOf(responseBody.get("errors")) : "Unknown error";
+                String errors = responseBody != null ? String.valueOf(responseBody.errors()) : "Unknown error";
                 return PaymentInitResponse.builder()
                         .success(false)
                         .message(errors)
@@ -128,43 +148,40 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
                 request.getReference(), request.getAmount(), request.getCountry());
 
         try {
-            HttpHeaders headers = createHeaders();
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("amount", request.getAmount());
-            body.put("currency", request.getCurrency());
-            body.put("ref_command", request.getReference());
-            body.put("phone", normalizePhone(request.getRecipientPhone(), request.getCountry()));
-            body.put("country_code", request.getCountry().getIsoCode());
-            body.put("operator", getOperatorCode(request.getOperator()));
-            body.put("full_name", request.getRecipientName());
-            body.put("description", request.getDescription());
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            PayTechApi.MobilePayoutRequest body = new PayTechApi.MobilePayoutRequest(
+                    request.getAmount(),
+                    request.getCurrency(),
+                    request.getReference(),
+                    normalizePhone(request.getRecipientPhone(), request.getCountry()),
+                    request.getCountry().getIsoCode(),
+                    getOperatorCode(request.getOperator()),
+                    request.getRecipientName(),
+                    request.getDescription());
+
+            PayTechApi.MobilePayoutResponse responseBody = payoutClient.exchange(
                     apiUrl + "/payout/mobile-money",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
+                    new HttpEntity<>(body, createHeaders()),
+                    PayTechApi.MobilePayoutResponse.class).getBody();
 
-            if (responseBody != null && Integer.valueOf(1).equals(responseBody.get("success"))) {
+            if (responseBody != null && isSuccess(responseBody.success())) {
                 return PayoutResponse.builder()
                         .success(true)
                         .message("Payout initiated successfully")
-                        .externalReference((String) responseBody.get("reference"))
+                        .externalReference(responseBody.reference())
                         .transactionReference(request.getReference())
                         .status("PENDING")
                         .build();
             } else {
-                String errorMsg = responseBody != null ? String.valueOf(responseBody.get("message")) : "Payout failed";
+                String errorMsg = responseBody != null ? String.valueOf(responseBody.message()) : "Payout failed";
                 return PayoutResponse.builder()
                         .success(false)
                         .message(errorMsg)
                         .transactionReference(request.getReference())
                         .status("FAILED")
+                        // PayTech ne renvoie pas de code de refus (message libre): refus non interprété,
+                        // fallback possible et jamais de blocage du bénéficiaire
+                        .errorType(PayoutErrorType.TRANSIENT)
                         .build();
             }
         } catch (Exception e) {
@@ -174,6 +191,7 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
                     .message(e.getMessage())
                     .transactionReference(request.getReference())
                     .status("FAILED")
+                    .errorType(GatewayErrorClassifier.classify(e))
                     .build();
         }
     }
@@ -183,39 +201,32 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
         log.info("Checking PayTech payout status: ref={}", reference);
 
         try {
-            HttpHeaders headers = createHeaders();
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("ref_command", reference);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            PayTechApi.PayoutStatusResponse responseBody = statusClient.exchange(
                     apiUrl + "/payout/status",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
-
-            Map<String, Object> responseBody = response.getBody();
+                    new HttpEntity<>(new PayTechApi.StatusRequest(reference), createHeaders()),
+                    PayTechApi.PayoutStatusResponse.class).getBody();
 
-            if (responseBody != null && Integer.valueOf(1).equals(responseBody.get("success"))) {
-                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
+            if (responseBody != null && isSuccess(responseBody.success()) && responseBody.data() != null) {
+                PayTechApi.PayoutStatus data = responseBody.data();
                 return PayoutStatusResponse.builder()
                         .success(true)
-                        .status(mapPayoutStatus((String) data.get("status")))
-                        .externalReference((String) data.get("reference"))
-                        .amount(((Number) data.get("amount")).longValue())
+                        .status(mapPayoutStatus(data.status()))
+                        .externalReference(data.reference())
+                        .amount(data.amount())
                         .build();
             }
 
+            // Référence inconnue: uniquement sur un 404 (ci-dessous)
             return PayoutStatusResponse.builder()
                     .success(false)
-                    .message("Payout not found")
+                    .message("Payout status unavailable")
                     .build();
         } catch (Exception e) {
             log.error("PayTech payout status check error", e);
             return PayoutStatusResponse.builder()
                     .success(false)
+                    .notFound(e instanceof HttpClientErrorException.NotFound)
                     .message(e.getMessage())
                     .build();
         }
@@ -226,27 +237,18 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
         log.info("Checking PayTech transaction status: ref={}", transactionReference);
 
         try {
-            HttpHeaders headers = createHeaders();
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("ref_command", transactionReference);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
+            PayTechApi.PaymentStatusResponse responseBody = statusClient.exchange(
                     apiUrl + "/payment/check-status",
                     HttpMethod.POST,
-                    entity,
-                    Map.class);
+                    new HttpEntity<>(new PayTechApi.StatusRequest(transactionReference), createHeaders()),
+                    PayTechApi.PaymentStatusResponse.class).getBody();
 
-            Map<String, Object> responseBody = response.getBody();
-
-            if (responseBody != null && Integer.valueOf(1).equals(responseBody.get("success"))) {
-                String status = mapStatus((String) responseBody.get("status"));
+            if (responseBody != null && isSuccess(responseBody.success())) {
+                String status = mapStatus(responseBody.status());
                 return PaymentStatusResponse.builder()
                         .success(true)
                         .status(status)
-                        .message((String) responseBody.get("message"))
+                        .message(responseBody.message())
                         .build();
             }
 
@@ -266,10 +268,38 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
         }
     }
 
+    /**
+     * HMAC-SHA256 du corps brut si gateway.paytech.webhook-secret est configuré.
+     * Sans secret, l'authenticité ne peut être prouvée: le webhook est accepté
+     * mais son statut sera confirmé auprès de PayTech (signsWebhooks = false).
+     */
+    @Override
+    public boolean verifyWebhookSignature(byte[] payload, String signature) {
+        return webhookVerifier == null || webhookVerifier.verify(payload, signature);
+    }
+
+    @Override
+    public boolean signsWebhooks() {
+        return webhookVerifier != null;
+    }
+
     @Override
-    public boolean verifyWebhookSignature(String payload, String signature) {
-        // TODO: Implement PayTech webhook signature verification
-        return true;
+    public WebhookNotification parseWebhook(byte[] payload) {
+        try {
+            PayTechApi.Ipn ipn = WebhookBodyReader.read(objectMapper, payload, PayTechApi.Ipn.class);
+            String status = ipn.typeEvent() == null ? "UNKNOWN" : switch (ipn.typeEvent()) {
+                case "sale_complete" -> "COMPLETED";
+                case "sale_canceled" -> "CANCELLED";
+                default -> "UNKNOWN";
+            };
+            return WebhookNotification.builder()
+                    .reference(ipn.refCommand())
+                    .status(status)
+                    .build();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Unreadable PayTech IPN: {}", e.getMessage());
+            return null;
+        }
     }
 
     private HttpHeaders createHeaders() {
@@ -280,6 +310,10 @@ public class PayTechGateway implements PaymentGateway, PayoutGateway {
         return headers;
     }
 
+    private boolean isSuccess(Integer success) {
+        return success != null && success == PayTechApi.SUCCESS;
+    }
+
     private String normalizePhone(String phone, Country country) {
         String cleaned = phone.replaceAll("[\\s\\-+]", "");
         if (cleaned.startsWith("00")) {
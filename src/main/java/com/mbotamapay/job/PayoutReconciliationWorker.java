@@ -0,0 +1,347 @@
+package com.mbotamapay.job;
+
+import com.mbotamapay.entity.BridgeSaga;
+import com.mbotamapay.entity.BridgeSagaLeg;
+import com.mbotamapay.entity.Transaction;
+import com.mbotamapay.entity.TransactionPayoutPart;
+import com.mbotamapay.entity.enums.BridgeSagaStatus;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import com.mbotamapay.gateway.GatewayRegistry;
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutStatusResponse;
+import com.mbotamapay.repository.BridgeSagaRepository;
+import com.mbotamapay.repository.TransactionPayoutPartRepository;
+import com.mbotamapay.repository.TransactionRepository;
+import com.mbotamapay.service.SpendCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Réconciliation des transferts dont le payout a été émis (statut PENDING), ou dont
+ * l'issue est restée incertaine (statut PROCESSING: payout ambigu, split partiel)
+ *
+ * - lecture par pages sur l'id des transferts dont l'échéance (next_check_at) est passée
+ * - regroupement par gateway de payout: les gateways sont interrogées en parallèle,
+ *   chacune par lots via {@link PayoutGateway#checkPayoutStatuses}
+ * - statut terminal appliqué en une transaction courte par page; sinon backoff exponentiel
+ * - un payout toujours inconnu de la gateway après abandon-after-hours expire
+ *   (il n'a jamais été reçu)
+ * - un transfert SPLIT est réconcilié part par part, chacune avec sa propre référence;
+ *   un split dont une partie seulement a été payée reste PROCESSING pour revue manuelle
+ * - un transfert BRIDGE est vérifié sur le dernier leg ({ref}-L{n}, seul payé au bénéficiaire)
+ *   une fois la saga terminée; avant, la saga reste seule responsable de son issue
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PayoutReconciliationWorker {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionPayoutPartRepository payoutPartRepository;
+    private final BridgeSagaRepository sagaRepository;
+    private final GatewayRegistry gatewayRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final SpendCounterService spendCounters;
+
+    private static final List<TransactionStatus> RECONCILED_STATUSES =
+            List.of(TransactionStatus.PENDING, TransactionStatus.PROCESSING);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${payout.reconciliation.initial-delay-seconds:120}")
+    private long initialDelaySeconds;
+
+    @Value("${payout.reconciliation.batch-size:200}")
+    private int batchSize;
+
+    @Value("${payout.reconciliation.max-pages-per-run:10}")
+    private int maxPagesPerRun;
+
+    @Value("${payout.reconciliation.status-batch-size:10}")
+    private int statusBatchSize;
+
+    @Value("${payout.reconciliation.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${payout.reconciliation.backoff-max-seconds:900}")
+    private long backoffMaxSeconds;
+
+    @Value("${payout.reconciliation.abandon-after-hours:24}")
+    private long abandonAfterHours;
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${payout.reconciliation.interval-ms:30000}")
+    public void reconcilePendingPayouts() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdBefore = now.minusSeconds(initialDelaySeconds);
+
+        long afterId = 0L;
+        int checked = 0;
+        int updated = 0;
+        for (int page = 0; page < maxPagesPerRun; page++) {
+            List<Transaction> due = transactionRepository.findDuePayoutsForStatusCheck(
+                    RECONCILED_STATUSES, createdBefore, now, afterId, PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                break;
+            }
+            updated += reconcileBatch(due);
+            checked += due.size();
+            afterId = due.get(due.size() - 1).getId();
+            if (due.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (checked > 0) {
+            log.info("Reconciled {} pending payouts, {} updated", checked, updated);
+        }
+    }
+
+    /**
+     * @return nombre de transferts passés à un statut terminal
+     */
+    int reconcileBatch(List<Transaction> batch) {
+        List<Long> ids = batch.stream().map(Transaction::getId).toList();
+        Map<Long, List<TransactionPayoutPart>> partsByTransaction = payoutPartRepository.findByTransactionIds(ids)
+                .stream()
+                .collect(Collectors.groupingBy(part -> part.getTransaction().getId()));
+
+        // Transfert simple: sa référence; BRIDGE: celle du dernier leg; SPLIT: celles des parts non soldées
+        Map<String, BridgeSaga> sagasByReference = sagaRepository.findWithLegsByReferenceIn(batch.stream()
+                        .map(Transaction::getExternalReference)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(BridgeSaga::getReference, Function.identity()));
+        Map<GatewayType, List<PayoutCheck>> byGateway = batch.stream()
+                .filter(transaction -> !partsByTransaction.containsKey(transaction.getId()))
+                .filter(transaction -> transaction.getExternalReference() != null)
+                .map(transaction -> payoutCheck(transaction, sagasByReference.get(transaction.getExternalReference())))
+                .flatMap(Optional::stream)
+                .collect(Collectors.groupingBy(PayoutCheck::gateway,
+                        () -> new EnumMap<>(GatewayType.class), Collectors.toList()));
+        Map<GatewayType, List<TransactionPayoutPart>> partsByGateway = partsByTransaction.values().stream()
+                .flatMap(List::stream)
+                .filter(TransactionPayoutPart::isUnsettled)
+                .collect(Collectors.groupingBy(TransactionPayoutPart::getGateway,
+                        () -> new EnumMap<>(GatewayType.class), Collectors.toList()));
+
+        List<Future<Map<Long, PayoutStatusResponse>>> transactionChecks = new ArrayList<>();
+        byGateway.forEach((type, checks) -> findGateway(type)
+                .ifPresent(gateway -> transactionChecks.add(executor.submit(() -> checkGroup(
+                        gateway, checks, PayoutCheck::transactionId, PayoutCheck::reference)))));
+        List<Future<Map<Long, PayoutStatusResponse>>> partChecks = new ArrayList<>();
+        partsByGateway.forEach((type, parts) -> findGateway(type)
+                .ifPresent(gateway -> partChecks.add(executor.submit(() -> checkGroup(
+                        gateway, parts, TransactionPayoutPart::getId, TransactionPayoutPart::getCheckReference)))));
+
+        Map<Long, PayoutStatusResponse> statuses = collect(transactionChecks);
+        Map<Long, PayoutStatusResponse> partStatuses = collect(partChecks);
+
+        Integer updated = transactionTemplate.execute(tx -> applyStatuses(ids, statuses, partStatuses));
+        return updated != null ? updated : 0;
+    }
+
+    /**
+     * Référence à vérifier pour un transfert sans parts; vide tant que sa saga bridge n'est pas terminée
+     * (compensation ou revue en cours: le transfert n'est alors que replanifié)
+     */
+    private Optional<PayoutCheck> payoutCheck(Transaction transaction, BridgeSaga saga) {
+        if (saga == null) {
+            return Optional.ofNullable(transaction.getPayoutGateway())
+                    .map(gateway -> new PayoutCheck(transaction.getId(), gateway, transaction.getExternalReference()));
+        }
+        if (saga.getStatus() != BridgeSagaStatus.COMPLETED || saga.getLegs().isEmpty()) {
+            return Optional.empty();
+        }
+        BridgeSagaLeg lastLeg = saga.getLegs().get(saga.getLegs().size() - 1);
+        String reference = lastLeg.getExternalReference() != null
+                ? lastLeg.getExternalReference()
+                : saga.legReference(lastLeg.getLegNumber());
+        return Optional.of(new PayoutCheck(transaction.getId(), lastLeg.getGateway(), reference));
+    }
+
+    private Map<Long, PayoutStatusResponse> collect(List<Future<Map<Long, PayoutStatusResponse>>> checks) {
+        Map<Long, PayoutStatusResponse> statuses = new HashMap<>();
+        for (Future<Map<Long, PayoutStatusResponse>> check : checks) {
+            try {
+                statuses.putAll(check.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error("Payout status check failed: {}", e.getCause().getMessage());
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Interroge une gateway par lots successifs (au plus status-batch-size appels simultanés)
+     */
+    private <T> Map<Long, PayoutStatusResponse> checkGroup(PayoutGateway gateway, List<T> items,
+                                                          Function<T, Long> id, Function<T, String> reference) {
+        Map<Long, PayoutStatusResponse> statuses = new HashMap<>();
+        for (int from = 0; from < items.size(); from += statusBatchSize) {
+            List<T> chunk = items.subList(from, Math.min(from + statusBatchSize, items.size()));
+            List<PayoutStatusResponse> responses = gateway.checkPayoutStatuses(
+                    chunk.stream().map(reference).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                statuses.put(id.apply(chunk.get(i)), responses.get(i));
+            }
+        }
+        return statuses;
+    }
+
+    private int applyStatuses(Collection<Long> ids, Map<Long, PayoutStatusResponse> statuses,
+                              Map<Long, PayoutStatusResponse> partStatuses) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime abandonBefore = now.minusHours(abandonAfterHours);
+        List<Transaction> changed = new ArrayList<>();
+        int updated = 0;
+
+        // Relecture: le transfert a pu être mis à jour entre-temps (webhook, support)
+        Map<Long, List<TransactionPayoutPart>> partsByTransaction = payoutPartRepository.findByTransactionIds(ids)
+                .stream()
+                .collect(Collectors.groupingBy(part -> part.getTransaction().getId()));
+        for (Transaction transaction : transactionRepository.findAllById(ids)) {
+            TransactionStatus previous = transaction.getStatus();
+            if (!RECONCILED_STATUSES.contains(previous)) {
+                continue;
+            }
+            List<TransactionPayoutPart> parts = partsByTransaction.get(transaction.getId());
+            if (parts != null) {
+                if (applyPartStatuses(transaction, parts, partStatuses, now, abandonBefore)) {
+                    updated++;
+                }
+                changed.add(transaction);
+                continue;
+            }
+            PayoutStatusResponse status = statuses.get(transaction.getId());
+            String outcome = status != null && status.isSuccess() ? status.getStatus() : "UNKNOWN";
+            switch (outcome) {
+                case "COMPLETED" -> {
+                    transaction.setStatus(TransactionStatus.COMPLETED);
+                    transaction.setCompletedAt(now);
+                    updated++;
+                }
+                case "FAILED" -> {
+                    transaction.setStatus(TransactionStatus.FAILED);
+                    transaction.setDescription("Payout failed: " + status.getMessage());
+                    spendCounters.onStatusChange(transaction, previous);
+                    updated++;
+                }
+                case "CANCELLED" -> {
+                    transaction.setStatus(TransactionStatus.CANCELLED);
+                    spendCounters.onStatusChange(transaction, previous);
+                    updated++;
+                }
+                default -> {
+                    if (status != null && status.isNotFound() && transaction.getCreatedAt().isBefore(abandonBefore)) {
+                        transaction.setStatus(TransactionStatus.EXPIRED);
+                        spendCounters.onStatusChange(transaction, previous);
+                        updated++;
+                    } else {
+                        int attempts = transaction.getCheckAttempts() + 1;
+                        transaction.setCheckAttempts(attempts);
+                        transaction.setNextCheckAt(now.plusSeconds(backoffSeconds(attempts)));
+                    }
+                }
+            }
+            changed.add(transaction);
+        }
+
+        transactionRepository.saveAll(changed);
+        return updated;
+    }
+
+    /**
+     * Met à jour les parts d'un split puis le transfert: COMPLETED si toutes sont payées,
+     * FAILED si aucune ne l'est, sinon attente (parts non soldées) ou revue manuelle
+     *
+     * @return true si le transfert est passé à un statut terminal
+     */
+    private boolean applyPartStatuses(Transaction transaction, List<TransactionPayoutPart> parts,
+                                      Map<Long, PayoutStatusResponse> partStatuses,
+                                      LocalDateTime now, LocalDateTime abandonBefore) {
+        for (TransactionPayoutPart part : parts) {
+            PayoutStatusResponse status = partStatuses.get(part.getId());
+            if (!part.isUnsettled() || status == null) {
+                continue;
+            }
+            String outcome = status.isSuccess() ? status.getStatus() : "UNKNOWN";
+            switch (outcome) {
+                case "COMPLETED" -> part.setStatus(TransactionStatus.COMPLETED);
+                case "FAILED", "CANCELLED" -> {
+                    part.setStatus(TransactionStatus.FAILED);
+                    part.setErrorMessage(status.getMessage());
+                }
+                default -> {
+                    if (status.isNotFound() && transaction.getCreatedAt().isBefore(abandonBefore)) {
+                        part.setStatus(TransactionStatus.FAILED);
+                        part.setErrorMessage("Payout jamais reçu par la gateway");
+                    }
+                }
+            }
+        }
+        payoutPartRepository.saveAll(parts);
+
+        TransactionStatus previous = transaction.getStatus();
+        long paid = parts.stream().filter(p -> p.getStatus() == TransactionStatus.COMPLETED)
+                .mapToLong(TransactionPayoutPart::getAmount).sum();
+        if (parts.stream().anyMatch(TransactionPayoutPart::isUnsettled)) {
+            int attempts = transaction.getCheckAttempts() + 1;
+            transaction.setCheckAttempts(attempts);
+            transaction.setNextCheckAt(now.plusSeconds(backoffSeconds(attempts)));
+            return false;
+        }
+        if (parts.stream().allMatch(p -> p.getStatus() == TransactionStatus.COMPLETED)) {
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setCompletedAt(now);
+            return true;
+        }
+        if (paid == 0) {
+            transaction.setStatus(TransactionStatus.FAILED);
+            transaction.setDescription("Split payout failed: no part was paid");
+            spendCounters.onStatusChange(transaction, previous);
+            return true;
+        }
+
+        // Paiement partiel confirmé: ni complété ni remboursable automatiquement
+        log.error("Split transfer {} partially paid ({}/{} XOF), manual review required",
+                transaction.getId(), paid, transaction.getAmount());
+        transaction.setStatus(TransactionStatus.PROCESSING);
+        transaction.setDescription("Split partiel confirmé: " + paid + "/" + transaction.getAmount()
+                + " XOF payés, revue manuelle requise");
+        transaction.setNextCheckAt(now.plusHours(abandonAfterHours));
+        return false;
+    }
+
+    private Optional<PayoutGateway> findGateway(GatewayType type) {
+        return Optional.ofNullable(gatewayRegistry.getPayoutGateway(type));
+    }
+
+    private long backoffSeconds(int attempts) {
+        long delay = backoffBaseSeconds << Math.min(attempts - 1, 20);
+        return Math.min(delay, backoffMaxSeconds);
+    }
+
+    private record PayoutCheck(Long transactionId, GatewayType gateway, String reference) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.mbotamapay.job;
+
+import com.mbotamapay.entity.Transaction;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import com.mbotamapay.gateway.GatewayService;
+import com.mbotamapay.gateway.PaymentGateway;
+import com.mbotamapay.gateway.dto.PaymentStatusResponse;
+import com.mbotamapay.repository.TransactionRepository;
+import com.mbotamapay.service.SpendCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Vérification du statut des paiements en cours auprès des gateways
+ * (les transferts avec payout émis relèvent de PayoutReconciliationWorker)
+ *
+ * - seules les transactions dont l'échéance (next_check_at) est passée sont lues,
+ *   par pages successives sur l'id (pagination par clé, sans OFFSET)
+ * - les appels checkStatus d'une page sont faits en parallèle, bornés par gateway
+ * - les changements de statut d'une page sont écrits en une transaction courte,
+ *   jamais pendant les appels HTTP
+ * - une transaction toujours en cours est replanifiée avec un backoff exponentiel
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PendingTransactionPoller {
+
+    private final TransactionRepository transactionRepository;
+    private final GatewayService gatewayService;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+    private final SpendCounterService spendCounters;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Semaphore> gatewayPermits = new ConcurrentHashMap<>();
+
+    @Value("${transaction.poller.initial-delay-minutes:10}")
+    private long initialDelayMinutes;
+
+    @Value("${transaction.poller.batch-size:200}")
+    private int batchSize;
+
+    @Value("${transaction.poller.max-pages-per-run:25}")
+    private int maxPagesPerRun;
+
+    @Value("${transaction.poller.max-concurrent:4}")
+    private int defaultMaxConcurrent;
+
+    @Value("${transaction.poller.backoff-base-seconds:60}")
+    private long backoffBaseSeconds;
+
+    @Value("${transaction.poller.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.poller.interval-ms:60000}")
+    public void pollDueTransactions() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdBefore = now.minusMinutes(initialDelayMinutes);
+
+        long afterId = 0L;
+        int checked = 0;
+        int updated = 0;
+        for (int page = 0; page < maxPagesPerRun; page++) {
+            List<Transaction> due = transactionRepository.findDueForStatusCheck(
+                    TransactionStatus.PROCESSING, createdBefore, now, afterId, PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                break;
+            }
+            updated += pollBatch(due);
+            checked += due.size();
+            afterId = due.get(due.size() - 1).getId();
+            if (due.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (checked > 0) {
+            log.info("Checked {} pending transactions, {} updated", checked, updated);
+        }
+    }
+
+    /**
+     * @return nombre de transactions passées à un statut terminal
+     */
+    int pollBatch(List<Transaction> batch) {
+        Map<Long, Future<String>> checks = new LinkedHashMap<>();
+        for (Transaction transaction : batch) {
+            String platform = transaction.getPlatform();
+            String reference = transaction.getExternalReference();
+            checks.put(transaction.getId(), executor.submit(() -> check(platform, reference)));
+        }
+
+        Map<Long, String> statuses = new HashMap<>();
+        checks.forEach((id, future) -> {
+            try {
+                String status = future.get();
+                if (status != null) {
+                    statuses.put(id, status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error("Failed to check status for transaction {}: {}", id, e.getCause().getMessage());
+            }
+        });
+
+        Integer updated = transactionTemplate.execute(tx -> applyStatuses(checks.keySet(), statuses));
+        return updated != null ? updated : 0;
+    }
+
+    private String check(String platform, String reference) throws InterruptedException {
+        if (reference == null) {
+            return null;
+        }
+        Semaphore permits = gatewayPermits.computeIfAbsent(platform.toLowerCase(Locale.ROOT),
+                key -> new Semaphore(environment.getProperty(
+                        "transaction.poller." + key + ".max-concurrent", Integer.class, defaultMaxConcurrent)));
+        permits.acquire();
+        try {
+            PaymentGateway gateway = gatewayService.getGateway(platform);
+            PaymentStatusResponse status = gateway.checkStatus(reference);
+            return status != null && status.isSuccess() ? status.getStatus() : null;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private int applyStatuses(Collection<Long> ids, Map<Long, String> statuses) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> changed = new ArrayList<>();
+        int updated = 0;
+
+        // Relecture: un webhook a pu terminer la transaction pendant les appels
+        for (Transaction transaction : transactionRepository.findAllById(ids)) {
+            if (transaction.getStatus() != TransactionStatus.PROCESSING) {
+                continue;
+            }
+            switch (statuses.getOrDefault(transaction.getId(), "UNKNOWN")) {
+                case "COMPLETED" -> {
+                    transaction.setStatus(TransactionStatus.COMPLETED);
+                    transaction.setCompletedAt(now);
+                    updated++;
+                }
+                case "FAILED" -> {
+                    transaction.setStatus(TransactionStatus.FAILED);
+                    spendCounters.onStatusChange(transaction, TransactionStatus.PROCESSING);
+                    updated++;
+                }
+                case "CANCELLED" -> {
+                    transaction.setStatus(TransactionStatus.CANCELLED);
+                    spendCounters.onStatusChange(transaction, TransactionStatus.PROCESSING);
+                    updated++;
+                }
+                // Toujours en cours (ou vérification impossible): prochaine échéance
+                default -> {
+                    int attempts = transaction.getCheckAttempts() + 1;
+                    transaction.setCheckAttempts(attempts);
+                    transaction.setNextCheckAt(now.plusSeconds(backoffSeconds(attempts)));
+                }
+            }
+            changed.add(transaction);
+        }
+
+        transactionRepository.saveAll(changed);
+        return updated;
+    }
+
+    private long backoffSeconds(int attempts) {
+        long delay = backoffBaseSeconds << Math.min(attempts - 1, 20);
+        return Math.min(delay, backoffMaxSeconds);
+    }
+}
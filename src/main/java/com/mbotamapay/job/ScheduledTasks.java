@@ -3,11 +3,9 @@ package com.mbotamapay.job;
 import com.mbotamapay.entity.OtpCode;
 import com.mbotamapay.entity.Transaction;
 import com.mbotamapay.entity.enums.TransactionStatus;
-import com.mbotamapay.gateway.GatewayService;
-import com.mbotamapay.gateway.PaymentGateway;
-import com.mbotamapay.gateway.dto.PaymentStatusResponse;
 import com.mbotamapay.repository.OtpRepository;
 import com.mbotamapay.repository.TransactionRepository;
+import com.mbotamapay.service.SpendCounterService;
 import com.mbotamapay.service.TokenBlacklistService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +19,7 @@ import java.util.List;
 /**
  * Scheduled Tasks
  * Handles automated maintenance and background processing
+ * (status polling of in-flight transactions: {@link PendingTransactionPoller})
  */
 @Component
 @RequiredArgsConstructor
@@ -29,8 +28,8 @@ public class ScheduledTasks {
 
     private final OtpRepository otpRepository;
     private final TransactionRepository transactionRepository;
-    private final GatewayService gatewayService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final SpendCounterService spendCounters;
 
     /**
      * Clean up expired OTP codes
@@ -50,55 +49,6 @@ public class ScheduledTasks {
         }
     }
 
-    /**
-     * Check status of pending transactions
-     * Runs every 5 minutes
-     */
-    @Scheduled(fixedRate = 300000) // 5 minutes
-    @Transactional
-    public void checkPendingTransactions() {
-        log.debug("Starting pending transaction check job...");
-
-        // Find transactions that have been processing for more than 10 minutes
-        LocalDateTime tenMinutesAgo = LocalDateTime.now().minusMinutes(10);
-        List<Transaction> pendingTransactions = transactionRepository
-                .findByStatusAndCreatedAtBefore(TransactionStatus.PROCESSING, tenMinutesAgo);
-
-        int updated = 0;
-        for (Transaction transaction : pendingTransactions) {
-            try {
-                PaymentGateway gateway = gatewayService.getGateway(transaction.getPlatform());
-                PaymentStatusResponse status = gateway.checkStatus(transaction.getExternalReference());
-
-                switch (status.getStatus()) {
-                    case "COMPLETED" -> {
-                        transaction.setStatus(TransactionStatus.COMPLETED);
-                        transaction.setCompletedAt(LocalDateTime.now());
-                        updated++;
-                    }
-                    case "FAILED" -> {
-                        transaction.setStatus(TransactionStatus.FAILED);
-                        updated++;
-                    }
-                    case "CANCELLED" -> {
-                        transaction.setStatus(TransactionStatus.CANCELLED);
-                        updated++;
-                    }
-                    // PENDING/PROCESSING - no change
-                }
-
-                transactionRepository.save(transaction);
-            } catch (Exception e) {
-                log.error("Failed to check status for transaction {}: {}",
-                        transaction.getId(), e.getMessage());
-            }
-        }
-
-        if (updated > 0) {
-            log.info("Updated {} pending transactions", updated);
-        }
-    }
-
     /**
      * Retry failed transactions (optional retrying)
      * Runs every 15 minutes
@@ -121,6 +71,18 @@ public class ScheduledTasks {
         }
     }
 
+    /**
+     * Purge spend counter buckets that left the 30-day window
+     * Runs once per day
+     */
+    @Scheduled(cron = "0 30 0 * * ?") // Every day at 00:30
+    public void purgeSpendBuckets() {
+        int deleted = spendCounters.purgeExpiredBuckets();
+        if (deleted > 0) {
+            log.info("Purged {} expired spend counter buckets", deleted);
+        }
+    }
+
     /**
      * Clean up expired blacklisted tokens
      * Runs every hour (delegated to TokenBlacklistService)
@@ -134,6 +96,7 @@ public class ScheduledTasks {
     /**
      * Mark abandoned transactions
      * Transactions stuck in PENDING for more than 24 hours are marked as EXPIRED
+     * Transfers whose payout was sent are left to {@link PayoutReconciliationWorker}
      * Runs once per day at midnight
      */
     @Scheduled(cron = "0 0 0 * * ?") // Every day at midnight
@@ -143,11 +106,12 @@ public class ScheduledTasks {
 
         LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
         List<Transaction> abandonedTransactions = transactionRepository
-                .findByStatusAndCreatedAtBefore(TransactionStatus.PENDING, oneDayAgo);
+                .findByStatusAndPayoutGatewayIsNullAndCreatedAtBefore(TransactionStatus.PENDING, oneDayAgo);
 
         for (Transaction transaction : abandonedTransactions) {
             transaction.setStatus(TransactionStatus.EXPIRED);
             transactionRepository.save(transaction);
+            spendCounters.onStatusChange(transaction, TransactionStatus.PENDING);
         }
 
         if (!abandonedTransactions.isEmpty()) {
@@ -0,0 +1,263 @@
+package com.mbotamapay.job;
+
+import com.mbotamapay.entity.Transaction;
+import com.mbotamapay.entity.WebhookEvent;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import com.mbotamapay.entity.enums.WebhookEventState;
+import com.mbotamapay.gateway.GatewayService;
+import com.mbotamapay.gateway.PaymentGateway;
+import com.mbotamapay.gateway.dto.PaymentStatusResponse;
+import com.mbotamapay.repository.TransactionRepository;
+import com.mbotamapay.repository.WebhookEventRepository;
+import com.mbotamapay.service.SpendCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Worker de la file des webhooks
+ *
+ * Traite les webhooks par lots:
+ * - regroupe les événements d'une même transaction
+ * - fait confiance au statut d'un webhook signé; sinon (statut absent, non terminal
+ *   ou signature non vérifiable) le confirme auprès du fournisseur, en parallèle borné
+ * - applique tous les changements de statut du lot en une transaction, sur des lignes relues
+ * - une confirmation impossible est retentée avec un backoff exponentiel, puis abandonnée (FAILED)
+ * Un événement non concluant (paiement encore en cours) est retiré de la file pour
+ * qu'un webhook ultérieur identique puisse être reçu à nouveau.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookEventWorker {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final TransactionRepository transactionRepository;
+    private final GatewayService gatewayService;
+    private final TransactionTemplate transactionTemplate;
+    private final SpendCounterService spendCounters;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${webhook.worker.batch-size:100}")
+    private int batchSize;
+
+    @Value("${webhook.worker.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${webhook.worker.max-concurrent-confirmations:8}")
+    private int maxConcurrentConfirmations;
+
+    @Value("${webhook.worker.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${webhook.worker.retry-base-seconds:5}")
+    private long retryBaseSeconds;
+
+    @Value("${webhook.worker.retry-max-seconds:600}")
+    private long retryMaxSeconds;
+
+    @Value("${webhook.retention-days:7}")
+    private int retentionDays;
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.worker.interval-ms:1000}")
+    public void processPendingEvents() {
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            List<WebhookEvent> batch = webhookEventRepository.findDueByState(
+                    WebhookEventState.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            processBatch(batch);
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Purge quotidienne des webhooks traités
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void purgeProcessedEvents() {
+        int deleted = webhookEventRepository.deleteByStateNotAndReceivedAtBefore(
+                WebhookEventState.PENDING, LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} processed webhook events", deleted);
+        }
+    }
+
+    void processBatch(List<WebhookEvent> batch) {
+        // Un seul statut à déterminer par transaction
+        Map<String, List<WebhookEvent>> byReference = batch.stream()
+                .collect(Collectors.groupingBy(WebhookEvent::getReference, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, String> resolved = resolveStatuses(byReference);
+
+        List<Long> ids = batch.stream().map(WebhookEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(tx -> applyStatuses(ids, resolved));
+    }
+
+    /**
+     * Applique les statuts résolus en une transaction courte, sur des lignes relues
+     * (transaction ou événement mis à jour entre-temps: poller, réconciliation, renvoi)
+     */
+    private void applyStatuses(Collection<Long> ids, Map<String, String> resolved) {
+        Map<String, List<WebhookEvent>> byReference = webhookEventRepository.findAllById(ids).stream()
+                .filter(event -> event.getState() == WebhookEventState.PENDING)
+                .collect(Collectors.groupingBy(WebhookEvent::getReference, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, Transaction> transactions = transactionRepository.findByExternalReferenceIn(byReference.keySet())
+                .stream()
+                .collect(Collectors.toMap(Transaction::getExternalReference, Function.identity(), (a, b) -> a));
+
+        List<Transaction> updated = new ArrayList<>();
+        List<WebhookEvent> processed = new ArrayList<>();
+        List<WebhookEvent> inconclusive = new ArrayList<>();
+        List<WebhookEvent> retried = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        byReference.forEach((reference, events) -> {
+            String status = resolved.get(reference);
+            if (status == null) {
+                // Confirmation impossible: nouvelle tentative après backoff
+                for (WebhookEvent event : events) {
+                    event.setAttempts(event.getAttempts() + 1);
+                    if (event.getAttempts() >= maxAttempts) {
+                        event.setState(WebhookEventState.FAILED);
+                        event.setErrorMessage("Statut non confirmé après " + event.getAttempts() + " tentatives");
+                        event.setProcessedAt(now);
+                    } else {
+                        event.setNextAttemptAt(now.plusSeconds(retryDelaySeconds(event.getAttempts())));
+                    }
+                    retried.add(event);
+                }
+                return;
+            }
+            if (!TERMINAL_STATUSES.contains(status)) {
+                inconclusive.addAll(events);
+                return;
+            }
+
+            Transaction transaction = transactions.get(reference);
+            if (transaction == null) {
+                events.forEach(event -> event.setErrorMessage("Transaction inconnue"));
+            } else if (applyStatus(transaction, status, now)) {
+                updated.add(transaction);
+            }
+            events.forEach(event -> {
+                event.setState(WebhookEventState.PROCESSED);
+                event.setProcessedAt(now);
+            });
+            processed.addAll(events);
+        });
+
+        transactionRepository.saveAll(updated);
+        webhookEventRepository.saveAll(processed);
+        webhookEventRepository.saveAll(retried);
+        webhookEventRepository.deleteAllInBatch(inconclusive);
+
+        log.info("Webhook batch: {} event(s), {} transaction(s) updated, {} inconclusive, {} to retry",
+                ids.size(), updated.size(), inconclusive.size(), retried.size());
+    }
+
+    private long retryDelaySeconds(int attempts) {
+        long delay = retryBaseSeconds << Math.min(attempts - 1, 20);
+        return Math.min(delay, retryMaxSeconds);
+    }
+
+    /**
+     * Détermine le statut de chaque transaction du lot
+     * Statut terminal d'un webhook vérifié: appliqué tel quel. Sinon: confirmation (parallèle bornée).
+     *
+     * @return statut par référence (absent si la confirmation a échoué)
+     */
+    private Map<String, String> resolveStatuses(Map<String, List<WebhookEvent>> byReference) {
+        Map<String, String> resolved = new HashMap<>();
+        Map<String, Future<String>> confirmations = new LinkedHashMap<>();
+        Semaphore permits = new Semaphore(maxConcurrentConfirmations);
+
+        byReference.forEach((reference, events) -> {
+            Optional<String> trusted = events.stream()
+                    .filter(event -> Boolean.TRUE.equals(event.getVerified()))
+                    .map(WebhookEvent::getStatus)
+                    .filter(TERMINAL_STATUSES::contains)
+                    .findFirst();
+            if (trusted.isPresent()) {
+                resolved.put(reference, trusted.get());
+                return;
+            }
+            String platform = events.get(0).getPlatform();
+            confirmations.put(reference, executor.submit(() -> confirm(platform, reference, permits)));
+        });
+
+        confirmations.forEach((reference, future) -> {
+            try {
+                String status = future.get();
+                if (status != null) {
+                    resolved.put(reference, status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.warn("Webhook confirmation failed for {}: {}", reference, e.getCause().getMessage());
+            }
+        });
+        return resolved;
+    }
+
+    private String confirm(String platform, String reference, Semaphore permits) throws InterruptedException {
+        permits.acquire();
+        try {
+            PaymentGateway gateway = gatewayService.getGateway(platform);
+            PaymentStatusResponse status = gateway.checkStatus(reference);
+            if (status == null || !status.isSuccess()) {
+                return null;
+            }
+            return status.getStatus();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean applyStatus(Transaction transaction, String status, LocalDateTime now) {
+        // Un webhook tardif ne fait pas régresser une transaction déjà terminée
+        if (transaction.getStatus() != TransactionStatus.PENDING
+                && transaction.getStatus() != TransactionStatus.PROCESSING) {
+            return false;
+        }
+        TransactionStatus previous = transaction.getStatus();
+        switch (status) {
+            case "COMPLETED" -> {
+                transaction.setStatus(TransactionStatus.COMPLETED);
+                transaction.setCompletedAt(now);
+            }
+            case "FAILED" -> transaction.setStatus(TransactionStatus.FAILED);
+            case "CANCELLED" -> transaction.setStatus(TransactionStatus.CANCELLED);
+            default -> {
+                return false;
+            }
+        }
+        spendCounters.onStatusChange(transaction, previous);
+        log.info("Transaction {} updated to {} from webhook", transaction.getExternalReference(), status);
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mbotamapay.repository;
+
+import com.mbotamapay.entity.BridgeSagaLeg;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository des legs de saga bridge
+ */
+@Repository
+public interface BridgeSagaLegRepository extends JpaRepository<BridgeSagaLeg, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM BridgeSagaLeg l WHERE l.id = :id")
+    Optional<BridgeSagaLeg> findByIdForUpdate(Long id);
+}
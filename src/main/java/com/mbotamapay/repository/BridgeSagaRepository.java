@@ -0,0 +1,47 @@
+package com.mbotamapay.repository;
+
+import com.mbotamapay.entity.BridgeSaga;
+import com.mbotamapay.entity.enums.BridgeSagaStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository des sagas bridge
+ */
+@Repository
+public interface BridgeSagaRepository extends JpaRepository<BridgeSaga, Long> {
+
+    /**
+     * Charge une saga avec ses legs
+     */
+    @EntityGraph(attributePaths = "legs")
+    Optional<BridgeSaga> findWithLegsById(Long id);
+
+    /**
+     * Charge les sagas (avec leurs legs) d'un lot de références de transfert
+     */
+    @EntityGraph(attributePaths = "legs")
+    List<BridgeSaga> findWithLegsByReferenceIn(Collection<String> references);
+
+    /**
+     * Verrouille une saga (prise de bail)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BridgeSaga s WHERE s.id = :id")
+    Optional<BridgeSaga> findByIdForUpdate(Long id);
+
+    /**
+     * Sagas non terminées dont le bail a expiré (instance crashée ou bloquée)
+     */
+    @Query("SELECT s.id FROM BridgeSaga s WHERE s.status IN :statuses AND s.leaseUntil < :now ORDER BY s.id")
+    List<Long> findResumableIds(Collection<BridgeSagaStatus> statuses, LocalDateTime now);
+}
@@ -0,0 +1,34 @@
+package com.mbotamapay.repository;
+
+import com.mbotamapay.entity.CorridorDailyCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository des instantanés de compteurs par corridor
+ */
+@Repository
+public interface CorridorDailyCounterRepository extends JpaRepository<CorridorDailyCounter, CorridorDailyCounter.Key> {
+
+    List<CorridorDailyCounter> findByIdBucketDate(LocalDate bucketDate);
+
+    /**
+     * Ajoute les incréments d'une instance à la ligne partagée du corridor (créée si absente)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO corridor_daily_counters (source_country, dest_country, bucket_date, volume, tx_count, updated_at) "
+            + "VALUES (:sourceCountry, :destCountry, :day, :volume, :txCount, :now) "
+            + "ON CONFLICT (source_country, dest_country, bucket_date) DO UPDATE SET "
+            + "volume = corridor_daily_counters.volume + EXCLUDED.volume, "
+            + "tx_count = corridor_daily_counters.tx_count + EXCLUDED.tx_count, "
+            + "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int addDelta(String sourceCountry, String destCountry, LocalDate day, long volume, int txCount, LocalDateTime now);
+}
@@ -0,0 +1,19 @@
+package com.mbotamapay.repository;
+
+import com.mbotamapay.entity.TransactionPayoutPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository des parts de payout des transferts SPLIT
+ */
+@Repository
+public interface TransactionPayoutPartRepository extends JpaRepository<TransactionPayoutPart, Long> {
+
+    @Query("SELECT p FROM TransactionPayoutPart p WHERE p.transaction.id IN :transactionIds ORDER BY p.partNumber ASC")
+    List<TransactionPayoutPart> findByTransactionIds(Collection<Long> transactionIds);
+}
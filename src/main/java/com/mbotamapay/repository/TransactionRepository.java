@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,8 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     Optional<Transaction> findByExternalReference(String externalReference);
 
+    List<Transaction> findByExternalReferenceIn(Collection<String> externalReferences);
+
     List<Transaction> findByStatus(TransactionStatus status);
 
     @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.sender.id = :userId AND t.status = 'COMPLETED' AND t.createdAt >= :startDate")
@@ -37,6 +40,30 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      */
     List<Transaction> findByStatusAndCreatedAtBefore(TransactionStatus status, LocalDateTime date);
 
+    /**
+     * Paiements entrants (sans payout) dont la vérification de statut est due, paginés par clé (id croissant)
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.status = :status AND t.payoutGateway IS NULL "
+            + "AND t.createdAt < :createdBefore "
+            + "AND (t.nextCheckAt IS NULL OR t.nextCheckAt <= :now) AND t.id > :afterId ORDER BY t.id ASC")
+    List<Transaction> findDueForStatusCheck(TransactionStatus status, LocalDateTime createdBefore,
+                                            LocalDateTime now, Long afterId, Pageable pageable);
+
+    /**
+     * Transferts (payout émis) dont la vérification de statut est due, paginés par clé (id croissant)
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.status IN :statuses AND t.payoutGateway IS NOT NULL "
+            + "AND t.createdAt < :createdBefore AND (t.nextCheckAt IS NULL OR t.nextCheckAt <= :now) "
+            + "AND t.id > :afterId ORDER BY t.id ASC")
+    List<Transaction> findDuePayoutsForStatusCheck(Collection<TransactionStatus> statuses,
+                                                   LocalDateTime createdBefore, LocalDateTime now,
+                                                   Long afterId, Pageable pageable);
+
+    /**
+     * Transactions sans payout (collectes) par statut, créées avant une date
+     */
+    List<Transaction> findByStatusAndPayoutGatewayIsNullAndCreatedAtBefore(TransactionStatus status, LocalDateTime date);
+
     /**
      * Find transactions by status created after a certain date
      */
@@ -0,0 +1,54 @@
+package com.mbotamapay.repository;
+
+import com.mbotamapay.entity.UserSpendBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Repository des compteurs de dépenses journaliers
+ */
+@Repository
+public interface UserSpendBucketRepository extends JpaRepository<UserSpendBucket, UserSpendBucket.Key> {
+
+    /**
+     * Crée le compteur du jour s'il n'existe pas encore
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_spend_buckets (user_id, bucket_date, amount) VALUES (:userId, :day, 0) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(Long userId, LocalDate day);
+
+    /**
+     * Incrément conditionnel: 0 ligne modifiée si la limite serait dépassée
+     * La ligne reste verrouillée jusqu'au commit (réservations d'un même utilisateur sérialisées).
+     */
+    @Modifying
+    @Query("UPDATE UserSpendBucket b SET b.amount = b.amount + :amount "
+            + "WHERE b.id.userId = :userId AND b.id.bucketDate = :day AND b.amount + :amount <= :limit")
+    int addWithinLimit(Long userId, LocalDate day, long amount, long limit);
+
+    /**
+     * Libère un montant réservé (jamais en dessous de zéro)
+     */
+    @Modifying
+    @Query("UPDATE UserSpendBucket b SET b.amount = CASE WHEN b.amount > :amount THEN b.amount - :amount ELSE 0 END "
+            + "WHERE b.id.userId = :userId AND b.id.bucketDate = :day")
+    int subtract(Long userId, LocalDate day, long amount);
+
+    @Query("SELECT COALESCE(SUM(b.amount), 0) FROM UserSpendBucket b "
+            + "WHERE b.id.userId = :userId AND b.id.bucketDate >= :since")
+    long sumSince(Long userId, LocalDate since);
+
+    /**
+     * Purge des compteurs sortis de la fenêtre glissante
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserSpendBucket b WHERE b.id.bucketDate < :before")
+    int deleteByBucketDateBefore(LocalDate before);
+}
@@ -0,0 +1,38 @@
+package com.mbotamapay.repository;
+
+import com.mbotamapay.entity.WebhookEvent;
+import com.mbotamapay.entity.enums.WebhookEventState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository de la file des webhooks
+ */
+@Repository
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+
+    Optional<WebhookEvent> findByPlatformAndReferenceAndStatus(String platform, String reference, String status);
+
+    /**
+     * Prochain lot d'événements à traiter (échéance de nouvelle tentative passée), par ordre d'arrivée
+     */
+    @Query("SELECT e FROM WebhookEvent e WHERE e.state = :state "
+            + "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.id ASC")
+    List<WebhookEvent> findDueByState(WebhookEventState state, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Purge des événements traités anciens
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WebhookEvent e WHERE e.state <> :state AND e.receivedAt < :before")
+    int deleteByStateNotAndReceivedAtBefore(WebhookEventState state, LocalDateTime before);
+}
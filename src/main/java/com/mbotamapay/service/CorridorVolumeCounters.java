@@ -0,0 +1,228 @@
+package com.mbotamapay.service;
+
+import com.mbotamapay.entity.CorridorDailyCounter;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.repository.CorridorDailyCounterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Volume et nombre de transferts du jour par corridor
+ *
+ * Compteurs en mémoire (LongAdder, répartis en cellules sous contention) indexés par
+ * source.ordinal() * nbPays + dest.ordinal(): la vérification ne fait ni requête ni allocation.
+ * Remis à zéro à minuit (heure locale), rechargés au démarrage et sauvegardés périodiquement
+ * par incréments: chaque instance ajoute ce qu'elle a compté depuis sa dernière sauvegarde
+ * à la ligne partagée du corridor, sans écraser celles des autres.
+ * Les refus sont décidés sur les compteurs de l'instance; avec enforce=false ils comptent sans refuser.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CorridorVolumeCounters {
+
+    public enum Breach {
+        VOLUME,
+        COUNT
+    }
+
+    private static final Country[] COUNTRIES = Country.values();
+    private static final int CORRIDORS = COUNTRIES.length * COUNTRIES.length;
+
+    private final CorridorDailyCounterRepository counterRepository;
+
+    @Value("${corridor-counters.enforce:true}")
+    private boolean enforce;
+
+    private final Object flushLock = new Object();
+    private volatile Day current = new Day(LocalDate.now());
+    // Journée terminée pas encore sauvegardée
+    private volatile Day previous;
+
+    /**
+     * Compteurs d'une journée, remplacés en bloc à minuit
+     */
+    private static final class Day {
+        final LocalDate date;
+        final long endMillis;
+        final LongAdder[] volume = new LongAdder[CORRIDORS];
+        final LongAdder[] count = new LongAdder[CORRIDORS];
+        // Valeurs déjà reportées dans la base (accès sous flushLock)
+        final long[] flushedVolume = new long[CORRIDORS];
+        final long[] flushedCount = new long[CORRIDORS];
+
+        Day(LocalDate date) {
+            this.date = date;
+            this.endMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            for (int i = 0; i < CORRIDORS; i++) {
+                volume[i] = new LongAdder();
+                count[i] = new LongAdder();
+            }
+        }
+    }
+
+    static int corridorId(Country source, Country dest) {
+        return source.ordinal() * COUNTRIES.length + dest.ordinal();
+    }
+
+    @PostConstruct
+    void loadToday() {
+        Day day = current;
+        for (CorridorDailyCounter row : counterRepository.findByIdBucketDate(day.date)) {
+            int id = corridorId(row.getId().getSourceCountry(), row.getId().getDestCountry());
+            day.volume[id].add(row.getVolume());
+            day.count[id].add(row.getTxCount());
+            day.flushedVolume[id] = row.getVolume();
+            day.flushedCount[id] = row.getTxCount();
+        }
+        log.info("Corridor counters loaded for {}", day.date);
+    }
+
+    /**
+     * Réserve un transfert sur le corridor (limites null = pas de limite)
+     * Dans une transaction, la réservation est libérée si elle est annulée.
+     *
+     * @return la limite dépassée, vide si le transfert est accepté
+     */
+    public Optional<Breach> reserve(Country source, Country dest, long amount, Long dailyLimit, Integer maxTransactions) {
+        Day day = today();
+        int id = corridorId(source, dest);
+        LongAdder volume = day.volume[id];
+        LongAdder count = day.count[id];
+
+        // Ajout puis lecture: de deux réservations concurrentes, au moins une voit l'autre,
+        // la limite ne peut donc pas être dépassée
+        volume.add(amount);
+        count.increment();
+        Breach breach = null;
+        if (dailyLimit != null && volume.sum() > dailyLimit) {
+            breach = Breach.VOLUME;
+        } else if (maxTransactions != null && count.sum() > maxTransactions) {
+            breach = Breach.COUNT;
+        }
+        if (breach != null && enforce) {
+            volume.add(-amount);
+            count.decrement();
+            return Optional.of(breach);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        release(day, id, amount);
+                    }
+                }
+            });
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Libère un transfert échoué réservé le jour donné (après commit si une transaction est active)
+     */
+    public void release(Country source, Country dest, long amount, LocalDate reservedOn) {
+        Day day = current;
+        if (!day.date.equals(reservedOn)) {
+            return;
+        }
+        int id = corridorId(source, dest);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(day, id, amount);
+                }
+            });
+        } else {
+            release(day, id, amount);
+        }
+    }
+
+    public long getVolume(Country source, Country dest) {
+        return today().volume[corridorId(source, dest)].sum();
+    }
+
+    public long getCount(Country source, Country dest) {
+        return today().count[corridorId(source, dest)].sum();
+    }
+
+    /**
+     * Report en base des incréments depuis le dernier passage
+     */
+    @Scheduled(fixedDelayString = "${corridor-counters.flush-interval-ms:15000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Day ended = previous;
+            if (ended != null) {
+                persist(ended);
+                previous = null;
+            }
+            persist(today());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Corridor counters not saved on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private void persist(Day day) {
+        LocalDateTime now = LocalDateTime.now();
+        int saved = 0;
+        for (int id = 0; id < CORRIDORS; id++) {
+            long volume = day.volume[id].sum();
+            long count = day.count[id].sum();
+            if (volume == day.flushedVolume[id] && count == day.flushedCount[id]) {
+                continue;
+            }
+            counterRepository.addDelta(COUNTRIES[id / COUNTRIES.length].name(), COUNTRIES[id % COUNTRIES.length].name(),
+                    day.date, volume - day.flushedVolume[id], (int) (count - day.flushedCount[id]), now);
+            // Reporté seulement après succès: un échec est rejoué au passage suivant, sans doublon
+            day.flushedVolume[id] = volume;
+            day.flushedCount[id] = count;
+            saved++;
+        }
+        if (saved > 0) {
+            log.debug("Corridor counters saved: date={}, corridors={}", day.date, saved);
+        }
+    }
+
+    private Day today() {
+        Day day = current;
+        return System.currentTimeMillis() < day.endMillis ? day : rollOver();
+    }
+
+    private synchronized Day rollOver() {
+        Day day = current;
+        if (System.currentTimeMillis() >= day.endMillis) {
+            previous = day;
+            current = new Day(LocalDate.now());
+            log.info("Corridor counters reset for {}", current.date);
+        }
+        return current;
+    }
+
+    private static void release(Day day, int id, long amount) {
+        day.volume[id].add(-amount);
+        day.count[id].decrement();
+    }
+}
@@ -10,14 +10,12 @@ import com.mbotamapay.entity.enums.VerificationStatus;
 import com.mbotamapay.exception.BadRequestException;
 import com.mbotamapay.exception.ResourceNotFoundException;
 import com.mbotamapay.repository.KycDocumentRepository;
-import com.mbotamapay.repository.TransactionRepository;
 import com.mbotamapay.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,7 +30,7 @@ public class KycService {
 
     private final UserRepository userRepository;
     private final KycDocumentRepository kycDocumentRepository;
-    private final TransactionRepository transactionRepository;
+    private final SpendCounterService spendCounters;
     private final EmailService emailService;
     @org.springframework.beans.factory.annotation.Value("${kyc.auto-approve:false}")
     private boolean autoApprove;
@@ -52,10 +50,7 @@ public class KycService {
         List<KycDocument> documents = kycDocumentRepository.findByUserId(userId);
 
         // Calculate transaction limit usage (last 30 days)
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        Long usedAmount = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(userId, thirtyDaysAgo);
-        if (usedAmount == null)
-            usedAmount = 0L;
+        long usedAmount = spendCounters.getUsage(userId).rolling();
 
         long limit = user.getTransactionLimit();
         long remaining = Math.max(0, limit - usedAmount);
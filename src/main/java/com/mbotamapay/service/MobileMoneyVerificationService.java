@@ -1,16 +1,31 @@
 package com.mbotamapay.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.mbotamapay.dto.verification.MobileMoneyVerificationResult;
 import com.mbotamapay.entity.enums.Country;
-import com.mbotamapay.entity.enums.GatewayType;
 import com.mbotamapay.entity.enums.MobileOperator;
+import com.mbotamapay.gateway.GatewayRegistry;
 import com.mbotamapay.gateway.PayoutGateway;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service de vérification des numéros Mobile Money
@@ -18,13 +33,65 @@ import java.util.Optional;
  * Deux niveaux de vérification:
  * 1. Validation locale (préfixes) - rapide, hors ligne
  * 2. Vérification API (gateway) - plus fiable, vérifie l'existence du compte
+ *
+ * Les résultats API sont mis en cache par numéro normalisé (TTL plus court pour
+ * les comptes introuvables); les vérifications simultanées d'un même numéro
+ * partagent un seul appel.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class MobileMoneyVerificationService {
 
-    private final List<PayoutGateway> payoutGateways;
+    private final GatewayRegistry gatewayRegistry;
+
+    @Value("${verification.cache.positive-ttl-minutes:60}")
+    private long positiveTtlMinutes;
+
+    @Value("${verification.cache.negative-ttl-minutes:5}")
+    private long negativeTtlMinutes;
+
+    @Value("${verification.cache.max-size:50000}")
+    private long maxCacheSize;
+
+    @Value("${verification.api-timeout-ms:5000}")
+    private long apiTimeoutMs;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncCache<String, MobileMoneyVerificationResult> verificationCache;
+
+    @PostConstruct
+    void initCache() {
+        verificationCache = Caffeine.newBuilder()
+                .maximumSize(maxCacheSize)
+                .executor(executor)
+                .expireAfter(new Expiry<String, MobileMoneyVerificationResult>() {
+                    @Override
+                    public long expireAfterCreate(String phone, MobileMoneyVerificationResult result, long currentTime) {
+                        return timeToLive(result);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String phone, MobileMoneyVerificationResult result,
+                                                  long currentTime, long currentDuration) {
+                        return timeToLive(result);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String phone, MobileMoneyVerificationResult result,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
 
     /**
      * Validation locale basée sur les préfixes téléphoniques
@@ -107,8 +174,36 @@ public class MobileMoneyVerificationService {
             return localResult;
         }
 
-        // Récupérer l'opérateur
-        String normalized = localResult.getNormalizedPhone();
+        // Un seul appel en cours par numéro: les demandes simultanées attendent le même résultat
+        return verificationCache.get(localResult.getNormalizedPhone(),
+                (normalized, cacheExecutor) -> CompletableFuture.supplyAsync(
+                        () -> verifyWithGateways(normalized, localResult), cacheExecutor))
+                .join();
+    }
+
+    /**
+     * Résultat API déjà en cache pour ce numéro, sans appel gateway
+     * (ex: vérification faite à la saisie du bénéficiaire, juste avant le transfert)
+     */
+    public Optional<MobileMoneyVerificationResult> findCachedVerification(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.isBlank()) {
+            return Optional.empty();
+        }
+        CompletableFuture<MobileMoneyVerificationResult> cached =
+                verificationCache.getIfPresent(normalizePhone(phoneNumber));
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cached.getNow(null))
+                .filter(MobileMoneyVerificationResult::isApiVerified);
+    }
+
+    /**
+     * Interroge en parallèle les passerelles qui supportent l'opérateur:
+     * la première réponse concluante est retenue, les autres appels sont annulés
+     */
+    private MobileMoneyVerificationResult verifyWithGateways(String normalized,
+                                                             MobileMoneyVerificationResult localResult) {
         Optional<Country> countryOpt = Country.fromPhoneNumber(normalized);
         Optional<MobileOperator> operatorOpt = countryOpt.flatMap(
                 c -> MobileOperator.fromPhoneNumber(normalized, c));
@@ -120,31 +215,36 @@ public class MobileMoneyVerificationService {
         MobileOperator operator = operatorOpt.get();
         Country country = countryOpt.get();
 
-        // Trouver une passerelle qui supporte cet opérateur
-        for (GatewayType gatewayType : operator.getSupportedGateways()) {
-            Optional<PayoutGateway> gatewayOpt = findGateway(gatewayType);
-            if (gatewayOpt.isPresent()) {
-                PayoutGateway gateway = gatewayOpt.get();
-
-                try {
-                    // Appeler l'API de vérification
-                    MobileMoneyVerificationResult apiResult = gateway.verifySubscriber(
-                            normalized, country, operator);
-
-                    if (apiResult != null) {
-                        // Enrichir avec les infos locales
-                        apiResult.setCountry(country.getDisplayName());
-                        apiResult.setOperator(operator.getDisplayName());
-                        apiResult.setOperatorCode(operator.name());
-                        apiResult.setNormalizedPhone(normalized);
-                        apiResult.setMobileMoneySupported(true);
-                        return apiResult;
-                    }
-                } catch (Exception e) {
-                    log.warn("API verification failed for gateway {}: {}",
-                            gatewayType, e.getMessage());
+        CompletionService<MobileMoneyVerificationResult> completion = new ExecutorCompletionService<>(executor);
+        List<Future<MobileMoneyVerificationResult>> calls = new ArrayList<>();
+        for (PayoutGateway gateway : gatewayRegistry.getPayoutGateways(operator)) {
+            calls.add(completion.submit(() -> gateway.verifySubscriber(normalized, country, operator)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(apiTimeoutMs);
+        try {
+            for (int i = 0; i < calls.size(); i++) {
+                Future<MobileMoneyVerificationResult> done =
+                        completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    log.warn("API verification timed out after {} ms", apiTimeoutMs);
+                    break;
+                }
+                MobileMoneyVerificationResult apiResult = resultOf(done);
+                if (apiResult != null) {
+                    // Enrichir avec les infos locales
+                    apiResult.setCountry(country.getDisplayName());
+                    apiResult.setOperator(operator.getDisplayName());
+                    apiResult.setOperatorCode(operator.name());
+                    apiResult.setNormalizedPhone(normalized);
+                    apiResult.setMobileMoneySupported(true);
+                    return apiResult;
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            calls.forEach(call -> call.cancel(true));
         }
 
         // Si l'API échoue, retourner le résultat local
@@ -152,6 +252,26 @@ public class MobileMoneyVerificationService {
         return localResult;
     }
 
+    private MobileMoneyVerificationResult resultOf(Future<MobileMoneyVerificationResult> call)
+            throws InterruptedException {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            log.warn("API verification failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Durée de conservation: compte trouvé, compte introuvable, ou rien (repli local non concluant)
+     */
+    private long timeToLive(MobileMoneyVerificationResult result) {
+        if (result == null || !result.isApiVerified()) {
+            return 0;
+        }
+        return TimeUnit.MINUTES.toNanos(result.isValid() ? positiveTtlMinutes : negativeTtlMinutes);
+    }
+
     /**
      * Normalise un numéro de téléphone
      */
@@ -170,10 +290,4 @@ public class MobileMoneyVerificationService {
 
         return phone.startsWith("+") ? phone : "+" + cleaned;
     }
-
-    private Optional<PayoutGateway> findGateway(GatewayType type) {
-        return payoutGateways.stream()
-                .filter(g -> g.getGatewayType() == type)
-                .findFirst();
-    }
 }
@@ -0,0 +1,99 @@
+package com.mbotamapay.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.MobileOperator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Mémoire des bénéficiaires en échec terminal (wallet invalide, fermé, inactif)
+ *
+ * Évite de refaire le même aller-retour voué à l'échec sur toutes les gateways de fallback.
+ * Clé: numéro normalisé + opérateur. Taille bornée, les entrées expirent d'elles-mêmes
+ * (un wallet peut être réactivé) et un payout accepté efface l'entrée.
+ */
+@Service
+@Slf4j
+public class RecipientFailureStore {
+
+    public record TerminalFailure(String reason, Instant failedAt) {
+    }
+
+    @Value("${recipient-failures.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${recipient-failures.max-size:100000}")
+    private long maxSize;
+
+    private Cache<String, TerminalFailure> failures;
+
+    @PostConstruct
+    void initStore() {
+        failures = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    /**
+     * Enregistre un échec terminal côté bénéficiaire
+     */
+    public void recordTerminalFailure(String recipientPhone, String reason) {
+        String key = key(recipientPhone);
+        if (key != null) {
+            failures.put(key, new TerminalFailure(reason, Instant.now()));
+            log.info("Recipient marked as terminally failing: {}", key);
+        }
+    }
+
+    /**
+     * Payout accepté pour ce bénéficiaire: on oublie l'échec
+     */
+    public void recordSuccess(String recipientPhone) {
+        String key = key(recipientPhone);
+        if (key != null) {
+            failures.invalidate(key);
+        }
+    }
+
+    public Optional<TerminalFailure> findTerminalFailure(String recipientPhone) {
+        String key = key(recipientPhone);
+        return key != null ? Optional.ofNullable(failures.getIfPresent(key)) : Optional.empty();
+    }
+
+    /**
+     * Chiffres du numéro (sans +, 00, espaces) suivis de l'opérateur détecté
+     */
+    private static String key(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (phoneNumber.stripLeading().startsWith("00") && digits.length() > 2) {
+            digits.delete(0, 2);
+        }
+        if (digits.isEmpty()) {
+            return null;
+        }
+        String normalized = digits.toString();
+        String operator = Country.fromPhoneNumber(normalized)
+                .flatMap(country -> MobileOperator.fromPhoneNumber(normalized, country))
+                .map(Enum::name)
+                .orElse("UNKNOWN");
+        return normalized + ":" + operator;
+    }
+}
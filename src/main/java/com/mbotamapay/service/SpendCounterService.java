@@ -0,0 +1,143 @@
+package com.mbotamapay.service;
+
+import com.mbotamapay.entity.Transaction;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import com.mbotamapay.repository.UserSpendBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Compteurs de dépenses par utilisateur (jour et 30 jours glissants)
+ *
+ * Un transfert réserve son montant dans une transaction courte (incrément conditionnel
+ * du compteur du jour, puis contrôle de la fenêtre glissante): le verrou sur la ligne
+ * du jour n'est pas tenu pendant les appels de payout. Le montant est libéré quand le
+ * transfert échoue, est annulé ou expire, ou par l'appelant si la transaction qui crée
+ * le transfert est annulée. Deux transferts simultanés d'un même utilisateur ne peuvent
+ * pas passer tous les deux la vérification. Le changement de statut d'un transfert
+ * libère aussi sa réservation sur les compteurs du corridor.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SpendCounterService {
+
+    public static final int ROLLING_WINDOW_DAYS = 30;
+
+    public enum LimitType {
+        DAILY,
+        ROLLING
+    }
+
+    /**
+     * Résultat d'une réservation: used = montant déjà engagé sur la période refusée,
+     * day = journée du compteur réservé (à passer à release)
+     */
+    public record Reservation(boolean accepted, LimitType exceeded, long used, LocalDate day) {
+
+        static Reservation accepted(LocalDate day) {
+            return new Reservation(true, null, 0, day);
+        }
+
+        static Reservation rejected(LimitType exceeded, long used, LocalDate day) {
+            return new Reservation(false, exceeded, used, day);
+        }
+    }
+
+    /**
+     * Utilisation courante (lecture seule)
+     */
+    public record Usage(long today, long rolling) {
+    }
+
+    private final UserSpendBucketRepository bucketRepository;
+    private final CorridorVolumeCounters corridorCounters;
+
+    /**
+     * Réserve un montant si les deux limites le permettent (Long.MAX_VALUE = pas de limite)
+     * Commitée immédiatement: si la transaction qui crée le transfert est annulée, l'appelant libère
+     * la réservation avec {@link #release}.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Reservation reserve(Long userId, long amount, long dailyLimit, long rollingLimit) {
+        LocalDate today = LocalDate.now();
+        bucketRepository.insertIfAbsent(userId, today);
+
+        if (bucketRepository.addWithinLimit(userId, today, amount, dailyLimit) == 0) {
+            return Reservation.rejected(LimitType.DAILY, bucketRepository.sumSince(userId, today), today);
+        }
+
+        // La ligne du jour est verrouillée: la somme glissante ne peut pas changer sous nos pieds
+        if (rollingLimit != Long.MAX_VALUE) {
+            long rollingUsed = bucketRepository.sumSince(userId, rollingWindowStart(today));
+            if (rollingUsed > rollingLimit) {
+                bucketRepository.subtract(userId, today, amount);
+                return Reservation.rejected(LimitType.ROLLING, rollingUsed - amount, today);
+            }
+        }
+        return Reservation.accepted(today);
+    }
+
+    /**
+     * Libère une réservation dont le transfert n'a pas été créé (rollback de la transaction appelante)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(Long userId, long amount, LocalDate reservedOn) {
+        bucketRepository.subtract(userId, reservedOn, amount);
+        log.debug("Spend reservation released: userId={}, amount={}, day={}", userId, amount, reservedOn);
+    }
+
+    /**
+     * Libère les réservations (utilisateur et corridor) d'un transfert qui passe d'un statut
+     * engagé à un statut d'échec (à appeler après le changement de statut, avec le statut précédent)
+     */
+    @Transactional
+    public void onStatusChange(Transaction transaction, TransactionStatus previousStatus) {
+        if (!isCommitted(previousStatus) || isCommitted(transaction.getStatus())
+                || transaction.getCreatedAt() == null) {
+            return;
+        }
+        LocalDate reservedOn = transaction.getCreatedAt().toLocalDate();
+        if (transaction.getSender() != null) {
+            bucketRepository.subtract(transaction.getSender().getId(), reservedOn, transaction.getAmount());
+            log.debug("Spend released: userId={}, amount={}, status={}",
+                    transaction.getSender().getId(), transaction.getAmount(), transaction.getStatus());
+        }
+        if (transaction.getSourceCountry() != null && transaction.getDestCountry() != null) {
+            corridorCounters.release(transaction.getSourceCountry(), transaction.getDestCountry(),
+                    transaction.getAmount(), reservedOn);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Usage getUsage(Long userId) {
+        LocalDate today = LocalDate.now();
+        return new Usage(bucketRepository.sumSince(userId, today),
+                bucketRepository.sumSince(userId, rollingWindowStart(today)));
+    }
+
+    /**
+     * Suppression des compteurs sortis de la fenêtre glissante
+     */
+    public int purgeExpiredBuckets() {
+        return bucketRepository.deleteByBucketDateBefore(rollingWindowStart(LocalDate.now()));
+    }
+
+    /**
+     * Statuts dont le montant compte dans les limites
+     */
+    private static boolean isCommitted(TransactionStatus status) {
+        return status == TransactionStatus.PENDING
+                || status == TransactionStatus.PROCESSING
+                || status == TransactionStatus.COMPLETED;
+    }
+
+    private static LocalDate rollingWindowStart(LocalDate today) {
+        return today.minusDays(ROLLING_WINDOW_DAYS - 1);
+    }
+}
@@ -1,19 +1,21 @@
 package com.mbotamapay.service;
 
-import com.mbotamapay.config.TransactionLimitsConfig;
+import com.mbotamapay.config.CompiledLimits;
+import com.mbotamapay.config.LimitsRegistry;
 import com.mbotamapay.dto.user.UserLimitsResponse;
 import com.mbotamapay.entity.User;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.KycLevel;
 import com.mbotamapay.exception.BadRequestException;
-import com.mbotamapay.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -21,8 +23,8 @@ import java.util.stream.Collectors;
  * 
  * Applique les plafonds intelligents anti-requalification :
  * - Limites par transaction
- * - Limites quotidiennes selon KYC
- * - Limites par corridor
+ * - Limites quotidiennes selon KYC et sur 30 jours (compteurs matérialisés, réservés à la création)
+ * - Limites par corridor (volume et nombre de transferts du jour en compteurs mémoire)
  * - Règles de mode double passerelle
  */
 @Service
@@ -30,11 +32,14 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TransactionLimitsService {
 
-    private final TransactionLimitsConfig limitsConfig;
-    private final TransactionRepository transactionRepository;
+    private final LimitsRegistry limitsRegistry;
+    private final SpendCounterService spendCounters;
+    private final CorridorVolumeCounters corridorCounters;
 
     /**
-     * Valider qu'un utilisateur peut effectuer une transaction
+     * Valider qu'un utilisateur peut effectuer une transaction et réserver son montant
+     * dans les compteurs quotidien et 30 jours (à appeler dans la transaction qui crée le transfert:
+     * les réservations sont libérées si elle est annulée)
      * 
      * @throws BadRequestException si les limites sont dépassées
      */
@@ -42,20 +47,23 @@ public class TransactionLimitsService {
         log.info("Validating transaction limits: userId={}, amount={}, corridor={}-{}", 
                 user.getId(), amount, sourceCountry, destCountry);
 
+        // Instantané unique pour toute la validation (rechargement à chaud possible)
+        CompiledLimits limits = limitsRegistry.current();
+
         // 1. Vérifier le montant minimum et maximum
-        validateTransactionAmount(amount);
+        validateTransactionAmount(limits, amount);
 
         // 2. Vérifier le niveau KYC
         validateKycLevel(user);
 
-        // 3. Vérifier les limites quotidiennes
-        validateDailyLimits(user, amount);
+        // 3. Vérifier les limites du corridor
+        CompiledLimits.Corridor corridorLimit = validateCorridorLimits(limits, amount, sourceCountry, destCountry);
 
-        // 4. Vérifier les limites mensuelles (existantes)
-        validateMonthlyLimits(user, amount);
+        // 4. Réserver le montant sur les limites quotidienne et mensuelle (libéré au rollback si le corridor refuse)
+        reserveUserLimits(limits, user, amount);
 
-        // 5. Vérifier les limites du corridor
-        validateCorridorLimits(amount, sourceCountry, destCountry);
+        // 5. Réserver le volume et le nombre de transferts du jour sur le corridor
+        reserveCorridorVolume(amount, sourceCountry, destCountry, corridorLimit);
 
         log.info("Transaction validated successfully");
     }
@@ -63,12 +71,12 @@ public class TransactionLimitsService {
     /**
      * Valider le montant de la transaction
      */
-    private void validateTransactionAmount(Long amount) {
-        if (!limitsConfig.isValidTransactionAmount(amount)) {
+    private void validateTransactionAmount(CompiledLimits limits, Long amount) {
+        if (!limits.isValidTransactionAmount(amount)) {
             throw new BadRequestException(String.format(
                     "Montant invalide. Minimum: %d FCFA, Maximum: %d FCFA",
-                    limitsConfig.getTransaction().getMinimum(),
-                    limitsConfig.getTransaction().getAbsoluteMaximum()
+                    limits.getMinimum(),
+                    limits.getAbsoluteMaximum()
             ));
         }
     }
@@ -85,10 +93,10 @@ public class TransactionLimitsService {
     }
 
     /**
-     * Valider les limites quotidiennes selon le niveau KYC
+     * Réserver le montant sur les compteurs quotidien (selon KYC) et 30 jours (limite utilisateur)
      */
-    private void validateDailyLimits(User user, Long amount) {
-        Long dailyLimit = limitsConfig.getDailyLimitForKycLevel(user.getKycLevel().name());
+    private void reserveUserLimits(CompiledLimits limits, User user, Long amount) {
+        long dailyLimit = limits.getDailyLimit(user.getKycLevel());
 
         if (dailyLimit == 0) {
             throw new BadRequestException(
@@ -97,65 +105,57 @@ public class TransactionLimitsService {
             );
         }
 
-        // Calculer le montant utilisé aujourd'hui
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        Long usedTodayAmount = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                user.getId(), startOfDay);
-        
-        if (usedTodayAmount == null) {
-            usedTodayAmount = 0L;
-        }
-
-        if (usedTodayAmount + amount > dailyLimit) {
+        long monthlyLimit = user.getTransactionLimit();
+        SpendCounterService.Reservation reservation = spendCounters.reserve(
+                user.getId(), amount, dailyLimit, monthlyLimit);
+
+        if (!reservation.accepted()) {
+            long used = reservation.used();
+            if (reservation.exceeded() == SpendCounterService.LimitType.DAILY) {
+                throw new BadRequestException(String.format(
+                        "Limite quotidienne dépassée. Limite: %,d FCFA, Utilisé aujourd'hui: %,d FCFA, Disponible: %,d FCFA",
+                        dailyLimit, used, Math.max(0, dailyLimit - used)
+                ));
+            }
             throw new BadRequestException(String.format(
-                    "Limite quotidienne dépassée. Limite: %,d FCFA, Utilisé aujourd'hui: %,d FCFA, Disponible: %,d FCFA",
-                    dailyLimit, usedTodayAmount, dailyLimit - usedTodayAmount
+                    "Limite mensuelle dépassée. Limite: %,d FCFA, Utilisé (30 derniers jours): %,d FCFA, Disponible: %,d FCFA",
+                    monthlyLimit, used, Math.max(0, monthlyLimit - used)
             ));
         }
 
-        log.info("Daily limit check passed: limit={}, used={}, requested={}", 
-                dailyLimit, usedTodayAmount, amount);
+        releaseOnRollback(user.getId(), amount, reservation);
+
+        log.info("User limits reserved: dailyLimit={}, monthlyLimit={}, requested={}", 
+                dailyLimit, monthlyLimit, amount);
     }
 
     /**
-     * Valider les limites mensuelles (existantes)
+     * La réservation est commitée à part (verrou court): elle est libérée si la transaction
+     * qui crée le transfert est annulée (refus corridor, erreur pendant le payout)
      */
-    private void validateMonthlyLimits(User user, Long amount) {
-        long monthlyLimit = user.getTransactionLimit();
-
-        // Si limite illimitée (LEVEL_2), passer
-        if (monthlyLimit == Long.MAX_VALUE) {
+    private void releaseOnRollback(Long userId, Long amount, SpendCounterService.Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
             return;
         }
-
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        Long usedAmount = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                user.getId(), thirtyDaysAgo);
-        
-        if (usedAmount == null) {
-            usedAmount = 0L;
-        }
-
-        if (usedAmount + amount > monthlyLimit) {
-            throw new BadRequestException(String.format(
-                    "Limite mensuelle dépassée. Limite: %,d FCFA, Utilisé (30 derniers jours): %,d FCFA, Disponible: %,d FCFA",
-                    monthlyLimit, usedAmount, monthlyLimit - usedAmount
-            ));
-        }
-
-        log.info("Monthly limit check passed: limit={}, used={}, requested={}", 
-                monthlyLimit, usedAmount, amount);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    spendCounters.release(userId, amount, reservation.day());
+                }
+            }
+        });
     }
 
     /**
      * Valider les limites du corridor
      */
-    private void validateCorridorLimits(Long amount, Country sourceCountry, Country destCountry) {
-        TransactionLimitsConfig.CorridorLimit corridorLimit = limitsConfig.getCorridorLimit(
-                sourceCountry.name(), destCountry.name());
+    private CompiledLimits.Corridor validateCorridorLimits(CompiledLimits limits, Long amount,
+                                                           Country sourceCountry, Country destCountry) {
+        CompiledLimits.Corridor corridorLimit = limits.getCorridor(sourceCountry, destCountry);
 
         // Vérifier si le corridor est actif
-        if (!corridorLimit.getEnabled()) {
+        if (!corridorLimit.enabled()) {
             throw new BadRequestException(
                     "Ce corridor de paiement est temporairement indisponible. " +
                     "Veuillez réessayer ultérieurement."
@@ -163,29 +163,37 @@ public class TransactionLimitsService {
         }
 
         // Vérifier le montant maximum par transaction pour ce corridor
-        if (amount > corridorLimit.getMaxPerTransaction()) {
+        if (amount > corridorLimit.maxPerTransaction()) {
             throw new BadRequestException(String.format(
                     "Montant maximum pour ce corridor: %,d FCFA. Veuillez réduire le montant.",
-                    corridorLimit.getMaxPerTransaction()
+                    corridorLimit.maxPerTransaction()
             ));
         }
 
-        // Vérifier la limite quotidienne du corridor
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        
-        // TODO: Ajouter une méthode dans le repository pour compter par corridor
-        // Pour l'instant, on log juste l'information
-        log.info("Corridor limit check: corridor={}-{}, dailyLimit={}, maxPerTx={}", 
-                sourceCountry, destCountry, 
-                corridorLimit.getDailyLimit(), 
-                corridorLimit.getMaxPerTransaction());
+        return corridorLimit;
+    }
+
+    /**
+     * Réserver le transfert sur les compteurs quotidiens du corridor (libéré si la transaction est annulée)
+     */
+    private void reserveCorridorVolume(Long amount, Country sourceCountry, Country destCountry,
+                                       CompiledLimits.Corridor corridorLimit) {
+        Optional<CorridorVolumeCounters.Breach> breach = corridorCounters.reserve(sourceCountry, destCountry, amount,
+                corridorLimit.dailyLimit(), corridorLimit.maxTransactionsPerDay());
+
+        if (breach.isPresent()) {
+            log.warn("Corridor daily limit reached: corridor={}-{}, breach={}", sourceCountry, destCountry, breach.get());
+            throw new BadRequestException(breach.get() == CorridorVolumeCounters.Breach.VOLUME
+                    ? "Le volume journalier de ce corridor est atteint. Veuillez réessayer demain."
+                    : "Le nombre maximum de transferts pour ce corridor est atteint aujourd'hui. Veuillez réessayer demain.");
+        }
     }
 
     /**
      * Vérifier si le mode double passerelle peut être utilisé
      */
     public boolean canUseDualGateway(Long amount, Long technicalBalance, Long latencyMs, Integer recentErrors) {
-        boolean canUse = limitsConfig.canUseDualGateway(amount, technicalBalance, latencyMs, recentErrors);
+        boolean canUse = limitsRegistry.current().canUseDualGateway(amount, technicalBalance, latencyMs, recentErrors);
         
         log.info("Dual gateway check: amount={}, balance={}, latency={}ms, errors={}, result={}", 
                 amount, technicalBalance, latencyMs, recentErrors, canUse);
@@ -197,26 +205,20 @@ public class TransactionLimitsService {
      * Obtenir les limites pour un utilisateur donné
      */
     public UserLimitsInfo getUserLimits(User user) {
-        Long dailyLimit = limitsConfig.getDailyLimitForKycLevel(user.getKycLevel().name());
+        CompiledLimits limits = limitsRegistry.current();
+        Long dailyLimit = limits.getDailyLimit(user.getKycLevel());
         Long monthlyLimit = user.getTransactionLimit();
 
-        // Calculer l'utilisation
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-
-        Long usedToday = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                user.getId(), startOfDay);
-        Long usedThisMonth = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                user.getId(), thirtyDaysAgo);
-
-        if (usedToday == null) usedToday = 0L;
-        if (usedThisMonth == null) usedThisMonth = 0L;
+        // Utilisation lue dans les compteurs (transferts en cours inclus)
+        SpendCounterService.Usage usage = spendCounters.getUsage(user.getId());
+        Long usedToday = usage.today();
+        Long usedThisMonth = usage.rolling();
 
         return UserLimitsInfo.builder()
                 .kycLevel(user.getKycLevel().name())
                 .kycLevelDisplayName(user.getKycLevel().getDisplayName())
-                .transactionMinimum(limitsConfig.getTransaction().getMinimum())
-                .transactionMaximum(limitsConfig.getTransaction().getAbsoluteMaximum())
+                .transactionMinimum(limits.getMinimum())
+                .transactionMaximum(limits.getAbsoluteMaximum())
                 .dailyLimit(dailyLimit)
                 .dailyUsed(usedToday)
                 .dailyRemaining(Math.max(0, dailyLimit - usedToday))
@@ -230,26 +232,20 @@ public class TransactionLimitsService {
      * Obtenir les limites détaillées pour l'affichage dans le profil utilisateur
      */
     public UserLimitsResponse getDetailedUserLimits(User user) {
-        Long dailyLimit = limitsConfig.getDailyLimitForKycLevel(user.getKycLevel().name());
+        CompiledLimits limits = limitsRegistry.current();
+        Long dailyLimit = limits.getDailyLimit(user.getKycLevel());
         Long monthlyLimit = user.getTransactionLimit();
 
-        // Calculer l'utilisation
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-
-        Long usedToday = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                user.getId(), startOfDay);
-        Long usedThisMonth = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                user.getId(), thirtyDaysAgo);
-
-        if (usedToday == null) usedToday = 0L;
-        if (usedThisMonth == null) usedThisMonth = 0L;
+        // Utilisation lue dans les compteurs (transferts en cours inclus)
+        SpendCounterService.Usage usage = spendCounters.getUsage(user.getId());
+        Long usedToday = usage.today();
+        Long usedThisMonth = usage.rolling();
 
         // Construire les limites de transaction
         UserLimitsResponse.TransactionLimits transactionLimits = UserLimitsResponse.TransactionLimits.builder()
-                .minimum(limitsConfig.getTransaction().getMinimum())
-                .maximumStandard(limitsConfig.getTransaction().getMaximumStandard())
-                .absoluteMaximum(limitsConfig.getTransaction().getAbsoluteMaximum())
+                .minimum(limits.getMinimum())
+                .maximumStandard(limits.getMaximumStandard())
+                .absoluteMaximum(limits.getAbsoluteMaximum())
                 .build();
 
         // Construire les limites quotidiennes
@@ -279,17 +275,17 @@ public class TransactionLimitsService {
                 .build();
 
         // Obtenir les limites par corridor
-        List<UserLimitsResponse.CorridorLimitInfo> corridorLimits = limitsConfig.getCorridors().values().stream()
+        List<UserLimitsResponse.CorridorLimitInfo> corridorLimits = limits.getConfiguredCorridors().stream()
                 .map(corridor -> UserLimitsResponse.CorridorLimitInfo.builder()
-                        .corridorCode(corridor.getCode())
-                        .sourceCountry(corridor.getCode().split("-")[0])
-                        .destinationCountry(corridor.getCode().split("-")[1])
-                        .maxPerTransaction(corridor.getMaxPerTransaction())
-                        .dailyLimit(corridor.getDailyLimit())
-                        .maxTransactionsPerDay(corridor.getMaxTransactionsPerDay())
-                        .preferredGateway(corridor.getPreferredGateway())
-                        .gatewayReliability(corridor.getGatewayReliability())
-                        .enabled(corridor.getEnabled())
+                        .corridorCode(corridor.code())
+                        .sourceCountry(corridor.code().split("-")[0])
+                        .destinationCountry(corridor.code().split("-")[1])
+                        .maxPerTransaction(corridor.maxPerTransaction())
+                        .dailyLimit(corridor.dailyLimit())
+                        .maxTransactionsPerDay(corridor.maxTransactionsPerDay())
+                        .preferredGateway(corridor.preferredGateway())
+                        .gatewayReliability(corridor.gatewayReliability())
+                        .enabled(corridor.enabled())
                         .build())
                 .collect(Collectors.toList());
 
@@ -15,8 +15,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -29,6 +30,7 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final SpendCounterService spendCounters;
 
     /**
      * Initiate a new transaction
@@ -44,18 +46,18 @@ public class TransactionService {
                     "Vérification d'identité requise. Complétez votre KYC pour envoyer de l'argent.");
         }
 
-        // Check transaction limit
+        // Check transaction limit (reserved in the 30-day spend counter, released if the transaction fails
+        // or if this method rolls back: the reservation is committed on its own)
         long limit = sender.getTransactionLimit();
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        Long usedAmount = transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(userId, thirtyDaysAgo);
-        if (usedAmount == null)
-            usedAmount = 0L;
-
-        if (usedAmount + request.getAmount() > limit) {
+        SpendCounterService.Reservation reservation = spendCounters.reserve(
+                userId, request.getAmount(), Long.MAX_VALUE, limit);
+        if (!reservation.accepted()) {
+            long usedAmount = reservation.used();
             throw new BadRequestException(String.format(
                     "Limite de transaction dépassée. Limite: %d FCFA, Utilisé: %d FCFA, Disponible: %d FCFA",
-                    limit, usedAmount, limit - usedAmount));
+                    limit, usedAmount, Math.max(0, limit - usedAmount)));
         }
+        releaseOnRollback(userId, request.getAmount(), reservation);
 
         // Calculate fee (example: 1% with minimum 100 XOF)
         long fee = Math.max(100L, (long) (request.getAmount() * 0.01));
@@ -104,6 +106,23 @@ public class TransactionService {
                 .map(this::mapToResponse);
     }
 
+    /**
+     * Release the spend reservation if the creating transaction rolls back
+     */
+    private void releaseOnRollback(Long userId, Long amount, SpendCounterService.Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    spendCounters.release(userId, amount, reservation.day());
+                }
+            }
+        });
+    }
+
     private String generateReference() {
         return "MBP-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
@@ -4,21 +4,27 @@ import com.mbotamapay.dto.FeeBreakdown;
 import com.mbotamapay.dto.routing.RoutingDecision;
 import com.mbotamapay.entity.GatewayStock;
 import com.mbotamapay.entity.Transaction;
+import com.mbotamapay.entity.TransactionPayoutPart;
 import com.mbotamapay.entity.User;
+import com.mbotamapay.entity.enums.AuditAction;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.GatewayType;
 import com.mbotamapay.entity.enums.MobileOperator;
 import com.mbotamapay.entity.enums.TransactionStatus;
 import com.mbotamapay.exception.BadRequestException;
 import com.mbotamapay.exception.ResourceNotFoundException;
+import com.mbotamapay.gateway.GatewayRegistry;
 import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
 import com.mbotamapay.gateway.dto.PayoutRequest;
 import com.mbotamapay.gateway.dto.PayoutResponse;
 import com.mbotamapay.repository.GatewayStockRepository;
+import com.mbotamapay.repository.TransactionPayoutPartRepository;
 import com.mbotamapay.repository.TransactionRepository;
 import com.mbotamapay.repository.UserRepository;
 import com.mbotamapay.service.orchestration.*;
 import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.*;
+import com.mbotamapay.service.velocity.VelocityScreening;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -44,15 +50,24 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TransferService {
 
+    private static final String RECIPIENT_REJECTED_MESSAGE = "Le dernier transfert vers ce bénéficiaire a été refusé. "
+            + "Vérifiez le numéro ou contactez le support.";
+
     private final SmartPaymentOrchestrator orchestrator;
     private final RoutingAnalytics analytics;
     private final PaymentRoutingService routingService;
     private final FeeCalculator feeCalculator;
     private final TransactionLimitsService transactionLimitsService;
     private final TransactionRepository transactionRepository;
+    private final TransactionPayoutPartRepository payoutPartRepository;
     private final UserRepository userRepository;
     private final GatewayStockRepository stockRepository;
-    private final List<PayoutGateway> payoutGateways;
+    private final GatewayRegistry gatewayRegistry;
+    private final MobileMoneyVerificationService verificationService;
+    private final RecipientFailureStore recipientFailures;
+    private final SpendCounterService spendCounters;
+    private final VelocityScreening velocityScreening;
+    private final AuditService auditService;
 
     @Value("${routing.use-smart-orchestrator:true}")
     private boolean useSmartOrchestrator;
@@ -69,6 +84,9 @@ public class TransferService {
         User sender = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé"));
 
+        screenVelocity(sender, request.getRecipientPhone());
+        rejectUnknownRecipient(request.getRecipientPhone());
+
         // 2. Utiliser l'orchestrateur intelligent ou le routage classique
         if (useSmartOrchestrator) {
             return executeWithSmartOrchestrator(sender, request);
@@ -131,10 +149,12 @@ public class TransferService {
         // 5. Mettre à jour la transaction et enregistrer les métriques
         if (execResult.isSuccess()) {
             transaction.setStatus(TransactionStatus.PENDING);
-            if (execResult.getResponse() != null) {
+            // Sans référence gateway, la référence interne reste celle utilisée pour la réconciliation
+            if (execResult.getResponse() != null && execResult.getResponse().getExternalReference() != null) {
                 transaction.setExternalReference(execResult.getResponse().getExternalReference());
             }
             transaction.setPayoutGateway(execResult.getGateway());
+            recipientFailures.recordSuccess(request.getRecipientPhone());
 
             // Enregistrer le succès dans les analytics
             if (orchestration.isBridgePayment()) {
@@ -147,6 +167,9 @@ public class TransferService {
                         execResult.getExecutionTimeMs(),
                         orchestration.getBridgeRoute().getHopCount()
                 );
+            } else if (execResult.getSplitPartResults() != null) {
+                savePayoutParts(transaction, execResult);
+                recordSplitAnalytics(orchestration, execResult, transaction.getFee());
             } else {
                 analytics.recordSuccess(
                         execResult.getGateway(),
@@ -171,10 +194,33 @@ public class TransferService {
                     );
                 }
             }
+        } else if (execResult.getErrorType() == PayoutErrorType.AMBIGUOUS) {
+            // Payout peut-être exécuté: on ne conclut pas à l'échec, la réconciliation tranchera
+            transaction.setStatus(TransactionStatus.PROCESSING);
+            if (execResult.getGateway() != null) {
+                transaction.setPayoutGateway(execResult.getGateway());
+            }
+            transaction.setDescription(execResult.getErrorMessage());
+            if (execResult.getSplitPartResults() != null) {
+                savePayoutParts(transaction, execResult);
+                recordSplitAnalytics(orchestration, execResult, transaction.getFee());
+            }
+        } else if (isPartialSplit(execResult)) {
+            // Une partie des fonds est déjà partie: la transaction reste en cours pour réconciliation
+            transaction.setStatus(TransactionStatus.PROCESSING);
+            transaction.setPayoutGateway(execResult.getGateway());
+            transaction.setDescription(execResult.getErrorMessage());
+            savePayoutParts(transaction, execResult);
+            recordSplitAnalytics(orchestration, execResult, transaction.getFee());
         } else {
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setDescription("Payout failed after " + execResult.getTotalAttempts() + " attempts: " + 
                     execResult.getErrorMessage());
+            // Transaction créée en PENDING: les montants réservés (utilisateur, corridor) sont libérés
+            spendCounters.onStatusChange(transaction, TransactionStatus.PENDING);
+            if (execResult.getErrorType() == PayoutErrorType.TERMINAL_RECIPIENT) {
+                recipientFailures.recordTerminalFailure(request.getRecipientPhone(), execResult.getErrorMessage());
+            }
 
             // Enregistrer l'échec
             if (orchestration.isBridgePayment() && execResult.getBridgeLegResults() != null) {
@@ -249,14 +295,26 @@ public class TransferService {
 
         if (payoutResult.isSuccess()) {
             transaction.setStatus(TransactionStatus.PENDING);
-            transaction.setExternalReference(payoutResult.getExternalReference());
+            if (payoutResult.getExternalReference() != null) {
+                transaction.setExternalReference(payoutResult.getExternalReference());
+            }
+            recipientFailures.recordSuccess(request.getRecipientPhone());
 
             if (routing.isUseStock()) {
                 debitStock(routing.getPayoutGateway(), routing.getDestCountry(), request.getAmount());
             }
+        } else if (payoutResult.getErrorType() == PayoutErrorType.AMBIGUOUS) {
+            // Payout peut-être exécuté: compteurs conservés, la réconciliation tranchera
+            transaction.setStatus(TransactionStatus.PROCESSING);
+            transaction.setPayoutGateway(routing.getPayoutGateway());
+            transaction.setDescription(payoutResult.getMessage());
         } else {
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setDescription("Payout failed: " + payoutResult.getMessage());
+            spendCounters.onStatusChange(transaction, TransactionStatus.PENDING);
+            if (payoutResult.getErrorType() == PayoutErrorType.TERMINAL_RECIPIENT) {
+                recipientFailures.recordTerminalFailure(request.getRecipientPhone(), payoutResult.getMessage());
+            }
         }
 
         transactionRepository.save(transaction);
@@ -278,6 +336,64 @@ public class TransferService {
                 .build();
     }
 
+    private boolean isPartialSplit(PayoutExecutionResult execResult) {
+        return execResult.getSplitPartResults() != null
+                && execResult.getSplitPartResults().stream().anyMatch(SplitPartResult::isSuccess);
+    }
+
+    /**
+     * Journalise les parts envoyées d'un split: chacune est réconciliée avec sa propre référence
+     */
+    private void savePayoutParts(Transaction transaction, PayoutExecutionResult execResult) {
+        List<TransactionPayoutPart> parts = execResult.getSplitPartResults().stream()
+                .filter(part -> part.getReference() != null)
+                .map(part -> TransactionPayoutPart.builder()
+                        .transaction(transaction)
+                        .partNumber(part.getPartNumber())
+                        .reference(part.getReference())
+                        .gateway(part.getGateway())
+                        .amount(part.getAmount())
+                        .status(part.isSuccess() ? TransactionStatus.PENDING
+                                : part.getErrorType() == PayoutErrorType.AMBIGUOUS ? TransactionStatus.PROCESSING
+                                : TransactionStatus.FAILED)
+                        .externalReference(part.getExternalReference())
+                        .errorMessage(part.getErrorMessage())
+                        .build())
+                .toList();
+        payoutPartRepository.saveAll(parts);
+    }
+
+    /**
+     * Analytics par part d'un split (frais répartis au prorata du montant)
+     */
+    private void recordSplitAnalytics(OrchestrationResult orchestration, PayoutExecutionResult execResult, Long totalFee) {
+        long totalAmount = orchestration.getStrategy().getTotalAmount();
+        for (SplitPartResult part : execResult.getSplitPartResults()) {
+            if (part.getGateway() == null) {
+                continue;
+            }
+            if (part.isSuccess()) {
+                long feeShare = totalAmount > 0 ? totalFee * part.getAmount() / totalAmount : 0L;
+                analytics.recordSuccess(
+                        part.getGateway(),
+                        orchestration.getSourceCountry(),
+                        orchestration.getDestCountry(),
+                        part.getAmount(),
+                        feeShare,
+                        part.getExecutionTimeMs()
+                );
+            } else {
+                analytics.recordFailure(
+                        part.getGateway(),
+                        orchestration.getSourceCountry(),
+                        orchestration.getDestCountry(),
+                        part.getAmount(),
+                        part.getErrorMessage()
+                );
+            }
+        }
+    }
+
     private Transaction createTransactionFromOrchestration(User sender, TransferRequest request,
             OrchestrationResult orchestration, String reference) {
         FeeBreakdown fees = orchestration.getFees();
@@ -351,11 +467,20 @@ public class TransferService {
      * Utilise le SmartPaymentOrchestrator pour supporter le bridge routing
      */
     public TransferPreview previewTransfer(String senderPhone, String recipientPhone, Long amount) {
-        if (useSmartOrchestrator) {
-            return previewWithSmartOrchestrator(senderPhone, recipientPhone, amount);
-        }
-        
-        // Fallback sur l'ancien système
+        TransferPreview preview = useSmartOrchestrator
+                ? previewWithSmartOrchestrator(senderPhone, recipientPhone, amount)
+                : previewWithClassicRouting(senderPhone, recipientPhone, amount);
+
+        // Motif brut de la gateway réservé aux logs et à l'admin (description de la transaction)
+        recipientFailures.findTerminalFailure(recipientPhone).ifPresent(failure -> preview.setWarning(
+                RECIPIENT_REJECTED_MESSAGE));
+        return preview;
+    }
+
+    /**
+     * Preview avec l'ancien système de routage
+     */
+    private TransferPreview previewWithClassicRouting(String senderPhone, String recipientPhone, Long amount) {
         RoutingDecision routing = routingService.determineRoute(senderPhone, recipientPhone, amount);
 
         if (!routing.isRouteFound()) {
@@ -503,6 +628,40 @@ public class TransferService {
                 .build();
     }
 
+    /**
+     * Contrôle de vélocité: signale les rafales, refuse au-delà du seuil de blocage
+     */
+    private void screenVelocity(User sender, String recipientPhone) {
+        VelocityScreening.Result velocity = velocityScreening.screen(sender.getId(), recipientPhone);
+        if (velocity.verdict() == VelocityScreening.Verdict.ALLOW) {
+            return;
+        }
+        log.warn("Velocity {}: userId={}, recipient={}, dimension={}, count={}",
+                velocity.verdict(), sender.getId(), recipientPhone, velocity.dimension(), velocity.count());
+        auditService.logForUser(sender.getId(), sender.getUsername(), AuditAction.SUSPICIOUS_ACTIVITY_DETECTED,
+                "Vélocité " + velocity.verdict() + " (" + velocity.dimension() + "=" + velocity.count()
+                        + ") vers " + recipientPhone);
+        if (velocity.verdict() == VelocityScreening.Verdict.BLOCK) {
+            throw new BadRequestException("Trop de transferts en peu de temps. Veuillez réessayer dans quelques minutes.");
+        }
+    }
+
+    /**
+     * Refuse un bénéficiaire en échec terminal récent ou dont le compte vient d'être
+     * vérifié introuvable (mémoire locale, sans appel gateway)
+     */
+    private void rejectUnknownRecipient(String recipientPhone) {
+        recipientFailures.findTerminalFailure(recipientPhone).ifPresent(failure -> {
+            log.warn("Transfer refused, recipient rejected at {}: {}", failure.failedAt(), failure.reason());
+            throw new BadRequestException(RECIPIENT_REJECTED_MESSAGE);
+        });
+        verificationService.findCachedVerification(recipientPhone)
+                .filter(result -> !result.isValid())
+                .ifPresent(result -> {
+                    throw new BadRequestException("Compte Mobile Money du bénéficiaire introuvable");
+                });
+    }
+
     private PayoutResponse executePayout(RoutingDecision routing, TransferRequest request, String reference) {
         PayoutGateway gateway = findPayoutGateway(routing.getPayoutGateway());
 
@@ -525,11 +684,11 @@ public class TransferService {
     }
 
     private PayoutGateway findPayoutGateway(GatewayType type) {
-        return payoutGateways.stream()
-                .filter(g -> g.getGatewayType() == type)
-                .findFirst()
-                .orElseThrow(() -> new BadRequestException(
-                        "Passerelle de payout non disponible: " + type));
+        PayoutGateway gateway = gatewayRegistry.getPayoutGateway(type);
+        if (gateway == null) {
+            throw new BadRequestException("Passerelle de payout non disponible: " + type);
+        }
+        return gateway;
     }
 
     private void debitStock(GatewayType gateway, Country country, Long amount) {
@@ -606,6 +765,8 @@ public class TransferService {
         private String destOperatorName;
         private boolean useStock;
         private String reason;
+        // Bénéficiaire en échec terminal récent (le transfert sera refusé)
+        private String warning;
         // Routing info
         private String routingStrategy;
         private Integer routingScore;
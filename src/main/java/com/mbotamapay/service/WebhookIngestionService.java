@@ -0,0 +1,76 @@
+package com.mbotamapay.service;
+
+import com.mbotamapay.entity.WebhookEvent;
+import com.mbotamapay.entity.enums.WebhookEventState;
+import com.mbotamapay.repository.WebhookEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Réception des webhooks de gateway
+ *
+ * Le webhook est seulement enregistré dans la file durable (webhook_events) puis acquitté:
+ * l'application du statut est faite par {@link com.mbotamapay.job.WebhookEventWorker}.
+ * Un renvoi identique (platform, reference, status) est ignoré, sauf si l'événement déjà reçu
+ * est en échec ou en attente de nouvelle tentative: il est alors remis en file.
+ * Le corps est conservé tel que reçu (octets signés), sans re-sérialisation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookIngestionService {
+
+    private final WebhookEventRepository webhookEventRepository;
+
+    /**
+     * Ajoute le webhook à la file
+     *
+     * @return false si c'est un doublon d'un webhook déjà reçu
+     */
+    public boolean enqueue(String platform, String reference, String status, boolean verified,
+                           byte[] rawBody) {
+        String normalizedPlatform = platform.toLowerCase(Locale.ROOT);
+        Optional<WebhookEvent> existing =
+                webhookEventRepository.findByPlatformAndReferenceAndStatus(normalizedPlatform, reference, status);
+        if (existing.isPresent()) {
+            WebhookEvent event = existing.get();
+            if (event.isDeduplicating()) {
+                log.debug("Duplicate webhook ignored: {} {} {}", normalizedPlatform, reference, status);
+                return false;
+            }
+            // Confirmation en échec ou en attente: le renvoi remet l'événement en file immédiatement
+            event.setState(WebhookEventState.PENDING);
+            event.setAttempts(0);
+            event.setNextAttemptAt(null);
+            event.setVerified(verified);
+            event.setPayload(new String(rawBody, StandardCharsets.UTF_8));
+            event.setErrorMessage(null);
+            event.setProcessedAt(null);
+            webhookEventRepository.save(event);
+            log.debug("Webhook requeued: {} {} {}", normalizedPlatform, reference, status);
+            return true;
+        }
+
+        WebhookEvent event = WebhookEvent.builder()
+                .platform(normalizedPlatform)
+                .reference(reference)
+                .status(status)
+                .verified(verified)
+                .payload(new String(rawBody, StandardCharsets.UTF_8))
+                .build();
+        try {
+            webhookEventRepository.saveAndFlush(event);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Renvoi concurrent: la contrainte unique a tranché
+            log.debug("Concurrent duplicate webhook ignored: {} {} {}", normalizedPlatform, reference, status);
+            return false;
+        }
+    }
+}
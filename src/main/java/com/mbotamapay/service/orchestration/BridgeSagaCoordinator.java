@@ -0,0 +1,564 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.BridgeSaga;
+import com.mbotamapay.entity.BridgeSagaLeg;
+import com.mbotamapay.entity.enums.BridgeLegStatus;
+import com.mbotamapay.entity.enums.BridgeSagaStatus;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import com.mbotamapay.gateway.GatewayRegistry;
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import com.mbotamapay.gateway.dto.PayoutRequest;
+import com.mbotamapay.gateway.dto.PayoutResponse;
+import com.mbotamapay.repository.BridgeSagaRepository;
+import com.mbotamapay.repository.TransactionRepository;
+import com.mbotamapay.service.SpendCounterService;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.BridgeLegResult;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.BridgeLegStrategy;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.OrchestrationResult;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.PayoutExecutionResult;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Coordinateur des sagas de paiement bridge
+ *
+ * Fonctionnement:
+ * 1. Journalise la saga et ses legs avant tout appel externe
+ * 2. Réserve le stock de tous les legs en parallèle avant le leg 1
+ * 3. Exécute les legs séquentiellement en journalisant chaque transition
+ * 4. Si un leg échoue, compense les legs déjà exécutés (ordre inverse, idempotent)
+ * 5. Au démarrage et périodiquement, reprend les sagas dont le bail a expiré
+ *
+ * Références: chaque leg utilise "{ref}-L{n}" et chaque compensation "{ref}-L{n}-C",
+ * de sorte qu'un renvoi après crash reste dédupliqué côté gateway.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BridgeSagaCoordinator {
+
+    private static final EnumSet<BridgeSagaStatus> RESUMABLE_STATUSES = EnumSet.of(
+            BridgeSagaStatus.STARTED, BridgeSagaStatus.EXECUTING, BridgeSagaStatus.COMPENSATING);
+
+    private final BridgeSagaJournal journal;
+    private final BridgeSagaRepository sagaRepository;
+    private final TransactionRepository transactionRepository;
+    private final GatewayHealthMonitor healthMonitor;
+    private final GatewayRegistry gatewayRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final PayoutOutcomeResolver outcomeResolver;
+    private final SpendCounterService spendCounters;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${routing.bridge.max-compensation-attempts:5}")
+    private int maxCompensationAttempts;
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Exécute un paiement bridge sous forme de saga persistée
+     */
+    public PayoutExecutionResult execute(OrchestrationResult orchestration, PayoutRequest originalRequest) {
+        long startTime = System.currentTimeMillis();
+        List<BridgeLegStrategy> legs = orchestration.getStrategy().getBridgeLegs();
+
+        BridgeSaga saga = BridgeSaga.builder()
+                .reference(originalRequest.getReference())
+                .sourceCountry(orchestration.getSourceCountry())
+                .destCountry(orchestration.getDestCountry())
+                .amount(originalRequest.getAmount())
+                .recipientPhone(originalRequest.getRecipientPhone())
+                .recipientName(originalRequest.getRecipientName())
+                .build();
+        for (int i = 0; i < legs.size(); i++) {
+            BridgeLegStrategy leg = legs.get(i);
+            saga.addLeg(BridgeSagaLeg.builder()
+                    .legNumber(i + 1)
+                    .fromCountry(leg.getFromCountry())
+                    .toCountry(leg.getToCountry())
+                    .gateway(leg.getGateway())
+                    .amount(originalRequest.getAmount())
+                    .build());
+        }
+        saga = journal.create(saga);
+        log.info("Bridge saga {} started with {} legs ({})", saga.getId(), legs.size(), saga.getReference());
+
+        // 1. Réserver le stock de tous les legs en parallèle
+        if (!reserveAllLegs(saga)) {
+            saga = abort(saga.getId(), "Stock insuffisant sur au moins un leg");
+            return toResult(saga, System.currentTimeMillis() - startTime);
+        }
+
+        // 2. Exécuter les legs
+        saga = journal.update(saga.getId(), s -> s.setStatus(BridgeSagaStatus.EXECUTING));
+        saga = runLegs(saga);
+
+        return toResult(saga, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Reprend les sagas interrompues dès que l'application est prête
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        resumeIncompleteSagas();
+    }
+
+    /**
+     * Reprend les sagas non terminées dont le bail a expiré
+     * Stratégie de reprise: compensation (la réponse au client est déjà partie)
+     */
+    @Scheduled(fixedDelayString = "${routing.bridge.resume-interval-ms:60000}")
+    public void resumeIncompleteSagas() {
+        List<Long> sagaIds = sagaRepository.findResumableIds(RESUMABLE_STATUSES, LocalDateTime.now());
+        if (sagaIds.isEmpty()) {
+            return;
+        }
+
+        log.info("Resuming {} interrupted bridge saga(s)", sagaIds.size());
+        for (Long sagaId : sagaIds) {
+            try {
+                journal.claim(sagaId).ifPresent(this::resume);
+            } catch (Exception e) {
+                log.error("Failed to resume bridge saga {}: {}", sagaId, e.getMessage());
+            }
+        }
+    }
+
+    private void resume(BridgeSaga saga) {
+        log.warn("Resuming bridge saga {} in status {}", saga.getId(), saga.getStatus());
+
+        // Un leg "EXECUTING" a peut-être été envoyé juste avant le crash: on interroge la gateway
+        for (BridgeSagaLeg leg : saga.getLegs()) {
+            if (leg.getStatus() == BridgeLegStatus.EXECUTING) {
+                saga = resolveExecutingLeg(saga, leg.getLegNumber());
+            }
+        }
+
+        boolean allSucceeded = saga.getLegs().stream().allMatch(l -> l.getStatus() == BridgeLegStatus.SUCCEEDED);
+        if (allSucceeded) {
+            saga = journal.update(saga.getId(), s -> s.setStatus(BridgeSagaStatus.COMPLETED));
+            log.info("Bridge saga {} was already complete", saga.getId());
+            markTransactionCompleted(saga);
+            return;
+        }
+
+        boolean anyExecuted = saga.getLegs().stream().anyMatch(l -> l.getStatus() == BridgeLegStatus.SUCCEEDED
+                || l.getStatus() == BridgeLegStatus.COMPENSATING
+                || l.getStatus() == BridgeLegStatus.EXECUTING);
+        saga = anyExecuted
+                ? compensate(saga, "Reprise après interruption")
+                : abort(saga.getId(), "Reprise après interruption");
+
+        markTransactionFailed(saga);
+    }
+
+    // === Réservation ===
+
+    private boolean reserveAllLegs(BridgeSaga saga) {
+        List<CompletableFuture<Boolean>> reservations = saga.getLegs().stream()
+                .map(leg -> CompletableFuture.supplyAsync(() -> reserveQuietly(leg), executor))
+                .toList();
+
+        return reservations.stream()
+                .map(CompletableFuture::join)
+                .reduce(true, Boolean::logicalAnd);
+    }
+
+    private boolean reserveQuietly(BridgeSagaLeg leg) {
+        try {
+            return journal.reserveLegStock(leg.getId());
+        } catch (Exception e) {
+            log.error("Bridge leg {} reservation error: {}", leg.getLegNumber(), e.getMessage());
+            return false;
+        }
+    }
+
+    // === Exécution ===
+
+    private BridgeSaga runLegs(BridgeSaga saga) {
+        int legCount = saga.getLegs().size();
+
+        for (int legNumber = 1; legNumber <= legCount; legNumber++) {
+            final int n = legNumber;
+            saga = journal.update(saga.getId(), s -> s.getLeg(n).setStatus(BridgeLegStatus.EXECUTING));
+            BridgeSagaLeg leg = saga.getLeg(n);
+
+            log.info("Executing bridge leg {}/{}: {} -> {} via {}",
+                    n, legCount, leg.getFromCountry(), leg.getToCountry(), leg.getGateway());
+
+            PayoutGateway gateway = findPayoutGateway(leg.getGateway());
+            if (gateway == null) {
+                journal.releaseLegStock(leg.getId(), BridgeLegStatus.FAILED);
+                return compensate(saga, "Gateway not found: " + leg.getGateway());
+            }
+
+            long legStart = System.currentTimeMillis();
+            PayoutResponse response;
+            try {
+                response = gateway.initiatePayout(buildLegRequest(saga, leg));
+            } catch (Exception e) {
+                // Issue inconnue (timeout, coupure): on interroge la gateway avant de décider
+                log.error("Bridge leg {} error: {}", n, e.getMessage());
+                healthMonitor.recordFailure(leg.getGateway(), e.getMessage(), System.currentTimeMillis() - legStart);
+                saga = journal.update(saga.getId(), s -> s.getLeg(n).setErrorMessage(truncate(e.getMessage())));
+                saga = resolveExecutingLeg(saga, n);
+                if (saga.getLeg(n).getStatus() == BridgeLegStatus.SUCCEEDED) {
+                    continue;
+                }
+                return compensate(saga, "Bridge leg " + n + " error: " + e.getMessage());
+            }
+            long legTime = System.currentTimeMillis() - legStart;
+
+            if (response.isSuccess()) {
+                healthMonitor.recordSuccess(leg.getGateway(), legTime);
+                saga = journal.update(saga.getId(), s -> {
+                    BridgeSagaLeg l = s.getLeg(n);
+                    l.setStatus(BridgeLegStatus.SUCCEEDED);
+                    l.setExternalReference(response.getExternalReference());
+                });
+                log.info("Bridge leg {} completed successfully in {}ms", n, legTime);
+                continue;
+            }
+
+            PayoutErrorType errorType = response.getErrorType() != null
+                    ? response.getErrorType()
+                    : PayoutErrorType.TRANSIENT;
+            log.error("Bridge leg {} failed ({}): {}", n, errorType, response.getMessage());
+            if (errorType.isGatewayFault()) {
+                healthMonitor.recordFailure(leg.getGateway(), response.getMessage(), legTime);
+            }
+            saga = journal.update(saga.getId(), s -> s.getLeg(n).setErrorMessage(truncate(response.getMessage())));
+
+            if (errorType == PayoutErrorType.AMBIGUOUS) {
+                // Le leg a peut-être été exécuté: on interroge la gateway avant de décider
+                saga = resolveExecutingLeg(saga, n);
+                if (saga.getLeg(n).getStatus() == BridgeLegStatus.SUCCEEDED) {
+                    continue;
+                }
+                return compensate(saga, "Bridge leg " + n + " outcome uncertain: " + response.getMessage());
+            }
+
+            journal.releaseLegStock(leg.getId(), BridgeLegStatus.FAILED);
+            return compensate(saga, "Bridge leg " + n + " failed: " + response.getMessage());
+        }
+
+        saga = journal.update(saga.getId(), s -> s.setStatus(BridgeSagaStatus.COMPLETED));
+        log.info("Bridge saga {} completed", saga.getId());
+        return saga;
+    }
+
+    /**
+     * Détermine l'issue réelle d'un leg resté EXECUTING en interrogeant la gateway
+     */
+    private BridgeSaga resolveExecutingLeg(BridgeSaga saga, int legNumber) {
+        BridgeSagaLeg leg = saga.getLeg(legNumber);
+        String reference = leg.getExternalReference() != null
+                ? leg.getExternalReference()
+                : legReference(saga, leg);
+
+        Optional<Boolean> executed = checkExecuted(leg.getGateway(), reference);
+        if (executed.isEmpty()) {
+            // Impossible de conclure: le leg reste EXECUTING jusqu'à la prochaine reprise
+            log.warn("Bridge leg {} outcome unknown, keeping EXECUTING", legNumber);
+            return saga;
+        }
+
+        if (executed.get()) {
+            return journal.update(saga.getId(), s -> s.getLeg(legNumber).setStatus(BridgeLegStatus.SUCCEEDED));
+        }
+        journal.releaseLegStock(leg.getId(), BridgeLegStatus.FAILED);
+        return sagaRepository.findWithLegsById(saga.getId()).orElse(saga);
+    }
+
+    // === Compensation ===
+
+    /**
+     * Compense les legs exécutés en ordre inverse puis libère le stock des legs non exécutés
+     * Idempotent: les legs déjà compensés ou libérés sont ignorés
+     */
+    private BridgeSaga compensate(BridgeSaga saga, String reason) {
+        log.warn("Compensating bridge saga {}: {}", saga.getId(), reason);
+        saga = journal.update(saga.getId(), s -> {
+            s.setStatus(BridgeSagaStatus.COMPENSATING);
+            s.setErrorMessage(truncate(reason));
+            s.setCompensationAttempts(s.getCompensationAttempts() + 1);
+        });
+
+        // Un leg à l'issue inconnue n'est compensé qu'une fois son exécution confirmée
+        for (BridgeSagaLeg leg : new ArrayList<>(saga.getLegs())) {
+            if (leg.getStatus() == BridgeLegStatus.EXECUTING) {
+                saga = resolveExecutingLeg(saga, leg.getLegNumber());
+            }
+        }
+
+        // Leg toujours inconnu: il a peut-être payé le bénéficiaire, annuler les legs amont
+        // ferait perdre les fonds deux fois. Rien n'est compensé avant de savoir.
+        if (saga.getLegs().stream().anyMatch(l -> l.getStatus() == BridgeLegStatus.EXECUTING)) {
+            log.warn("Bridge saga {} has a leg with unknown outcome, compensation postponed", saga.getId());
+            return retryLaterOrReview(saga);
+        }
+
+        boolean complete = true;
+        List<BridgeSagaLeg> legs = new ArrayList<>(saga.getLegs());
+        for (int i = legs.size() - 1; i >= 0; i--) {
+            BridgeSagaLeg leg = legs.get(i);
+            switch (leg.getStatus()) {
+                case PENDING, RESERVED -> journal.releaseLegStock(leg.getId(), BridgeLegStatus.RELEASED);
+                case SUCCEEDED, COMPENSATING -> complete &= compensateLeg(saga, leg);
+                default -> {
+                    // FAILED, COMPENSATED, RELEASED: rien à faire
+                }
+            }
+        }
+
+        if (complete) {
+            log.info("Bridge saga {} compensated", saga.getId());
+            return journal.update(saga.getId(), s -> s.setStatus(BridgeSagaStatus.COMPENSATED));
+        }
+
+        return retryLaterOrReview(saga);
+    }
+
+    /**
+     * Laisse la saga COMPENSATING pour la reprise planifiée, ou la passe en revue manuelle
+     * une fois max-compensation-attempts atteint
+     */
+    private BridgeSaga retryLaterOrReview(BridgeSaga saga) {
+        BridgeSaga current = sagaRepository.findWithLegsById(saga.getId()).orElse(saga);
+        if (current.getCompensationAttempts() >= maxCompensationAttempts) {
+            log.error("Bridge saga {} requires manual review after {} compensation attempts",
+                    saga.getId(), current.getCompensationAttempts());
+            return journal.update(saga.getId(), s -> s.setStatus(BridgeSagaStatus.MANUAL_REVIEW));
+        }
+        // Le bail expirera et la reprise planifiée retentera la compensation
+        return current;
+    }
+
+    private boolean compensateLeg(BridgeSaga saga, BridgeSagaLeg leg) {
+        int n = leg.getLegNumber();
+        String compensationReference = legReference(saga, leg) + "-C";
+
+        // Compensation déjà envoyée lors d'une tentative précédente: vérifier avant de renvoyer
+        if (leg.getStatus() == BridgeLegStatus.COMPENSATING) {
+            GatewayType gateway = compensationGateway(leg);
+            String reference = leg.getCompensationReference() != null
+                    ? leg.getCompensationReference()
+                    : compensationReference;
+            Optional<Boolean> executed = gateway != null ? checkExecuted(gateway, reference) : Optional.empty();
+            if (executed.orElse(false)) {
+                journal.releaseLegStock(leg.getId(), BridgeLegStatus.COMPENSATED);
+                return true;
+            }
+        }
+
+        GatewayType gateway = compensationGateway(leg);
+        if (gateway == null) {
+            log.error("No gateway available to compensate bridge leg {} ({} -> {})",
+                    n, leg.getToCountry(), leg.getFromCountry());
+            return false;
+        }
+
+        journal.update(saga.getId(), s -> s.getLeg(n).setStatus(BridgeLegStatus.COMPENSATING));
+
+        PayoutRequest reverse = PayoutRequest.builder()
+                .reference(compensationReference)
+                .amount(leg.getAmount())
+                .recipientPhone(transitAccount(leg.getFromCountry()))
+                .recipientName("MBOTAMA_BRIDGE_" + leg.getFromCountry().getIsoCode())
+                .country(leg.getFromCountry())
+                .description("Compensation bridge leg " + n + ": " + leg.getToCountry() + " -> " + leg.getFromCountry())
+                .build();
+
+        try {
+            PayoutResponse response = findPayoutGateway(gateway).initiatePayout(reverse);
+            if (!response.isSuccess()) {
+                log.error("Compensation of bridge leg {} refused: {}", n, response.getMessage());
+                return false;
+            }
+            journal.update(saga.getId(), s -> s.getLeg(n).setCompensationReference(
+                    response.getExternalReference() != null ? response.getExternalReference() : compensationReference));
+            journal.releaseLegStock(leg.getId(), BridgeLegStatus.COMPENSATED);
+            log.info("Bridge leg {} compensated via {}", n, gateway);
+            return true;
+        } catch (Exception e) {
+            log.error("Compensation of bridge leg {} error: {}", n, e.getMessage());
+            return false;
+        }
+    }
+
+    private BridgeSaga abort(Long sagaId, String reason) {
+        BridgeSaga saga = sagaRepository.findWithLegsById(sagaId)
+                .orElseThrow(() -> new IllegalStateException("Saga introuvable: " + sagaId));
+        for (BridgeSagaLeg leg : saga.getLegs()) {
+            if (leg.getStatus() == BridgeLegStatus.PENDING || leg.getStatus() == BridgeLegStatus.RESERVED) {
+                journal.releaseLegStock(leg.getId(), BridgeLegStatus.RELEASED);
+            }
+        }
+        log.warn("Bridge saga {} aborted: {}", sagaId, reason);
+        return journal.update(sagaId, s -> {
+            s.setStatus(BridgeSagaStatus.ABORTED);
+            s.setErrorMessage(truncate(reason));
+        });
+    }
+
+    /**
+     * Marque la transaction associée comme échouée après une reprise
+     */
+    private void markTransactionFailed(BridgeSaga saga) {
+        if (saga.getStatus() != BridgeSagaStatus.COMPENSATED && saga.getStatus() != BridgeSagaStatus.ABORTED) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                transactionRepository.findByExternalReference(saga.getReference())
+                        .filter(txn -> txn.getStatus() == TransactionStatus.PENDING
+                                || txn.getStatus() == TransactionStatus.PROCESSING)
+                        .ifPresent(txn -> {
+                            TransactionStatus previous = txn.getStatus();
+                            txn.setStatus(TransactionStatus.FAILED);
+                            txn.setDescription("Bridge annulé: " + saga.getErrorMessage());
+                            transactionRepository.save(txn);
+                            spendCounters.onStatusChange(txn, previous);
+                        }));
+    }
+
+    /**
+     * Marque la transaction associée comme terminée quand la reprise constate tous les legs exécutés
+     */
+    private void markTransactionCompleted(BridgeSaga saga) {
+        BridgeSagaLeg lastLeg = saga.getLegs().get(saga.getLegs().size() - 1);
+        transactionTemplate.executeWithoutResult(status ->
+                transactionRepository.findByExternalReference(saga.getReference())
+                        .filter(txn -> txn.getStatus() == TransactionStatus.PENDING
+                                || txn.getStatus() == TransactionStatus.PROCESSING)
+                        .ifPresent(txn -> {
+                            txn.setStatus(TransactionStatus.COMPLETED);
+                            txn.setCompletedAt(LocalDateTime.now());
+                            txn.setPayoutGateway(lastLeg.getGateway());
+                            transactionRepository.save(txn);
+                        }));
+    }
+
+    // === Helpers ===
+
+    private PayoutRequest buildLegRequest(BridgeSaga saga, BridgeSagaLeg leg) {
+        boolean lastLeg = leg.getLegNumber() == saga.getLegs().size();
+        return PayoutRequest.builder()
+                .reference(legReference(saga, leg))
+                .amount(leg.getAmount())
+                .recipientPhone(lastLeg ? saga.getRecipientPhone() : transitAccount(leg.getToCountry()))
+                .recipientName(lastLeg ? saga.getRecipientName() : "MBOTAMA_BRIDGE_" + leg.getToCountry().getIsoCode())
+                .country(leg.getToCountry())
+                .description("Bridge leg " + leg.getLegNumber() + ": " + leg.getFromCountry() + " -> " + leg.getToCountry())
+                .build();
+    }
+
+    private String legReference(BridgeSaga saga, BridgeSagaLeg leg) {
+        return saga.legReference(leg.getLegNumber());
+    }
+
+    /**
+     * Compte de transit Mbotama dans un pays hub
+     */
+    private String transitAccount(Country country) {
+        return country.getPhonePrefix() + "00000001";
+    }
+
+    /**
+     * Gateway capable de renvoyer les fonds vers le pays d'origine du leg
+     */
+    private GatewayType compensationGateway(BridgeSagaLeg leg) {
+        PayoutGateway sameGateway = findPayoutGateway(leg.getGateway());
+        if (sameGateway != null && sameGateway.supportsPayoutTo(leg.getFromCountry())) {
+            return leg.getGateway();
+        }
+        return gatewayRegistry.getPayoutGateways().stream()
+                .filter(g -> g.supportsPayoutTo(leg.getFromCountry()))
+                .filter(g -> healthMonitor.isAvailable(g.getGatewayType()))
+                .map(PayoutGateway::getGatewayType)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Interroge la gateway: true = exécuté/en cours, false = refusé, vide = indéterminé
+     */
+    private Optional<Boolean> checkExecuted(GatewayType gateway, String reference) {
+        PayoutGateway payoutGateway = findPayoutGateway(gateway);
+        if (payoutGateway == null) {
+            return Optional.empty();
+        }
+        PayoutOutcomeResolver.Resolution resolution = outcomeResolver.resolve(payoutGateway, reference, 0);
+        return switch (resolution.outcome()) {
+            case EXECUTED -> Optional.of(true);
+            case NOT_EXECUTED -> Optional.of(false);
+            case UNKNOWN -> Optional.empty();
+        };
+    }
+
+    private PayoutExecutionResult toResult(BridgeSaga saga, long executionTimeMs) {
+        List<BridgeLegResult> legResults = saga.getLegs().stream()
+                .filter(leg -> leg.getStatus() != BridgeLegStatus.PENDING && leg.getStatus() != BridgeLegStatus.RELEASED)
+                .map(leg -> BridgeLegResult.builder()
+                        .legNumber(leg.getLegNumber())
+                        .fromCountry(leg.getFromCountry())
+                        .toCountry(leg.getToCountry())
+                        .gateway(leg.getGateway())
+                        .success(leg.getStatus() == BridgeLegStatus.SUCCEEDED)
+                        .transactionId(leg.getExternalReference())
+                        .errorMessage(leg.getErrorMessage())
+                        .build())
+                .toList();
+
+        boolean success = saga.getStatus() == BridgeSagaStatus.COMPLETED;
+        BridgeSagaLeg lastLeg = saga.getLegs().get(saga.getLegs().size() - 1);
+        // Seule une saga compensée ou abandonnée prouve qu'aucun fonds n'est parti:
+        // sinon (compensation en cours, revue manuelle) le transfert reste à réconcilier
+        boolean settled = saga.getStatus() == BridgeSagaStatus.COMPENSATED
+                || saga.getStatus() == BridgeSagaStatus.ABORTED;
+
+        return PayoutExecutionResult.builder()
+                .success(success)
+                .gateway(success ? lastLeg.getGateway() : null)
+                .totalAttempts(legResults.size())
+                .bridgeLegResults(legResults)
+                .executionTimeMs(executionTimeMs)
+                .errorType(success || settled ? null : PayoutErrorType.AMBIGUOUS)
+                .errorMessage(success ? null : saga.getErrorMessage())
+                .build();
+    }
+
+    private PayoutGateway findPayoutGateway(GatewayType type) {
+        return gatewayRegistry.getPayoutGateway(type);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
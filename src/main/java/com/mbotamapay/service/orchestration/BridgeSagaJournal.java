@@ -0,0 +1,135 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.BridgeSaga;
+import com.mbotamapay.entity.BridgeSagaLeg;
+import com.mbotamapay.entity.GatewayStock;
+import com.mbotamapay.entity.enums.BridgeLegStatus;
+import com.mbotamapay.repository.BridgeSagaLegRepository;
+import com.mbotamapay.repository.BridgeSagaRepository;
+import com.mbotamapay.repository.GatewayStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Journal persistant des sagas bridge
+ *
+ * Chaque écriture est commitée immédiatement (REQUIRES_NEW): l'état journalisé
+ * survit à un rollback de la transaction appelante comme à un crash de l'instance.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BridgeSagaJournal {
+
+    private final BridgeSagaRepository sagaRepository;
+    private final BridgeSagaLegRepository legRepository;
+    private final GatewayStockRepository stockRepository;
+
+    @Value("${routing.bridge.saga-lease-seconds:120}")
+    private long leaseSeconds;
+
+    /**
+     * Enregistre une nouvelle saga avec ses legs
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public BridgeSaga create(BridgeSaga saga) {
+        saga.setLeaseUntil(nextLease());
+        return sagaRepository.save(saga);
+    }
+
+    /**
+     * Applique une mutation à la saga, prolonge le bail et retourne l'état commité
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public BridgeSaga update(Long sagaId, Consumer<BridgeSaga> mutation) {
+        BridgeSaga saga = sagaRepository.findWithLegsById(sagaId)
+                .orElseThrow(() -> new IllegalStateException("Saga introuvable: " + sagaId));
+        mutation.accept(saga);
+        saga.setLeaseUntil(nextLease());
+        return sagaRepository.save(saga);
+    }
+
+    /**
+     * Prend le bail d'une saga à reprendre
+     *
+     * @return la saga avec ses legs si le bail a pu être pris, vide sinon
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<BridgeSaga> claim(Long sagaId) {
+        Optional<BridgeSaga> locked = sagaRepository.findByIdForUpdate(sagaId)
+                .filter(saga -> !saga.getStatus().isTerminal())
+                .filter(saga -> saga.getLeaseUntil().isBefore(LocalDateTime.now()));
+        if (locked.isEmpty()) {
+            return Optional.empty();
+        }
+        locked.get().setLeaseUntil(nextLease());
+        sagaRepository.save(locked.get());
+        return sagaRepository.findWithLegsById(sagaId);
+    }
+
+    /**
+     * Réserve le stock d'un leg et journalise la réservation dans la même transaction
+     * Un leg sans stock configuré est considéré comme réservé (comme dans BridgeRoutingService)
+     *
+     * @return true si le leg est réservé
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean reserveLegStock(Long legId) {
+        BridgeSagaLeg leg = legRepository.findByIdForUpdate(legId)
+                .orElseThrow(() -> new IllegalStateException("Leg introuvable: " + legId));
+        if (leg.getStatus() != BridgeLegStatus.PENDING) {
+            return leg.getStatus() == BridgeLegStatus.RESERVED;
+        }
+
+        Optional<GatewayStock> stockOpt = stockRepository.findByGatewayAndCountryForUpdate(
+                leg.getGateway(), leg.getToCountry());
+        if (stockOpt.isPresent()) {
+            GatewayStock stock = stockOpt.get();
+            if (!stock.hasSufficientBalance(leg.getAmount())) {
+                log.warn("Bridge leg {} reservation refused: {} stock in {} too low", leg.getLegNumber(),
+                        leg.getGateway(), leg.getToCountry());
+                return false;
+            }
+            stock.debit(leg.getAmount());
+            stockRepository.save(stock);
+            leg.setStockReserved(true);
+        }
+
+        leg.setStatus(BridgeLegStatus.RESERVED);
+        legRepository.save(leg);
+        return true;
+    }
+
+    /**
+     * Recrédite le stock d'un leg (idempotent grâce au flag stock_reserved)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void releaseLegStock(Long legId, BridgeLegStatus finalStatus) {
+        BridgeSagaLeg leg = legRepository.findByIdForUpdate(legId)
+                .orElseThrow(() -> new IllegalStateException("Leg introuvable: " + legId));
+
+        if (Boolean.TRUE.equals(leg.getStockReserved())) {
+            stockRepository.findByGatewayAndCountryForUpdate(leg.getGateway(), leg.getToCountry())
+                    .ifPresent(stock -> {
+                        stock.credit(leg.getAmount());
+                        stockRepository.save(stock);
+                    });
+            leg.setStockReserved(false);
+        }
+
+        leg.setStatus(finalStatus);
+        legRepository.save(leg);
+    }
+
+    private LocalDateTime nextLease() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds);
+    }
+}
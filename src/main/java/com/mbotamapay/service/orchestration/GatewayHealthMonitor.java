@@ -7,14 +7,21 @@ import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Moniteur de santé des passerelles de paiement
  * Implémente un Circuit Breaker pattern pour éviter les appels vers des gateways défaillantes
+ *
+ * Le trafic client ouvre le circuit. Pour une gateway sondée (GatewayHealthProber),
+ * les sondes pilotent le retour: OPEN -> HALF_OPEN à la première sonde réussie,
+ * HALF_OPEN -> CLOSED après plusieurs sondes réussies. Sans sonde, retour au bout
+ * du délai de recovery et fermeture au premier succès client.
  */
 @Component
 @Slf4j
@@ -26,6 +33,12 @@ public class GatewayHealthMonitor {
     private static final int FAILURE_THRESHOLD = 5;
     private static final Duration RECOVERY_TIMEOUT = Duration.ofMinutes(5);
     private static final Duration METRICS_WINDOW = Duration.ofHours(1);
+    private static final int PROBE_FAILURE_THRESHOLD = 3;
+    private static final int PROBE_SUCCESS_THRESHOLD = 3;
+
+    // Réservoir des derniers temps de réponse (percentiles)
+    private static final int LATENCY_RESERVOIR_SIZE = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
 
     public GatewayHealthMonitor() {
         // Initialiser la santé pour toutes les gateways
@@ -56,6 +69,33 @@ public class GatewayHealthMonitor {
         }
     }
 
+    /**
+     * Enregistre un échec avec sa durée (un timeout pèse dans les percentiles de latence)
+     */
+    public void recordFailure(GatewayType gateway, String reason, long responseTimeMs) {
+        GatewayHealth health = healthMap.get(gateway);
+        if (health != null) {
+            health.recordLatency(responseTimeMs);
+        }
+        recordFailure(gateway, reason);
+    }
+
+    /**
+     * Enregistre le résultat d'une sonde de santé (latence et transitions du circuit)
+     */
+    public void recordProbe(GatewayType gateway, boolean success, long responseTimeMs, String reason) {
+        GatewayHealth health = healthMap.get(gateway);
+        if (health == null) {
+            return;
+        }
+        CircuitState before = health.circuitState;
+        health.recordProbe(success, responseTimeMs, reason);
+        if (health.circuitState != before) {
+            log.info("Gateway {} circuit {} -> {} (probe {})", gateway, before, health.circuitState,
+                    success ? "succeeded" : "failed: " + reason);
+        }
+    }
+
     /**
      * Vérifie si une gateway est disponible (circuit fermé ou half-open)
      */
@@ -80,6 +120,23 @@ public class GatewayHealthMonitor {
         return health != null ? health.getAverageResponseTime() : Long.MAX_VALUE;
     }
 
+    /**
+     * Retourne un percentile de latence des appels réels (ex: 0.95), 0 si pas assez d'échantillons
+     * Les sondes ont leur propre série: elles ne faussent pas les timeouts ni le routage.
+     */
+    public long getLatencyPercentile(GatewayType gateway, double percentile) {
+        GatewayHealth health = healthMap.get(gateway);
+        return health != null ? health.latencies.percentile(percentile) : 0;
+    }
+
+    /**
+     * Retourne un percentile de latence des sondes de santé, 0 si pas assez d'échantillons
+     */
+    public long getProbeLatencyPercentile(GatewayType gateway, double percentile) {
+        GatewayHealth health = healthMap.get(gateway);
+        return health != null ? health.probeLatencies.percentile(percentile) : 0;
+    }
+
     /**
      * Retourne l'état du circuit breaker
      */
@@ -144,10 +201,15 @@ public class GatewayHealthMonitor {
         private final AtomicInteger totalSuccesses = new AtomicInteger(0);
         private final AtomicInteger totalFailures = new AtomicInteger(0);
         private final AtomicLong totalResponseTime = new AtomicLong(0);
+        private final LatencyReservoir latencies = new LatencyReservoir();
+        private final LatencyReservoir probeLatencies = new LatencyReservoir();
         private volatile Instant lastFailureTime;
         private volatile Instant lastSuccessTime;
         private volatile CircuitState circuitState = CircuitState.CLOSED;
         private volatile String lastFailureReason;
+        private volatile boolean probed;
+        private int consecutiveProbeSuccesses;
+        private int consecutiveProbeFailures;
 
         GatewayHealth(GatewayType gateway) {
             this.gateway = gateway;
@@ -157,13 +219,43 @@ public class GatewayHealthMonitor {
             consecutiveFailures.set(0);
             totalSuccesses.incrementAndGet();
             totalResponseTime.addAndGet(responseTimeMs);
+            recordLatency(responseTimeMs);
             lastSuccessTime = Instant.now();
 
-            if (circuitState == CircuitState.HALF_OPEN) {
+            if (circuitState == CircuitState.HALF_OPEN && !probed) {
                 circuitState = CircuitState.CLOSED;
             }
         }
 
+        /**
+         * Appelé par un seul thread (le sondeur), d'où les compteurs non atomiques
+         */
+        void recordProbe(boolean success, long responseTimeMs, String reason) {
+            probed = true;
+            probeLatencies.record(responseTimeMs);
+            if (success) {
+                consecutiveProbeFailures = 0;
+                consecutiveProbeSuccesses++;
+                if (circuitState == CircuitState.OPEN) {
+                    circuitState = CircuitState.HALF_OPEN;
+                    consecutiveProbeSuccesses = 1;
+                } else if (circuitState == CircuitState.HALF_OPEN
+                        && consecutiveProbeSuccesses >= PROBE_SUCCESS_THRESHOLD) {
+                    circuitState = CircuitState.CLOSED;
+                    consecutiveFailures.set(0);
+                }
+            } else {
+                consecutiveProbeSuccesses = 0;
+                consecutiveProbeFailures++;
+                lastFailureTime = Instant.now();
+                lastFailureReason = reason;
+                if (circuitState == CircuitState.HALF_OPEN
+                        || consecutiveProbeFailures >= PROBE_FAILURE_THRESHOLD) {
+                    circuitState = CircuitState.OPEN;
+                }
+            }
+        }
+
         void recordFailure(String reason) {
             int failures = consecutiveFailures.incrementAndGet();
             totalFailures.incrementAndGet();
@@ -175,12 +267,16 @@ public class GatewayHealthMonitor {
             }
         }
 
+        void recordLatency(long responseTimeMs) {
+            latencies.record(responseTimeMs);
+        }
+
         boolean isAvailable() {
             if (circuitState == CircuitState.CLOSED) {
                 return true;
             }
 
-            if (circuitState == CircuitState.OPEN && lastFailureTime != null) {
+            if (circuitState == CircuitState.OPEN && !probed && lastFailureTime != null) {
                 if (Duration.between(lastFailureTime, Instant.now()).compareTo(RECOVERY_TIMEOUT) > 0) {
                     circuitState = CircuitState.HALF_OPEN;
                     return true;
@@ -215,6 +311,9 @@ public class GatewayHealthMonitor {
                     .available(isAvailable())
                     .reliabilityScore(getReliabilityScore())
                     .averageResponseTimeMs(getAverageResponseTime())
+                    .p95ResponseTimeMs(latencies.percentile(0.95))
+                    .p99ResponseTimeMs(latencies.percentile(0.99))
+                    .probeP95ResponseTimeMs(probeLatencies.percentile(0.95))
                     .totalSuccesses(totalSuccesses.get())
                     .totalFailures(totalFailures.get())
                     .consecutiveFailures(consecutiveFailures.get())
@@ -241,6 +340,32 @@ public class GatewayHealthMonitor {
         }
     }
 
+    /**
+     * Réservoir circulaire des derniers temps de réponse (percentiles)
+     */
+    private static class LatencyReservoir {
+        private final AtomicLongArray samples = new AtomicLongArray(LATENCY_RESERVOIR_SIZE);
+        private final AtomicLong sampleCount = new AtomicLong(0);
+
+        void record(long responseTimeMs) {
+            long index = sampleCount.getAndIncrement();
+            samples.set((int) (index % LATENCY_RESERVOIR_SIZE), responseTimeMs);
+        }
+
+        long percentile(double percentile) {
+            int count = (int) Math.min(sampleCount.get(), LATENCY_RESERVOIR_SIZE);
+            if (count < MIN_LATENCY_SAMPLES) return 0;
+
+            long[] snapshot = new long[count];
+            for (int i = 0; i < count; i++) {
+                snapshot[i] = samples.get(i);
+            }
+            Arrays.sort(snapshot);
+            int rank = (int) Math.ceil(percentile * count) - 1;
+            return snapshot[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+
     @lombok.Data
     @lombok.Builder
     @lombok.NoArgsConstructor
@@ -251,6 +376,9 @@ public class GatewayHealthMonitor {
         private boolean available;
         private int reliabilityScore;
         private long averageResponseTimeMs;
+        private long p95ResponseTimeMs;
+        private long p99ResponseTimeMs;
+        private long probeP95ResponseTimeMs;
         private int totalSuccesses;
         private int totalFailures;
         private int consecutiveFailures;
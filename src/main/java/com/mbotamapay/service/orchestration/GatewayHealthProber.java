@@ -0,0 +1,117 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.gateway.GatewayRegistry;
+import com.mbotamapay.gateway.PayoutGateway;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sondes de santé actives des gateways de payout
+ *
+ * Appelle périodiquement un endpoint sans effet de bord de chaque gateway (statut d'une
+ * référence inexistante), en parallèle sur des threads virtuels. Les résultats alimentent
+ * le GatewayHealthMonitor (latence, transitions du circuit) et sont conservés pour
+ * /actuator/health, qui n'appelle plus les gateways.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GatewayHealthProber {
+
+    /**
+     * Dernier résultat de sonde d'une gateway
+     */
+    public record ProbeResult(boolean up, long responseTimeMs, Instant checkedAt, String error) {
+    }
+
+    private final GatewayRegistry gatewayRegistry;
+    private final GatewayHealthMonitor healthMonitor;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile Map<GatewayType, ProbeResult> lastResults = Map.of();
+
+    @Value("${gateway.probe.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(initialDelayString = "${gateway.probe.initial-delay-ms:10000}",
+            fixedDelayString = "${gateway.probe.interval-ms:30000}")
+    public void probeAll() {
+        List<PayoutGateway> payoutGateways = gatewayRegistry.getPayoutGateways();
+        List<Callable<ProbeResult>> probes = new ArrayList<>(payoutGateways.size());
+        for (PayoutGateway gateway : payoutGateways) {
+            probes.add(() -> probe(gateway));
+        }
+
+        List<Future<ProbeResult>> futures;
+        try {
+            futures = executor.invokeAll(probes, timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Map<GatewayType, ProbeResult> results = new EnumMap<>(GatewayType.class);
+        for (int i = 0; i < futures.size(); i++) {
+            GatewayType type = payoutGateways.get(i).getGatewayType();
+            ProbeResult result = resultOf(futures.get(i));
+            healthMonitor.recordProbe(type, result.up(), result.responseTimeMs(), result.error());
+            results.put(type, result);
+        }
+        lastResults = Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Résultats de la dernière passe (lecture seule, sans appel réseau)
+     */
+    public Map<GatewayType, ProbeResult> getLastResults() {
+        return lastResults;
+    }
+
+    private static ProbeResult probe(PayoutGateway gateway) {
+        long start = System.currentTimeMillis();
+        try {
+            boolean up = gateway.probe();
+            return new ProbeResult(up, System.currentTimeMillis() - start, Instant.now(),
+                    up ? null : "Réponse en erreur");
+        } catch (Exception e) {
+            return new ProbeResult(false, System.currentTimeMillis() - start, Instant.now(), e.getMessage());
+        }
+    }
+
+    private ProbeResult resultOf(Future<ProbeResult> future) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            return new ProbeResult(false, timeoutMs, Instant.now(), "Timeout après " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ProbeResult(false, timeoutMs, Instant.now(), "Interrompu");
+        } catch (ExecutionException e) {
+            return new ProbeResult(false, timeoutMs, Instant.now(), e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import com.mbotamapay.gateway.dto.PayoutRequest;
+import com.mbotamapay.gateway.dto.PayoutResponse;
+import com.mbotamapay.gateway.http.GatewayCallDeadline;
+import com.mbotamapay.gateway.http.GatewayErrorClassifier;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Regroupement des payouts par gateway (micro-batching)
+ *
+ * Les payouts soumis pour une même gateway sont accumulés pendant max-delay-ms
+ * ou jusqu'à max-items, puis envoyés ensemble via {@link PayoutGateway#initiatePayouts}
+ * (API de masse native si la gateway en dispose, appels parallèles sinon).
+ * Les payouts dont l'échéance est passée ne sont pas envoyés; les autres partent
+ * bornés par l'échéance la plus lointaine du lot, chaque appelant n'attendant que la sienne.
+ */
+@Component
+@Slf4j
+public class PayoutMicroBatcher {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("payout-batcher").daemon().factory());
+    private final Map<GatewayType, Batch> batches = new EnumMap<>(GatewayType.class);
+
+    @Value("${routing.batching.max-items:20}")
+    private int maxItems;
+
+    @Value("${routing.batching.max-delay-ms:10}")
+    private long maxDelayMs;
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Ajoute un payout au lot en cours de la gateway
+     */
+    public CompletableFuture<PayoutResponse> submit(PayoutGateway gateway, PayoutRequest request) {
+        Pending pending = new Pending(request, GatewayCallDeadline.deadlineEpochMs(), new CompletableFuture<>());
+        List<Pending> ready = null;
+
+        synchronized (batches) {
+            Batch batch = batches.computeIfAbsent(gateway.getGatewayType(), type -> new Batch());
+            batch.items.add(pending);
+            if (batch.items.size() >= maxItems) {
+                ready = drain(gateway.getGatewayType());
+            } else if (batch.items.size() == 1) {
+                batch.flushTask = scheduler.schedule(() -> flush(gateway), maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (ready != null) {
+            dispatch(gateway, ready);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Soumet un payout et attend sa réponse (bornée par l'échéance de l'appel en cours)
+     * Sans réponse à temps, le payout a pu partir: l'issue est AMBIGUOUS.
+     */
+    public PayoutResponse send(PayoutGateway gateway, PayoutRequest request) {
+        CompletableFuture<PayoutResponse> future = submit(gateway, request);
+        long remaining = GatewayCallDeadline.remainingMs();
+        try {
+            return remaining >= 0 ? future.get(Math.max(1, remaining), TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            return ambiguous(request, "Délai dépassé en attente du lot");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ambiguous(request, "Interrompu");
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof Exception cause
+                    ? failed(request, cause.getMessage(), GatewayErrorClassifier.classify(cause))
+                    : ambiguous(request, e.getMessage());
+        }
+    }
+
+    private void flush(PayoutGateway gateway) {
+        List<Pending> ready;
+        synchronized (batches) {
+            ready = drain(gateway.getGatewayType());
+        }
+        if (!ready.isEmpty()) {
+            dispatch(gateway, ready);
+        }
+    }
+
+    private List<Pending> drain(GatewayType type) {
+        Batch batch = batches.get(type);
+        if (batch == null || batch.items.isEmpty()) {
+            return List.of();
+        }
+        if (batch.flushTask != null) {
+            batch.flushTask.cancel(false);
+            batch.flushTask = null;
+        }
+        List<Pending> ready = batch.items;
+        batch.items = new ArrayList<>();
+        return ready;
+    }
+
+    private void dispatch(PayoutGateway gateway, List<Pending> batch) {
+        executor.execute(() -> {
+            // Échéance passée: l'appelant a déjà rendu la main, le payout ne doit plus partir
+            long now = System.currentTimeMillis();
+            List<Pending> ready = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                if (pending.deadlineEpochMs() > 0 && pending.deadlineEpochMs() <= now) {
+                    pending.future.complete(failed(pending.request, "Échéance dépassée avant l'envoi du lot",
+                            PayoutErrorType.TRANSIENT));
+                } else {
+                    ready.add(pending);
+                }
+            }
+            if (ready.isEmpty()) {
+                return;
+            }
+
+            List<PayoutRequest> requests = ready.stream().map(Pending::request).toList();
+            // Un payout sans échéance ne borne pas le lot; sinon l'échéance la plus lointaine
+            long deadline = ready.stream().anyMatch(p -> p.deadlineEpochMs() <= 0)
+                    ? -1
+                    : ready.stream().mapToLong(Pending::deadlineEpochMs).max().orElse(-1);
+
+            log.debug("Sending payout batch of {} via {}", requests.size(), gateway.getGatewayType());
+            try {
+                List<PayoutResponse> responses = deadline > 0
+                        ? GatewayCallDeadline.callBefore(deadline, () -> gateway.initiatePayouts(requests))
+                        : gateway.initiatePayouts(requests);
+                for (int i = 0; i < ready.size(); i++) {
+                    ready.get(i).future.complete(i < responses.size()
+                            ? responses.get(i)
+                            : ambiguous(ready.get(i).request, "Réponse absente du lot"));
+                }
+            } catch (Exception e) {
+                log.error("Payout batch via {} failed: {}", gateway.getGatewayType(), e.getMessage());
+                PayoutErrorType errorType = GatewayErrorClassifier.classify(e);
+                ready.forEach(p -> p.future.complete(failed(p.request, e.getMessage(), errorType)));
+            }
+        });
+    }
+
+    private PayoutResponse ambiguous(PayoutRequest request, String message) {
+        return failed(request, message, PayoutErrorType.AMBIGUOUS);
+    }
+
+    private PayoutResponse failed(PayoutRequest request, String message, PayoutErrorType errorType) {
+        return PayoutResponse.builder()
+                .success(false)
+                .message(message)
+                .transactionReference(request.getReference())
+                .status(errorType == PayoutErrorType.AMBIGUOUS ? "UNKNOWN" : "FAILED")
+                .errorType(errorType)
+                .build();
+    }
+
+    // === Inner Classes ===
+
+    private static final class Batch {
+        private List<Pending> items = new ArrayList<>();
+        private ScheduledFuture<?> flushTask;
+    }
+
+    private record Pending(PayoutRequest request, long deadlineEpochMs, CompletableFuture<PayoutResponse> future) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutStatusResponse;
+import com.mbotamapay.gateway.http.GatewayCallDeadline;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+
+/**
+ * Résolution des payouts à l'issue incertaine
+ *
+ * Après un timeout de lecture (ou toute réponse AMBIGUOUS), interroge la gateway
+ * avec la même référence avant d'autoriser un fallback:
+ * - nombre de vérifications et durée totale bornés (et bornés par l'échéance du transfert)
+ * - chaque vérification est "hedgée": si la gateway tarde, une seconde requête de statut
+ *   identique part en parallèle et la première réponse l'emporte (lecture idempotente)
+ */
+@Component
+@Slf4j
+public class PayoutOutcomeResolver {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${routing.outcome.max-checks:3}")
+    private int maxChecks;
+
+    @Value("${routing.outcome.check-interval-ms:300}")
+    private long checkIntervalMs;
+
+    @Value("${routing.outcome.max-wait-ms:3000}")
+    private long maxWaitMs;
+
+    @Value("${routing.outcome.hedge-delay-ms:400}")
+    private long hedgeDelayMs;
+
+    @Value("${routing.outcome.not-found-as-not-executed:false}")
+    private boolean notFoundAsNotExecuted;
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Détermine si un payout à l'issue incertaine a été exécuté
+     *
+     * @param deadlineEpochMs échéance du transfert (0 = aucune)
+     */
+    public Resolution resolve(PayoutGateway gateway, String reference, long deadlineEpochMs) {
+        long startTime = System.currentTimeMillis();
+        long stopAt = startTime + maxWaitMs;
+        if (deadlineEpochMs > 0) {
+            stopAt = Math.min(stopAt, deadlineEpochMs);
+        }
+
+        int checks = 0;
+        int notFound = 0;
+        while (checks < maxChecks && System.currentTimeMillis() < stopAt) {
+            checks++;
+            PayoutStatusResponse status = hedgedCheck(gateway, reference, stopAt);
+
+            if (status != null && status.isSuccess() && status.getStatus() != null) {
+                PayoutOutcome outcome = switch (status.getStatus()) {
+                    case "COMPLETED", "PENDING" -> PayoutOutcome.EXECUTED;
+                    case "FAILED", "CANCELLED" -> PayoutOutcome.NOT_EXECUTED;
+                    default -> PayoutOutcome.UNKNOWN;
+                };
+                if (outcome != PayoutOutcome.UNKNOWN) {
+                    log.info("Payout {} resolved as {} via {} after {} check(s) in {}ms", reference, outcome,
+                            gateway.getGatewayType(), checks, System.currentTimeMillis() - startTime);
+                    return new Resolution(outcome, status.getExternalReference(), status.getStatus());
+                }
+            } else if (status != null && status.isNotFound()) {
+                notFound++;
+            }
+
+            long pause = Math.min(checkIntervalMs, stopAt - System.currentTimeMillis());
+            if (checks < maxChecks && pause > 0) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        // Référence inconnue à chaque vérification: la requête n'est sans doute jamais arrivée
+        // (désactivé par défaut: un fournisseur peut indexer un payout reçu avec retard)
+        if (notFoundAsNotExecuted && checks >= 2 && notFound == checks) {
+            log.info("Payout {} unknown to {} after {} checks, considered not executed",
+                    reference, gateway.getGatewayType(), checks);
+            return new Resolution(PayoutOutcome.NOT_EXECUTED, null, null);
+        }
+
+        log.warn("Payout {} outcome still unknown on {} after {} check(s)", reference, gateway.getGatewayType(), checks);
+        return new Resolution(PayoutOutcome.UNKNOWN, null, null);
+    }
+
+    private PayoutStatusResponse hedgedCheck(PayoutGateway gateway, String reference, long stopAt) {
+        CompletableFuture<PayoutStatusResponse> primary = checkAsync(gateway, reference, stopAt);
+        try {
+            return primary.get(Math.min(hedgeDelayMs, remaining(stopAt)), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // La gateway tarde: requête de secours en parallèle
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+
+        CompletableFuture<PayoutStatusResponse> hedge = checkAsync(gateway, reference, stopAt);
+        try {
+            return (PayoutStatusResponse) CompletableFuture.anyOf(primary, hedge)
+                    .get(remaining(stopAt), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } finally {
+            primary.cancel(true);
+            hedge.cancel(true);
+        }
+    }
+
+    private CompletableFuture<PayoutStatusResponse> checkAsync(PayoutGateway gateway, String reference, long stopAt) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return GatewayCallDeadline.callBefore(stopAt, () -> gateway.checkPayoutStatus(reference));
+            } catch (Exception e) {
+                log.debug("Status check failed for {}: {}", reference, e.getMessage());
+                return null;
+            }
+        }, executor);
+    }
+
+    private long remaining(long stopAt) {
+        return Math.max(1, stopAt - System.currentTimeMillis());
+    }
+
+    // === Inner Classes ===
+
+    public enum PayoutOutcome {
+        EXECUTED,       // Payout accepté (terminé ou en cours): pas de fallback
+        NOT_EXECUTED,   // Payout refusé ou jamais reçu: fallback sûr
+        UNKNOWN         // Impossible de conclure dans le budget
+    }
+
+    public record Resolution(PayoutOutcome outcome, String externalReference, String status) {
+    }
+}
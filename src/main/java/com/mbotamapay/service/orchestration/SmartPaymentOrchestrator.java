@@ -6,9 +6,13 @@ import com.mbotamapay.entity.GatewayStock;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.GatewayType;
 import com.mbotamapay.entity.enums.MobileOperator;
+import com.mbotamapay.gateway.GatewayRegistry;
 import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
 import com.mbotamapay.gateway.dto.PayoutRequest;
 import com.mbotamapay.gateway.dto.PayoutResponse;
+import com.mbotamapay.gateway.http.GatewayCallDeadline;
+import com.mbotamapay.gateway.http.GatewayErrorClassifier;
 import com.mbotamapay.repository.GatewayRouteRepository;
 import com.mbotamapay.repository.GatewayStockRepository;
 import com.mbotamapay.service.FeeCalculator;
@@ -31,7 +35,7 @@ import java.util.stream.Collectors;
  * Fonctionnalités:
  * - Scoring multi-critères des routes
  * - Fallback automatique avec retry
- * - Split routing pour gros montants
+ * - Split routing pour gros montants (parts exécutées en parallèle)
  * - Circuit breaker intégré
  * - Métriques temps réel
  */
@@ -45,8 +49,12 @@ public class SmartPaymentOrchestrator {
     private final GatewayHealthMonitor healthMonitor;
     private final RouteScorer routeScorer;
     private final FeeCalculator feeCalculator;
-    private final List<PayoutGateway> payoutGateways;
+    private final GatewayRegistry gatewayRegistry;
     private final BridgeRoutingService bridgeRoutingService;
+    private final SplitPaymentExecutor splitPaymentExecutor;
+    private final BridgeSagaCoordinator bridgeSagaCoordinator;
+    private final PayoutOutcomeResolver outcomeResolver;
+    private final PayoutMicroBatcher payoutMicroBatcher;
 
     @Value("${routing.max-retries:3}")
     private int maxRetries;
@@ -63,6 +71,15 @@ public class SmartPaymentOrchestrator {
     @Value("${routing.enable-bridge-routing:true}")
     private boolean enableBridgeRouting;
 
+    @Value("${routing.transfer-deadline-ms:20000}")
+    private long transferDeadlineMs; // Budget de bout en bout d'un transfert
+
+    @Value("${routing.min-attempt-budget-ms:1000}")
+    private long minAttemptBudgetMs; // En dessous, on ne tente plus de gateway
+
+    @Value("${routing.batching.enabled:false}")
+    private boolean payoutBatching; // Regrouper les payouts simultanés d'une même gateway
+
     /**
      * Détermine la meilleure stratégie de routage
      */
@@ -131,73 +148,178 @@ public class SmartPaymentOrchestrator {
                 .fees(fees)
                 .scoredRoutes(scoredRoutes)
                 .orchestrationTimeMs(orchestrationTime)
+                .deadlineAt(startTime + transferDeadlineMs)
                 .build();
     }
 
     /**
      * Exécute le payout avec fallback automatique
+     * Les fallbacks respectent l'échéance du transfert: une gateway dont le p95
+     * dépasse le budget restant est ignorée, et le timeout HTTP de chaque essai
+     * est borné au temps restant.
+     * Les stratégies SPLIT sont déléguées au SplitPaymentExecutor
      */
     @Transactional
     public PayoutExecutionResult executeWithFallback(OrchestrationResult orchestration, PayoutRequest request) {
         RoutingStrategy strategy = orchestration.getStrategy();
+        if (strategy.getType() == RoutingStrategyType.SPLIT) {
+            return splitPaymentExecutor.execute(orchestration, request);
+        }
+
         List<GatewayType> gatewaysToTry = strategy.getOrderedGateways();
+        long deadline = orchestration.getDeadlineAt() > 0
+                ? orchestration.getDeadlineAt()
+                : System.currentTimeMillis() + transferDeadlineMs;
 
-        PayoutExecutionResult result = null;
         List<FailedAttempt> failedAttempts = new ArrayList<>();
+        PayoutErrorType errorType = null;
+        GatewayType lastGateway = null;
+        int attempt = 0;
+        int skipped = 0;
+
+        for (GatewayType gateway : gatewaysToTry) {
+            if (attempt >= maxRetries) {
+                break;
+            }
 
-        for (int attempt = 0; attempt < Math.min(gatewaysToTry.size(), maxRetries); attempt++) {
-            GatewayType gateway = gatewaysToTry.get(attempt);
-            
-            log.info("Payout attempt {}/{} via {}", attempt + 1, maxRetries, gateway);
+            // Budget restant: on s'arrête net plutôt que de dépasser l'échéance
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining < minAttemptBudgetMs) {
+                log.warn("Transfer deadline reached after {} attempt(s), {}ms left", attempt, remaining);
+                break;
+            }
+
+            // Inutile d'essayer une gateway qui répond typiquement après l'échéance
+            long p95 = healthMonitor.getLatencyPercentile(gateway, 0.95);
+            if (p95 > remaining) {
+                log.info("Skipping {}: p95={}ms exceeds remaining budget {}ms", gateway, p95, remaining);
+                skipped++;
+                continue;
+            }
+
+            attempt++;
+            lastGateway = gateway;
+            log.info("Payout attempt {}/{} via {} (budget {}ms)", attempt, maxRetries, gateway, remaining);
             long startTime = System.currentTimeMillis();
 
+            PayoutGateway payoutGateway;
+            PayoutResponse response;
             try {
-                PayoutGateway payoutGateway = findPayoutGateway(gateway);
-                PayoutResponse response = payoutGateway.initiatePayout(request);
-                long responseTime = System.currentTimeMillis() - startTime;
-
-                if (response.isSuccess()) {
-                    healthMonitor.recordSuccess(gateway, responseTime);
-                    
-                    // Débiter le stock si nécessaire
-                    if (strategy.isUseStock()) {
-                        debitStock(gateway, orchestration.getDestCountry(), request.getAmount());
-                    }
+                payoutGateway = findPayoutGateway(gateway);
+            } catch (IllegalStateException e) {
+                errorType = PayoutErrorType.TRANSIENT;
+                failedAttempts.add(new FailedAttempt(gateway, e.getMessage(), 0));
+                log.error("Payout error via {}: {}", gateway, e.getMessage());
+                continue;
+            }
 
-                    result = PayoutExecutionResult.builder()
-                            .success(true)
-                            .gateway(gateway)
-                            .response(response)
-                            .attemptNumber(attempt + 1)
-                            .totalAttempts(attempt + 1)
-                            .failedAttempts(failedAttempts)
-                            .executionTimeMs(responseTime)
-                            .build();
-                    
-                    log.info("Payout successful via {} in {}ms", gateway, responseTime);
-                    return result;
-                } else {
-                    healthMonitor.recordFailure(gateway, response.getMessage());
-                    failedAttempts.add(new FailedAttempt(gateway, response.getMessage(), responseTime));
-                    log.warn("Payout failed via {}: {}", gateway, response.getMessage());
-                }
+            try {
+                response = GatewayCallDeadline.callBefore(deadline, () -> payoutBatching
+                        ? payoutMicroBatcher.send(payoutGateway, request)
+                        : payoutGateway.initiatePayout(request));
             } catch (Exception e) {
-                long responseTime = System.currentTimeMillis() - startTime;
-                healthMonitor.recordFailure(gateway, e.getMessage());
-                failedAttempts.add(new FailedAttempt(gateway, e.getMessage(), responseTime));
                 log.error("Payout error via {}: {}", gateway, e.getMessage());
+                response = PayoutResponse.builder()
+                        .success(false)
+                        .message(e.getMessage())
+                        .errorType(GatewayErrorClassifier.classify(e))
+                        .build();
+            }
+            long responseTime = System.currentTimeMillis() - startTime;
+
+            if (!response.isSuccess()) {
+                errorType = response.getErrorType() != null ? response.getErrorType() : PayoutErrorType.TRANSIENT;
+
+                // Issue incertaine: vérifier le statut avant tout fallback (évite le double paiement)
+                if (errorType == PayoutErrorType.AMBIGUOUS) {
+                    PayoutOutcomeResolver.Resolution resolution =
+                            outcomeResolver.resolve(payoutGateway, request.getReference(), deadline);
+                    switch (resolution.outcome()) {
+                        case EXECUTED -> response = PayoutResponse.builder()
+                                .success(true)
+                                .transactionReference(request.getReference())
+                                .externalReference(resolution.externalReference())
+                                .status(resolution.status())
+                                .message("Payout confirmé par vérification du statut")
+                                .build();
+                        case NOT_EXECUTED -> errorType = PayoutErrorType.TRANSIENT;
+                        case UNKNOWN -> { }
+                    }
+                }
+            }
+
+            if (response.isSuccess()) {
+                healthMonitor.recordSuccess(gateway, responseTime);
+
+                // Débiter le stock si nécessaire
+                if (strategy.isUseStock()) {
+                    debitStock(gateway, orchestration.getDestCountry(), request.getAmount());
+                }
+
+                log.info("Payout successful via {} in {}ms", gateway, responseTime);
+                return PayoutExecutionResult.builder()
+                        .success(true)
+                        .gateway(gateway)
+                        .response(response)
+                        .attemptNumber(attempt)
+                        .totalAttempts(attempt)
+                        .failedAttempts(failedAttempts)
+                        .executionTimeMs(responseTime)
+                        .build();
+            }
+
+            recordAttemptFailure(gateway, errorType, response.getMessage(), responseTime);
+            failedAttempts.add(new FailedAttempt(gateway, response.getMessage(), responseTime));
+            log.warn("Payout failed via {} ({}): {}", gateway, errorType, response.getMessage());
+
+            // Seules les erreurs retentables justifient un fallback
+            if (!errorType.isRetryable()) {
+                log.warn("Payout not retryable ({}), no fallback", errorType);
+                break;
             }
         }
 
-        // Tous les essais ont échoué
+        // Tous les essais ont échoué (ou le budget est épuisé)
+        String errorMessage;
+        if (errorType != null && !errorType.isRetryable()) {
+            errorMessage = describeTerminalError(errorType, failedAttempts.get(failedAttempts.size() - 1).getReason());
+        } else {
+            errorMessage = "Tous les essais ont échoué après " + failedAttempts.size() + " tentatives";
+        }
+        if (skipped > 0) {
+            errorMessage += " (" + skipped + " gateway(s) ignorée(s), latence supérieure au budget restant)";
+        }
         return PayoutExecutionResult.builder()
                 .success(false)
+                .gateway(errorType == PayoutErrorType.AMBIGUOUS ? lastGateway : null)
                 .totalAttempts(failedAttempts.size())
                 .failedAttempts(failedAttempts)
-                .errorMessage("Tous les essais ont échoué après " + failedAttempts.size() + " tentatives")
+                .errorType(errorType)
+                .errorMessage(errorMessage)
                 .build();
     }
 
+    /**
+     * Enregistre un échec: seules les erreurs imputables à la gateway comptent pour le circuit breaker
+     */
+    private void recordAttemptFailure(GatewayType gateway, PayoutErrorType errorType, String reason, long responseTime) {
+        if (errorType.isGatewayFault()) {
+            healthMonitor.recordFailure(gateway, reason, responseTime);
+        } else if (errorType != PayoutErrorType.RATE_LIMITED) {
+            // La gateway a répondu correctement (refus métier): elle est saine
+            healthMonitor.recordSuccess(gateway, responseTime);
+        }
+    }
+
+    private String describeTerminalError(PayoutErrorType errorType, String reason) {
+        return switch (errorType) {
+            case TERMINAL_RECIPIENT -> "Destinataire refusé: " + reason;
+            case TERMINAL_REQUEST -> "Requête de payout refusée: " + reason;
+            case AMBIGUOUS -> "Issue du payout incertaine: " + reason;
+            default -> reason;
+        };
+    }
+
     /**
      * Orchestration pour les gros montants (split en plusieurs transactions)
      */
@@ -246,18 +368,36 @@ public class SmartPaymentOrchestrator {
                     "Capacité insuffisante pour le montant. Manque: " + remainingAmount + " XOF");
         }
 
+        // Gateway principale = celle qui porte la plus grosse part
+        GatewayType primaryGateway = splitParts.get(0).getGateway();
+        Set<GatewayType> usedGateways = splitParts.stream()
+                .map(SplitPart::getGateway)
+                .collect(Collectors.toSet());
+
         RoutingStrategy strategy = RoutingStrategy.builder()
                 .type(RoutingStrategyType.SPLIT)
+                .primaryGateway(primaryGateway)
+                .orderedGateways(new ArrayList<>(usedGateways))
                 .splitParts(splitParts)
+                .useStock(true)
                 .totalAmount(request.getAmount())
                 .build();
 
+        // Frais calculés sur le taux le plus élevé des gateways utilisées
+        BigDecimal feePercent = routes.stream()
+                .filter(route -> usedGateways.contains(route.getGateway()))
+                .map(GatewayRoute::getGatewayFeePercent)
+                .max(Comparator.naturalOrder())
+                .orElse(routes.get(0).getGatewayFeePercent());
+        FeeBreakdown fees = feeCalculator.calculateFees(request.getAmount(), feePercent);
+
         return OrchestrationResult.builder()
                 .success(true)
                 .sourceCountry(source)
                 .destCountry(dest)
                 .destOperator(destOperator.orElse(null))
                 .strategy(strategy)
+                .fees(fees)
                 .isSplitPayment(true)
                 .build();
     }
@@ -294,6 +434,7 @@ public class SmartPaymentOrchestrator {
 
         RoutingStrategy strategy = RoutingStrategy.builder()
                 .type(RoutingStrategyType.BRIDGE)
+                .primaryGateway(bridgeLegs.get(bridgeLegs.size() - 1).getGateway())
                 .bridgeLegs(bridgeLegs)
                 .bridgeCountries(bridgeRoute.getBridgeCountries())
                 .bridgeHopCount(bridgeRoute.getHopCount())
@@ -323,9 +464,9 @@ public class SmartPaymentOrchestrator {
     }
 
     /**
-     * Exécute un paiement bridge (multi-legs)
+     * Exécute un paiement bridge (multi-legs) sous forme de saga persistée
+     * La compensation et la reprise après crash sont gérées par le BridgeSagaCoordinator
      */
-    @Transactional
     public PayoutExecutionResult executeBridgePayment(OrchestrationResult orchestration, PayoutRequest originalRequest) {
         if (!orchestration.isBridgePayment() || orchestration.getStrategy().getBridgeLegs() == null) {
             return PayoutExecutionResult.builder()
@@ -334,112 +475,8 @@ public class SmartPaymentOrchestrator {
                     .build();
         }
 
-        List<BridgeLegStrategy> legs = orchestration.getStrategy().getBridgeLegs();
-        List<BridgeLegResult> legResults = new ArrayList<>();
-        long totalExecutionTime = 0;
-
-        log.info("Executing bridge payment with {} legs", legs.size());
-
-        // Exécuter chaque leg séquentiellement
-        for (int i = 0; i < legs.size(); i++) {
-            BridgeLegStrategy leg = legs.get(i);
-            log.info("Executing bridge leg {}/{}: {} -> {} via {}", 
-                    i + 1, legs.size(), leg.getFromCountry(), leg.getToCountry(), leg.getGateway());
-
-            long legStartTime = System.currentTimeMillis();
-
-            try {
-                PayoutGateway gateway = findPayoutGateway(leg.getGateway());
-                
-                // Adapter la requête pour ce leg
-                PayoutRequest legRequest = PayoutRequest.builder()
-                        .amount(originalRequest.getAmount())
-                        .currency(originalRequest.getCurrency())
-                        .recipientPhone(i == legs.size() - 1 
-                                ? originalRequest.getRecipientPhone() 
-                                : generateIntermediateAccount(leg.getToCountry()))
-                        .recipientName(i == legs.size() - 1 
-                                ? originalRequest.getRecipientName() 
-                                : "MBOTAMA_BRIDGE_" + leg.getToCountry().getIsoCode())
-                        .description("Bridge leg " + (i + 1) + ": " + leg.getFromCountry() + " -> " + leg.getToCountry())
-                        .build();
-
-                PayoutResponse response = gateway.initiatePayout(legRequest);
-                long legTime = System.currentTimeMillis() - legStartTime;
-                totalExecutionTime += legTime;
-
-                BridgeLegResult legResult = BridgeLegResult.builder()
-                        .legNumber(i + 1)
-                        .fromCountry(leg.getFromCountry())
-                        .toCountry(leg.getToCountry())
-                        .gateway(leg.getGateway())
-                        .success(response.isSuccess())
-                        .transactionId(response.getTransactionReference())
-                        .executionTimeMs(legTime)
-                        .build();
-
-                legResults.add(legResult);
-
-                if (!response.isSuccess()) {
-                    log.error("Bridge leg {} failed: {}", i + 1, response.getMessage());
-                    healthMonitor.recordFailure(leg.getGateway(), response.getMessage());
-                    
-                    // TODO: Implémenter rollback/compensation pour les legs précédents
-                    return PayoutExecutionResult.builder()
-                            .success(false)
-                            .errorMessage("Bridge leg " + (i + 1) + " failed: " + response.getMessage())
-                            .bridgeLegResults(legResults)
-                            .executionTimeMs(totalExecutionTime)
-                            .build();
-                }
-
-                healthMonitor.recordSuccess(leg.getGateway(), legTime);
-                log.info("Bridge leg {} completed successfully in {}ms", i + 1, legTime);
-
-            } catch (Exception e) {
-                long legTime = System.currentTimeMillis() - legStartTime;
-                totalExecutionTime += legTime;
-                
-                log.error("Bridge leg {} error: {}", i + 1, e.getMessage());
-                healthMonitor.recordFailure(leg.getGateway(), e.getMessage());
-
-                legResults.add(BridgeLegResult.builder()
-                        .legNumber(i + 1)
-                        .fromCountry(leg.getFromCountry())
-                        .toCountry(leg.getToCountry())
-                        .gateway(leg.getGateway())
-                        .success(false)
-                        .errorMessage(e.getMessage())
-                        .executionTimeMs(legTime)
-                        .build());
-
-                return PayoutExecutionResult.builder()
-                        .success(false)
-                        .errorMessage("Bridge leg " + (i + 1) + " error: " + e.getMessage())
-                        .bridgeLegResults(legResults)
-                        .executionTimeMs(totalExecutionTime)
-                        .build();
-            }
-        }
-
-        // Tous les legs ont réussi
-        log.info("Bridge payment completed successfully with {} legs in {}ms", legs.size(), totalExecutionTime);
-
-        return PayoutExecutionResult.builder()
-                .success(true)
-                .totalAttempts(legs.size())
-                .bridgeLegResults(legResults)
-                .executionTimeMs(totalExecutionTime)
-                .build();
-    }
-
-    /**
-     * Génère un compte intermédiaire pour les legs bridge
-     * En production, ce serait un compte de transit Mbotama dans chaque pays hub
-     */
-    private String generateIntermediateAccount(Country country) {
-        // Format: préfixe pays + numéro de compte transit Mbotama
-        return country.getPhonePrefix() + "00000001"; // Compte transit Mbotama
+        log.info("Executing bridge payment with {} legs", orchestration.getStrategy().getBridgeLegs().size());
+        return bridgeSagaCoordinator.execute(orchestration, originalRequest);
     }
 
     /**
@@ -481,10 +518,11 @@ public class SmartPaymentOrchestrator {
     }
 
     private PayoutGateway findPayoutGateway(GatewayType type) {
-        return payoutGateways.stream()
-                .filter(g -> g.getGatewayType() == type)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("Gateway not found: " + type));
+        PayoutGateway gateway = gatewayRegistry.getPayoutGateway(type);
+        if (gateway == null) {
+            throw new IllegalStateException("Gateway not found: " + type);
+        }
+        return gateway;
     }
 
     // === Inner Classes ===
@@ -520,6 +558,7 @@ public class SmartPaymentOrchestrator {
         private boolean isBridgePayment;
         private BridgeRoute bridgeRoute;
         private long orchestrationTimeMs;
+        private long deadlineAt; // Échéance du transfert (epoch ms), 0 = budget par défaut
 
         public static OrchestrationResult failed(String message) {
             return OrchestrationResult.builder()
@@ -602,10 +641,29 @@ public class SmartPaymentOrchestrator {
         private int totalAttempts;
         private List<FailedAttempt> failedAttempts;
         private List<BridgeLegResult> bridgeLegResults;
+        private List<SplitPartResult> splitPartResults;
         private long executionTimeMs;
+        private PayoutErrorType errorType; // Nature du dernier échec (null si succès)
         private String errorMessage;
     }
 
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class SplitPartResult {
+        private int partNumber;
+        private GatewayType gateway;
+        private long amount;
+        private boolean success;
+        private String reference;           // Référence envoyée à la gateway ({ref}-P{n}[R{k}])
+        private String externalReference;
+        private int reallocations;
+        private PayoutErrorType errorType;  // Type d'échec (AMBIGUOUS: payée ou non, à réconcilier)
+        private String errorMessage;
+        private long executionTimeMs;
+    }
+
     @lombok.Data
     @lombok.AllArgsConstructor
     public static class FailedAttempt {
@@ -0,0 +1,439 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.GatewayStock;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.gateway.GatewayRegistry;
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import com.mbotamapay.gateway.dto.PayoutRequest;
+import com.mbotamapay.gateway.dto.PayoutResponse;
+import com.mbotamapay.gateway.http.GatewayErrorClassifier;
+import com.mbotamapay.repository.GatewayStockRepository;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.FailedAttempt;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.OrchestrationResult;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.PayoutExecutionResult;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.SplitPart;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.SplitPartResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Moteur d'exécution des stratégies SPLIT
+ *
+ * Fonctionnement:
+ * 1. Réserve le stock de chaque part avant le moindre envoi
+ * 2. Exécute les parts en parallèle, avec une limite de concurrence par gateway
+ * 3. Réalloue une part échouée vers une autre gateway ayant encore de la capacité
+ * 4. Agrège le tout en un seul résultat
+ *
+ * Le temps total est celui de la part la plus lente, et non la somme des parts.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SplitPaymentExecutor {
+
+    private final StockReservationService stockReservationService;
+    private final GatewayStockRepository stockRepository;
+    private final GatewayHealthMonitor healthMonitor;
+    private final GatewayRegistry gatewayRegistry;
+    private final PayoutOutcomeResolver outcomeResolver;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<GatewayType, Semaphore> gatewayPermits = new EnumMap<>(GatewayType.class);
+
+    @Value("${routing.split.max-concurrency-per-gateway:4}")
+    private int maxConcurrencyPerGateway;
+
+    @Value("${routing.split.timeout-ms:60000}")
+    private long splitTimeoutMs;
+
+    @Value("${routing.split.max-reallocations:2}")
+    private int maxReallocations;
+
+    @PostConstruct
+    void initPermits() {
+        for (GatewayType gateway : GatewayType.values()) {
+            gatewayPermits.put(gateway, new Semaphore(Math.max(1, maxConcurrencyPerGateway), true));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Exécute un plan SPLIT et retourne le résultat agrégé
+     */
+    public PayoutExecutionResult execute(OrchestrationResult orchestration, PayoutRequest originalRequest) {
+        List<SplitPart> plan = orchestration.getStrategy().getSplitParts();
+        Country dest = orchestration.getDestCountry();
+        long startTime = System.currentTimeMillis();
+
+        if (plan == null || plan.isEmpty()) {
+            return PayoutExecutionResult.builder()
+                    .success(false)
+                    .errorMessage("Plan de split vide")
+                    .build();
+        }
+
+        log.info("Executing split payment: {} parts, total={}", plan.size(), originalRequest.getAmount());
+
+        // 1. Réserver le stock de toutes les parts avant d'envoyer quoi que ce soit
+        List<PartState> parts = new ArrayList<>();
+        for (int i = 0; i < plan.size(); i++) {
+            SplitPart planned = plan.get(i);
+            PartState part = new PartState(i + 1, planned.getAmount());
+            parts.add(part);
+
+            if (!reserve(part, planned.getGateway(), dest) && !reallocate(part, dest)) {
+                log.warn("Split part {} could not be reserved on any gateway, aborting split", part.number);
+                parts.stream().filter(p -> p.reserved).forEach(p -> release(p, dest));
+                return PayoutExecutionResult.builder()
+                        .success(false)
+                        .totalAttempts(0)
+                        .failedAttempts(List.of())
+                        .splitPartResults(toResults(parts))
+                        .executionTimeMs(System.currentTimeMillis() - startTime)
+                        .errorMessage("Stock insuffisant pour la part " + part.number
+                                + " (" + part.amount + " XOF)")
+                        .build();
+            }
+        }
+
+        // 2. Dispatcher toutes les parts en parallèle
+        CompletionService<PartOutcome> completion = new ExecutorCompletionService<>(executor);
+        List<FailedAttempt> failedAttempts = new ArrayList<>();
+        int inFlight = 0;
+        int dispatched = 0;
+        for (PartState part : parts) {
+            submit(completion, part, originalRequest);
+            inFlight++;
+            dispatched++;
+        }
+
+        // 3. Collecter les résultats au fil de l'eau, réallouer les parts échouées
+        long deadline = startTime + splitTimeoutMs;
+        try {
+            while (inFlight > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                Future<PartOutcome> future = remaining > 0
+                        ? completion.poll(remaining, TimeUnit.MILLISECONDS)
+                        : null;
+                if (future == null) {
+                    log.error("Split payment timed out with {} part(s) still in flight", inFlight);
+                    break;
+                }
+                inFlight--;
+
+                PartOutcome outcome = future.get();
+                PartState part = outcome.part();
+
+                if (outcome.isSuccess()) {
+                    healthMonitor.recordSuccess(outcome.gateway(), outcome.responseTimeMs());
+                    part.succeed(outcome.response().getExternalReference(), outcome.responseTimeMs());
+                    log.info("Split part {} succeeded via {} ({} XOF) in {}ms",
+                            part.number, outcome.gateway(), part.amount, outcome.responseTimeMs());
+                    continue;
+                }
+
+                String reason = outcome.failureReason();
+                PayoutErrorType errorType = outcome.errorType();
+                if (errorType.isGatewayFault()) {
+                    healthMonitor.recordFailure(outcome.gateway(), reason, outcome.responseTimeMs());
+                }
+                failedAttempts.add(new FailedAttempt(outcome.gateway(), reason, outcome.responseTimeMs()));
+                log.warn("Split part {} failed via {} ({}): {}", part.number, outcome.gateway(), errorType, reason);
+
+                if (errorType == PayoutErrorType.AMBIGUOUS) {
+                    // Part peut-être payée: ni libération du stock, ni réallocation
+                    part.fail("Issue incertaine: " + reason, errorType, outcome.responseTimeMs());
+                    continue;
+                }
+
+                release(part, dest);
+                if (errorType.isRetryable() && part.reallocations < maxReallocations && reallocate(part, dest)) {
+                    submit(completion, part, originalRequest);
+                    inFlight++;
+                    dispatched++;
+                } else {
+                    part.fail(reason, errorType, outcome.responseTimeMs());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Split payment interrupted");
+        } catch (ExecutionException e) {
+            // Les tâches capturent leurs propres exceptions, ce cas ne devrait pas arriver
+            log.error("Unexpected split part error", e);
+        }
+
+        // Les parts encore en vol ont un statut inconnu: on garde la réservation
+        // (le payout a peut-être été effectué) et on les signale comme non confirmées
+        parts.stream()
+                .filter(p -> !p.done)
+                .forEach(p -> p.fail("Délai dépassé, statut inconnu", PayoutErrorType.AMBIGUOUS,
+                        System.currentTimeMillis() - startTime));
+
+        return aggregate(parts, failedAttempts, dispatched, System.currentTimeMillis() - startTime);
+    }
+
+    private void submit(CompletionService<PartOutcome> completion, PartState part, PayoutRequest originalRequest) {
+        GatewayType gateway = part.gateway;
+        part.reference = part.reference(originalRequest.getReference());
+        PayoutRequest partRequest = PayoutRequest.builder()
+                .reference(part.reference)
+                .amount(part.amount)
+                .currency(originalRequest.getCurrency())
+                .recipientPhone(originalRequest.getRecipientPhone())
+                .recipientName(originalRequest.getRecipientName())
+                .country(originalRequest.getCountry())
+                .operator(originalRequest.getOperator())
+                .description(originalRequest.getDescription())
+                .build();
+
+        completion.submit(() -> runPart(part, gateway, partRequest));
+    }
+
+    private PartOutcome runPart(PartState part, GatewayType gateway, PayoutRequest partRequest) {
+        Semaphore permits = gatewayPermits.get(gateway);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new PartOutcome(part, gateway, null, "Interrompu", PayoutErrorType.TRANSIENT, 0);
+        }
+
+        long callStart = System.currentTimeMillis();
+        PayoutGateway payoutGateway = findPayoutGateway(gateway);
+        PartOutcome outcome;
+        try {
+            PayoutResponse response = payoutGateway.initiatePayout(partRequest);
+            outcome = new PartOutcome(part, gateway, response, null, response.getErrorType(),
+                    System.currentTimeMillis() - callStart);
+        } catch (Exception e) {
+            outcome = new PartOutcome(part, gateway, null, e.getMessage(), GatewayErrorClassifier.classify(e),
+                    System.currentTimeMillis() - callStart);
+        } finally {
+            permits.release();
+        }
+
+        return outcome.errorType() == PayoutErrorType.AMBIGUOUS
+                ? resolveAmbiguous(outcome, payoutGateway, partRequest.getReference(), callStart)
+                : outcome;
+    }
+
+    /**
+     * Vérifie le statut d'une part à l'issue incertaine avant de décider de sa réallocation
+     */
+    private PartOutcome resolveAmbiguous(PartOutcome outcome, PayoutGateway payoutGateway, String reference,
+                                         long callStart) {
+        PayoutOutcomeResolver.Resolution resolution =
+                outcomeResolver.resolve(payoutGateway, reference, callStart + splitTimeoutMs);
+        return switch (resolution.outcome()) {
+            case EXECUTED -> new PartOutcome(outcome.part(), outcome.gateway(), PayoutResponse.builder()
+                    .success(true)
+                    .transactionReference(reference)
+                    .externalReference(resolution.externalReference())
+                    .status(resolution.status())
+                    .build(), null, null, outcome.responseTimeMs());
+            case NOT_EXECUTED -> new PartOutcome(outcome.part(), outcome.gateway(), outcome.response(),
+                    outcome.error(), PayoutErrorType.TRANSIENT, outcome.responseTimeMs());
+            case UNKNOWN -> outcome;
+        };
+    }
+
+    private boolean reserve(PartState part, GatewayType gateway, Country dest) {
+        part.triedGateways.add(gateway);
+        if (!healthMonitor.isAvailable(gateway) || findPayoutGateway(gateway) == null) {
+            return false;
+        }
+        if (!stockReservationService.reserve(gateway, dest, part.amount)) {
+            return false;
+        }
+        part.gateway = gateway;
+        part.reserved = true;
+        return true;
+    }
+
+    private void release(PartState part, Country dest) {
+        if (part.reserved) {
+            stockReservationService.release(part.gateway, dest, part.amount);
+            part.reserved = false;
+        }
+    }
+
+    /**
+     * Cherche une autre gateway (pas encore essayée pour cette part) ayant assez de stock
+     */
+    private boolean reallocate(PartState part, Country dest) {
+        List<GatewayStock> candidates = stockRepository.findByCountry(dest).stream()
+                .filter(stock -> !part.triedGateways.contains(stock.getGateway()))
+                .filter(stock -> stock.hasSufficientBalance(part.amount))
+                .sorted(Comparator.comparing(GatewayStock::getBalance).reversed())
+                .toList();
+
+        for (GatewayStock candidate : candidates) {
+            PayoutGateway payoutGateway = findPayoutGateway(candidate.getGateway());
+            if (payoutGateway == null || !payoutGateway.supportsPayoutTo(dest)) {
+                continue;
+            }
+            if (reserve(part, candidate.getGateway(), dest)) {
+                part.reallocations++;
+                log.info("Split part {} reallocated to {} (reallocation #{})",
+                        part.number, candidate.getGateway(), part.reallocations);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PayoutExecutionResult aggregate(List<PartState> parts, List<FailedAttempt> failedAttempts,
+            int dispatched, long executionTimeMs) {
+        boolean allSucceeded = parts.stream().allMatch(p -> p.succeeded);
+        long paidAmount = parts.stream().filter(p -> p.succeeded).mapToLong(p -> p.amount).sum();
+        long totalAmount = parts.stream().mapToLong(p -> p.amount).sum();
+
+        // Gateway "principale" = celle qui a servi la plus grosse part réussie
+        GatewayType mainGateway = parts.stream()
+                .filter(p -> p.succeeded)
+                .max(Comparator.comparingLong(p -> p.amount))
+                .map(p -> p.gateway)
+                .orElse(null);
+
+        PayoutExecutionResult.PayoutExecutionResultBuilder builder = PayoutExecutionResult.builder()
+                .success(allSucceeded)
+                .gateway(mainGateway)
+                .totalAttempts(dispatched)
+                .failedAttempts(failedAttempts)
+                .splitPartResults(toResults(parts))
+                .executionTimeMs(executionTimeMs);
+
+        if (allSucceeded) {
+            log.info("Split payment completed: {} parts, {} XOF in {}ms", parts.size(), paidAmount, executionTimeMs);
+        } else {
+            builder.errorType(aggregateErrorType(parts));
+            String failedParts = parts.stream()
+                    .filter(p -> !p.succeeded)
+                    .map(p -> "#" + p.number + " (" + p.errorMessage + ")")
+                    .reduce((a, b) -> a + ", " + b)
+                    .orElse("");
+            builder.errorMessage("Split partiel: " + paidAmount + "/" + totalAmount
+                    + " XOF envoyés, parts en échec: " + failedParts);
+            log.error("Split payment incomplete: {}/{} XOF paid", paidAmount, totalAmount);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * AMBIGUOUS si une part est peut-être payée, sinon le type commun des parts en échec
+     * (TRANSIENT si elles diffèrent)
+     */
+    private static PayoutErrorType aggregateErrorType(List<PartState> parts) {
+        List<PayoutErrorType> types = parts.stream()
+                .filter(p -> !p.succeeded && p.errorType != null)
+                .map(p -> p.errorType)
+                .distinct()
+                .toList();
+        if (types.contains(PayoutErrorType.AMBIGUOUS)) {
+            return PayoutErrorType.AMBIGUOUS;
+        }
+        return types.size() == 1 ? types.get(0) : PayoutErrorType.TRANSIENT;
+    }
+
+    private List<SplitPartResult> toResults(List<PartState> parts) {
+        return parts.stream()
+                .map(p -> SplitPartResult.builder()
+                        .partNumber(p.number)
+                        .gateway(p.gateway)
+                        .amount(p.amount)
+                        .success(p.succeeded)
+                        .reference(p.reference)
+                        .externalReference(p.externalReference)
+                        .reallocations(p.reallocations)
+                        .errorType(p.errorType)
+                        .errorMessage(p.errorMessage)
+                        .executionTimeMs(p.executionTimeMs)
+                        .build())
+                .toList();
+    }
+
+    private PayoutGateway findPayoutGateway(GatewayType type) {
+        return gatewayRegistry.getPayoutGateway(type);
+    }
+
+    // === Inner Classes ===
+
+    /**
+     * État mutable d'une part, manipulé uniquement par le thread coordinateur
+     */
+    private static class PartState {
+        private final int number;
+        private final long amount;
+        private final Set<GatewayType> triedGateways = EnumSet.noneOf(GatewayType.class);
+        private GatewayType gateway;
+        private boolean reserved;
+        private int reallocations;
+        private boolean done;
+        private boolean succeeded;
+        private String reference;
+        private String externalReference;
+        private PayoutErrorType errorType;
+        private String errorMessage;
+        private long executionTimeMs;
+
+        PartState(int number, long amount) {
+            this.number = number;
+            this.amount = amount;
+        }
+
+        String reference(String baseReference) {
+            String reference = baseReference + "-P" + number;
+            return reallocations > 0 ? reference + "R" + reallocations : reference;
+        }
+
+        void succeed(String externalReference, long executionTimeMs) {
+            this.done = true;
+            this.succeeded = true;
+            this.externalReference = externalReference;
+            this.executionTimeMs = executionTimeMs;
+        }
+
+        void fail(String errorMessage, PayoutErrorType errorType, long executionTimeMs) {
+            this.done = true;
+            this.succeeded = false;
+            this.errorType = errorType;
+            this.errorMessage = errorMessage;
+            this.executionTimeMs = executionTimeMs;
+        }
+    }
+
+    private record PartOutcome(PartState part, GatewayType gateway, PayoutResponse response,
+                               String error, PayoutErrorType reportedErrorType, long responseTimeMs) {
+
+        boolean isSuccess() {
+            return response != null && response.isSuccess();
+        }
+
+        PayoutErrorType errorType() {
+            return reportedErrorType != null ? reportedErrorType : PayoutErrorType.TRANSIENT;
+        }
+
+        String failureReason() {
+            if (error != null) {
+                return error;
+            }
+            return response != null ? response.getMessage() : "Réponse vide";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.GatewayStock;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.repository.GatewayStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Réservation du stock des passerelles
+ *
+ * Chaque réservation/libération s'exécute dans sa propre transaction courte
+ * (verrou pessimiste sur la ligne de stock), ce qui permet de l'appeler depuis
+ * des threads d'exécution parallèles sans dépendre de la transaction appelante.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final GatewayStockRepository stockRepository;
+
+    /**
+     * Réserve (débite) un montant sur le stock d'une passerelle
+     *
+     * @return true si le stock était suffisant et a été débité
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean reserve(GatewayType gateway, Country country, long amount) {
+        Optional<GatewayStock> stockOpt = stockRepository.findByGatewayAndCountryForUpdate(gateway, country);
+        if (stockOpt.isEmpty() || !stockOpt.get().hasSufficientBalance(amount)) {
+            log.debug("Stock reservation refused: gateway={}, country={}, amount={}", gateway, country, amount);
+            return false;
+        }
+
+        GatewayStock stock = stockOpt.get();
+        stock.debit(amount);
+        stockRepository.save(stock);
+        log.info("Stock reserved: gateway={}, country={}, amount={}, newBalance={}",
+                gateway, country, amount, stock.getBalance());
+        return true;
+    }
+
+    /**
+     * Libère (recrédite) une réservation précédente
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(GatewayType gateway, Country country, long amount) {
+        stockRepository.findByGatewayAndCountryForUpdate(gateway, country).ifPresent(stock -> {
+            stock.credit(amount);
+            stockRepository.save(stock);
+            log.info("Stock released: gateway={}, country={}, amount={}, newBalance={}",
+                    gateway, country, amount, stock.getBalance());
+        });
+    }
+
+    /**
+     * Capacité disponible (lecture non verrouillée, indicative)
+     */
+    @Transactional(readOnly = true)
+    public long availableCapacity(GatewayType gateway, Country country) {
+        return stockRepository.findByGatewayAndCountry(gateway, country)
+                .map(GatewayStock::getBalance)
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mbotamapay.service.velocity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch à fenêtre glissante
+ *
+ * La fenêtre est découpée en tranches de même durée, chacune avec sa matrice depth x width,
+ * remise à zéro quand elle est réutilisée. L'estimation (somme des tranches de la fenêtre,
+ * minimum sur les lignes) ne sous-estime pas une clé, sauf pour les incréments concurrents
+ * d'une remise à zéro; la surestimation est de l'ordre de (événements de la fenêtre) / width.
+ * Mémoire fixe: slots x depth x width compteurs, quel que soit le nombre de clés.
+ */
+final class SlidingCountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int slots;
+    private final long slotMillis;
+    private final AtomicLongArray[] cells;
+    // Numéro de tranche (temps / slotMillis) occupant chaque emplacement
+    private final AtomicLongArray slotEpochs;
+
+    /**
+     * @param width arrondie à la puissance de deux supérieure
+     */
+    SlidingCountMinSketch(int depth, int width, int slots, long slotMillis) {
+        if (depth < 1 || width < 1 || slots < 1 || slotMillis < 1) {
+            throw new IllegalArgumentException("Invalid sketch dimensions");
+        }
+        int roundedWidth = Integer.highestOneBit(width) == width ? width : Integer.highestOneBit(width) << 1;
+        this.depth = depth;
+        this.mask = roundedWidth - 1;
+        this.slots = slots;
+        this.slotMillis = slotMillis;
+        this.cells = new AtomicLongArray[slots];
+        for (int i = 0; i < slots; i++) {
+            cells[i] = new AtomicLongArray(depth * roundedWidth);
+        }
+        this.slotEpochs = new AtomicLongArray(slots);
+    }
+
+    /**
+     * Ajoute une occurrence de la clé (hash 64 bits) et renvoie son estimation sur la fenêtre
+     */
+    long addAndEstimate(long hash, long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        AtomicLongArray current = claim((int) (epoch % slots), epoch);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + ((h1 + row * h2) & mask);
+            current.incrementAndGet(index);
+            min = Math.min(min, windowSum(index, epoch));
+        }
+        return min;
+    }
+
+    /**
+     * Estimation sans ajout
+     */
+    long estimate(long hash, long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, windowSum(row * (mask + 1) + ((h1 + row * h2) & mask), epoch));
+        }
+        return min;
+    }
+
+    private long windowSum(int index, long epoch) {
+        long total = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (epoch - slotEpochs.get(slot) < slots) {
+                total += cells[slot].get(index);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Emplacement de la tranche courante, remis à zéro par le premier thread qui le réutilise
+     */
+    private AtomicLongArray claim(int slot, long epoch) {
+        long owner = slotEpochs.get(slot);
+        if (owner < epoch && slotEpochs.compareAndSet(slot, owner, epoch)) {
+            AtomicLongArray array = cells[slot];
+            for (int i = 0; i < array.length(); i++) {
+                array.set(i, 0);
+            }
+        }
+        return cells[slot];
+    }
+}
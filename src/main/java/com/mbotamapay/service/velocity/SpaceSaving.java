@@ -0,0 +1,59 @@
+package com.mbotamapay.service.velocity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clés les plus fréquentes (algorithme Space-Saving), au plus capacity compteurs
+ *
+ * Une clé nouvelle, quand la table est pleine, remplace la clé de plus petit compte et
+ * en hérite: son compte est surestimé d'au plus "error".
+ */
+final class SpaceSaving {
+
+    record Entry(String key, long count, long error) {
+    }
+
+    private static final class Counter {
+        long count;
+        long error;
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    synchronized void offer(String key) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = new Counter();
+            if (counters.size() >= capacity) {
+                Map.Entry<String, Counter> smallest = null;
+                for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                    if (smallest == null || entry.getValue().count < smallest.getValue().count) {
+                        smallest = entry;
+                    }
+                }
+                counters.remove(smallest.getKey());
+                counter.count = smallest.getValue().count;
+                counter.error = smallest.getValue().count;
+            }
+            counters.put(key, counter);
+        }
+        counter.count++;
+    }
+
+    synchronized List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> entries.add(new Entry(key, counter.count, counter.error)));
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+}
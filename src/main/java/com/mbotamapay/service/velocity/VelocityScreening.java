@@ -0,0 +1,230 @@
+package com.mbotamapay.service.velocity;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôle de vélocité des transferts (fenêtre glissante, en mémoire)
+ *
+ * Compte les transferts par expéditeur, par bénéficiaire et par couple expéditeur/bénéficiaire
+ * dans des count-min sketches de taille fixe: quelques centaines de lectures atomiques par
+ * transfert, sans allocation par utilisateur. Au-delà du seuil "flag" le transfert est signalé,
+ * au-delà du seuil "block" il est refusé (seuil 0 = désactivé). Les tentatives refusées comptent.
+ *
+ * Les clés proches du seuil alimentent un top-K (Space-Saving) par expéditeur et par
+ * bénéficiaire, remis à zéro à chaque fenêtre, pour le suivi des plus actifs.
+ * Compteurs propres à l'instance.
+ */
+@Service
+@Slf4j
+public class VelocityScreening {
+
+    public enum Verdict {
+        ALLOW,
+        FLAG,
+        BLOCK
+    }
+
+    public enum Dimension {
+        SENDER,
+        RECIPIENT,
+        PAIR
+    }
+
+    /**
+     * Résultat: dimension et compte (estimé, transfert courant inclus) ayant déterminé le verdict
+     */
+    public record Result(Verdict verdict, Dimension dimension, long count) {
+
+        static final Result ALLOWED = new Result(Verdict.ALLOW, null, 0);
+    }
+
+    public record HeavyHitter(String key, long count, long error) {
+    }
+
+    @Value("${velocity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${velocity.window-minutes:10}")
+    private int windowMinutes;
+
+    @Value("${velocity.slots:10}")
+    private int slots;
+
+    @Value("${velocity.sketch.depth:4}")
+    private int depth;
+
+    @Value("${velocity.sketch.width:4096}")
+    private int width;
+
+    @Value("${velocity.top-k:100}")
+    private int topK;
+
+    @Value("${velocity.sender.flag:10}")
+    private long senderFlag;
+
+    @Value("${velocity.sender.block:20}")
+    private long senderBlock;
+
+    @Value("${velocity.recipient.flag:15}")
+    private long recipientFlag;
+
+    @Value("${velocity.recipient.block:40}")
+    private long recipientBlock;
+
+    @Value("${velocity.pair.flag:4}")
+    private long pairFlag;
+
+    @Value("${velocity.pair.block:8}")
+    private long pairBlock;
+
+    private SlidingCountMinSketch senders;
+    private SlidingCountMinSketch recipients;
+    private SlidingCountMinSketch pairs;
+    private long windowMillis;
+
+    private volatile TopKWindow topKWindow;
+
+    /**
+     * Top-K d'une fenêtre
+     */
+    private record TopKWindow(long epoch, SpaceSaving senders, SpaceSaving recipients) {
+    }
+
+    @PostConstruct
+    void init() {
+        windowMillis = windowMinutes * 60_000L;
+        long slotMillis = Math.max(1, windowMillis / slots);
+        senders = new SlidingCountMinSketch(depth, width, slots, slotMillis);
+        recipients = new SlidingCountMinSketch(depth, width, slots, slotMillis);
+        pairs = new SlidingCountMinSketch(depth, width, slots, slotMillis);
+        topKWindow = new TopKWindow(System.currentTimeMillis() / windowMillis,
+                new SpaceSaving(topK), new SpaceSaving(topK));
+        log.info("Velocity screening: enabled={}, window={}min, sketch={}x{}x{}",
+                enabled, windowMinutes, slots, depth, width);
+    }
+
+    /**
+     * Compte le transfert et renvoie le verdict le plus sévère des trois dimensions
+     */
+    public Result screen(Long senderId, String recipientPhone) {
+        if (!enabled) {
+            return Result.ALLOWED;
+        }
+        long now = System.currentTimeMillis();
+        String recipient = normalize(recipientPhone);
+        long senderHash = mix(senderId);
+        long recipientHash = hash(recipient);
+
+        long senderCount = senders.addAndEstimate(senderHash, now);
+        long recipientCount = recipients.addAndEstimate(recipientHash, now);
+        long pairCount = pairs.addAndEstimate(mix(senderHash * 31 + recipientHash), now);
+
+        // Seules les clés à mi-chemin du seuil entrent dans le top-K (coût nul pour le trafic normal)
+        boolean hotSender = nearThreshold(senderCount, senderFlag);
+        boolean hotRecipient = nearThreshold(recipientCount, recipientFlag);
+        if (hotSender || hotRecipient) {
+            TopKWindow window = topKWindow(now);
+            if (hotSender) {
+                window.senders().offer(String.valueOf(senderId));
+            }
+            if (hotRecipient) {
+                window.recipients().offer(recipient);
+            }
+        }
+
+        Result result = Result.ALLOWED;
+        result = worst(result, Dimension.SENDER, senderCount, senderFlag, senderBlock);
+        result = worst(result, Dimension.RECIPIENT, recipientCount, recipientFlag, recipientBlock);
+        result = worst(result, Dimension.PAIR, pairCount, pairFlag, pairBlock);
+        return result;
+    }
+
+    /**
+     * Expéditeurs et bénéficiaires les plus actifs de la fenêtre courante
+     */
+    public Map<Dimension, List<HeavyHitter>> getHeavyHitters(int limit) {
+        TopKWindow window = topKWindow(System.currentTimeMillis());
+        return Map.of(
+                Dimension.SENDER, toHeavyHitters(window.senders().top(limit)),
+                Dimension.RECIPIENT, toHeavyHitters(window.recipients().top(limit)));
+    }
+
+    private TopKWindow topKWindow(long now) {
+        TopKWindow window = topKWindow;
+        long epoch = now / windowMillis;
+        if (window.epoch() != epoch) {
+            // Remplacement concurrent possible: quelques offres perdues, sans conséquence
+            window = new TopKWindow(epoch, new SpaceSaving(topK), new SpaceSaving(topK));
+            topKWindow = window;
+        }
+        return window;
+    }
+
+    private static boolean nearThreshold(long count, long flag) {
+        return flag > 0 && count * 2 > flag;
+    }
+
+    private static Result worst(Result current, Dimension dimension, long count, long flag, long block) {
+        Verdict verdict = block > 0 && count > block ? Verdict.BLOCK
+                : flag > 0 && count > flag ? Verdict.FLAG
+                : Verdict.ALLOW;
+        return verdict.compareTo(current.verdict()) > 0 ? new Result(verdict, dimension, count) : current;
+    }
+
+    private static List<HeavyHitter> toHeavyHitters(List<SpaceSaving.Entry> entries) {
+        return entries.stream()
+                .map(entry -> new HeavyHitter(entry.key(), entry.count(), entry.error()))
+                .toList();
+    }
+
+    /**
+     * Chiffres du numéro, sans préfixe international 00
+     */
+    static String normalize(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            digits.delete(0, 2);
+        }
+        return digits.toString();
+    }
+
+    /**
+     * FNV-1a 64 bits puis mélange final
+     */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Mélange final de MurmurHash3 (fmix64)
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
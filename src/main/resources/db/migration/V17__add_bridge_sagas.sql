@@ -0,0 +1,40 @@
+-- V17: Sagas de paiement bridge
+-- Journal persistant des legs pour compensation et reprise après crash
+
+CREATE TABLE bridge_sagas (
+    id BIGSERIAL PRIMARY KEY,
+    reference VARCHAR(100) NOT NULL UNIQUE,
+    source_country VARCHAR(20) NOT NULL,
+    dest_country VARCHAR(20) NOT NULL,
+    amount BIGINT NOT NULL,
+    recipient_phone VARCHAR(20) NOT NULL,
+    recipient_name VARCHAR(200),
+    status VARCHAR(20) NOT NULL DEFAULT 'STARTED',
+    error_message VARCHAR(500),
+    compensation_attempts INT NOT NULL DEFAULT 0,
+    lease_until TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE bridge_saga_legs (
+    id BIGSERIAL PRIMARY KEY,
+    saga_id BIGINT NOT NULL REFERENCES bridge_sagas(id) ON DELETE CASCADE,
+    leg_number INT NOT NULL,
+    from_country VARCHAR(20) NOT NULL,
+    to_country VARCHAR(20) NOT NULL,
+    gateway VARCHAR(20) NOT NULL,
+    amount BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    stock_reserved BOOLEAN NOT NULL DEFAULT false,
+    external_reference VARCHAR(100),
+    compensation_reference VARCHAR(100),
+    error_message VARCHAR(500),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (saga_id, leg_number)
+);
+
+-- Recherche des sagas à reprendre (statut non terminal + bail expiré)
+CREATE INDEX idx_bridge_sagas_status_lease ON bridge_sagas(status, lease_until);
+
+COMMENT ON TABLE bridge_sagas IS 'Bridge payment sagas with per-leg journal for compensation and crash recovery';
@@ -0,0 +1,22 @@
+-- V18: File d'attente durable des webhooks de gateway
+-- Acquittement immédiat, application asynchrone par lots
+
+CREATE TABLE webhook_events (
+    id BIGSERIAL PRIMARY KEY,
+    platform VARCHAR(20) NOT NULL,
+    reference VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    verified BOOLEAN NOT NULL DEFAULT false,
+    payload TEXT,
+    state VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    error_message VARCHAR(500),
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    CONSTRAINT uk_webhook_events_platform_ref_status UNIQUE (platform, reference, status)
+);
+
+-- Lecture des événements en attente par ordre d'arrivée
+CREATE INDEX idx_webhook_events_state ON webhook_events(state, id);
+
+COMMENT ON TABLE webhook_events IS 'Gateway webhooks queued for asynchronous, deduplicated processing';
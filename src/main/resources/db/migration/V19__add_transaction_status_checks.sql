@@ -0,0 +1,8 @@
+-- V19: Planification des vérifications de statut des transactions en cours
+-- Chaque transaction porte sa prochaine échéance (backoff exponentiel)
+
+ALTER TABLE transactions ADD COLUMN next_check_at TIMESTAMP;
+ALTER TABLE transactions ADD COLUMN check_attempts INT NOT NULL DEFAULT 0;
+
+-- Lecture paginée par clé (id) des transactions à vérifier
+CREATE INDEX idx_transactions_status_next_check ON transactions(status, next_check_at, id);
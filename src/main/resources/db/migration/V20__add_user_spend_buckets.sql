@@ -0,0 +1,21 @@
+-- V20: Compteurs de dépenses par utilisateur et par jour
+-- Les limites quotidienne et glissante (30 jours) se vérifient sur ces compteurs,
+-- incrémentés à la réservation et décrémentés quand le transfert échoue.
+
+CREATE TABLE user_spend_buckets (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    bucket_date DATE NOT NULL,
+    amount BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, bucket_date)
+);
+
+-- Reprise: montants engagés (en cours ou terminés) des 31 derniers jours
+INSERT INTO user_spend_buckets (user_id, bucket_date, amount)
+SELECT sender_id, CAST(created_at AS DATE), SUM(amount)
+FROM transactions
+WHERE sender_id IS NOT NULL
+  AND status IN ('PENDING', 'PROCESSING', 'COMPLETED')
+  AND created_at >= CURRENT_DATE - INTERVAL '31' DAY
+GROUP BY sender_id, CAST(created_at AS DATE);
+
+COMMENT ON TABLE user_spend_buckets IS 'Per-user daily spend counters backing daily and rolling 30-day limits';
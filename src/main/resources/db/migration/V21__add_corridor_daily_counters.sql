@@ -0,0 +1,17 @@
+-- V21: Volume et nombre de transferts par corridor et par jour
+-- Compteurs tenus en mémoire, sauvegardés périodiquement et rechargés au démarrage.
+
+CREATE TABLE corridor_daily_counters (
+    source_country VARCHAR(30) NOT NULL,
+    dest_country VARCHAR(30) NOT NULL,
+    bucket_date DATE NOT NULL,
+    volume BIGINT NOT NULL DEFAULT 0,
+    tx_count INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (source_country, dest_country, bucket_date)
+);
+
+-- Rechargement des compteurs du jour
+CREATE INDEX idx_corridor_daily_counters_date ON corridor_daily_counters(bucket_date);
+
+COMMENT ON TABLE corridor_daily_counters IS 'Daily per-corridor volume and transfer count, snapshotted from in-memory counters';
@@ -0,0 +1,18 @@
+-- V22: Parts de payout d'un transfert SPLIT
+-- Référence propre à chaque part ({ref}-P{n}[R{k}]) pour la réconciliation part par part
+
+CREATE TABLE transaction_payout_parts (
+    id BIGSERIAL PRIMARY KEY,
+    transaction_id BIGINT NOT NULL REFERENCES transactions(id) ON DELETE CASCADE,
+    part_number INT NOT NULL,
+    reference VARCHAR(100) NOT NULL,
+    gateway VARCHAR(20),
+    amount BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    external_reference VARCHAR(100),
+    error_message VARCHAR(500),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (transaction_id, part_number)
+);
+
+COMMENT ON TABLE transaction_payout_parts IS 'Per-part payout journal of split transfers, reconciled part by part';
@@ -0,0 +1,6 @@
+-- V23: Backoff des confirmations de webhook
+-- Un webhook non confirmé est retenté à next_attempt_at (backoff exponentiel)
+
+ALTER TABLE webhook_events ADD COLUMN next_attempt_at TIMESTAMP;
+
+COMMENT ON COLUMN webhook_events.next_attempt_at IS 'Earliest time of the next confirmation attempt (NULL = immediately)';
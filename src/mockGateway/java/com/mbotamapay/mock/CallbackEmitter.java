@@ -0,0 +1,81 @@
+package com.mbotamapay.mock;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envoi des callbacks de paiement à l'URL fournie lors de l'initiation
+ *
+ * Le callback part à l'échéance de l'opération, signé (en-tête X-Signature, HMAC-SHA256
+ * hexadécimal du corps) si un secret est configuré pour le fournisseur.
+ */
+public final class CallbackEmitter {
+
+    private final MockGatewayConfig config;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public CallbackEmitter(MockGatewayConfig config) {
+        this.config = config;
+    }
+
+    public void schedule(String provider, String url, MockLedger.Operation operation,
+                         String contentType, String body) {
+        if (!config.callbacksEnabled() || url == null || url.isBlank()) {
+            return;
+        }
+        long delay = Math.max(0, operation.settleAt() - System.currentTimeMillis());
+        scheduler.schedule(() -> send(provider, url, contentType, body), delay, TimeUnit.MILLISECONDS);
+        if (ThreadLocalRandom.current().nextDouble() < config.callbackDuplicateRate()) {
+            scheduler.schedule(() -> send(provider, url, contentType, body), delay + 500, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void send(String provider, String url, String contentType, String body) {
+        byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload));
+        String secret = config.webhookSecret(provider);
+        if (!secret.isBlank()) {
+            request.header("X-Signature", sign(secret, payload));
+        }
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        System.err.printf("[mock-gateway] callback %s -> %s failed: %s%n", provider, url, error.getMessage());
+                    } else if (response.statusCode() >= 400) {
+                        System.err.printf("[mock-gateway] callback %s -> %s: HTTP %d%n", provider, url, response.statusCode());
+                    }
+                });
+    }
+
+    private static String sign(String secret, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
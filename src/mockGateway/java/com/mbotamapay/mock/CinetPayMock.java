@@ -0,0 +1,116 @@
+package com.mbotamapay.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mbotamapay.mock.MockGatewayServer.json;
+
+/**
+ * Endpoints CinetPay: API de paiement (/cinetpay/v2) et API de transfert (/cinetpay/v1)
+ * Notification de paiement: formulaire cpm_trans_id, sans statut (comme CinetPay).
+ */
+final class CinetPayMock {
+
+    private static final String PROVIDER = "cinetpay";
+    private static final String SUCCESS_CODE = "00";
+
+    private final MockLedger ledger;
+    private final CallbackEmitter callbacks;
+
+    CinetPayMock(MockLedger ledger, CallbackEmitter callbacks) {
+        this.ledger = ledger;
+        this.callbacks = callbacks;
+    }
+
+    void register(MockGatewayServer server) {
+        server.route(PROVIDER, "payment", "/cinetpay/v2/payment", true, this::initiatePayment);
+        server.route(PROVIDER, "payment-check", "/cinetpay/v2/payment/check", true, this::checkPayment);
+        server.route(PROVIDER, "transfer", "/cinetpay/v1/transfer/contact/money/send/contact", true, this::transfer);
+        server.route(PROVIDER, "transfer-check", "/cinetpay/v1/transfer/check", true, this::checkTransfer);
+    }
+
+    private MockGatewayServer.Reply initiatePayment(MockGatewayServer.Request request) {
+        if (request.reject()) {
+            return MockGatewayServer.Reply.ok(json("code", "608", "message", "MINIMUM_REQUIRED_FIELDS"));
+        }
+        MockLedger.Operation operation = ledger.record("cp_", request.text("transaction_id"), request.amount("amount"));
+        callbacks.schedule(PROVIDER, request.text("notify_url"), operation,
+                "application/x-www-form-urlencoded",
+                "cpm_trans_id=" + URLEncoder.encode(operation.reference(), StandardCharsets.UTF_8));
+        return MockGatewayServer.Reply.ok(json(
+                "code", SUCCESS_CODE,
+                "message", "CREATED",
+                "data", json(
+                        "payment_url", "http://localhost/mock/cinetpay/pay/" + operation.gatewayReference(),
+                        "payment_token", operation.gatewayReference())));
+    }
+
+    private MockGatewayServer.Reply checkPayment(MockGatewayServer.Request request) {
+        MockLedger.Operation operation = ledger.find(request.text("transaction_id"));
+        if (operation == null) {
+            return MockGatewayServer.Reply.ok(json("code", "627", "message", "TRANSACTION_NOT_FOUND"));
+        }
+        String status = switch (operation.status()) {
+            case PENDING -> "PENDING";
+            case COMPLETED -> "ACCEPTED";
+            case FAILED -> "REFUSED";
+        };
+        return MockGatewayServer.Reply.ok(json(
+                "code", SUCCESS_CODE,
+                "message", "SUCCES",
+                "data", json("status", status, "message", status)));
+    }
+
+    /**
+     * Transfert unitaire (objet) ou par lot (champ data: liste de contacts)
+     */
+    private MockGatewayServer.Reply transfer(MockGatewayServer.Request request) {
+        if (request.reject()) {
+            return MockGatewayServer.Reply.ok(json("code", "602", "message", "INSUFFICIENT_BALANCE"));
+        }
+        JsonNode contacts = request.body().path("data");
+        if (!contacts.isArray()) {
+            return MockGatewayServer.Reply.ok(json(
+                    "code", SUCCESS_CODE,
+                    "message", "OPERATION_SUCCES",
+                    "data", transferResult(request.text("transaction_id"), request.amount("amount"))));
+        }
+        List<Object> results = new ArrayList<>();
+        for (JsonNode contact : contacts) {
+            results.add(transferResult(contact.path("transaction_id").asText(null), contact.path("amount").asLong(0)));
+        }
+        return MockGatewayServer.Reply.ok(json("code", SUCCESS_CODE, "message", "OPERATION_SUCCES", "data", results));
+    }
+
+    private Object transferResult(String reference, long amount) {
+        MockLedger.Operation operation = ledger.record("tr_", reference, amount);
+        return json(
+                "transaction_id", operation.reference(),
+                "transfer_id", operation.gatewayReference(),
+                "code", SUCCESS_CODE,
+                "message", "OPERATION_SUCCES");
+    }
+
+    private MockGatewayServer.Reply checkTransfer(MockGatewayServer.Request request) {
+        MockLedger.Operation operation = ledger.find(request.text("transaction_id"));
+        if (operation == null) {
+            return MockGatewayServer.Reply.notFound(json("code", "723", "message", "NOT_FOUND"));
+        }
+        String status = switch (operation.status()) {
+            case PENDING -> "NEW";
+            case COMPLETED -> "VAL";
+            case FAILED -> "REFUSED";
+        };
+        return MockGatewayServer.Reply.ok(json(
+                "code", SUCCESS_CODE,
+                "message", "OPERATION_SUCCES",
+                "data", json(
+                        "status", status,
+                        "transfer_id", operation.gatewayReference(),
+                        "amount", operation.amount())));
+    }
+}
@@ -0,0 +1,50 @@
+package com.mbotamapay.mock;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Comportement simulé d'un endpoint de gateway
+ *
+ * Latence log-normale définie par sa médiane et son p99; les taux sont des probabilités
+ * par appel: erreur HTTP 5xx, timeout (réponse retenue timeoutMs), rejet métier.
+ */
+public record EndpointProfile(
+        long medianMs,
+        long p99Ms,
+        double errorRate,
+        double timeoutRate,
+        long timeoutMs,
+        double rejectRate) {
+
+    /**
+     * z du 99e centile de la loi normale
+     */
+    private static final double Z_99 = 2.326;
+
+    public enum Outcome {
+        OK, REJECT, ERROR, TIMEOUT
+    }
+
+    public long sampleLatencyMs() {
+        if (medianMs <= 0) {
+            return 0;
+        }
+        double sigma = p99Ms > medianMs ? Math.log((double) p99Ms / medianMs) / Z_99 : 0;
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(Math.exp(Math.log(medianMs) + sigma * gaussian));
+    }
+
+    public Outcome sampleOutcome() {
+        double draw = ThreadLocalRandom.current().nextDouble();
+        if (draw < timeoutRate) {
+            return Outcome.TIMEOUT;
+        }
+        if (draw < timeoutRate + errorRate) {
+            return Outcome.ERROR;
+        }
+        if (draw < timeoutRate + errorRate + rejectRate) {
+            return Outcome.REJECT;
+        }
+        return Outcome.OK;
+    }
+}
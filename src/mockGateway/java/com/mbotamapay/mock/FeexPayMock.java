@@ -0,0 +1,75 @@
+package com.mbotamapay.mock;
+
+import static com.mbotamapay.mock.MockGatewayServer.json;
+
+/**
+ * Endpoints FeexPay (/feexpay)
+ * Webhook de paiement: JSON custom_id + status.
+ */
+final class FeexPayMock {
+
+    private static final String PROVIDER = "feexpay";
+    private static final String STATUS_PREFIX = "/feexpay/api/transactions/public/";
+
+    private final MockLedger ledger;
+    private final CallbackEmitter callbacks;
+
+    FeexPayMock(MockLedger ledger, CallbackEmitter callbacks) {
+        this.ledger = ledger;
+        this.callbacks = callbacks;
+    }
+
+    void register(MockGatewayServer server) {
+        server.route(PROVIDER, "invoice", STATUS_PREFIX + "invoice", true, this::createInvoice);
+        server.route(PROVIDER, "status", STATUS_PREFIX, false, this::status);
+        // Un endpoint de payout par opérateur: même comportement
+        server.route(PROVIDER, "payout", "/feexpay/api/payouts/public/", false, this::payout);
+        server.route(PROVIDER, "check-subscriber", "/feexpay/api/check-subscriber", true, this::checkSubscriber);
+    }
+
+    private MockGatewayServer.Reply createInvoice(MockGatewayServer.Request request) {
+        if (request.reject()) {
+            return MockGatewayServer.Reply.ok(json("status", "failed", "message", "Invalid amount"));
+        }
+        MockLedger.Operation operation = ledger.record("fx_", request.text("custom_id"), request.amount("amount"));
+        String webhook = MockGatewayServer.toJson(json(
+                "custom_id", operation.reference(),
+                "status", operation.succeeds() ? "success" : "failed",
+                "reference", operation.gatewayReference()));
+        callbacks.schedule(PROVIDER, request.text("callback_url"), operation, "application/json", webhook);
+        return MockGatewayServer.Reply.ok(json(
+                "status", "success",
+                "payment_url", "http://localhost/mock/feexpay/pay/" + operation.gatewayReference(),
+                "reference", operation.gatewayReference()));
+    }
+
+    private MockGatewayServer.Reply payout(MockGatewayServer.Request request) {
+        if (request.reject()) {
+            return MockGatewayServer.Reply.ok(json("status", "failed", "message", "Solde insuffisant"));
+        }
+        MockLedger.Operation operation = ledger.record("fxp_", request.text("custom_id"), request.amount("amount"));
+        return MockGatewayServer.Reply.ok(json(
+                "status", "success",
+                "message", "Payout en cours",
+                "reference", operation.gatewayReference()));
+    }
+
+    private MockGatewayServer.Reply status(MockGatewayServer.Request request) {
+        MockLedger.Operation operation = ledger.find(request.path().substring(STATUS_PREFIX.length()));
+        if (operation == null) {
+            return MockGatewayServer.Reply.notFound(json("message", "Transaction introuvable"));
+        }
+        String status = switch (operation.status()) {
+            case PENDING -> "pending";
+            case COMPLETED -> "success";
+            case FAILED -> "failed";
+        };
+        return MockGatewayServer.Reply.ok(json("status", status, "message", status, "amount", operation.amount()));
+    }
+
+    private MockGatewayServer.Reply checkSubscriber(MockGatewayServer.Request request) {
+        return MockGatewayServer.Reply.ok(json(
+                "status", "success",
+                "data", json("is_active", !request.reject(), "name", "Abonné Test")));
+    }
+}
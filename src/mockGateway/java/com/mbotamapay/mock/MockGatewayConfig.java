@@ -0,0 +1,105 @@
+package com.mbotamapay.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Configuration du serveur simulé
+ *
+ * Lue depuis mock-gateway.properties puis surchargée par les propriétés système (-Dmock.*).
+ * Un paramètre d'endpoint est cherché dans l'ordre:
+ * mock.&lt;provider&gt;.&lt;endpoint&gt;.&lt;clé&gt;, mock.&lt;provider&gt;.&lt;clé&gt;, mock.default.&lt;clé&gt;
+ */
+public final class MockGatewayConfig {
+
+    private final Properties properties = new Properties();
+
+    private MockGatewayConfig() {
+    }
+
+    public static MockGatewayConfig load() {
+        MockGatewayConfig config = new MockGatewayConfig();
+        try (InputStream in = MockGatewayConfig.class.getResourceAsStream("/mock-gateway.properties")) {
+            if (in != null) {
+                config.properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.getProperties().forEach((key, value) -> {
+            if (key.toString().startsWith("mock.")) {
+                config.properties.setProperty(key.toString(), value.toString());
+            }
+        });
+        return config;
+    }
+
+    public int port() {
+        return Integer.parseInt(properties.getProperty("mock.port", "9090"));
+    }
+
+    /**
+     * Délai entre l'initiation et le statut final d'une opération
+     */
+    public long settleMs() {
+        return Long.parseLong(properties.getProperty("mock.settle-ms", "2000"));
+    }
+
+    /**
+     * Part des opérations qui finissent en succès (le reste échoue)
+     */
+    public double successRate() {
+        return Double.parseDouble(properties.getProperty("mock.success-rate", "0.95"));
+    }
+
+    public boolean callbacksEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("mock.callback.enabled", "true"));
+    }
+
+    /**
+     * Part des callbacks envoyés deux fois (renvois du fournisseur)
+     */
+    public double callbackDuplicateRate() {
+        return Double.parseDouble(properties.getProperty("mock.callback.duplicate-rate", "0.0"));
+    }
+
+    /**
+     * Secret HMAC-SHA256 des callbacks (vide: callbacks non signés)
+     */
+    public String webhookSecret(String provider) {
+        return properties.getProperty("mock." + provider + ".webhook-secret", "");
+    }
+
+    public EndpointProfile profile(String provider, String endpoint) {
+        return new EndpointProfile(
+                longValue(provider, endpoint, "median-ms", 150),
+                longValue(provider, endpoint, "p99-ms", 800),
+                doubleValue(provider, endpoint, "error-rate", 0.0),
+                doubleValue(provider, endpoint, "timeout-rate", 0.0),
+                longValue(provider, endpoint, "timeout-ms", 30000),
+                doubleValue(provider, endpoint, "reject-rate", 0.0));
+    }
+
+    private long longValue(String provider, String endpoint, String key, long defaultValue) {
+        String value = lookup(provider, endpoint, key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    private double doubleValue(String provider, String endpoint, String key, double defaultValue) {
+        String value = lookup(provider, endpoint, key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+
+    private String lookup(String provider, String endpoint, String key) {
+        String value = properties.getProperty("mock." + provider + "." + endpoint + "." + key);
+        if (value == null) {
+            value = properties.getProperty("mock." + provider + "." + key);
+        }
+        if (value == null) {
+            value = properties.getProperty("mock.default." + key);
+        }
+        return value;
+    }
+}
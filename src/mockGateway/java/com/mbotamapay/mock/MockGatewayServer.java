@@ -0,0 +1,173 @@
+package com.mbotamapay.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serveur HTTP local simulant CinetPay, FeexPay et PayTech
+ *
+ * Implémente les endpoints appelés par les adaptateurs, avec latence, erreurs,
+ * timeouts et rejets configurables par endpoint, et émet les callbacks de paiement.
+ * Préfixes: /cinetpay/v2 (paiement), /cinetpay/v1 (transfert), /feexpay, /paytech/api.
+ * Utilisé avec le profil Spring "mock" (application-mock.yml).
+ */
+public final class MockGatewayServer {
+
+    @FunctionalInterface
+    interface Handler {
+        Reply handle(Request request) throws IOException;
+    }
+
+    /**
+     * @param reject true si l'appel doit être rejeté par la gateway (réponse métier négative)
+     */
+    record Request(String path, JsonNode body, boolean reject) {
+
+        String text(String field) {
+            JsonNode node = body.path(field);
+            return node.isMissingNode() || node.isNull() ? null : node.asText();
+        }
+
+        long amount(String field) {
+            return body.path(field).asLong(0);
+        }
+    }
+
+    record Reply(int status, Object body) {
+
+        static Reply ok(Object body) {
+            return new Reply(200, body);
+        }
+
+        static Reply notFound(Object body) {
+            return new Reply(404, body);
+        }
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final MockGatewayConfig config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CallbackEmitter callbacks;
+
+    MockGatewayServer(MockGatewayConfig config) throws IOException {
+        this.config = config;
+        this.callbacks = new CallbackEmitter(config);
+        this.server = HttpServer.create(new InetSocketAddress(config.port()), 0);
+        this.server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        MockGatewayServer mock = launch(MockGatewayConfig.load());
+        Runtime.getRuntime().addShutdownHook(new Thread(mock::stop));
+    }
+
+    /**
+     * Démarre le serveur avec tous les fournisseurs (utilisable en embarqué, ex: test de charge)
+     */
+    public static MockGatewayServer launch(MockGatewayConfig config) throws IOException {
+        MockGatewayServer mock = new MockGatewayServer(config);
+        MockLedger ledger = new MockLedger(config.settleMs(), config.successRate());
+        new CinetPayMock(ledger, mock.callbacks).register(mock);
+        new FeexPayMock(ledger, mock.callbacks).register(mock);
+        new PayTechMock(ledger, mock.callbacks).register(mock);
+        mock.start();
+        return mock;
+    }
+
+    void start() {
+        server.start();
+        System.out.printf("[mock-gateway] listening on http://localhost:%d%n", server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        callbacks.shutdown();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Déclare un endpoint
+     *
+     * @param exact false pour un chemin à suffixe variable (ex: référence en fin d'URL)
+     */
+    void route(String provider, String endpoint, String path, boolean exact, Handler handler) {
+        server.createContext(path, exchange -> {
+            try {
+                if (exact && !exchange.getRequestURI().getPath().equals(path)) {
+                    write(exchange, Reply.notFound(Map.of("message", "Not found")));
+                    return;
+                }
+                serve(exchange, config.profile(provider, endpoint), handler);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                write(exchange, new Reply(500, Map.of("message", String.valueOf(e.getMessage()))));
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    private void serve(HttpExchange exchange, EndpointProfile profile, Handler handler)
+            throws IOException, InterruptedException {
+        EndpointProfile.Outcome outcome = profile.sampleOutcome();
+        Thread.sleep(profile.sampleLatencyMs());
+
+        switch (outcome) {
+            case TIMEOUT -> {
+                // Réponse retenue au-delà des timeouts du client
+                Thread.sleep(profile.timeoutMs());
+                write(exchange, new Reply(504, Map.of("message", "Gateway timeout (simulé)")));
+            }
+            case ERROR -> write(exchange, new Reply(503, Map.of("message", "Service indisponible (simulé)")));
+            default -> write(exchange, handler.handle(new Request(
+                    exchange.getRequestURI().getPath(), readBody(exchange), outcome == EndpointProfile.Outcome.REJECT)));
+        }
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readAllBytes();
+            return bytes.length == 0 ? MissingNode.getInstance() : OBJECT_MAPPER.readTree(bytes);
+        }
+    }
+
+    private void write(HttpExchange exchange, Reply reply) throws IOException {
+        byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(reply.body());
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(reply.status(), bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Objet JSON à partir de paires clé/valeur (valeurs nulles admises)
+     */
+    static Map<String, Object> json(Object... keyValues) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            object.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return object;
+    }
+
+    static String toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
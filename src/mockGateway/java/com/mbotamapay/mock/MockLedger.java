@@ -0,0 +1,57 @@
+package com.mbotamapay.mock;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opérations reçues par le serveur simulé
+ *
+ * Chaque opération est PENDING jusqu'à son échéance, puis COMPLETED ou FAILED
+ * (tirage selon mock.success-rate). Retrouvable par notre référence ou celle de la gateway.
+ */
+public final class MockLedger {
+
+    public enum Status {
+        PENDING, COMPLETED, FAILED
+    }
+
+    public record Operation(String reference, String gatewayReference, long amount, long settleAt, boolean succeeds) {
+
+        public Status status() {
+            if (System.currentTimeMillis() < settleAt) {
+                return Status.PENDING;
+            }
+            return succeeds ? Status.COMPLETED : Status.FAILED;
+        }
+    }
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final long settleMs;
+    private final double successRate;
+
+    public MockLedger(long settleMs, double successRate) {
+        this.settleMs = settleMs;
+        this.successRate = successRate;
+    }
+
+    /**
+     * Enregistre une opération; un renvoi de la même référence retourne l'opération existante
+     */
+    public Operation record(String prefix, String reference, long amount) {
+        String key = reference != null ? reference : UUID.randomUUID().toString();
+        Operation operation = operations.computeIfAbsent(key, ref -> new Operation(
+                ref,
+                prefix + UUID.randomUUID().toString().replace("-", "").substring(0, 16),
+                amount,
+                System.currentTimeMillis() + settleMs,
+                ThreadLocalRandom.current().nextDouble() < successRate));
+        operations.putIfAbsent(operation.gatewayReference(), operation);
+        return operation;
+    }
+
+    public Operation find(String reference) {
+        return reference != null ? operations.get(reference) : null;
+    }
+}
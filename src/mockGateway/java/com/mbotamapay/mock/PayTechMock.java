@@ -0,0 +1,87 @@
+package com.mbotamapay.mock;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import static com.mbotamapay.mock.MockGatewayServer.json;
+
+/**
+ * Endpoints PayTech (/paytech/api)
+ * IPN de paiement: formulaire type_event (sale_complete / sale_canceled) + ref_command.
+ */
+final class PayTechMock {
+
+    private static final String PROVIDER = "paytech";
+    private static final int SUCCESS = 1;
+
+    private final MockLedger ledger;
+    private final CallbackEmitter callbacks;
+
+    PayTechMock(MockLedger ledger, CallbackEmitter callbacks) {
+        this.ledger = ledger;
+        this.callbacks = callbacks;
+    }
+
+    void register(MockGatewayServer server) {
+        server.route(PROVIDER, "request-payment", "/paytech/api/payment/request-payment", true, this::requestPayment);
+        server.route(PROVIDER, "check-status", "/paytech/api/payment/check-status", true, this::checkPayment);
+        server.route(PROVIDER, "payout", "/paytech/api/payout/mobile-money", true, this::payout);
+        server.route(PROVIDER, "payout-status", "/paytech/api/payout/status", true, this::checkPayout);
+    }
+
+    private MockGatewayServer.Reply requestPayment(MockGatewayServer.Request request) {
+        if (request.reject()) {
+            return MockGatewayServer.Reply.ok(json("success", 0, "errors", "Montant invalide"));
+        }
+        MockLedger.Operation operation = ledger.record("pt_", request.text("ref_command"), request.amount("item_price"));
+        String ipn = "type_event=" + (operation.succeeds() ? "sale_complete" : "sale_canceled")
+                + "&ref_command=" + URLEncoder.encode(operation.reference(), StandardCharsets.UTF_8)
+                + "&token=" + operation.gatewayReference();
+        callbacks.schedule(PROVIDER, request.text("ipn_url"), operation, "application/x-www-form-urlencoded", ipn);
+        return MockGatewayServer.Reply.ok(json(
+                "success", SUCCESS,
+                "redirect_url", "http://localhost/mock/paytech/pay/" + operation.gatewayReference(),
+                "token", operation.gatewayReference()));
+    }
+
+    private MockGatewayServer.Reply checkPayment(MockGatewayServer.Request request) {
+        MockLedger.Operation operation = ledger.find(request.text("ref_command"));
+        if (operation == null) {
+            return MockGatewayServer.Reply.ok(json("success", 0, "message", "Transaction introuvable"));
+        }
+        String status = status(operation);
+        return MockGatewayServer.Reply.ok(json("success", SUCCESS, "status", status, "message", status));
+    }
+
+    private MockGatewayServer.Reply payout(MockGatewayServer.Request request) {
+        if (request.reject()) {
+            return MockGatewayServer.Reply.ok(json("success", 0, "message", "Solde insuffisant"));
+        }
+        MockLedger.Operation operation = ledger.record("ptp_", request.text("ref_command"), request.amount("amount"));
+        return MockGatewayServer.Reply.ok(json(
+                "success", SUCCESS,
+                "message", "Payout en cours",
+                "reference", operation.gatewayReference()));
+    }
+
+    private MockGatewayServer.Reply checkPayout(MockGatewayServer.Request request) {
+        MockLedger.Operation operation = ledger.find(request.text("ref_command"));
+        if (operation == null) {
+            return MockGatewayServer.Reply.notFound(json("success", 0, "message", "Payout introuvable"));
+        }
+        return MockGatewayServer.Reply.ok(json(
+                "success", SUCCESS,
+                "data", json(
+                        "status", status(operation),
+                        "reference", operation.gatewayReference(),
+                        "amount", operation.amount())));
+    }
+
+    private static String status(MockLedger.Operation operation) {
+        return switch (operation.status()) {
+            case PENDING -> "pending";
+            case COMPLETED -> "completed";
+            case FAILED -> "failed";
+        };
+    }
+}
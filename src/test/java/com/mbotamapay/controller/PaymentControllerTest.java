@@ -10,6 +10,7 @@ import com.mbotamapay.gateway.impl.PayTechGateway;
 import com.mbotamapay.repository.TransactionRepository;
 import com.mbotamapay.service.JwtService;
 import com.mbotamapay.service.TokenBlacklistService;
+import com.mbotamapay.service.WebhookIngestionService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +50,9 @@ class PaymentControllerTest {
     @MockBean
     private TransactionRepository transactionRepository;
 
+    @MockBean
+    private WebhookIngestionService webhookIngestionService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -0,0 +1,65 @@
+package com.mbotamapay.gateway.http;
+
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de la classification des erreurs de payout
+ */
+@DisplayName("Tests de classification des erreurs gateway")
+class GatewayErrorClassifierTest {
+
+    @Test
+    @DisplayName("Un 429 doit être classé RATE_LIMITED")
+    void shouldClassifyTooManyRequestsAsRateLimited() {
+        HttpClientErrorException e = HttpClientErrorException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null);
+
+        assertThat(GatewayErrorClassifier.classify(e)).isEqualTo(PayoutErrorType.RATE_LIMITED);
+    }
+
+    @Test
+    @DisplayName("Un 503 est transitoire, un 500 est ambigu")
+    void shouldDistinguishServerErrors() {
+        HttpServerErrorException unavailable = HttpServerErrorException.create(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, null, null);
+        HttpServerErrorException internal = HttpServerErrorException.create(
+                HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", null, null, null);
+
+        assertThat(GatewayErrorClassifier.classify(unavailable)).isEqualTo(PayoutErrorType.TRANSIENT);
+        assertThat(GatewayErrorClassifier.classify(internal)).isEqualTo(PayoutErrorType.AMBIGUOUS);
+    }
+
+    @Test
+    @DisplayName("Le corps d'un 4xx n'est pas interprété: requête refusée, jamais destinataire")
+    void shouldIgnoreBadRequestBody() {
+        HttpClientErrorException e = HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                "{\"message\":\"Invalid receiver phone number\"}".getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+
+        assertThat(GatewayErrorClassifier.classify(e)).isEqualTo(PayoutErrorType.TERMINAL_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Connexion refusée est transitoire, timeout de lecture est ambigu")
+    void shouldDistinguishConnectFromReadFailures() {
+        ResourceAccessException refused = new ResourceAccessException("I/O error",
+                new ConnectException("Connection refused"));
+        ResourceAccessException readTimeout = new ResourceAccessException("I/O error",
+                new SocketTimeoutException("Read timed out"));
+
+        assertThat(GatewayErrorClassifier.classify(refused)).isEqualTo(PayoutErrorType.TRANSIENT);
+        assertThat(GatewayErrorClassifier.classify(readTimeout)).isEqualTo(PayoutErrorType.AMBIGUOUS);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mbotamapay.gateway.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de la vérification HMAC des webhooks
+ */
+@DisplayName("Tests de la vérification de signature des webhooks")
+class WebhookSignatureVerifierTest {
+
+    private static final String SECRET = "whsec_test";
+    private static final byte[] BODY = "{\"reference\":\"MBT-1\",\"status\":\"COMPLETED\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier("HmacSHA256", SECRET);
+
+    @Test
+    @DisplayName("Signature hexadécimale valide acceptée, avec ou sans préfixe sha256=")
+    void shouldAcceptHexSignature() throws Exception {
+        String hex = HexFormat.of().formatHex(hmac(BODY));
+
+        assertThat(verifier.verify(BODY, hex)).isTrue();
+        assertThat(verifier.verify(BODY, hex.toUpperCase())).isTrue();
+        assertThat(verifier.verify(BODY, "sha256=" + hex)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Signature Base64 valide acceptée")
+    void shouldAcceptBase64Signature() throws Exception {
+        assertThat(verifier.verify(BODY, Base64.getEncoder().encodeToString(hmac(BODY)))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Signature d'un autre corps ou d'une autre clé refusée")
+    void shouldRejectWrongSignature() throws Exception {
+        byte[] tampered = "{\"reference\":\"MBT-1\",\"status\":\"FAILED\"}".getBytes(StandardCharsets.UTF_8);
+        WebhookSignatureVerifier otherKey = new WebhookSignatureVerifier("HmacSHA256", "autre-secret");
+
+        assertThat(verifier.verify(tampered, HexFormat.of().formatHex(hmac(BODY)))).isFalse();
+        assertThat(otherKey.verify(BODY, HexFormat.of().formatHex(hmac(BODY)))).isFalse();
+        assertThat(verifier.verify(BODY, "pas-une-signature!")).isFalse();
+    }
+
+    @Test
+    @DisplayName("En-tête de signature absent ou vide refusé")
+    void shouldRejectMissingSignature() {
+        assertThat(verifier.verify(BODY, null)).isFalse();
+        assertThat(verifier.verify(BODY, "  ")).isFalse();
+    }
+
+    private static byte[] hmac(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac.doFinal(body);
+    }
+}
@@ -0,0 +1,153 @@
+package com.mbotamapay.gateway.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import com.mbotamapay.gateway.dto.PayoutRequest;
+import com.mbotamapay.gateway.dto.PayoutResponse;
+import com.mbotamapay.gateway.http.GatewayHttpClientFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests de l'adaptateur CinetPay (réponses de l'API simulées)
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests de l'adaptateur CinetPay")
+class CinetPayGatewayTest {
+
+    @Mock
+    private GatewayHttpClientFactory httpClientFactory;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private CinetPayGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        when(httpClientFactory.create(eq(GatewayType.CINETPAY), any())).thenReturn(restTemplate);
+        gateway = new CinetPayGateway(httpClientFactory, new ObjectMapper());
+        ReflectionTestUtils.setField(gateway, "transferApiUrl", "http://cinetpay.test/v1");
+        ReflectionTestUtils.setField(gateway, "maxBatchSize", 50);
+    }
+
+    @Test
+    @DisplayName("Un code de refus destinataire documenté donne TERMINAL_RECIPIENT")
+    void shouldClassifyDocumentedRecipientCode() {
+        stubTransfer(new CinetPayApi.TransferResponse(CinetPayApi.INVALID_PHONE_NUMBER, "INVALID_PHONE_NUMBER", null));
+
+        PayoutResponse response = gateway.initiatePayout(payoutRequest("TRF-1"));
+
+        assertThat(response.isSuccess()).isFalse();
+        assertThat(response.getErrorType()).isEqualTo(PayoutErrorType.TERMINAL_RECIPIENT);
+    }
+
+    @Test
+    @DisplayName("Un refus côté compte marchand n'est jamais imputé au destinataire")
+    void shouldNotBlameRecipientForMerchantAccountError() {
+        stubTransfer(new CinetPayApi.TransferResponse("999", "Compte marchand suspendu", null));
+
+        PayoutResponse response = gateway.initiatePayout(payoutRequest("TRF-2"));
+
+        assertThat(response.getErrorType()).isEqualTo(PayoutErrorType.TRANSIENT);
+    }
+
+    @Test
+    @DisplayName("Des identifiants refusés laissent le fallback possible")
+    void shouldKeepFallbackOnAuthError() {
+        stubTransfer(new CinetPayApi.TransferResponse(CinetPayApi.AUTH_NOT_FOUND, "Invalid API key", null));
+
+        PayoutResponse response = gateway.initiatePayout(payoutRequest("TRF-3"));
+
+        assertThat(response.getErrorType()).isEqualTo(PayoutErrorType.TRANSIENT);
+        assertThat(response.getErrorType().isRetryable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Un lot refusé pour un destinataire est renvoyé contact par contact")
+    void shouldResendBatchRejectedForRecipient() {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(CinetPayApi.TransferBatchResponse.class))).thenReturn(ResponseEntity.ok(
+                new CinetPayApi.TransferBatchResponse(CinetPayApi.INVALID_PHONE_NUMBER, "INVALID_PHONE_NUMBER", null)));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(CinetPayApi.TransferResponse.class)))
+                .thenReturn(ResponseEntity.ok(new CinetPayApi.TransferResponse(CinetPayApi.SUCCESS_CODE, "OK", null)))
+                .thenReturn(ResponseEntity.ok(new CinetPayApi.TransferResponse(
+                        CinetPayApi.INVALID_PHONE_NUMBER, "INVALID_PHONE_NUMBER", null)));
+
+        List<PayoutResponse> responses = gateway.initiatePayouts(
+                List.of(payoutRequest("TRF-4"), payoutRequest("TRF-5")));
+
+        assertThat(responses).extracting(PayoutResponse::isSuccess).containsExactly(true, false);
+        assertThat(responses.get(1).getErrorType()).isEqualTo(PayoutErrorType.TERMINAL_RECIPIENT);
+    }
+
+    @Test
+    @DisplayName("Un refus du lot entier n'est jamais imputé à chaque destinataire")
+    void shouldNotBlameEveryRecipientForBatchFailure() {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(CinetPayApi.TransferBatchResponse.class))).thenReturn(ResponseEntity.ok(
+                new CinetPayApi.TransferBatchResponse(CinetPayApi.MINIMUM_REQUIRED_FIELDS, "MINIMUM_REQUIRED_FIELDS", null)));
+
+        List<PayoutResponse> responses = gateway.initiatePayouts(
+                List.of(payoutRequest("TRF-6"), payoutRequest("TRF-7")));
+
+        assertThat(responses).extracting(PayoutResponse::getErrorType)
+                .containsOnly(PayoutErrorType.TERMINAL_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Sans secret configuré, le webhook est accepté mais non considéré comme signé")
+    void shouldAcceptUnsignedWebhookWithoutSecret() {
+        ReflectionTestUtils.setField(gateway, "webhookSecret", "");
+        gateway.initWebhookVerifier();
+
+        assertThat(gateway.verifyWebhookSignature("{}".getBytes(), null)).isTrue();
+        assertThat(gateway.signsWebhooks()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Avec un secret configuré, un webhook sans signature est refusé")
+    void shouldRejectMissingSignatureWithSecret() {
+        ReflectionTestUtils.setField(gateway, "webhookSecret", "whsec_test");
+        gateway.initWebhookVerifier();
+
+        assertThat(gateway.verifyWebhookSignature("{}".getBytes(), null)).isFalse();
+        assertThat(gateway.signsWebhooks()).isTrue();
+    }
+
+    private void stubTransfer(CinetPayApi.TransferResponse body) {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(CinetPayApi.TransferResponse.class))).thenReturn(ResponseEntity.ok(body));
+    }
+
+    private PayoutRequest payoutRequest(String reference) {
+        return PayoutRequest.builder()
+                .reference(reference)
+                .amount(10_000L)
+                .currency("XOF")
+                .recipientPhone("+221770000001")
+                .recipientName("Awa Diop")
+                .country(Country.SENEGAL)
+                .build();
+    }
+}
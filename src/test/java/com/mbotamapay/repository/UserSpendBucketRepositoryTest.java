@@ -0,0 +1,94 @@
+package com.mbotamapay.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests des requêtes des compteurs de dépenses (H2 en mode PostgreSQL)
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:spend;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Tests du repository des compteurs de dépenses")
+class UserSpendBucketRepositoryTest {
+
+    private static final Long USER_ID = 7L;
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 15);
+
+    @Autowired
+    private UserSpendBucketRepository bucketRepository;
+
+    @Test
+    @DisplayName("Création du compteur du jour idempotente")
+    void shouldInsertBucketOnce() {
+        bucketRepository.insertIfAbsent(USER_ID, DAY);
+        bucketRepository.addWithinLimit(USER_ID, DAY, 10_000L, Long.MAX_VALUE);
+        bucketRepository.insertIfAbsent(USER_ID, DAY);
+
+        assertThat(bucketRepository.count()).isEqualTo(1);
+        assertThat(bucketRepository.sumSince(USER_ID, DAY)).isEqualTo(10_000L);
+    }
+
+    @Test
+    @DisplayName("Incrément accepté jusqu'à la limite incluse, refusé au-delà")
+    void shouldAddUpToLimitInclusive() {
+        bucketRepository.insertIfAbsent(USER_ID, DAY);
+
+        assertThat(bucketRepository.addWithinLimit(USER_ID, DAY, 200_000L, 300_000L)).isEqualTo(1);
+        assertThat(bucketRepository.addWithinLimit(USER_ID, DAY, 100_000L, 300_000L)).isEqualTo(1);
+        assertThat(bucketRepository.addWithinLimit(USER_ID, DAY, 1L, 300_000L)).isZero();
+        assertThat(bucketRepository.sumSince(USER_ID, DAY)).isEqualTo(300_000L);
+    }
+
+    @Test
+    @DisplayName("Libération jamais en dessous de zéro")
+    void shouldNotSubtractBelowZero() {
+        bucketRepository.insertIfAbsent(USER_ID, DAY);
+        bucketRepository.addWithinLimit(USER_ID, DAY, 10_000L, Long.MAX_VALUE);
+
+        bucketRepository.subtract(USER_ID, DAY, 25_000L);
+
+        assertThat(bucketRepository.sumSince(USER_ID, DAY)).isZero();
+    }
+
+    @Test
+    @DisplayName("Somme glissante: borne de début incluse, autres utilisateurs exclus")
+    void shouldSumFromWindowStartInclusive() {
+        LocalDate windowStart = DAY.minusDays(29);
+        add(USER_ID, windowStart.minusDays(1), 70_000L);
+        add(USER_ID, windowStart, 20_000L);
+        add(USER_ID, DAY, 5_000L);
+        add(8L, DAY, 1_000_000L);
+
+        assertThat(bucketRepository.sumSince(USER_ID, windowStart)).isEqualTo(25_000L);
+        assertThat(bucketRepository.sumSince(USER_ID, DAY.plusDays(1))).isZero();
+    }
+
+    @Test
+    @DisplayName("Purge des compteurs sortis de la fenêtre")
+    void shouldDeleteBucketsBeforeDate() {
+        add(USER_ID, DAY.minusDays(30), 1_000L);
+        add(USER_ID, DAY.minusDays(29), 2_000L);
+
+        assertThat(bucketRepository.deleteByBucketDateBefore(DAY.minusDays(29))).isEqualTo(1);
+        assertThat(bucketRepository.sumSince(USER_ID, DAY.minusDays(60))).isEqualTo(2_000L);
+    }
+
+    private void add(Long userId, LocalDate day, long amount) {
+        bucketRepository.insertIfAbsent(userId, day);
+        bucketRepository.addWithinLimit(userId, day, amount, Long.MAX_VALUE);
+    }
+}
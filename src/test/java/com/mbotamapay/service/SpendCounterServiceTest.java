@@ -0,0 +1,139 @@
+package com.mbotamapay.service;
+
+import com.mbotamapay.entity.Transaction;
+import com.mbotamapay.entity.User;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import com.mbotamapay.repository.UserSpendBucketRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests des compteurs de dépenses par utilisateur
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests des compteurs de dépenses")
+class SpendCounterServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private UserSpendBucketRepository bucketRepository;
+
+    @Mock
+    private CorridorVolumeCounters corridorCounters;
+
+    @InjectMocks
+    private SpendCounterService spendCounters;
+
+    private final LocalDate today = LocalDate.now();
+    private final LocalDate windowStart = today.minusDays(SpendCounterService.ROLLING_WINDOW_DAYS - 1);
+
+    @Test
+    @DisplayName("Réservation acceptée: compteur du jour incrémenté sous la limite quotidienne")
+    void shouldReserveWithinDailyLimit() {
+        when(bucketRepository.addWithinLimit(USER_ID, today, 50_000L, 300_000L)).thenReturn(1);
+        when(bucketRepository.sumSince(USER_ID, windowStart)).thenReturn(450_000L);
+
+        SpendCounterService.Reservation reservation = spendCounters.reserve(USER_ID, 50_000L, 300_000L, 500_000L);
+
+        assertThat(reservation.accepted()).isTrue();
+        assertThat(reservation.day()).isEqualTo(today);
+        verify(bucketRepository).insertIfAbsent(USER_ID, today);
+        verify(bucketRepository, never()).subtract(anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Limite quotidienne dépassée: refus avec le montant déjà engagé aujourd'hui")
+    void shouldRejectWhenDailyLimitExceeded() {
+        when(bucketRepository.addWithinLimit(USER_ID, today, 50_000L, 300_000L)).thenReturn(0);
+        when(bucketRepository.sumSince(USER_ID, today)).thenReturn(280_000L);
+
+        SpendCounterService.Reservation reservation = spendCounters.reserve(USER_ID, 50_000L, 300_000L, 500_000L);
+
+        assertThat(reservation.accepted()).isFalse();
+        assertThat(reservation.exceeded()).isEqualTo(SpendCounterService.LimitType.DAILY);
+        assertThat(reservation.used()).isEqualTo(280_000L);
+        verify(bucketRepository, never()).subtract(anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Fenêtre glissante dépassée: l'incrément du jour est annulé")
+    void shouldUndoDailyIncrementWhenRollingLimitExceeded() {
+        when(bucketRepository.addWithinLimit(USER_ID, today, 50_000L, 300_000L)).thenReturn(1);
+        when(bucketRepository.sumSince(USER_ID, windowStart)).thenReturn(500_001L);
+
+        SpendCounterService.Reservation reservation = spendCounters.reserve(USER_ID, 50_000L, 300_000L, 500_000L);
+
+        assertThat(reservation.accepted()).isFalse();
+        assertThat(reservation.exceeded()).isEqualTo(SpendCounterService.LimitType.ROLLING);
+        assertThat(reservation.used()).isEqualTo(450_001L);
+        verify(bucketRepository).subtract(USER_ID, today, 50_000L);
+    }
+
+    @Test
+    @DisplayName("Sans limite glissante: la fenêtre de 30 jours n'est pas lue")
+    void shouldSkipRollingWindowWithoutLimit() {
+        when(bucketRepository.addWithinLimit(USER_ID, today, 50_000L, 300_000L)).thenReturn(1);
+
+        SpendCounterService.Reservation reservation = spendCounters.reserve(USER_ID, 50_000L, 300_000L, Long.MAX_VALUE);
+
+        assertThat(reservation.accepted()).isTrue();
+        verify(bucketRepository, never()).sumSince(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Libération explicite sur la journée réservée")
+    void shouldReleaseOnReservedDay() {
+        LocalDate yesterday = today.minusDays(1);
+
+        spendCounters.release(USER_ID, 50_000L, yesterday);
+
+        verify(bucketRepository).subtract(USER_ID, yesterday, 50_000L);
+    }
+
+    @Test
+    @DisplayName("Échec d'un transfert engagé: utilisateur et corridor libérés sur sa journée de création")
+    void shouldReleaseWhenCommittedTransferFails() {
+        Transaction transaction = transaction(TransactionStatus.FAILED, today.minusDays(2).atTime(23, 59));
+
+        spendCounters.onStatusChange(transaction, TransactionStatus.PROCESSING);
+
+        verify(bucketRepository).subtract(USER_ID, today.minusDays(2), 50_000L);
+        verify(corridorCounters).release(Country.SENEGAL, Country.MALI, 50_000L, today.minusDays(2));
+    }
+
+    @Test
+    @DisplayName("Transition entre statuts engagés ou déjà libérés: aucune libération")
+    void shouldNotReleaseTwice() {
+        spendCounters.onStatusChange(transaction(TransactionStatus.COMPLETED, LocalDateTime.now()),
+                TransactionStatus.PENDING);
+        spendCounters.onStatusChange(transaction(TransactionStatus.CANCELLED, LocalDateTime.now()),
+                TransactionStatus.FAILED);
+
+        verifyNoInteractions(bucketRepository, corridorCounters);
+    }
+
+    private Transaction transaction(TransactionStatus status, LocalDateTime createdAt) {
+        return Transaction.builder()
+                .sender(User.builder().id(USER_ID).build())
+                .amount(50_000L)
+                .sourceCountry(Country.SENEGAL)
+                .destCountry(Country.MALI)
+                .status(status)
+                .createdAt(createdAt)
+                .build();
+    }
+}
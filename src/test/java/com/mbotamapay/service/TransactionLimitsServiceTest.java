@@ -1,11 +1,12 @@
 package com.mbotamapay.service;
 
+import com.mbotamapay.config.CompiledLimits;
+import com.mbotamapay.config.LimitsRegistry;
 import com.mbotamapay.config.TransactionLimitsConfig;
 import com.mbotamapay.entity.User;
 import com.mbotamapay.entity.enums.Country;
 import com.mbotamapay.entity.enums.KycLevel;
 import com.mbotamapay.exception.BadRequestException;
-import com.mbotamapay.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,12 +15,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -30,25 +33,28 @@ import static org.mockito.Mockito.when;
 class TransactionLimitsServiceTest {
 
     @Mock
-    private TransactionLimitsConfig limitsConfig;
+    private LimitsRegistry limitsRegistry;
+
+    @Mock
+    private SpendCounterService spendCounters;
 
     @Mock
-    private TransactionRepository transactionRepository;
+    private CorridorVolumeCounters corridorCounters;
 
     @InjectMocks
     private TransactionLimitsService limitsService;
 
     private User testUser;
-    private TransactionLimitsConfig.TransactionLimits transactionLimits;
+    private TransactionLimitsConfig limitsConfig;
     private TransactionLimitsConfig.CorridorLimit corridorLimit;
 
     @BeforeEach
     void setUp() {
-        // Configuration des limites de transaction
-        transactionLimits = new TransactionLimitsConfig.TransactionLimits();
-        transactionLimits.setMinimum(500L);
-        transactionLimits.setMaximumStandard(100_000L);
-        transactionLimits.setAbsoluteMaximum(200_000L);
+        // Configuration des limites de transaction (plafonds quotidiens par défaut: 0 / 300k / 500k)
+        limitsConfig = new TransactionLimitsConfig();
+        limitsConfig.getTransaction().setMinimum(500L);
+        limitsConfig.getTransaction().setMaximumStandard(100_000L);
+        limitsConfig.getTransaction().setAbsoluteMaximum(200_000L);
 
         // Configuration du corridor SN-SN
         corridorLimit = new TransactionLimitsConfig.CorridorLimit();
@@ -57,11 +63,10 @@ class TransactionLimitsServiceTest {
         corridorLimit.setMaxPerTransaction(200_000L);
         corridorLimit.setMaxTransactionsPerDay(100);
         corridorLimit.setEnabled(true);
+        limitsConfig.getCorridors().put("SN-SN", corridorLimit);
 
-        // Configuration des mocks
-        when(limitsConfig.getTransaction()).thenReturn(transactionLimits);
-        when(limitsConfig.getCorridorLimit("SN", "SN")).thenReturn(corridorLimit);
-        when(limitsConfig.isValidTransactionAmount(any())).thenCallRealMethod();
+        // Compilation à chaque lecture: les modifications faites dans un test sont prises en compte
+        when(limitsRegistry.current()).thenAnswer(invocation -> CompiledLimits.compile(limitsConfig, "test"));
 
         // Utilisateur de test KYC Niveau 1
         testUser = User.builder()
@@ -78,7 +83,6 @@ class TransactionLimitsServiceTest {
     void shouldRejectTransactionWhenKycIsNone() {
         // Given
         testUser.setKycLevel(KycLevel.NONE);
-        when(limitsConfig.getDailyLimitForKycLevel("NONE")).thenReturn(0L);
 
         // When & Then
         assertThatThrownBy(() -> limitsService.validateTransaction(
@@ -92,7 +96,6 @@ class TransactionLimitsServiceTest {
     void shouldRejectTransactionBelowMinimum() {
         // Given
         Long amount = 400L; // En dessous de 500 FCFA
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(300_000L);
 
         // When & Then
         assertThatThrownBy(() -> limitsService.validateTransaction(
@@ -106,7 +109,6 @@ class TransactionLimitsServiceTest {
     void shouldRejectTransactionAboveAbsoluteMaximum() {
         // Given
         Long amount = 250_000L; // Au-dessus de 200k FCFA
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(300_000L);
 
         // When & Then
         assertThatThrownBy(() -> limitsService.validateTransaction(
@@ -123,10 +125,9 @@ class TransactionLimitsServiceTest {
         Long alreadyUsed = 250_000L;
         Long newAmount = 100_000L; // 250k + 100k = 350k > 300k
 
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(dailyLimit);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(alreadyUsed);
+        when(spendCounters.reserve(eq(1L), eq(newAmount), eq(dailyLimit), anyLong()))
+                .thenReturn(new SpendCounterService.Reservation(
+                        false, SpendCounterService.LimitType.DAILY, alreadyUsed, LocalDate.now()));
 
         // When & Then
         assertThatThrownBy(() -> limitsService.validateTransaction(
@@ -143,10 +144,8 @@ class TransactionLimitsServiceTest {
         Long dailyLimit = 300_000L;
         Long monthlyLimit = 500_000L;
 
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(dailyLimit);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(0L); // Aucune transaction aujourd'hui
+        when(spendCounters.reserve(1L, amount, dailyLimit, monthlyLimit))
+                .thenReturn(new SpendCounterService.Reservation(true, null, 0L, LocalDate.now())); // Aucune transaction aujourd'hui
 
         // When & Then - Ne devrait pas lever d'exception
         limitsService.validateTransaction(testUser, amount, Country.SENEGAL, Country.SENEGAL);
@@ -160,13 +159,13 @@ class TransactionLimitsServiceTest {
         Long alreadyUsed = 250_000L;
         Long newAmount = 50_000L; // Exactement à la limite
 
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(dailyLimit);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(alreadyUsed);
+        // L'incrément conditionnel accepte used + amount == limit
+        when(spendCounters.reserve(eq(1L), eq(newAmount), eq(dailyLimit), anyLong()))
+                .thenReturn(new SpendCounterService.Reservation(true, null, 0L, LocalDate.now()));
 
         // When & Then - Ne devrait pas lever d'exception
         limitsService.validateTransaction(testUser, newAmount, Country.SENEGAL, Country.SENEGAL);
+        verify(spendCounters).reserve(eq(1L), eq(newAmount), eq(dailyLimit), anyLong());
     }
 
     @Test
@@ -174,10 +173,6 @@ class TransactionLimitsServiceTest {
     void shouldRejectWhenCorridorDisabled() {
         // Given
         corridorLimit.setEnabled(false);
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(300_000L);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(0L);
 
         // When & Then
         assertThatThrownBy(() -> limitsService.validateTransaction(
@@ -190,11 +185,8 @@ class TransactionLimitsServiceTest {
     @DisplayName("Devrait rejeter si montant dépasse la limite du corridor")
     void shouldRejectWhenAmountExceedsCorridorLimit() {
         // Given
-        Long amount = 250_000L; // Dépasse la limite du corridor de 200k
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(300_000L);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(0L);
+        corridorLimit.setMaxPerTransaction(150_000L);
+        Long amount = 180_000L; // Sous le maximum absolu, au-dessus de la limite du corridor
 
         // When & Then
         assertThatThrownBy(() -> limitsService.validateTransaction(
@@ -203,14 +195,29 @@ class TransactionLimitsServiceTest {
                 .hasMessageContaining("Montant maximum pour ce corridor");
     }
 
+    @Test
+    @DisplayName("Devrait rejeter si le volume journalier du corridor est atteint")
+    void shouldRejectWhenCorridorDailyVolumeReached() {
+        // Given
+        Long amount = 50_000L;
+        when(spendCounters.reserve(eq(1L), eq(amount), eq(300_000L), anyLong()))
+                .thenReturn(new SpendCounterService.Reservation(true, null, 0L, LocalDate.now()));
+        when(corridorCounters.reserve(Country.SENEGAL, Country.SENEGAL, amount, 2_000_000L, 100))
+                .thenReturn(Optional.of(CorridorVolumeCounters.Breach.VOLUME));
+
+        // When & Then
+        assertThatThrownBy(() -> limitsService.validateTransaction(
+                testUser, amount, Country.SENEGAL, Country.SENEGAL))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("volume journalier de ce corridor");
+    }
+
     @Test
     @DisplayName("Devrait retourner les limites détaillées pour un utilisateur")
     void shouldReturnDetailedLimitsForUser() {
         // Given
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(300_000L);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(0L, 0L); // Pour quotidien et mensuel
+        when(spendCounters.getUsage(1L))
+                .thenReturn(new SpendCounterService.Usage(0L, 0L)); // Pour quotidien et mensuel
 
         // When
         var userLimits = limitsService.getUserLimits(testUser);
@@ -232,10 +239,8 @@ class TransactionLimitsServiceTest {
         Long dailyLimit = 300_000L;
         Long used = 150_000L;
 
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_1")).thenReturn(dailyLimit);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(used, 0L);
+        when(spendCounters.getUsage(1L))
+                .thenReturn(new SpendCounterService.Usage(used, used));
 
         // When
         var userLimits = limitsService.getUserLimits(testUser);
@@ -250,10 +255,8 @@ class TransactionLimitsServiceTest {
     void shouldHaveUnlimitedMonthlyLimitForKycLevel2() {
         // Given
         testUser.setKycLevel(KycLevel.LEVEL_2);
-        when(limitsConfig.getDailyLimitForKycLevel("LEVEL_2")).thenReturn(500_000L);
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(
-                eq(1L), any(LocalDateTime.class)))
-                .thenReturn(0L, 0L);
+        when(spendCounters.getUsage(1L))
+                .thenReturn(new SpendCounterService.Usage(0L, 0L));
 
         // When
         var userLimits = limitsService.getUserLimits(testUser);
@@ -18,6 +18,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -38,6 +39,9 @@ class TransactionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SpendCounterService spendCounters;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -97,8 +101,8 @@ class TransactionServiceTest {
     @DisplayName("Initiate transaction should succeed for KYC Level 1 user within limits")
     void initiateTransaction_shouldSucceed_withKycLevel1() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(anyLong(), any()))
-                .thenReturn(0L);
+        when(spendCounters.reserve(anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new SpendCounterService.Reservation(true, null, 0L, LocalDate.now()));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
 
         TransactionResponse response = transactionService.initiateTransaction(1L, validRequest);
@@ -113,8 +117,9 @@ class TransactionServiceTest {
     void initiateTransaction_shouldFail_whenExceedingLimit() {
         // User has already used most of their limit
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(anyLong(), any()))
-                .thenReturn(490000L); // Near the 500k limit for Level 1
+        when(spendCounters.reserve(anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new SpendCounterService.Reservation(
+                        false, SpendCounterService.LimitType.ROLLING, 490000L, LocalDate.now())); // Near the 500k limit for Level 1
 
         validRequest.setAmount(20000L); // This would exceed the limit
 
@@ -149,8 +154,8 @@ class TransactionServiceTest {
     @DisplayName("Transaction fee should be calculated correctly")
     void transactionFee_shouldBeCalculatedCorrectly() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(testUser));
-        when(transactionRepository.sumAmountBySenderIdAndStatusCompletedSince(anyLong(), any()))
-                .thenReturn(0L);
+        when(spendCounters.reserve(anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new SpendCounterService.Reservation(true, null, 0L, LocalDate.now()));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction tx = invocation.getArgument(0);
             tx.setId(1L);
@@ -0,0 +1,344 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.BridgeSaga;
+import com.mbotamapay.entity.BridgeSagaLeg;
+import com.mbotamapay.entity.Transaction;
+import com.mbotamapay.entity.enums.BridgeLegStatus;
+import com.mbotamapay.entity.enums.BridgeSagaStatus;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.entity.enums.TransactionStatus;
+import com.mbotamapay.gateway.GatewayRegistry;
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import com.mbotamapay.gateway.dto.PayoutRequest;
+import com.mbotamapay.gateway.dto.PayoutResponse;
+import com.mbotamapay.repository.BridgeSagaRepository;
+import com.mbotamapay.repository.TransactionRepository;
+import com.mbotamapay.service.SpendCounterService;
+import com.mbotamapay.service.orchestration.PayoutOutcomeResolver.PayoutOutcome;
+import com.mbotamapay.service.orchestration.PayoutOutcomeResolver.Resolution;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du coordinateur de sagas bridge (journal simulé en mémoire)
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests des sagas de paiement bridge")
+class BridgeSagaCoordinatorTest {
+
+    private static final String REFERENCE = "MBT-BRIDGE";
+    private static final long AMOUNT = 50_000L;
+
+    @Mock
+    private BridgeSagaJournal journal;
+
+    @Mock
+    private BridgeSagaRepository sagaRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private GatewayHealthMonitor healthMonitor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PayoutOutcomeResolver outcomeResolver;
+
+    @Mock
+    private SpendCounterService spendCounters;
+
+    @Mock
+    private PayoutGateway feexPay;
+
+    @Mock
+    private PayoutGateway payTech;
+
+    @Mock
+    private PayoutGateway cinetPay;
+
+    private BridgeSagaCoordinator coordinator;
+
+    /**
+     * Saga "persistée": le journal simulé applique les mutations sur cette instance
+     */
+    private BridgeSaga saga;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(feexPay.getGatewayType()).thenReturn(GatewayType.FEEXPAY);
+        lenient().when(payTech.getGatewayType()).thenReturn(GatewayType.PAYTECH);
+        lenient().when(cinetPay.getGatewayType()).thenReturn(GatewayType.CINETPAY);
+        for (PayoutGateway gateway : List.of(feexPay, payTech, cinetPay)) {
+            lenient().when(gateway.supportsPayoutTo(any())).thenReturn(true);
+            lenient().when(gateway.initiatePayout(any())).thenAnswer(inv -> accepted(inv.getArgument(0)));
+        }
+        lenient().when(outcomeResolver.resolve(any(), anyString(), anyLong()))
+                .thenReturn(new Resolution(PayoutOutcome.UNKNOWN, null, null));
+
+        lenient().when(journal.create(any())).thenAnswer(inv -> {
+            saga = inv.getArgument(0);
+            saga.setId(1L);
+            for (BridgeSagaLeg leg : saga.getLegs()) {
+                leg.setId((long) leg.getLegNumber());
+            }
+            return saga;
+        });
+        lenient().when(journal.update(eq(1L), any())).thenAnswer(inv -> {
+            inv.<Consumer<BridgeSaga>>getArgument(1).accept(saga);
+            return saga;
+        });
+        lenient().when(journal.reserveLegStock(anyLong())).thenAnswer(inv -> {
+            leg(inv.getArgument(0)).setStatus(BridgeLegStatus.RESERVED);
+            return true;
+        });
+        lenient().doAnswer(inv -> {
+            leg(inv.getArgument(0)).setStatus(inv.getArgument(1));
+            return null;
+        }).when(journal).releaseLegStock(anyLong(), any());
+        lenient().when(sagaRepository.findWithLegsById(1L)).thenAnswer(inv -> Optional.ofNullable(saga));
+        lenient().doAnswer(inv -> {
+            ((Consumer<Object>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        coordinator = new BridgeSagaCoordinator(journal, sagaRepository, transactionRepository, healthMonitor,
+                new GatewayRegistry(List.of(), List.of(feexPay, payTech, cinetPay)), transactionTemplate,
+                outcomeResolver, spendCounters);
+        ReflectionTestUtils.setField(coordinator, "maxCompensationAttempts", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coordinator.shutdown();
+    }
+
+    @Test
+    @DisplayName("Tous les legs exécutés: saga terminée, gateway du dernier leg")
+    void shouldCompleteWhenAllLegsSucceed() {
+        PayoutExecutionResult result = coordinator.execute(
+                orchestration(GatewayType.FEEXPAY, GatewayType.CINETPAY), payoutRequest());
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getGateway()).isEqualTo(GatewayType.CINETPAY);
+        assertThat(saga.getStatus()).isEqualTo(BridgeSagaStatus.COMPLETED);
+        verify(cinetPay).initiatePayout(argThat(request -> request.getReference().equals(REFERENCE + "-L2")
+                && request.getRecipientPhone().equals("+242060000001")));
+    }
+
+    @Test
+    @DisplayName("Leg refusé: legs exécutés compensés en ordre inverse, stock libéré")
+    void shouldCompensateExecutedLegsInReverseOrder() {
+        doReturn(PayoutResponse.builder().success(false).message("Solde insuffisant")
+                .errorType(PayoutErrorType.TRANSIENT).build())
+                .when(cinetPay).initiatePayout(argThat(request -> request.getReference().equals(REFERENCE + "-L3")));
+
+        PayoutExecutionResult result = coordinator.execute(
+                orchestration(GatewayType.FEEXPAY, GatewayType.PAYTECH, GatewayType.CINETPAY), payoutRequest());
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getErrorType()).isNull();
+        assertThat(saga.getStatus()).isEqualTo(BridgeSagaStatus.COMPENSATED);
+        assertThat(saga.getLegs()).extracting(BridgeSagaLeg::getStatus).containsExactly(
+                BridgeLegStatus.COMPENSATED, BridgeLegStatus.COMPENSATED, BridgeLegStatus.FAILED);
+
+        InOrder order = inOrder(payTech, feexPay);
+        order.verify(payTech).initiatePayout(argThat(request -> request.getReference().equals(REFERENCE + "-L2-C")));
+        order.verify(feexPay).initiatePayout(argThat(request -> request.getReference().equals(REFERENCE + "-L1-C")));
+    }
+
+    @Test
+    @DisplayName("Leg à l'issue inconnue: aucune compensation, transfert laissé AMBIGUOUS")
+    void shouldNotCompensateWhileLegOutcomeUnknown() {
+        doReturn(PayoutResponse.builder().success(false).message("Read timed out")
+                .errorType(PayoutErrorType.AMBIGUOUS).build())
+                .when(cinetPay).initiatePayout(argThat(request -> request.getReference().equals(REFERENCE + "-L2")));
+
+        PayoutExecutionResult result = coordinator.execute(
+                orchestration(GatewayType.FEEXPAY, GatewayType.CINETPAY), payoutRequest());
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getErrorType()).isEqualTo(PayoutErrorType.AMBIGUOUS);
+        assertThat(saga.getStatus()).isEqualTo(BridgeSagaStatus.COMPENSATING);
+        assertThat(saga.getLeg(1).getStatus()).isEqualTo(BridgeLegStatus.SUCCEEDED);
+        assertThat(saga.getLeg(2).getStatus()).isEqualTo(BridgeLegStatus.EXECUTING);
+        verify(feexPay, never()).initiatePayout(argThat(request -> request.getReference().endsWith("-C")));
+    }
+
+    @Test
+    @DisplayName("Reprise: leg EXECUTING confirmé exécuté, saga et transaction terminées")
+    void shouldCompleteTransactionWhenResumedLegSucceeded() {
+        saga = persistedSaga(BridgeSagaStatus.EXECUTING, 0, BridgeLegStatus.SUCCEEDED, BridgeLegStatus.EXECUTING);
+        Transaction transaction = transaction(TransactionStatus.PROCESSING);
+        when(outcomeResolver.resolve(cinetPay, REFERENCE + "-L2", 0))
+                .thenReturn(new Resolution(PayoutOutcome.EXECUTED, "CP-9", "COMPLETED"));
+
+        resume();
+
+        assertThat(saga.getStatus()).isEqualTo(BridgeSagaStatus.COMPLETED);
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(transaction.getPayoutGateway()).isEqualTo(GatewayType.CINETPAY);
+        verify(spendCounters, never()).onStatusChange(any(), any());
+    }
+
+    @Test
+    @DisplayName("Reprise: legs amont compensés puis transaction échouée et dépense libérée")
+    void shouldFailTransactionAfterResumedCompensation() {
+        saga = persistedSaga(BridgeSagaStatus.EXECUTING, 0, BridgeLegStatus.SUCCEEDED, BridgeLegStatus.RESERVED);
+        Transaction transaction = transaction(TransactionStatus.PROCESSING);
+
+        resume();
+
+        assertThat(saga.getStatus()).isEqualTo(BridgeSagaStatus.COMPENSATED);
+        assertThat(saga.getLegs()).extracting(BridgeSagaLeg::getStatus)
+                .containsExactly(BridgeLegStatus.COMPENSATED, BridgeLegStatus.RELEASED);
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        verify(spendCounters).onStatusChange(transaction, TransactionStatus.PROCESSING);
+    }
+
+    @Test
+    @DisplayName("Reprise: issue toujours inconnue au seuil de tentatives, revue manuelle sans compensation")
+    void shouldRequireManualReviewAfterRetryLimit() {
+        saga = persistedSaga(BridgeSagaStatus.COMPENSATING, 2, BridgeLegStatus.SUCCEEDED, BridgeLegStatus.EXECUTING);
+        Transaction transaction = transaction(TransactionStatus.PROCESSING);
+
+        resume();
+
+        assertThat(saga.getStatus()).isEqualTo(BridgeSagaStatus.MANUAL_REVIEW);
+        assertThat(saga.getLeg(1).getStatus()).isEqualTo(BridgeLegStatus.SUCCEEDED);
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.PROCESSING);
+        verify(feexPay, never()).initiatePayout(any());
+    }
+
+    @Test
+    @DisplayName("Reprise: saga dont le bail est encore tenu ignorée")
+    void shouldSkipSagaWhenLeaseHeld() {
+        when(sagaRepository.findResumableIds(any(), any())).thenReturn(List.of(1L));
+        when(journal.claim(1L)).thenReturn(Optional.empty());
+
+        coordinator.resumeIncompleteSagas();
+
+        verify(journal, never()).update(anyLong(), any());
+        verifyNoInteractions(outcomeResolver);
+    }
+
+    private void resume() {
+        when(sagaRepository.findResumableIds(any(), any())).thenReturn(List.of(1L));
+        when(journal.claim(1L)).thenReturn(Optional.of(saga));
+        coordinator.resumeIncompleteSagas();
+    }
+
+    private BridgeSagaLeg leg(long legId) {
+        return saga.getLeg((int) legId);
+    }
+
+    private BridgeSaga persistedSaga(BridgeSagaStatus status, int compensationAttempts, BridgeLegStatus... legStatuses) {
+        BridgeSaga persisted = BridgeSaga.builder()
+                .id(1L)
+                .reference(REFERENCE)
+                .sourceCountry(Country.SENEGAL)
+                .destCountry(Country.CONGO_BRAZZAVILLE)
+                .amount(AMOUNT)
+                .recipientPhone("+242060000001")
+                .status(status)
+                .compensationAttempts(compensationAttempts)
+                .leaseUntil(LocalDateTime.now().minusMinutes(1))
+                .build();
+        Country[] countries = { Country.SENEGAL, Country.COTE_DIVOIRE, Country.CONGO_BRAZZAVILLE };
+        GatewayType[] gateways = { GatewayType.FEEXPAY, GatewayType.CINETPAY };
+        for (int i = 0; i < legStatuses.length; i++) {
+            persisted.addLeg(BridgeSagaLeg.builder()
+                    .id((long) i + 1)
+                    .legNumber(i + 1)
+                    .fromCountry(countries[i])
+                    .toCountry(countries[i + 1])
+                    .gateway(gateways[i])
+                    .amount(AMOUNT)
+                    .status(legStatuses[i])
+                    .build());
+        }
+        return persisted;
+    }
+
+    private Transaction transaction(TransactionStatus status) {
+        Transaction transaction = Transaction.builder()
+                .id(10L)
+                .externalReference(REFERENCE)
+                .amount(AMOUNT)
+                .status(status)
+                .payoutGateway(GatewayType.FEEXPAY)
+                .build();
+        lenient().when(transactionRepository.findByExternalReference(REFERENCE)).thenReturn(Optional.of(transaction));
+        return transaction;
+    }
+
+    private OrchestrationResult orchestration(GatewayType... legGateways) {
+        Country[] countries = { Country.SENEGAL, Country.MALI, Country.COTE_DIVOIRE, Country.CONGO_BRAZZAVILLE };
+        int offset = 3 - legGateways.length;
+        List<BridgeLegStrategy> legs = new ArrayList<>();
+        for (int i = 0; i < legGateways.length; i++) {
+            legs.add(BridgeLegStrategy.builder()
+                    .fromCountry(i == 0 ? Country.SENEGAL : countries[i + offset])
+                    .toCountry(countries[i + offset + 1])
+                    .gateway(legGateways[i])
+                    .build());
+        }
+        return OrchestrationResult.builder()
+                .success(true)
+                .sourceCountry(Country.SENEGAL)
+                .destCountry(Country.CONGO_BRAZZAVILLE)
+                .isBridgePayment(true)
+                .strategy(RoutingStrategy.builder()
+                        .type(RoutingStrategyType.BRIDGE)
+                        .bridgeLegs(legs)
+                        .build())
+                .build();
+    }
+
+    private PayoutRequest payoutRequest() {
+        return PayoutRequest.builder()
+                .reference(REFERENCE)
+                .amount(AMOUNT)
+                .recipientPhone("+242060000001")
+                .recipientName("Grace Mabiala")
+                .country(Country.CONGO_BRAZZAVILLE)
+                .build();
+    }
+
+    private static PayoutResponse accepted(PayoutRequest request) {
+        return PayoutResponse.builder()
+                .success(true)
+                .externalReference(null)
+                .transactionReference(request.getReference())
+                .status("PENDING")
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests des percentiles de latence du moniteur de santé
+ */
+@DisplayName("Tests du moniteur de santé des gateways")
+class GatewayHealthMonitorTest {
+
+    private final GatewayHealthMonitor monitor = new GatewayHealthMonitor();
+
+    @Test
+    @DisplayName("Les sondes ne faussent pas les percentiles des appels réels")
+    void shouldKeepProbeLatencySeparate() {
+        for (int i = 0; i < 50; i++) {
+            monitor.recordSuccess(GatewayType.CINETPAY, 800);
+            monitor.recordProbe(GatewayType.CINETPAY, true, 40, null);
+        }
+
+        assertThat(monitor.getLatencyPercentile(GatewayType.CINETPAY, 0.5)).isEqualTo(800);
+        assertThat(monitor.getProbeLatencyPercentile(GatewayType.CINETPAY, 0.95)).isEqualTo(40);
+        assertThat(monitor.getMetrics(GatewayType.CINETPAY).getP95ResponseTimeMs()).isEqualTo(800);
+    }
+}
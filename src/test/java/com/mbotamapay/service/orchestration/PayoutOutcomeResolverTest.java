@@ -0,0 +1,138 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutStatusResponse;
+import com.mbotamapay.service.orchestration.PayoutOutcomeResolver.PayoutOutcome;
+import com.mbotamapay.service.orchestration.PayoutOutcomeResolver.Resolution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de la résolution des payouts à l'issue incertaine
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests de résolution des payouts ambigus")
+class PayoutOutcomeResolverTest {
+
+    private static final String REFERENCE = "TRF-AMBIGUOUS";
+
+    @Mock
+    private PayoutGateway gateway;
+
+    private PayoutOutcomeResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(gateway.getGatewayType()).thenReturn(GatewayType.CINETPAY);
+        resolver = new PayoutOutcomeResolver();
+        ReflectionTestUtils.setField(resolver, "maxChecks", 3);
+        ReflectionTestUtils.setField(resolver, "checkIntervalMs", 10L);
+        ReflectionTestUtils.setField(resolver, "maxWaitMs", 2_000L);
+        ReflectionTestUtils.setField(resolver, "hedgeDelayMs", 200L);
+        ReflectionTestUtils.setField(resolver, "notFoundAsNotExecuted", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resolver.shutdown();
+    }
+
+    @Test
+    @DisplayName("Un payout connu de la gateway est résolu EXECUTED")
+    void shouldResolveExecutedPayout() {
+        when(gateway.checkPayoutStatus(REFERENCE)).thenReturn(PayoutStatusResponse.builder()
+                .success(true).status("PENDING").externalReference("CP-42").build());
+
+        Resolution resolution = resolver.resolve(gateway, REFERENCE, 0);
+
+        assertThat(resolution.outcome()).isEqualTo(PayoutOutcome.EXECUTED);
+        assertThat(resolution.externalReference()).isEqualTo("CP-42");
+    }
+
+    @Test
+    @DisplayName("Un payout refusé est résolu NOT_EXECUTED")
+    void shouldResolveFailedPayout() {
+        when(gateway.checkPayoutStatus(REFERENCE)).thenReturn(PayoutStatusResponse.builder()
+                .success(true).status("FAILED").build());
+
+        assertThat(resolver.resolve(gateway, REFERENCE, 0).outcome()).isEqualTo(PayoutOutcome.NOT_EXECUTED);
+    }
+
+    @Test
+    @DisplayName("Référence inconnue: reste UNKNOWN par défaut (pas de fallback)")
+    void shouldKeepUnknownReferenceUnresolvedByDefault() {
+        when(gateway.checkPayoutStatus(REFERENCE)).thenReturn(notFound());
+
+        Resolution resolution = resolver.resolve(gateway, REFERENCE, 0);
+
+        assertThat(resolution.outcome()).isEqualTo(PayoutOutcome.UNKNOWN);
+        verify(gateway, times(3)).checkPayoutStatus(REFERENCE);
+    }
+
+    @Test
+    @DisplayName("Référence inconnue à chaque vérification: NOT_EXECUTED si activé")
+    void shouldTreatUnknownReferenceAsNotExecutedWhenEnabled() {
+        ReflectionTestUtils.setField(resolver, "notFoundAsNotExecuted", true);
+        when(gateway.checkPayoutStatus(REFERENCE)).thenReturn(notFound());
+
+        assertThat(resolver.resolve(gateway, REFERENCE, 0).outcome()).isEqualTo(PayoutOutcome.NOT_EXECUTED);
+    }
+
+    @Test
+    @DisplayName("Une erreur de la gateway n'est jamais prise pour une référence inconnue")
+    void shouldNotTreatErrorsAsNotFound() {
+        ReflectionTestUtils.setField(resolver, "notFoundAsNotExecuted", true);
+        when(gateway.checkPayoutStatus(REFERENCE)).thenReturn(PayoutStatusResponse.builder()
+                .success(false).message("Compte marchand suspendu").build());
+
+        assertThat(resolver.resolve(gateway, REFERENCE, 0).outcome()).isEqualTo(PayoutOutcome.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Une vérification lente est doublée: la réponse la plus rapide l'emporte")
+    void shouldHedgeSlowStatusCheck() {
+        AtomicInteger calls = new AtomicInteger();
+        when(gateway.checkPayoutStatus(REFERENCE)).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                Thread.sleep(1_500);
+            }
+            return PayoutStatusResponse.builder().success(true).status("COMPLETED").build();
+        });
+
+        long start = System.currentTimeMillis();
+        Resolution resolution = resolver.resolve(gateway, REFERENCE, 0);
+
+        assertThat(resolution.outcome()).isEqualTo(PayoutOutcome.EXECUTED);
+        assertThat(System.currentTimeMillis() - start).isLessThan(1_500);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("La résolution s'arrête à l'échéance du transfert")
+    void shouldStopAtTransferDeadline() {
+        when(gateway.checkPayoutStatus(REFERENCE)).thenReturn(PayoutStatusResponse.builder()
+                .success(true).status("UNKNOWN").build());
+
+        long start = System.currentTimeMillis();
+        Resolution resolution = resolver.resolve(gateway, REFERENCE, start + 50);
+
+        assertThat(resolution.outcome()).isEqualTo(PayoutOutcome.UNKNOWN);
+        assertThat(System.currentTimeMillis() - start).isLessThan(1_000);
+    }
+
+    private static PayoutStatusResponse notFound() {
+        return PayoutStatusResponse.builder().success(false).notFound(true).message("NOT_FOUND").build();
+    }
+}
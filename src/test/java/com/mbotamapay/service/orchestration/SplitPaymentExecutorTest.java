@@ -0,0 +1,206 @@
+package com.mbotamapay.service.orchestration;
+
+import com.mbotamapay.entity.GatewayStock;
+import com.mbotamapay.entity.enums.Country;
+import com.mbotamapay.entity.enums.GatewayType;
+import com.mbotamapay.gateway.GatewayRegistry;
+import com.mbotamapay.gateway.PayoutGateway;
+import com.mbotamapay.gateway.dto.PayoutErrorType;
+import com.mbotamapay.gateway.dto.PayoutRequest;
+import com.mbotamapay.gateway.dto.PayoutResponse;
+import com.mbotamapay.repository.GatewayStockRepository;
+import com.mbotamapay.service.orchestration.SmartPaymentOrchestrator.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du moteur d'exécution des paiements split
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests de l'exécution Split")
+class SplitPaymentExecutorTest {
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private GatewayStockRepository stockRepository;
+
+    @Mock
+    private GatewayHealthMonitor healthMonitor;
+
+    @Mock
+    private PayoutOutcomeResolver outcomeResolver;
+
+    @Mock
+    private PayoutGateway feexPay;
+
+    @Mock
+    private PayoutGateway payTech;
+
+    @Mock
+    private PayoutGateway cinetPay;
+
+    private SplitPaymentExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(feexPay.getGatewayType()).thenReturn(GatewayType.FEEXPAY);
+        lenient().when(payTech.getGatewayType()).thenReturn(GatewayType.PAYTECH);
+        lenient().when(cinetPay.getGatewayType()).thenReturn(GatewayType.CINETPAY);
+        lenient().when(cinetPay.supportsPayoutTo(any())).thenReturn(true);
+        lenient().when(healthMonitor.isAvailable(any())).thenReturn(true);
+        lenient().when(stockReservationService.reserve(any(), any(), anyLong())).thenReturn(true);
+
+        GatewayRegistry gatewayRegistry = new GatewayRegistry(List.of(), List.of(feexPay, payTech, cinetPay));
+        executor = new SplitPaymentExecutor(stockReservationService, stockRepository, healthMonitor,
+                gatewayRegistry, outcomeResolver);
+        ReflectionTestUtils.setField(executor, "maxConcurrencyPerGateway", 4);
+        ReflectionTestUtils.setField(executor, "splitTimeoutMs", 5_000L);
+        ReflectionTestUtils.setField(executor, "maxReallocations", 2);
+        executor.initPermits();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Devrait exécuter toutes les parts et agréger le résultat")
+    void shouldExecuteAllParts() {
+        when(feexPay.initiatePayout(any())).thenReturn(success("FX-1"));
+        when(payTech.initiatePayout(any())).thenReturn(success("PT-1"));
+
+        PayoutExecutionResult result = executor.execute(
+                splitOrchestration(new SplitPart(GatewayType.FEEXPAY, 4_000_000L),
+                        new SplitPart(GatewayType.PAYTECH, 2_000_000L)),
+                payoutRequest(6_000_000L));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getGateway()).isEqualTo(GatewayType.FEEXPAY);
+        assertThat(result.getSplitPartResults()).hasSize(2).allMatch(SplitPartResult::isSuccess);
+        verify(stockReservationService, never()).release(any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Devrait réallouer une part échouée vers une autre gateway")
+    void shouldReallocateFailedPart() {
+        when(feexPay.initiatePayout(any())).thenReturn(success("FX-1"));
+        when(payTech.initiatePayout(any())).thenReturn(PayoutResponse.builder()
+                .success(false).message("Service indisponible").build());
+        when(cinetPay.initiatePayout(any())).thenReturn(success("CP-1"));
+        when(stockRepository.findByCountry(Country.SENEGAL)).thenReturn(List.of(
+                GatewayStock.builder().gateway(GatewayType.CINETPAY).country(Country.SENEGAL)
+                        .balance(10_000_000L).build()));
+
+        PayoutExecutionResult result = executor.execute(
+                splitOrchestration(new SplitPart(GatewayType.FEEXPAY, 4_000_000L),
+                        new SplitPart(GatewayType.PAYTECH, 2_000_000L)),
+                payoutRequest(6_000_000L));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getFailedAttempts()).hasSize(1);
+        assertThat(result.getSplitPartResults().get(1).getGateway()).isEqualTo(GatewayType.CINETPAY);
+        assertThat(result.getSplitPartResults().get(1).getReallocations()).isEqualTo(1);
+        verify(stockReservationService).release(GatewayType.PAYTECH, Country.SENEGAL, 2_000_000L);
+        verify(healthMonitor).recordFailure(eq(GatewayType.PAYTECH), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Devrait conserver la référence envoyée pour chaque part")
+    void shouldKeepPartReferences() {
+        when(feexPay.initiatePayout(any())).thenReturn(success("FX-1"));
+        when(payTech.initiatePayout(any())).thenReturn(PayoutResponse.builder()
+                .success(false).message("Service indisponible").build());
+        when(cinetPay.initiatePayout(any())).thenReturn(success("CP-1"));
+        when(stockRepository.findByCountry(Country.SENEGAL)).thenReturn(List.of(
+                GatewayStock.builder().gateway(GatewayType.CINETPAY).country(Country.SENEGAL)
+                        .balance(10_000_000L).build()));
+
+        PayoutExecutionResult result = executor.execute(
+                splitOrchestration(new SplitPart(GatewayType.FEEXPAY, 4_000_000L),
+                        new SplitPart(GatewayType.PAYTECH, 2_000_000L)),
+                payoutRequest(6_000_000L));
+
+        assertThat(result.getSplitPartResults()).extracting(SplitPartResult::getReference)
+                .containsExactly("MBT-TEST-P1", "MBT-TEST-P2R1");
+    }
+
+    @Test
+    @DisplayName("Devrait remonter le type d'erreur commun des parts en échec")
+    void shouldReportCommonErrorType() {
+        PayoutResponse rejected = PayoutResponse.builder()
+                .success(false).message("INVALID_PHONE_NUMBER").errorType(PayoutErrorType.TERMINAL_RECIPIENT).build();
+        when(feexPay.initiatePayout(any())).thenReturn(rejected);
+        when(payTech.initiatePayout(any())).thenReturn(rejected);
+
+        PayoutExecutionResult result = executor.execute(
+                splitOrchestration(new SplitPart(GatewayType.FEEXPAY, 4_000_000L),
+                        new SplitPart(GatewayType.PAYTECH, 2_000_000L)),
+                payoutRequest(6_000_000L));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getErrorType()).isEqualTo(PayoutErrorType.TERMINAL_RECIPIENT);
+    }
+
+    @Test
+    @DisplayName("Devrait libérer les réservations si une part ne peut pas être réservée")
+    void shouldReleaseReservationsWhenStockMissing() {
+        when(stockReservationService.reserve(GatewayType.PAYTECH, Country.SENEGAL, 2_000_000L)).thenReturn(false);
+        when(stockRepository.findByCountry(Country.SENEGAL)).thenReturn(List.of());
+
+        PayoutExecutionResult result = executor.execute(
+                splitOrchestration(new SplitPart(GatewayType.FEEXPAY, 4_000_000L),
+                        new SplitPart(GatewayType.PAYTECH, 2_000_000L)),
+                payoutRequest(6_000_000L));
+
+        assertThat(result.isSuccess()).isFalse();
+        verify(stockReservationService).release(GatewayType.FEEXPAY, Country.SENEGAL, 4_000_000L);
+        verify(feexPay, never()).initiatePayout(any());
+    }
+
+    private OrchestrationResult splitOrchestration(SplitPart... parts) {
+        return OrchestrationResult.builder()
+                .success(true)
+                .sourceCountry(Country.SENEGAL)
+                .destCountry(Country.SENEGAL)
+                .isSplitPayment(true)
+                .strategy(RoutingStrategy.builder()
+                        .type(RoutingStrategyType.SPLIT)
+                        .splitParts(List.of(parts))
+                        .build())
+                .build();
+    }
+
+    private PayoutRequest payoutRequest(long amount) {
+        return PayoutRequest.builder()
+                .reference("MBT-TEST")
+                .amount(amount)
+                .recipientPhone("+221770000002")
+                .country(Country.SENEGAL)
+                .build();
+    }
+
+    private PayoutResponse success(String externalReference) {
+        return PayoutResponse.builder()
+                .success(true)
+                .externalReference(externalReference)
+                .status("PENDING")
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.mbotamapay.service.velocity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour VelocityScreening
+ */
+class VelocityScreeningTest {
+
+    private VelocityScreening velocityScreening;
+
+    @BeforeEach
+    void setUp() {
+        velocityScreening = new VelocityScreening();
+        ReflectionTestUtils.setField(velocityScreening, "enabled", true);
+        ReflectionTestUtils.setField(velocityScreening, "windowMinutes", 10);
+        ReflectionTestUtils.setField(velocityScreening, "slots", 10);
+        ReflectionTestUtils.setField(velocityScreening, "depth", 4);
+        ReflectionTestUtils.setField(velocityScreening, "width", 1024);
+        ReflectionTestUtils.setField(velocityScreening, "topK", 10);
+        ReflectionTestUtils.setField(velocityScreening, "senderFlag", 5L);
+        ReflectionTestUtils.setField(velocityScreening, "senderBlock", 10L);
+        ReflectionTestUtils.setField(velocityScreening, "recipientFlag", 0L);
+        ReflectionTestUtils.setField(velocityScreening, "recipientBlock", 0L);
+        ReflectionTestUtils.setField(velocityScreening, "pairFlag", 2L);
+        ReflectionTestUtils.setField(velocityScreening, "pairBlock", 3L);
+        velocityScreening.init();
+    }
+
+    @Test
+    @DisplayName("Même couple expéditeur/bénéficiaire: signalé puis bloqué")
+    void shouldBlockRepeatedPair() {
+        assertThat(velocityScreening.screen(1L, "+221770000001").verdict()).isEqualTo(VelocityScreening.Verdict.ALLOW);
+        assertThat(velocityScreening.screen(1L, "+221770000001").verdict()).isEqualTo(VelocityScreening.Verdict.ALLOW);
+        assertThat(velocityScreening.screen(1L, "00221 77 000 00 01").verdict()).isEqualTo(VelocityScreening.Verdict.FLAG);
+
+        VelocityScreening.Result result = velocityScreening.screen(1L, "+221770000001");
+
+        assertThat(result.verdict()).isEqualTo(VelocityScreening.Verdict.BLOCK);
+        assertThat(result.dimension()).isEqualTo(VelocityScreening.Dimension.PAIR);
+        assertThat(result.count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Expéditeur vers des bénéficiaires différents: signalé sur l'expéditeur")
+    void shouldFlagSenderBurst() {
+        VelocityScreening.Result result = null;
+        for (int i = 0; i < 6; i++) {
+            result = velocityScreening.screen(2L, "+22177000010" + i);
+        }
+
+        assertThat(result.verdict()).isEqualTo(VelocityScreening.Verdict.FLAG);
+        assertThat(result.dimension()).isEqualTo(VelocityScreening.Dimension.SENDER);
+        assertThat(velocityScreening.getHeavyHitters(5).get(VelocityScreening.Dimension.SENDER))
+                .extracting(VelocityScreening.HeavyHitter::key)
+                .containsExactly("2");
+    }
+
+    @Test
+    @DisplayName("Les autres expéditeurs ne sont pas affectés")
+    void shouldKeepKeysIndependent() {
+        for (int i = 0; i < 10; i++) {
+            velocityScreening.screen(3L, "+221770000200");
+        }
+
+        assertThat(velocityScreening.screen(4L, "+221770000300").verdict()).isEqualTo(VelocityScreening.Verdict.ALLOW);
+        assertThat(velocityScreening.getHeavyHitters(5).get(VelocityScreening.Dimension.RECIPIENT)).isEqualTo(List.of());
+    }
+}